@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Task;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.execution.taskgraph.TaskDurationHistory;
+import org.gradle.internal.Factory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.LONG_SERIALIZER;
+
+public class CacheBackedTaskDurationHistory implements TaskDurationHistory {
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final PersistentIndexedCache<String, Long> durationCache;
+    private final ConcurrentMap<String, Long> recordedDurations = new ConcurrentHashMap<String, Long>();
+
+    public CacheBackedTaskDurationHistory(TaskArtifactStateCacheAccess cacheAccess) {
+        this.cacheAccess = cacheAccess;
+        this.durationCache = cacheAccess.createCache("taskDurations", String.class, LONG_SERIALIZER);
+    }
+
+    public Map<Task, Long> getDurations(final Collection<? extends Task> tasks) {
+        return cacheAccess.useCache("Load task durations", new Factory<Map<Task, Long>>() {
+            public Map<Task, Long> create() {
+                Map<Task, Long> durations = new HashMap<Task, Long>();
+                for (Task task : tasks) {
+                    Long duration = durationCache.get(task.getPath());
+                    if (duration != null) {
+                        durations.put(task, duration);
+                    }
+                }
+                return durations;
+            }
+        });
+    }
+
+    public void recordDuration(Task task, long durationMillis) {
+        recordedDurations.put(task.getPath(), durationMillis);
+    }
+
+    public void flush() {
+        if (recordedDurations.isEmpty()) {
+            return;
+        }
+        final Map<String, Long> durations = new HashMap<String, Long>(recordedDurations);
+        for (Map.Entry<String, Long> entry : durations.entrySet()) {
+            recordedDurations.remove(entry.getKey(), entry.getValue());
+        }
+        cacheAccess.useCache("Update task durations", new Runnable() {
+            public void run() {
+                for (Map.Entry<String, Long> entry : durations.entrySet()) {
+                    durationCache.put(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
+}
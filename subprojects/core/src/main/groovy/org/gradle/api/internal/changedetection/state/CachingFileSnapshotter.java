@@ -15,13 +15,19 @@
  */
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.Action;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.hash.Hasher;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentStore;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resource.TextResource;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
@@ -29,16 +35,29 @@ import org.gradle.internal.serialize.HashValueSerializer;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class CachingFileSnapshotter implements FileSnapshotter {
+    private static final int BATCH_SIZE = 100;
     private final PersistentIndexedCache<String, FileInfo> cache;
     private final Hasher hasher;
     private final StringInterner stringInterner;
+    private final BuildOperationProcessor buildOperationProcessor;
 
     public CachingFileSnapshotter(Hasher hasher, PersistentStore store, StringInterner stringInterner) {
+        this(hasher, store, stringInterner, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor to use to read file metadata and hash file content in parallel, when snapshotting multiple files. May be null, in which case files are snapshotted on the calling thread.
+     */
+    public CachingFileSnapshotter(Hasher hasher, PersistentStore store, StringInterner stringInterner, BuildOperationProcessor buildOperationProcessor) {
         this.hasher = hasher;
         this.cache = store.createCache("fileHashes", String.class, new FileInfoSerializer());
         this.stringInterner = stringInterner;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     @Override
@@ -61,6 +80,11 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         return snapshot(file).getHash();
     }
 
+    @Override
+    public String getAlgorithm() {
+        return hasher.getAlgorithm();
+    }
+
     public FileInfo snapshot(File file) {
         return snapshot(file, file.length(), file.lastModified());
     }
@@ -69,6 +93,101 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         return snapshot(file.getFile(), file.getSize(), file.getLastModified());
     }
 
+    @Override
+    public List<FileSnapshot> snapshotAll(List<? extends FileTreeElement> files) {
+        if (buildOperationProcessor == null || files.size() <= BATCH_SIZE) {
+            List<FileSnapshot> snapshots = new ArrayList<FileSnapshot>(files.size());
+            for (FileTreeElement file : files) {
+                snapshots.add(snapshot(file));
+            }
+            return snapshots;
+        }
+
+        // Read the file metadata in parallel
+        final FileTreeElement[] elements = files.toArray(new FileTreeElement[0]);
+        final long[] lengths = new long[elements.length];
+        final long[] timestamps = new long[elements.length];
+        runInBatches(elements.length, new BatchAction() {
+            public void execute(int index) {
+                lengths[index] = elements[index].getSize();
+                timestamps[index] = elements[index].getLastModified();
+            }
+        });
+
+        // Look up the cached hashes on this thread, as it owns the cache
+        final FileSnapshot[] snapshots = new FileSnapshot[elements.length];
+        final String[] absolutePaths = new String[elements.length];
+        final List<Integer> changed = new ArrayList<Integer>();
+        for (int i = 0; i < elements.length; i++) {
+            absolutePaths[i] = elements[i].getFile().getAbsolutePath();
+            FileInfo info = cache.get(absolutePaths[i]);
+            if (info != null && lengths[i] == info.length && timestamps[i] == info.timestamp) {
+                snapshots[i] = info;
+            } else {
+                changed.add(i);
+            }
+        }
+
+        // Hash the changed files in parallel
+        final HashValue[] hashes = new HashValue[changed.size()];
+        runInBatches(hashes.length, new BatchAction() {
+            public void execute(int index) {
+                hashes[index] = hasher.hash(elements[changed.get(index)].getFile());
+            }
+        });
+        for (int i = 0; i < hashes.length; i++) {
+            int index = changed.get(i);
+            FileInfo info = new FileInfo(hashes[i], lengths[index], timestamps[index]);
+            cache.put(stringInterner.intern(absolutePaths[index]), info);
+            snapshots[index] = info;
+        }
+        return Arrays.asList(snapshots);
+    }
+
+    private void runInBatches(final int count, final BatchAction action) {
+        if (count == 0) {
+            return;
+        }
+        try {
+            buildOperationProcessor.run(new Action<BuildOperationQueue<SnapshotBatch>>() {
+                public void execute(BuildOperationQueue<SnapshotBatch> queue) {
+                    for (int start = 0; start < count; start += BATCH_SIZE) {
+                        queue.add(new SnapshotBatch(start, Math.min(start + BATCH_SIZE, count), action));
+                    }
+                }
+            });
+        } catch (MultipleBuildOperationFailures e) {
+            // Rethrow the failure as it would have been thrown when snapshotting on the calling thread
+            throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+        }
+    }
+
+    private interface BatchAction {
+        void execute(int index);
+    }
+
+    private static class SnapshotBatch implements RunnableBuildOperation {
+        private final int start;
+        private final int end;
+        private final BatchAction action;
+
+        SnapshotBatch(int start, int end, BatchAction action) {
+            this.start = start;
+            this.end = end;
+            this.action = action;
+        }
+
+        public String getDescription() {
+            return "snapshotting files " + start + " to " + end;
+        }
+
+        public void run() {
+            for (int i = start; i < end; i++) {
+                action.execute(i);
+            }
+        }
+    }
+
     private FileInfo snapshot(File file, long length, long timestamp) {
         String absolutePath = file.getAbsolutePath();
         FileInfo info = cache.get(absolutePath);
@@ -97,6 +216,14 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         public HashValue getHash() {
             return hash;
         }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
     }
 
     private static class FileInfoSerializer implements Serializer<FileInfo> {
@@ -104,7 +104,10 @@ public class CachingTreeVisitor {
         return directoryFileTree.getPatterns().isEmpty();
     }
 
-    private boolean isDirectoryFileTree(FileTreeInternal fileTree) {
+    /**
+     * Returns true when the given tree is a directory tree, which can be visited on any thread.
+     */
+    public boolean isDirectoryFileTree(FileTreeInternal fileTree) {
         return fileTree instanceof FileTreeAdapter && ((FileTreeAdapter) fileTree).getTree() instanceof DirectoryFileTree;
     }
 
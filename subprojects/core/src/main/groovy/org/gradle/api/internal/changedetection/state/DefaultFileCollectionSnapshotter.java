@@ -16,25 +16,47 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.api.Action;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.file.collections.DefaultFileCollectionResolveContext;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.serialize.SerializerRegistry;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
 public class DefaultFileCollectionSnapshotter extends AbstractFileCollectionSnapshotter {
+    /**
+     * When set to true, directory trees are visited and files are hashed in parallel when snapshotting.
+     */
+    public static final String PARALLEL_SNAPSHOTTING_TOGGLE = "org.gradle.parallel.snapshotting";
+
     private final CachingTreeVisitor treeVisitor;
     private final TreeSnapshotRepository treeSnapshotRepository;
+    private final BuildOperationProcessor buildOperationProcessor;
 
     public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner, FileResolver fileResolver, CachingTreeVisitor treeVisitor, TreeSnapshotRepository treeSnapshotRepository) {
+        this(snapshotter, cacheAccess, stringInterner, fileResolver, treeVisitor, treeSnapshotRepository, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor to use to visit directory trees in parallel. May be null, in which case trees are visited on the calling thread.
+     */
+    public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner, FileResolver fileResolver, CachingTreeVisitor treeVisitor, TreeSnapshotRepository treeSnapshotRepository,
+                                            BuildOperationProcessor buildOperationProcessor) {
         super(snapshotter, cacheAccess, stringInterner, fileResolver);
         this.treeVisitor = treeVisitor;
         this.treeSnapshotRepository = treeSnapshotRepository;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     public void registerSerializers(SerializerRegistry registry) {
@@ -52,10 +74,62 @@ public class DefaultFileCollectionSnapshotter extends AbstractFileCollectionSnap
         context.add(input);
         List<FileTreeInternal> fileTrees = context.resolveAsFileTrees();
 
+        if (buildOperationProcessor != null && fileTrees.size() > 1) {
+            visitedTrees.addAll(visitTreesInParallel(fileTrees, allowReuse));
+            return;
+        }
         for (FileTreeInternal fileTree : fileTrees) {
             visitedTrees.add(treeVisitor.visitTreeForSnapshotting(fileTree, allowReuse));
         }
     }
 
+    /**
+     * Visits the directory trees using the build operation processor, and the remaining trees on this thread. The results are in the same order as the given trees.
+     */
+    private List<VisitedTree> visitTreesInParallel(final List<FileTreeInternal> fileTrees, final boolean allowReuse) {
+        final VisitedTree[] results = new VisitedTree[fileTrees.size()];
+        try {
+            buildOperationProcessor.run(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                    for (int i = 0; i < results.length; i++) {
+                        FileTreeInternal fileTree = fileTrees.get(i);
+                        if (treeVisitor.isDirectoryFileTree(fileTree)) {
+                            queue.add(new VisitTreeOperation(fileTree, allowReuse, results, i));
+                        }
+                    }
+                    for (int i = 0; i < results.length; i++) {
+                        FileTreeInternal fileTree = fileTrees.get(i);
+                        if (!treeVisitor.isDirectoryFileTree(fileTree)) {
+                            results[i] = treeVisitor.visitTreeForSnapshotting(fileTree, allowReuse);
+                        }
+                    }
+                }
+            });
+        } catch (MultipleBuildOperationFailures e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+        }
+        return Arrays.asList(results);
+    }
+
+    private class VisitTreeOperation implements RunnableBuildOperation {
+        private final FileTreeInternal fileTree;
+        private final boolean allowReuse;
+        private final VisitedTree[] results;
+        private final int index;
 
+        VisitTreeOperation(FileTreeInternal fileTree, boolean allowReuse, VisitedTree[] results, int index) {
+            this.fileTree = fileTree;
+            this.allowReuse = allowReuse;
+            this.results = results;
+            this.index = index;
+        }
+
+        public String getDescription() {
+            return "visiting " + fileTree;
+        }
+
+        public void run() {
+            results[index] = treeVisitor.visitTreeForSnapshotting(fileTree, allowReuse);
+        }
+    }
 }
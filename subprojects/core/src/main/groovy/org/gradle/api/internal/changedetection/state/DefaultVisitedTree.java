@@ -18,13 +18,14 @@ package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.Action;
-import org.gradle.api.Transformer;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
-import org.gradle.util.CollectionUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 class DefaultVisitedTree implements VisitedTree {
     private final ImmutableList<FileTreeElement> entries;
@@ -47,19 +48,24 @@ class DefaultVisitedTree implements VisitedTree {
 
     @Override
     public TreeSnapshot maybeCreateSnapshot(final FileSnapshotter fileSnapshotter, final StringInterner stringInterner) {
-        final Collection<FileSnapshotWithKey> fileSnapshots = CollectionUtils.collect(entries, new Transformer<FileSnapshotWithKey, FileTreeElement>() {
-            @Override
-            public FileSnapshotWithKey transform(FileTreeElement fileTreeElement) {
-                String absolutePath = getInternedAbsolutePath(fileTreeElement.getFile(), stringInterner);
-                IncrementalFileSnapshot incrementalFileSnapshot;
-                if (fileTreeElement.isDirectory()) {
-                    incrementalFileSnapshot = DirSnapshot.getInstance();
-                } else {
-                    incrementalFileSnapshot = new FileHashSnapshot(fileSnapshotter.snapshot(fileTreeElement).getHash(), fileTreeElement.getLastModified());
-                }
-                return new FileSnapshotWithKey(absolutePath, incrementalFileSnapshot);
+        List<FileTreeElement> files = new ArrayList<FileTreeElement>();
+        for (FileTreeElement fileTreeElement : entries) {
+            if (!fileTreeElement.isDirectory()) {
+                files.add(fileTreeElement);
             }
-        });
+        }
+        Iterator<FileSnapshot> contentSnapshots = fileSnapshotter.snapshotAll(files).iterator();
+        final Collection<FileSnapshotWithKey> fileSnapshots = new ArrayList<FileSnapshotWithKey>(entries.size());
+        for (FileTreeElement fileTreeElement : entries) {
+            String absolutePath = getInternedAbsolutePath(fileTreeElement.getFile(), stringInterner);
+            IncrementalFileSnapshot incrementalFileSnapshot;
+            if (fileTreeElement.isDirectory()) {
+                incrementalFileSnapshot = DirSnapshot.getInstance();
+            } else {
+                incrementalFileSnapshot = new FileHashSnapshot(contentSnapshots.next().getHash(), fileTreeElement.getLastModified());
+            }
+            fileSnapshots.add(new FileSnapshotWithKey(absolutePath, incrementalFileSnapshot));
+        }
         if (missingFiles != null) {
             for (File file : missingFiles) {
                 fileSnapshots.add(new FileSnapshotWithKey(getInternedAbsolutePath(file, stringInterner), MissingFileSnapshot.getInstance()));
@@ -25,6 +25,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.CacheDecorator;
 import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.MultiProcessSafePersistentIndexedCache;
+import org.gradle.internal.Cast;
 
 import java.io.File;
 import java.util.HashMap;
@@ -46,6 +47,7 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             DEFAULT_CAP_SIZES.put("treeSnapshots", 20000);
             DEFAULT_CAP_SIZES.put("treeSnapshotUsage", 20000);
             DEFAULT_CAP_SIZES.put("taskArtifacts", 2000);
+            DEFAULT_CAP_SIZES.put("taskDurations", 10000);
             DEFAULT_CAP_SIZES.put("fileHashes", 400000);
             DEFAULT_CAP_SIZES.put("compilationState", 1000);
         }
@@ -70,14 +72,26 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
     }
 
 
+    /**
+     * When set to true, the in-memory copy of the file hashes cache is kept in a {@link PackedFileInfoStore}.
+     */
+    public static final String PACKED_FILE_HASHES_TOGGLE = "org.gradle.cache.packedFileHashes";
+    private static final String FILE_HASHES_CACHE = "fileHashes";
+
     private final Object lock = new Object();
     private final Cache<String, Cache<Object, Object>> cache = CacheBuilder.newBuilder()
             .maximumSize(CACHE_CAPS.size() * 2) //X2 to factor in a child build (for example buildSrc)
             .build();
+    private final Cache<String, PackedFileInfoStore> packedCache = CacheBuilder.newBuilder()
+            .maximumSize(2) //X2 to factor in a child build (for example buildSrc)
+            .build();
 
     private final Map<String, FileLock.State> states = new HashMap<String, FileLock.State>();
 
     public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(final String cacheId, String cacheName, final MultiProcessSafePersistentIndexedCache<K, V> original) {
+        if (cacheName.equals(FILE_HASHES_CACHE) && Boolean.getBoolean(PACKED_FILE_HASHES_TOGGLE)) {
+            return Cast.uncheckedCast(decorateFileHashes(cacheId, Cast.<MultiProcessSafePersistentIndexedCache<String, CachingFileSnapshotter.FileInfo>>uncheckedCast(original)));
+        }
         final Cache<Object, Object> data = loadData(cacheId, cacheName);
 
         return new MultiProcessSafePersistentIndexedCache<K, V>() {
@@ -130,6 +144,73 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         };
     }
 
+    private MultiProcessSafePersistentIndexedCache<String, CachingFileSnapshotter.FileInfo> decorateFileHashes(final String cacheId, final MultiProcessSafePersistentIndexedCache<String, CachingFileSnapshotter.FileInfo> original) {
+        final PackedFileInfoStore data = loadFileHashes(cacheId);
+
+        return new MultiProcessSafePersistentIndexedCache<String, CachingFileSnapshotter.FileInfo>() {
+            public void close() {
+                original.close();
+            }
+
+            public CachingFileSnapshotter.FileInfo get(String key) {
+                CachingFileSnapshotter.FileInfo value = data.get(key);
+                if (value != null) {
+                    return value;
+                }
+                CachingFileSnapshotter.FileInfo out = original.get(key);
+                if (out != null) {
+                    data.put(key, out);
+                }
+                return out;
+            }
+
+            public void put(String key, CachingFileSnapshotter.FileInfo value) {
+                original.put(key, value);
+                data.put(key, value);
+            }
+
+            public void remove(String key) {
+                data.remove(key);
+                original.remove(key);
+            }
+
+            public void onStartWork(String operationDisplayName, FileLock.State currentCacheState) {
+                boolean outOfDate;
+                synchronized (lock) {
+                    FileLock.State previousState = states.get(cacheId);
+                    outOfDate = previousState == null || currentCacheState.hasBeenUpdatedSince(previousState);
+                }
+
+                if (outOfDate) {
+                    LOG.info("Invalidating in-memory cache of {}", cacheId);
+                    data.clear();
+                }
+            }
+
+            public void onEndWork(FileLock.State currentCacheState) {
+                synchronized (lock) {
+                    states.put(cacheId, currentCacheState);
+                }
+            }
+        };
+    }
+
+    private PackedFileInfoStore loadFileHashes(String cacheId) {
+        PackedFileInfoStore theData;
+        synchronized (lock) {
+            theData = packedCache.getIfPresent(cacheId);
+            if (theData != null) {
+                LOG.info("In-memory cache of {}: Size{{}}, Evictions{{}}", cacheId, theData.size(), theData.getEvictionCount());
+            } else {
+                Integer maxSize = CACHE_CAPS.get(FILE_HASHES_CACHE);
+                LOG.info("Creating In-memory cache of {}: MaxSize{{}}", cacheId, maxSize);
+                theData = new PackedFileInfoStore(maxSize);
+                packedCache.put(cacheId, theData);
+            }
+        }
+        return theData;
+    }
+
     private Cache<Object, Object> loadData(String cacheId, String cacheName) {
         Cache<Object, Object> theData;
         synchronized (lock) {
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.internal.hash.HashValue;
+
+import java.math.BigInteger;
+
+/**
+ * An in-memory store of {@link CachingFileSnapshotter.FileInfo} values keyed by absolute path, which keeps its entries in packed primitive arrays
+ * rather than as objects. The paths are stored once each in a shared arena, using one byte per character for paths that only contain ISO-8859-1
+ * characters. Uses far less heap than a map of objects, at the cost of creating a new {@code FileInfo} on each lookup.
+ *
+ * <p>Holds at most the given number of entries, evicting entries using the clock algorithm when full. Only hashes of up to 128 bits are stored,
+ * other values are ignored.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+class PackedFileInfoStore {
+    private static final int INITIAL_ENTRIES = 1024;
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private final int maxEntries;
+    private int count;
+    private int clockHand;
+    private long evictions;
+
+    // Open addressing hash table with linear probing, each slot holds entry index + 1, or 0 when empty
+    private int[] table;
+    private int mask;
+
+    // Entries
+    private int[] pathHashes;
+    private int[] pathOffsets;
+    private int[] pathLengths;
+    private long[] lengths;
+    private long[] timestamps;
+    private long[] hashesHigh;
+    private long[] hashesLow;
+    private boolean[] referenced;
+
+    // Paths, as chunks of bytes. Offsets are chunk index * CHUNK_SIZE + offset in chunk. Lengths are in characters, negative for paths stored
+    // using two bytes per character
+    private byte[][] chunks;
+    private int chunkCount;
+    private int chunkPos;
+    private long arenaSize;
+    private long arenaGarbage;
+
+    PackedFileInfoStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+        clear();
+    }
+
+    public synchronized CachingFileSnapshotter.FileInfo get(String path) {
+        int slot = findSlot(path, hash(path));
+        int entry = table[slot] - 1;
+        if (entry < 0) {
+            return null;
+        }
+        referenced[entry] = true;
+        byte[] hash = new byte[16];
+        putLong(hash, 0, hashesHigh[entry]);
+        putLong(hash, 8, hashesLow[entry]);
+        return new CachingFileSnapshotter.FileInfo(new HashValue(hash), lengths[entry], timestamps[entry]);
+    }
+
+    public synchronized void put(String path, CachingFileSnapshotter.FileInfo value) {
+        BigInteger hash = value.getHash().asBigInteger();
+        int pathHash = hash(path);
+        int slot = findSlot(path, pathHash);
+        int entry = table[slot] - 1;
+        if (hash.bitLength() > 128 || path.length() * 2 > CHUNK_SIZE) {
+            if (entry >= 0) {
+                removeAt(slot);
+            }
+            return;
+        }
+        if (entry < 0) {
+            if (count == maxEntries) {
+                evict();
+                slot = findSlot(path, pathHash);
+            } else if (count == pathHashes.length) {
+                growEntries();
+            }
+            if (count * 2 >= table.length) {
+                growTable();
+                slot = findSlot(path, pathHash);
+            }
+            entry = count++;
+            pathHashes[entry] = pathHash;
+            storePath(entry, path);
+            table[slot] = entry + 1;
+        }
+        lengths[entry] = value.getLength();
+        timestamps[entry] = value.getTimestamp();
+        hashesHigh[entry] = hash.shiftRight(64).longValue();
+        hashesLow[entry] = hash.longValue();
+        referenced[entry] = true;
+    }
+
+    public synchronized void remove(String path) {
+        int slot = findSlot(path, hash(path));
+        if (table[slot] != 0) {
+            removeAt(slot);
+        }
+    }
+
+    public synchronized void clear() {
+        count = 0;
+        clockHand = 0;
+        table = new int[INITIAL_ENTRIES * 2];
+        mask = table.length - 1;
+        allocateEntries(Math.min(INITIAL_ENTRIES, maxEntries));
+        chunks = new byte[1][];
+        chunks[0] = new byte[CHUNK_SIZE];
+        chunkCount = 1;
+        chunkPos = 0;
+        arenaSize = 0;
+        arenaGarbage = 0;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    private static int hash(String path) {
+        int h = path.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot holding the given path, or the empty slot where it should be inserted.
+     */
+    private int findSlot(String path, int pathHash) {
+        int slot = pathHash & mask;
+        while (true) {
+            int entry = table[slot] - 1;
+            if (entry < 0 || (pathHashes[entry] == pathHash && pathEquals(entry, path))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int findSlot(int entry) {
+        int slot = pathHashes[entry] & mask;
+        while (table[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean pathEquals(int entry, String path) {
+        int length = pathLengths[entry];
+        byte[] chunk = chunks[pathOffsets[entry] / CHUNK_SIZE];
+        int offset = pathOffsets[entry] % CHUNK_SIZE;
+        if (length >= 0) {
+            if (length != path.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if ((chunk[offset + i] & 0xff) != path.charAt(i)) {
+                    return false;
+                }
+            }
+        } else {
+            if (-length != path.length()) {
+                return false;
+            }
+            for (int i = 0; i < -length; i++) {
+                char ch = (char) (((chunk[offset + 2 * i] & 0xff) << 8) | (chunk[offset + 2 * i + 1] & 0xff));
+                if (ch != path.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int byteCount(int pathLength) {
+        return pathLength >= 0 ? pathLength : -pathLength * 2;
+    }
+
+    private void evict() {
+        while (true) {
+            if (clockHand >= count) {
+                clockHand = 0;
+            }
+            if (referenced[clockHand]) {
+                referenced[clockHand] = false;
+                clockHand++;
+            } else {
+                removeAt(findSlot(clockHand));
+                evictions++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry in the given slot. Moves the last entry into the position of the removed entry to keep the entries dense, and shifts back
+     * the following slots of the probe sequence.
+     */
+    private void removeAt(int slot) {
+        int entry = table[slot] - 1;
+        arenaGarbage += byteCount(pathLengths[entry]);
+        int last = count - 1;
+        if (entry != last) {
+            table[findSlot(last)] = entry + 1;
+            pathHashes[entry] = pathHashes[last];
+            pathOffsets[entry] = pathOffsets[last];
+            pathLengths[entry] = pathLengths[last];
+            lengths[entry] = lengths[last];
+            timestamps[entry] = timestamps[last];
+            hashesHigh[entry] = hashesHigh[last];
+            hashesLow[entry] = hashesLow[last];
+            referenced[entry] = referenced[last];
+        }
+        count--;
+
+        int free = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int ideal = pathHashes[table[next] - 1] & mask;
+            boolean canMove = next > free ? (ideal <= free || ideal > next) : (ideal <= free && ideal > next);
+            if (canMove) {
+                table[free] = table[next];
+                free = next;
+            }
+        }
+        table[free] = 0;
+
+        if (arenaGarbage > CHUNK_SIZE && arenaGarbage > arenaSize / 2) {
+            compactArena();
+        }
+    }
+
+    private void storePath(int entry, String path) {
+        int length = path.length();
+        boolean narrow = true;
+        for (int i = 0; i < length && narrow; i++) {
+            narrow = path.charAt(i) <= 0xff;
+        }
+        int byteCount = narrow ? length : length * 2;
+        byte[] chunk = allocate(byteCount);
+        pathOffsets[entry] = (chunkCount - 1) * CHUNK_SIZE + chunkPos;
+        pathLengths[entry] = narrow ? length : -length;
+        for (int i = 0; i < length; i++) {
+            char ch = path.charAt(i);
+            if (narrow) {
+                chunk[chunkPos + i] = (byte) ch;
+            } else {
+                chunk[chunkPos + 2 * i] = (byte) (ch >> 8);
+                chunk[chunkPos + 2 * i + 1] = (byte) ch;
+            }
+        }
+        chunkPos += byteCount;
+        arenaSize += byteCount;
+    }
+
+    /**
+     * Returns the chunk with room for the given number of bytes at {@link #chunkPos}, adding a chunk when the current one is full.
+     */
+    private byte[] allocate(int byteCount) {
+        if (chunkPos + byteCount > CHUNK_SIZE) {
+            if (chunkCount == chunks.length) {
+                byte[][] newChunks = new byte[chunks.length * 2][];
+                System.arraycopy(chunks, 0, newChunks, 0, chunkCount);
+                chunks = newChunks;
+            }
+            chunks[chunkCount++] = new byte[CHUNK_SIZE];
+            chunkPos = 0;
+        }
+        return chunks[chunkCount - 1];
+    }
+
+    private void compactArena() {
+        byte[][] oldChunks = chunks;
+        chunks = new byte[1][];
+        chunks[0] = new byte[CHUNK_SIZE];
+        chunkCount = 1;
+        chunkPos = 0;
+        arenaSize = 0;
+        arenaGarbage = 0;
+        for (int entry = 0; entry < count; entry++) {
+            int byteCount = byteCount(pathLengths[entry]);
+            byte[] chunk = allocate(byteCount);
+            System.arraycopy(oldChunks[pathOffsets[entry] / CHUNK_SIZE], pathOffsets[entry] % CHUNK_SIZE, chunk, chunkPos, byteCount);
+            pathOffsets[entry] = (chunkCount - 1) * CHUNK_SIZE + chunkPos;
+            chunkPos += byteCount;
+            arenaSize += byteCount;
+        }
+    }
+
+    private void growTable() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int entry = 0; entry < count; entry++) {
+            int slot = pathHashes[entry] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry + 1;
+        }
+    }
+
+    private void growEntries() {
+        int[] oldPathHashes = pathHashes;
+        int[] oldPathOffsets = pathOffsets;
+        int[] oldPathLengths = pathLengths;
+        long[] oldLengths = lengths;
+        long[] oldTimestamps = timestamps;
+        long[] oldHashesHigh = hashesHigh;
+        long[] oldHashesLow = hashesLow;
+        boolean[] oldReferenced = referenced;
+        allocateEntries((int) Math.min((long) pathHashes.length * 2, maxEntries));
+        System.arraycopy(oldPathHashes, 0, pathHashes, 0, count);
+        System.arraycopy(oldPathOffsets, 0, pathOffsets, 0, count);
+        System.arraycopy(oldPathLengths, 0, pathLengths, 0, count);
+        System.arraycopy(oldLengths, 0, lengths, 0, count);
+        System.arraycopy(oldTimestamps, 0, timestamps, 0, count);
+        System.arraycopy(oldHashesHigh, 0, hashesHigh, 0, count);
+        System.arraycopy(oldHashesLow, 0, hashesLow, 0, count);
+        System.arraycopy(oldReferenced, 0, referenced, 0, count);
+    }
+
+    private void allocateEntries(int size) {
+        pathHashes = new int[size];
+        pathOffsets = new int[size];
+        pathLengths = new int[size];
+        lengths = new long[size];
+        timestamps = new long[size];
+        hashesHigh = new long[size];
+        hashesLow = new long[size];
+        referenced = new boolean[size];
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -21,4 +21,9 @@ import java.io.File;
 
 public interface Hasher {
     HashValue hash(File file);
+
+    /**
+     * Returns the name of the algorithm used to hash file content. Hashes produced by hashers with different algorithms are not comparable.
+     */
+    String getAlgorithm();
 }
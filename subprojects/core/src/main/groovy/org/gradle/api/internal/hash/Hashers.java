@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.hash;
+
+public class Hashers {
+    /**
+     * When set to true, file content is hashed using {@link Murmur3Hasher} instead of MD5.
+     */
+    public static final String FAST_HASHING_TOGGLE = "org.gradle.hashing.fast";
+
+    private Hashers() {
+    }
+
+    /**
+     * Creates the hasher to use for file snapshots.
+     */
+    public static Hasher createFileHasher() {
+        if (Boolean.getBoolean(FAST_HASHING_TOGGLE)) {
+            return new Murmur3Hasher();
+        }
+        return new DefaultHasher();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.hash;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Hashes file content using the 128-bit x64 variant of MurmurHash3. This is much cheaper to calculate than a cryptographic digest, and is
+ * good enough to detect changes to file content. The produced bytes are the same as Guava's {@code Hashing.murmur3_128()}.
+ */
+public class Murmur3Hasher implements Hasher {
+    public static final String ALGORITHM = "MURMUR3-128";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    };
+
+    public HashValue hash(File file) {
+        try {
+            FileInputStream inputStream = new FileInputStream(file);
+            try {
+                return hash(inputStream.getChannel());
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Failed to create %s hash for file %s.", ALGORITHM, file.getAbsolutePath()), e);
+        }
+    }
+
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    private HashValue hash(FileChannel channel) throws IOException {
+        ByteBuffer buffer = buffers.get();
+        buffer.clear();
+        long h1 = 0;
+        long h2 = 0;
+        long length = 0;
+        while (true) {
+            int nread = channel.read(buffer);
+            if (nread < 0) {
+                break;
+            }
+            length += nread;
+            buffer.flip();
+            while (buffer.remaining() >= 16) {
+                long k1 = buffer.getLong();
+                long k2 = buffer.getLong();
+
+                h1 ^= mixK1(k1);
+                h1 = Long.rotateLeft(h1, 27);
+                h1 += h2;
+                h1 = h1 * 5 + 0x52dce729;
+
+                h2 ^= mixK2(k2);
+                h2 = Long.rotateLeft(h2, 31);
+                h2 += h1;
+                h2 = h2 * 5 + 0x38495ab5;
+            }
+            buffer.compact();
+        }
+
+        // Remaining bytes
+        buffer.flip();
+        long k1 = 0;
+        long k2 = 0;
+        int remaining = buffer.remaining();
+        for (int i = remaining - 1; i >= 8; i--) {
+            k2 = (k2 << 8) | (buffer.get(i) & 0xffL);
+        }
+        for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+            k1 = (k1 << 8) | (buffer.get(i) & 0xffL);
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        // Finalize
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        byte[] bytes = new byte[16];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(h1).putLong(h2);
+        return new HashValue(bytes);
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -27,22 +27,28 @@ import java.util.Map;
 
 public class DefaultExtraPropertiesExtension extends GroovyObjectSupport implements ExtraPropertiesExtension {
 
+    // Access under lock, as the properties of a project are visible to its child projects, which may be configured in parallel
     private final Map<String, Object> storage = new HashMap<String, Object>();
 
     public boolean has(String name) {
-        return storage.containsKey(name);
+        synchronized (storage) {
+            return storage.containsKey(name);
+        }
     }
 
     public Object get(String name) {
-        if (storage.containsKey(name)) {
-            return storage.get(name);
-        } else {
-            throw new UnknownPropertyException(this, name);
+        synchronized (storage) {
+            if (storage.containsKey(name)) {
+                return storage.get(name);
+            }
         }
+        throw new UnknownPropertyException(this, name);
     }
 
     public void set(String name, Object value) {
-        storage.put(name, value);
+        synchronized (storage) {
+            storage.put(name, value);
+        }
     }
 
     public Object getProperty(String name) {
@@ -65,11 +71,16 @@ public class DefaultExtraPropertiesExtension extends GroovyObjectSupport impleme
     }
 
     public Map<String, Object> getProperties() {
-        return new HashMap<String, Object>(storage);
+        synchronized (storage) {
+            return new HashMap<String, Object>(storage);
+        }
     }
 
     public Object methodMissing(String name, Object args) {
-        Object item = storage.get(name);
+        Object item;
+        synchronized (storage) {
+            item = storage.get(name);
+        }
         if (item != null && item instanceof Closure) {
             Closure closure = (Closure) item;
             return closure.call((Object[]) args);
@@ -21,6 +21,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheOpenException;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.cache.internal.btree.MappedFileBlockStore;
 import org.gradle.cache.internal.cacheops.CacheAccessOperationsStack;
 import org.gradle.cache.internal.filelock.LockOptions;
 import org.gradle.internal.Factories;
@@ -44,6 +45,11 @@ public class DefaultCacheAccess implements CacheCoordinator {
 
     private final static Logger LOG = Logging.getLogger(DefaultCacheAccess.class);
 
+    /**
+     * When set to true, indexed caches access their backing file through a memory-mapped region.
+     */
+    public static final String MAPPED_BLOCK_STORE_TOGGLE = "org.gradle.cache.mapped";
+
     private final String cacheDisplayName;
     private final File lockTarget;
     private final File baseDir;
@@ -339,6 +345,9 @@ public class DefaultCacheAccess implements CacheCoordinator {
     }
 
     <K, V> BTreePersistentIndexedCache<K, V> doCreateCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        if (Boolean.getBoolean(MAPPED_BLOCK_STORE_TOGGLE)) {
+            return new BTreePersistentIndexedCache<K, V>(cacheFile, new MappedFileBlockStore(cacheFile), keySerializer, valueSerializer, (short) 512, 512);
+        }
         return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
     }
 
@@ -77,7 +77,7 @@ public class DefaultPersistentDirectoryCache extends DefaultPersistentDirectoryS
             for (Map.Entry<?, ?> entry : properties.entrySet()) {
                 String previousValue = cachedProperties.getProperty(entry.getKey().toString());
                 String currentValue = entry.getValue().toString();
-                if (!previousValue.equals(currentValue)) {
+                if (!currentValue.equals(previousValue)) {
                     LOGGER.debug("Invalidating {} as cache property {} has changed from {} to {}.", DefaultPersistentDirectoryCache.this, entry.getKey(), previousValue, currentValue);
                     return true;
                 }
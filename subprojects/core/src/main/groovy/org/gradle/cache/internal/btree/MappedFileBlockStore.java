@@ -0,0 +1,436 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal.btree;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link BlockStore} that accesses the backing file through memory-mapped chunks, rather than through a stream per block.
+ * Uses the same on-disk format as {@link FileBackedBlockStore}, so the two stores can be used interchangeably on the same file.
+ *
+ * <p>The file is mapped in fixed-size chunks at increasing offsets, which are mapped as blocks are read or appended. Mapping a chunk
+ * pads the file with zeroes up to the end of the chunk, so the store tracks the length of its content separately from the length
+ * of the file and never reads past the content. When the store is closed, the chunks are unmapped and the file is truncated back
+ * to its content. Where the platform does not allow the chunks to be unmapped explicitly and the truncation fails, the padding is
+ * left in place and is skipped when the store is next opened.</p>
+ */
+public class MappedFileBlockStore implements BlockStore {
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private final File cacheFile;
+    private final int chunkSize;
+    private final MappedInputStream mappedInputStream = new MappedInputStream();
+    private final MappedOutputStream mappedOutputStream = new MappedOutputStream();
+    private final DataInputStream inputStream = new DataInputStream(mappedInputStream);
+    private final DataOutputStream outputStream = new DataOutputStream(mappedOutputStream);
+    private final List<MappedByteBuffer> chunks = new ArrayList<MappedByteBuffer>();
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private long nextBlock;
+    private Factory factory;
+    private long currentFileSize;
+
+    public MappedFileBlockStore(File cacheFile) {
+        this(cacheFile, DEFAULT_CHUNK_SIZE);
+    }
+
+    MappedFileBlockStore(File cacheFile, int chunkSize) {
+        this.cacheFile = cacheFile;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache '%s'", cacheFile);
+    }
+
+    public void open(Runnable runnable, Factory factory) {
+        this.factory = factory;
+        try {
+            cacheFile.getParentFile().mkdirs();
+            file = new RandomAccessFile(cacheFile, "rw");
+            channel = file.getChannel();
+            currentFileSize = file.length();
+            if (currentFileSize > 0 && currentFileSize % chunkSize == 0) {
+                // May be padding left behind by a previous session
+                currentFileSize = findEndOfContent(currentFileSize);
+            }
+            nextBlock = currentFileSize;
+            if (currentFileSize == 0) {
+                runnable.run();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void close() {
+        try {
+            try {
+                long mappedFileSize = (long) chunks.size() * chunkSize;
+                boolean unmapped = unmapChunks();
+                // Only discard the padding when no other process has appended to the file since it was mapped
+                if (currentFileSize < mappedFileSize && channel.size() == mappedFileSize) {
+                    try {
+                        file.setLength(currentFileSize);
+                    } catch (IOException e) {
+                        if (unmapped) {
+                            throw e;
+                        }
+                        // The file cannot be truncated while it is still mapped on some platforms, so keep the padding
+                    }
+                }
+            } finally {
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void clear() {
+        try {
+            unmapChunks();
+            file.setLength(0);
+            currentFileSize = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextBlock = 0;
+    }
+    public void attach(BlockPayload block) {
+        if (block.getBlock() == null) {
+            block.setBlock(new BlockImpl(block));
+        }
+    }
+
+    public void remove(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        blockImpl.detach();
+    }
+
+    public void flush() {
+    }
+
+    public <T extends BlockPayload> T readFirst(Class<T> payloadType) {
+        return read(new BlockPointer(0), payloadType);
+    }
+
+    public <T extends BlockPayload> T read(BlockPointer pos, Class<T> payloadType) {
+        assert !pos.isNull();
+        try {
+            T payload = payloadType.cast(factory.create(payloadType));
+            BlockImpl block = new BlockImpl(payload, pos);
+            block.read();
+            return payload;
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        try {
+            blockImpl.write();
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long alloc(long length) {
+        long pos = nextBlock;
+        nextBlock += length;
+        return pos;
+    }
+
+    /**
+     * Locates the end of the last block in a file that may have been left padded with zeroes. Blocks are laid out contiguously from
+     * the start of the file, so this follows the block headers until it reaches one that is not the start of a block.
+     */
+    private long findEndOfContent(long fileSize) throws IOException {
+        long pos = 0;
+        while (pos + BlockImpl.HEADER_SIZE <= fileSize) {
+            mappedInputStream.seek(pos);
+            if (inputStream.readByte() != (byte) BlockImpl.BLOCK_MARKER) {
+                break;
+            }
+            inputStream.readByte();
+            long end = pos + BlockImpl.HEADER_SIZE + BlockImpl.TAIL_SIZE + inputStream.readInt();
+            if (end <= pos || end > fileSize) {
+                break;
+            }
+            pos = end;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the chunk containing the given position, mapping it and any chunks before it if required.
+     */
+    private MappedByteBuffer chunkFor(long pos) throws IOException {
+        int index = (int) (pos / chunkSize);
+        while (chunks.size() <= index) {
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+        }
+        return chunks.get(index);
+    }
+
+    /**
+     * Unmaps all chunks, so that the file can be truncated or deleted. Returns false when the chunks could not be unmapped explicitly and
+     * are left to be unmapped when they are garbage collected.
+     */
+    private boolean unmapChunks() {
+        boolean unmapped = true;
+        for (MappedByteBuffer chunk : chunks) {
+            unmapped &= unmap(chunk);
+        }
+        chunks.clear();
+        return unmapped;
+    }
+
+    private static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (Exception e) {
+            // Fall through
+        }
+        try {
+            // Java 8 and earlier
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private class MappedInputStream extends InputStream {
+        private long pos;
+
+        void seek(long pos) {
+            this.pos = pos;
+        }
+
+        long getPos() {
+            return pos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos >= currentFileSize) {
+                return -1;
+            }
+            int value = chunkFor(pos).get((int) (pos % chunkSize)) & 0xff;
+            pos++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (pos >= currentFileSize) {
+                return -1;
+            }
+            int count = (int) Math.min(length, currentFileSize - pos);
+            int remaining = count;
+            while (remaining > 0) {
+                MappedByteBuffer chunk = chunkFor(pos);
+                int chunkOffset = (int) (pos % chunkSize);
+                int n = Math.min(remaining, chunkSize - chunkOffset);
+                chunk.position(chunkOffset);
+                chunk.get(buffer, offset, n);
+                offset += n;
+                remaining -= n;
+                pos += n;
+            }
+            return count;
+        }
+    }
+
+    private class MappedOutputStream extends OutputStream {
+        private long pos;
+
+        void seek(long pos) {
+            this.pos = pos;
+        }
+
+        long getPos() {
+            return pos;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            chunkFor(pos).put((int) (pos % chunkSize), (byte) b);
+            pos++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            while (length > 0) {
+                MappedByteBuffer chunk = chunkFor(pos);
+                int chunkOffset = (int) (pos % chunkSize);
+                int n = Math.min(length, chunkSize - chunkOffset);
+                chunk.position(chunkOffset);
+                chunk.put(buffer, offset, n);
+                offset += n;
+                length -= n;
+                pos += n;
+            }
+        }
+    }
+
+    private final class BlockImpl extends Block {
+        private static final int HEADER_SIZE = 2 + INT_SIZE;
+        private static final int TAIL_SIZE = LONG_SIZE;
+        static final int BLOCK_MARKER = 0xCC;
+
+        private BlockPointer pos;
+        private int payloadSize;
+
+        private BlockImpl(BlockPayload payload, BlockPointer pos) {
+            this(payload);
+            setPos(pos);
+        }
+
+        public BlockImpl(BlockPayload payload) {
+            super(payload);
+            pos = null;
+            payloadSize = -1;
+        }
+
+        @Override
+        public boolean hasPos() {
+            return pos != null;
+        }
+
+        @Override
+        public BlockPointer getPos() {
+            if (pos == null) {
+                pos = new BlockPointer(alloc(getSize()));
+            }
+            return pos;
+        }
+
+        @Override
+        public void setPos(BlockPointer pos) {
+            assert this.pos == null && !pos.isNull();
+            this.pos = pos;
+        }
+
+        public int getSize() {
+            if (payloadSize < 0) {
+                payloadSize = getPayload().getSize();
+            }
+            return payloadSize + HEADER_SIZE + TAIL_SIZE;
+        }
+
+        @Override
+        public void setSize(int size) {
+            int newPayloadSize = size - HEADER_SIZE - TAIL_SIZE;
+            assert newPayloadSize >= payloadSize;
+            payloadSize = newPayloadSize;
+        }
+
+        public void write() throws Exception {
+            long pos = getPos().getPos();
+            BlockPayload payload = getPayload();
+            long finalSize = pos + HEADER_SIZE + TAIL_SIZE + payloadSize;
+            // The payload may not fill the block, so make sure the file covers the end of the block
+            chunkFor(finalSize - 1);
+            mappedOutputStream.seek(pos);
+
+            // Write header
+            outputStream.writeByte(BLOCK_MARKER);
+            outputStream.writeByte(payload.getType());
+            outputStream.writeInt(payloadSize);
+
+            // Write body
+            payload.write(outputStream);
+
+            // Write count
+            outputStream.writeLong(mappedOutputStream.getPos() - pos);
+
+            if (currentFileSize < finalSize) {
+                currentFileSize = finalSize;
+            }
+        }
+
+        public void read() throws Exception {
+            long pos = getPos().getPos();
+            assert pos >= 0;
+            if (pos + HEADER_SIZE >= currentFileSize) {
+                throw blockCorruptedException();
+            }
+            mappedInputStream.seek(pos);
+
+            BlockPayload payload = getPayload();
+
+            // Read header
+            byte type = inputStream.readByte();
+            if (type != (byte) BLOCK_MARKER) {
+                throw blockCorruptedException();
+            }
+            type = inputStream.readByte();
+            if (type != (byte) payload.getType()) {
+                throw blockCorruptedException();
+            }
+
+            // Read body
+            payloadSize = inputStream.readInt();
+            if (pos + HEADER_SIZE + TAIL_SIZE + payloadSize > currentFileSize) {
+                throw blockCorruptedException();
+            }
+            payload.read(inputStream);
+
+            // Read and verify count
+            long actualCount = mappedInputStream.getPos() - pos;
+            long count = inputStream.readLong();
+            if (actualCount != count) {
+                throw blockCorruptedException();
+            }
+        }
+
+        public RuntimeException blockCorruptedException() {
+            return new CorruptedCacheException(String.format("Corrupted %s found in %s.", this,
+                    MappedFileBlockStore.this));
+        }
+    }
+}
@@ -15,33 +15,107 @@
  */
 package org.gradle.configuration.project;
 
+import org.gradle.api.CircularReferenceException;
 import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectEvaluationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
  *
+ * <p>Projects may be evaluated by several threads at once. A project is only ever evaluated by a single thread, and any other thread that
+ * attempts to evaluate it, for example through {@code evaluationDependsOn()}, waits until that evaluation has finished.</p>
+ *
  * @see org.gradle.internal.service.scopes.BuildScopeServices#createProjectEvaluator()
  */
 public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleProjectEvaluator.class);
 
     private final ProjectEvaluator delegate;
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> evaluatingThreads = new IdentityHashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> waitingThreads = new HashMap<Thread, ProjectInternal>();
 
     public LifecycleProjectEvaluator(ProjectEvaluator delegate) {
         this.delegate = delegate;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
-        //TODO this is one of the places to look into thread safety when we implement parallel configuration
-        if (state.getExecuted() || state.getExecuting()) {
+        if (!startEvaluation(project, state)) {
             return;
         }
+        try {
+            doEvaluate(project, state);
+        } finally {
+            finishEvaluation(project);
+        }
+    }
+
+    private boolean startEvaluation(ProjectInternal project, ProjectStateInternal state) {
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            while (true) {
+                if (state.getExecuted()) {
+                    return false;
+                }
+                Thread evaluatingThread = evaluatingThreads.get(project);
+                if (evaluatingThread == null) {
+                    if (state.getExecuting()) {
+                        return false;
+                    }
+                    evaluatingThreads.put(project, currentThread);
+                    return true;
+                }
+                if (evaluatingThread == currentThread) {
+                    return false;
+                }
+                failOnDeadlock(project, currentThread);
+                waitingThreads.put(currentThread, project);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    waitingThreads.remove(currentThread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fails when the thread evaluating the given project is, directly or through other threads, waiting for the current thread.
+     */
+    private void failOnDeadlock(ProjectInternal project, Thread currentThread) {
+        ProjectInternal blockingProject = project;
+        Thread blockingThread = evaluatingThreads.get(blockingProject);
+        while (blockingThread != null) {
+            if (blockingThread == currentThread) {
+                throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+            }
+            blockingProject = waitingThreads.get(blockingThread);
+            if (blockingProject == null) {
+                return;
+            }
+            blockingThread = evaluatingThreads.get(blockingProject);
+        }
+    }
+
+    private void finishEvaluation(ProjectInternal project) {
+        synchronized (lock) {
+            evaluatingThreads.remove(project);
+            lock.notifyAll();
+        }
+    }
 
+    private void doEvaluate(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
             listener.beforeEvaluate(project);
@@ -19,13 +19,41 @@ package org.gradle.execution;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Configures projects on demand, or a whole project hierarchy.
+ *
+ * <p>When parallel configuration is enabled, a project hierarchy is configured using a bounded pool of threads. A project is only configured
+ * once its parent project has been configured, and sibling projects are configured concurrently. Projects configured through
+ * {@code evaluationDependsOn()} are configured by the thread that requires them.</p>
+ */
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    public static final String PARALLEL_CONFIGURATION_TOGGLE = "org.gradle.parallel.configuration";
+
+    private static final Logger LOGGER = Logging.getLogger(TaskPathProjectEvaluator.class);
+
     private final BuildCancellationToken cancellationToken;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelProjects;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null, 1);
+    }
+
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory, int maxParallelProjects) {
         this.cancellationToken = cancellationToken;
+        this.executorFactory = executorFactory;
+        this.maxParallelProjects = maxParallelProjects;
     }
 
     public void configure(ProjectInternal project) {
@@ -40,6 +68,10 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             throw new BuildCancelledException();
         }
         project.evaluate();
+        if (executorFactory != null && maxParallelProjects > 1) {
+            configureSubprojectsInParallel(project);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             if (cancellationToken.isCancellationRequested()) {
                 throw new BuildCancelledException();
@@ -47,4 +79,88 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             ((ProjectInternal) sub).evaluate();
         }
     }
-}
\ No newline at end of file
+
+    private void configureSubprojectsInParallel(ProjectInternal project) {
+        LOGGER.info("Configuring projects using {} parallel threads", maxParallelProjects);
+        StoppableExecutor executor = executorFactory.create("Project configuration", maxParallelProjects);
+        ParallelHierarchyConfiguration configuration = new ParallelHierarchyConfiguration(executor);
+        try {
+            configuration.configureChildren(project);
+            configuration.awaitCompletion();
+        } finally {
+            executor.stop();
+        }
+
+        for (Project sub : project.getSubprojects()) {
+            Throwable failure = configuration.failures.get(sub);
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+        if (configuration.cancelled) {
+            throw new BuildCancelledException();
+        }
+    }
+
+    private class ParallelHierarchyConfiguration {
+        private final Executor executor;
+        private final Map<Project, Throwable> failures = new IdentityHashMap<Project, Throwable>();
+        private int pending;
+        private boolean cancelled;
+
+        ParallelHierarchyConfiguration(Executor executor) {
+            this.executor = executor;
+        }
+
+        synchronized void configureChildren(ProjectInternal parent) {
+            for (Project child : parent.getChildProjects().values()) {
+                final ProjectInternal project = (ProjectInternal) child;
+                pending++;
+                executor.execute(new Runnable() {
+                    public void run() {
+                        configure(project);
+                    }
+                });
+            }
+        }
+
+        private void configure(ProjectInternal project) {
+            Throwable failure = null;
+            boolean configured = false;
+            try {
+                if (!isStopped()) {
+                    project.evaluate();
+                    configured = true;
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+            synchronized (this) {
+                if (failure != null) {
+                    failures.put(project, failure);
+                } else if (configured && !isStopped()) {
+                    configureChildren(project);
+                }
+                pending--;
+                notifyAll();
+            }
+        }
+
+        private synchronized boolean isStopped() {
+            if (cancellationToken.isCancellationRequested()) {
+                cancelled = true;
+            }
+            return cancelled || !failures.isEmpty();
+        }
+
+        synchronized void awaitCompletion() {
+            while (pending > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+    }
+}
@@ -18,7 +18,6 @@ package org.gradle.execution.taskgraph;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
-import com.google.common.base.StandardSystemProperty;
 import com.google.common.collect.*;
 import org.gradle.api.*;
 import org.gradle.api.internal.TaskInternal;
@@ -40,7 +39,6 @@ import org.gradle.internal.graph.DirectedGraphRenderer;
 import org.gradle.internal.graph.GraphNodeRenderer;
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.util.CollectionUtils;
-import org.gradle.util.TextUtil;
 
 import java.io.File;
 import java.io.IOException;
@@ -53,6 +51,13 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * A reusable implementation of TaskExecutionPlan. The {@link #addToTaskGraph(java.util.Collection)} and {@link #clear()} methods are NOT threadsafe, and callers must synchronize access to these
  * methods.
+ *
+ * <p>Tasks are handed out from a ready queue. Each task in the plan keeps a count of its incomplete dependencies, and is added to the ready queue
+ * when that count drops to zero, so that selecting the next task to execute does not require scanning the whole plan. Workers are only woken when
+ * there is new work available for them.</p>
+ *
+ * <p>When a {@link TaskDurationHistory} is provided, the ready queue hands out the task with the longest remaining critical path first, based on the
+ * durations recorded by earlier builds. Otherwise, tasks are handed out in plan order.</p>
  */
 public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
@@ -62,19 +67,32 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
+    private final Condition completion = lock.newCondition();
     private final Set<TaskInfo> tasksInUnknownState = new LinkedHashSet<TaskInfo>();
     private final Set<TaskInfo> entryTasks = new LinkedHashSet<TaskInfo>();
     private final TaskDependencyGraph graph = new TaskDependencyGraph();
     private final LinkedHashMap<Task, TaskInfo> executionPlan = new LinkedHashMap<Task, TaskInfo>();
-    private final List<TaskInfo> executionQueue = new LinkedList<TaskInfo>();
+    private final TreeSet<TaskInfo> readyQueue = new TreeSet<TaskInfo>(new Comparator<TaskInfo>() {
+        public int compare(TaskInfo left, TaskInfo right) {
+            if (left.getCriticalPathDuration() != right.getCriticalPathDuration()) {
+                return left.getCriticalPathDuration() > right.getCriticalPathDuration() ? -1 : 1;
+            }
+            return left.getExecutionIndex() - right.getExecutionIndex();
+        }
+    });
+    private boolean readyQueuePrepared;
+    private int tasksAwaitingExecution;
     private final List<Throwable> failures = new ArrayList<Throwable>();
     private Spec<? super Task> filter = Specs.satisfyAll();
 
     private TaskFailureHandler failureHandler = new RethrowingFailureHandler();
+    private TaskDurationHistory durationHistory = TaskDurationHistory.NONE;
     private final BuildCancellationToken cancellationToken;
     private final Multiset<String> projectsWithRunningTasks = HashMultiset.create();
     private final Multiset<String> projectsWithRunningNonParallelizableTasks = HashMultiset.create();
     private final Set<TaskInternal> runningTasks = Sets.newIdentityHashSet();
+    private final Set<TaskInternal> runningTasksWithUnindexedOutputs = Sets.newIdentityHashSet();
+    private final OutputPathTrie runningTaskOutputs = new OutputPathTrie();
     private final Map<Task, Set<String>> canonicalizedOutputCache = Maps.newIdentityHashMap();
     private final Map<Task, Boolean> isParallelSafeCache = Maps.newIdentityHashMap();
     private boolean tasksCancelled;
@@ -305,8 +323,8 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                 }
             }
         }
-        executionQueue.clear();
-        executionQueue.addAll(executionPlan.values());
+        readyQueue.clear();
+        readyQueuePrepared = false;
     }
 
     private void maybeRemoveProcessedShouldRunAfterEdge(Stack<GraphEdge> walkedShouldRunAfterEdges, TaskInfo taskNode) {
@@ -427,13 +445,18 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             graph.clear();
             entryTasks.clear();
             executionPlan.clear();
-            executionQueue.clear();
+            readyQueue.clear();
+            readyQueuePrepared = false;
+            tasksAwaitingExecution = 0;
+            durationHistory = TaskDurationHistory.NONE;
             failures.clear();
             projectsWithRunningTasks.clear();
             projectsWithRunningNonParallelizableTasks.clear();
             canonicalizedOutputCache.clear();
             isParallelSafeCache.clear();
             runningTasks.clear();
+            runningTasksWithUnindexedOutputs.clear();
+            runningTaskOutputs.clear();
         } finally {
             lock.unlock();
         }
@@ -451,30 +474,31 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         this.failureHandler = handler;
     }
 
+    public void useDurationHistory(TaskDurationHistory durationHistory) {
+        this.durationHistory = durationHistory;
+    }
+
     public TaskInfo getTaskToExecute() {
         lock.lock();
         try {
+            prepareReadyQueue();
             while (true) {
                 if (cancellationToken.isCancellationRequested()) {
                     if (abortExecution()) {
                         tasksCancelled = true;
+                        signalWorkers();
                     }
                 }
+                if (tasksAwaitingExecution == 0) {
+                    return null;
+                }
                 TaskInfo nextMatching = null;
-                boolean allTasksComplete = true;
-                Iterator<TaskInfo> iterator = executionQueue.iterator();
-                while (iterator.hasNext()) {
-                    TaskInfo taskInfo = iterator.next();
-                    allTasksComplete = allTasksComplete && taskInfo.isComplete();
-                    if (taskInfo.isReady() && taskInfo.allDependenciesComplete() && canRunWithWithCurrentlyExecutedTasks(taskInfo)) {
+                for (TaskInfo taskInfo : readyQueue) {
+                    if (canRunWithWithCurrentlyExecutedTasks(taskInfo)) {
                         nextMatching = taskInfo;
-                        iterator.remove();
                         break;
                     }
                 }
-                if (allTasksComplete) {
-                    return null;
-                }
                 if (nextMatching == null) {
                     try {
                         condition.await();
@@ -482,13 +506,16 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
                         throw new RuntimeException(e);
                     }
                 } else {
+                    readyQueue.remove(nextMatching);
+                    tasksAwaitingExecution--;
                     if (nextMatching.allDependenciesSuccessful()) {
                         nextMatching.startExecution();
                         recordTaskStarted(nextMatching);
                         return nextMatching;
                     } else {
                         nextMatching.skipExecution();
-                        condition.signalAll();
+                        taskBecameComplete(nextMatching);
+                        signalWorkers();
                     }
                 }
             }
@@ -497,6 +524,124 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         }
     }
 
+    /**
+     * Calculates the pending dependency counts of the tasks in the execution plan and seeds the ready queue. This happens lazily,
+     * once the plan is about to be executed, so that the task states set up while building the plan are final.
+     */
+    private void prepareReadyQueue() {
+        if (readyQueuePrepared) {
+            return;
+        }
+        readyQueuePrepared = true;
+        readyQueue.clear();
+        tasksAwaitingExecution = 0;
+
+        int executionIndex = 0;
+        for (TaskInfo taskInfo : executionPlan.values()) {
+            taskInfo.setExecutionIndex(executionIndex++);
+        }
+        calculateCriticalPaths();
+        for (TaskInfo taskInfo : executionPlan.values()) {
+            int pendingDependencies = 0;
+            for (TaskInfo dependency : taskInfo.getAllSuccessors()) {
+                if (!dependency.isComplete()) {
+                    pendingDependencies++;
+                }
+            }
+            taskInfo.setPendingDependencyCount(pendingDependencies);
+            if (taskInfo.isReady()) {
+                tasksAwaitingExecution++;
+                if (pendingDependencies == 0) {
+                    readyQueue.add(taskInfo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates, for each task in the plan, the total duration of the longest chain of tasks that cannot start before it has completed.
+     * Tasks of the same project are chained in plan order, as the project lock mostly prevents them from running at the same time. This also
+     * means that ordering tasks by critical path never reorders the tasks of a single project.
+     */
+    private void calculateCriticalPaths() {
+        Map<Task, Long> durations = durationHistory.getDurations(executionPlan.keySet());
+        if (durations.isEmpty()) {
+            for (TaskInfo taskInfo : executionPlan.values()) {
+                taskInfo.setCriticalPathDuration(0);
+            }
+            return;
+        }
+
+        List<TaskInfo> tasks = new ArrayList<TaskInfo>(executionPlan.values());
+        Map<String, TaskInfo> nextTaskInProject = new HashMap<String, TaskInfo>();
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            TaskInfo taskInfo = tasks.get(i);
+            long longestRemainingPath = 0;
+            for (TaskInfo dependent : taskInfo.getAllPredecessors()) {
+                if (executionPlan.containsKey(dependent.getTask())) {
+                    longestRemainingPath = Math.max(longestRemainingPath, dependent.getCriticalPathDuration());
+                }
+            }
+            TaskInfo nextInProject = nextTaskInProject.put(taskInfo.getTask().getProject().getPath(), taskInfo);
+            if (nextInProject != null) {
+                longestRemainingPath = Math.max(longestRemainingPath, nextInProject.getCriticalPathDuration());
+            }
+            Long duration = durations.get(taskInfo.getTask());
+            taskInfo.setCriticalPathDuration(longestRemainingPath + (duration == null ? 0 : duration));
+        }
+    }
+
+    /**
+     * Updates the tasks waiting for the given task, after the given task has moved to a complete state.
+     */
+    private void taskBecameComplete(TaskInfo taskInfo) {
+        if (!readyQueuePrepared) {
+            return;
+        }
+        for (TaskInfo dependent : taskInfo.getAllPredecessors()) {
+            if (!executionPlan.containsKey(dependent.getTask())) {
+                continue;
+            }
+            if (dependent.dependencyCompleted() && dependent.isReady()) {
+                readyQueue.add(dependent);
+            }
+        }
+    }
+
+    /**
+     * Updates the ready queue after the given task, which was previously considered complete, has been enforced to run.
+     */
+    private void taskBecameRequired(TaskInfo taskInfo) {
+        if (!readyQueuePrepared) {
+            return;
+        }
+        tasksAwaitingExecution++;
+        if (taskInfo.getPendingDependencyCount() == 0) {
+            readyQueue.add(taskInfo);
+        }
+        for (TaskInfo dependent : taskInfo.getAllPredecessors()) {
+            if (!executionPlan.containsKey(dependent.getTask())) {
+                continue;
+            }
+            dependent.dependencyReopened();
+            readyQueue.remove(dependent);
+        }
+    }
+
+    /**
+     * Wakes as many waiting workers as there are tasks in the ready queue, or all of them when there is nothing left to hand out.
+     */
+    private void signalWorkers() {
+        if (tasksAwaitingExecution == 0) {
+            condition.signalAll();
+            completion.signalAll();
+            return;
+        }
+        for (int i = readyQueue.size(); i > 0; i--) {
+            condition.signal();
+        }
+    }
+
     private boolean canRunWithWithCurrentlyExecutedTasks(TaskInfo taskInfo) {
         TaskInternal task = taskInfo.getTask();
         String projectPath = task.getProject().getPath();
@@ -548,35 +693,31 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             return null;
         }
 
+        indexRunningTaskOutputs();
+
         for (String candidateTaskOutputPath : canonicalizedOutputPaths(candidateTask)) {
-            for (TaskInternal runningTask : runningTasks) {
-                for (String runningTaskOutputPath : canonicalizedOutputPaths(runningTask)) {
-                    if (pathsOverlap(candidateTaskOutputPath, runningTaskOutputPath)) {
-                        return Pair.of(runningTask, TextUtil.shorterOf(candidateTaskOutputPath, runningTaskOutputPath));
-                    }
-                }
+            Pair<TaskInternal, String> overlap = runningTaskOutputs.findOverlap(candidateTaskOutputPath);
+            if (overlap != null) {
+                return overlap;
             }
         }
 
         return null;
     }
 
-
-    private boolean pathsOverlap(String firstPath, String secondPath) {
-        if (firstPath.equals(secondPath)) {
-            return true;
-        }
-
-        String shorter;
-        String longer;
-        if (firstPath.length() > secondPath.length()) {
-            shorter = secondPath;
-            longer = firstPath;
-        } else {
-            shorter = firstPath;
-            longer = secondPath;
+    /**
+     * Adds the outputs of the running tasks to the index, the first time that another task is checked against them. When tasks are
+     * executed one at a time, no task is running when the next one is selected, so the outputs are never resolved.
+     */
+    private void indexRunningTaskOutputs() {
+        Iterator<TaskInternal> iterator = runningTasksWithUnindexedOutputs.iterator();
+        while (iterator.hasNext()) {
+            TaskInternal runningTask = iterator.next();
+            for (String outputPath : canonicalizedOutputPaths(runningTask)) {
+                runningTaskOutputs.add(runningTask, outputPath);
+            }
+            iterator.remove();
         }
-        return longer.startsWith(shorter + StandardSystemProperty.FILE_SEPARATOR.value());
     }
 
     boolean isParallelizable(TaskInternal task) {
@@ -613,6 +754,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         }
         projectsWithRunningTasks.add(projectPath);
         runningTasks.add(task);
+        runningTasksWithUnindexedOutputs.add(task);
     }
 
     private void recordTaskCompleted(TaskInfo taskInfo) {
@@ -622,6 +764,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
             projectsWithRunningNonParallelizableTasks.remove(projectPath);
         }
         projectsWithRunningTasks.remove(projectPath);
+        if (!runningTasksWithUnindexedOutputs.remove(task)) {
+            for (String outputPath : canonicalizedOutputPaths(task)) {
+                runningTaskOutputs.remove(task, outputPath);
+            }
+        }
         canonicalizedOutputCache.remove(task);
         isParallelSafeCache.remove(task);
         runningTasks.remove(task);
@@ -637,7 +784,8 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
 
             taskInfo.finishExecution();
             recordTaskCompleted(taskInfo);
-            condition.signalAll();
+            taskBecameComplete(taskInfo);
+            signalWorkers();
         } finally {
             lock.unlock();
         }
@@ -661,7 +809,10 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         for (TaskInfo dependencyNode : node.getDependencySuccessors()) {
             enforceWithDependencies(dependencyNode, enforcedTasks);
         }
-        if (node.isMustNotRun() || node.isRequired()) {
+        if (node.isMustNotRun()) {
+            node.enforceRun();
+            taskBecameRequired(node);
+        } else if (node.isRequired()) {
             node.enforceRun();
         }
     }
@@ -692,6 +843,11 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         for (TaskInfo taskInfo : executionPlan.values()) {
             if (taskInfo.isRequired()) {
                 taskInfo.skipExecution();
+                if (readyQueuePrepared) {
+                    readyQueue.remove(taskInfo);
+                    tasksAwaitingExecution--;
+                }
+                taskBecameComplete(taskInfo);
                 aborted = true;
             }
         }
@@ -703,7 +859,7 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         try {
             while (!allTasksComplete()) {
                 try {
-                    condition.await();
+                    completion.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
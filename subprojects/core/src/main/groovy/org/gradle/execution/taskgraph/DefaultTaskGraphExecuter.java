@@ -58,6 +58,7 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private final TaskPlanExecutor taskPlanExecutor;
     // This currently needs to be lazy, as it uses state that is not available when the graph is created
     private final Factory<? extends TaskExecuter> taskExecuter;
+    private final Factory<? extends TaskDurationHistory> taskDurationHistory;
     private final TimeProvider timeProvider;
     private final ListenerBroadcast<TaskExecutionGraphListener> graphListeners;
     private final ListenerBroadcast<TaskExecutionListener> taskListeners;
@@ -66,9 +67,11 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
     private final BuildOperationExecutor buildOperationExecutor;
     private TaskGraphState taskGraphState = TaskGraphState.EMPTY;
 
-    public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, Factory<? extends TaskExecuter> taskExecuter, BuildCancellationToken cancellationToken, TimeProvider timeProvider, BuildOperationExecutor buildOperationExecutor) {
+    public DefaultTaskGraphExecuter(ListenerManager listenerManager, TaskPlanExecutor taskPlanExecutor, Factory<? extends TaskExecuter> taskExecuter, Factory<? extends TaskDurationHistory> taskDurationHistory,
+                                    BuildCancellationToken cancellationToken, TimeProvider timeProvider, BuildOperationExecutor buildOperationExecutor) {
         this.taskPlanExecutor = taskPlanExecutor;
         this.taskExecuter = taskExecuter;
+        this.taskDurationHistory = taskDurationHistory;
         this.timeProvider = timeProvider;
         this.buildOperationExecutor = buildOperationExecutor;
         graphListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener.class);
@@ -106,11 +109,26 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         ensurePopulated();
 
         graphListeners.getSource().graphPopulated(this);
+        TaskDurationHistory durationHistory = taskDurationHistory.create();
+        if (taskPlanExecutor instanceof ParallelTaskPlanExecutor) {
+            // Only reorder independent tasks when there are several workers that can benefit from it
+            taskExecutionPlan.useDurationHistory(durationHistory);
+        }
         try {
-            taskPlanExecutor.process(taskExecutionPlan, new EventFiringTaskWorker(taskExecuter.create(), buildOperationExecutor.getCurrentOperationId()));
+            taskPlanExecutor.process(taskExecutionPlan, new EventFiringTaskWorker(taskExecuter.create(), durationHistory, buildOperationExecutor.getCurrentOperationId()));
             logger.debug("Timing: Executing the DAG took " + clock.getTime());
         } finally {
             taskExecutionPlan.clear();
+            flush(durationHistory);
+        }
+    }
+
+    private static void flush(TaskDurationHistory durationHistory) {
+        // The durations only help order later builds, so a failure to store them must not hide the outcome of the build
+        try {
+            durationHistory.flush();
+        } catch (RuntimeException e) {
+            logger.warn("Could not store the task durations of this build.", e);
         }
     }
 
@@ -184,10 +202,12 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
      */
     private class EventFiringTaskWorker implements Action<TaskInternal> {
         private final TaskExecuter taskExecuter;
+        private final TaskDurationHistory durationHistory;
         private final Object parentOperationId;
 
-        public EventFiringTaskWorker(TaskExecuter taskExecuter, Object parentOperationId) {
+        public EventFiringTaskWorker(TaskExecuter taskExecuter, TaskDurationHistory durationHistory, Object parentOperationId) {
             this.taskExecuter = taskExecuter;
+            this.durationHistory = durationHistory;
             this.parentOperationId = parentOperationId;
         }
 
@@ -204,6 +224,9 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
                 taskListeners.getSource().afterExecute(task, state);
             } finally {
                 long endTime = timeProvider.getCurrentTime();
+                if (state.getExecuted() && !state.getSkipped()) {
+                    durationHistory.recordDuration(task, endTime - startTime);
+                }
                 internalTaskListeners.getSource().afterExecute(taskOperation, new OperationResult(startTime, endTime, task.getState().getFailure()));
             }
         }
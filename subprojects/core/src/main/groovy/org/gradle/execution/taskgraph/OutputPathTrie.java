@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.internal.Pair;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the canonical output paths claimed by the currently running tasks, organised as a trie of path segments.
+ *
+ * <p>Two paths overlap when they are equal or when one is an ancestor of the other, so the running task whose outputs overlap a given
+ * path can be found by walking down that path once, instead of comparing it with every output of every running task.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+class OutputPathTrie {
+    private final Node root = new Node();
+
+    /**
+     * Records that the given task claims the given canonical output path.
+     */
+    public void add(TaskInternal task, String path) {
+        Node node = root;
+        node.claimedPaths++;
+        int start = 0;
+        while (true) {
+            int end = nextSeparator(path, start);
+            if (end > start) {
+                node = node.getOrCreateChild(path.substring(start, end));
+                node.claimedPaths++;
+            }
+            if (end == path.length()) {
+                break;
+            }
+            start = end + 1;
+        }
+        node.claim(task, path);
+    }
+
+    /**
+     * Removes a claim previously added with {@link #add(TaskInternal, String)}.
+     */
+    public void remove(TaskInternal task, String path) {
+        Node node = root;
+        node.claimedPaths--;
+        int start = 0;
+        while (true) {
+            int end = nextSeparator(path, start);
+            if (end > start) {
+                Node child = node.children.get(path.substring(start, end));
+                if (--child.claimedPaths == 0) {
+                    // Nothing left to find below this point
+                    node.children.remove(path.substring(start, end));
+                }
+                node = child;
+            }
+            if (end == path.length()) {
+                break;
+            }
+            start = end + 1;
+        }
+        node.release(task);
+    }
+
+    /**
+     * Finds a running task that claims the given path, an ancestor of the given path or a descendant of the given path.
+     *
+     * @return the task and the shorter of the two overlapping paths, or null if there is no overlap.
+     */
+    @Nullable
+    public Pair<TaskInternal, String> findOverlap(String path) {
+        Node node = root;
+        int start = 0;
+        while (true) {
+            if (node.owners != null) {
+                return Pair.of(node.owners.get(0), node.claimedPath);
+            }
+            int end = nextSeparator(path, start);
+            if (end > start) {
+                node = node.children.get(path.substring(start, end));
+                if (node == null) {
+                    return null;
+                }
+            }
+            if (end == path.length()) {
+                break;
+            }
+            start = end + 1;
+        }
+        if (node.owners != null) {
+            return Pair.of(node.owners.get(0), path);
+        }
+        TaskInternal descendantOwner = node.findAnyOwner();
+        return descendantOwner == null ? null : Pair.of(descendantOwner, path);
+    }
+
+    public boolean isEmpty() {
+        return root.claimedPaths == 0;
+    }
+
+    public void clear() {
+        root.children.clear();
+        root.claimedPaths = 0;
+        root.owners = null;
+        root.claimedPath = null;
+    }
+
+    private static int nextSeparator(String path, int start) {
+        int index = path.indexOf(File.separatorChar, start);
+        return index < 0 ? path.length() : index;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<String, Node>();
+        // The number of claims on this node and its descendants
+        private int claimedPaths;
+        // The tasks claiming exactly this node, or null when there are none. Usually a single task, as running tasks do not overlap
+        private List<TaskInternal> owners;
+        private String claimedPath;
+
+        Node getOrCreateChild(String segment) {
+            Node child = children.get(segment);
+            if (child == null) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        void claim(TaskInternal task, String path) {
+            if (owners == null) {
+                owners = new ArrayList<TaskInternal>(1);
+                claimedPath = path;
+            }
+            owners.add(task);
+        }
+
+        void release(TaskInternal task) {
+            owners.remove(task);
+            if (owners.isEmpty()) {
+                owners = null;
+                claimedPath = null;
+            }
+        }
+
+        @Nullable
+        TaskInternal findAnyOwner() {
+            if (owners != null) {
+                return owners.get(0);
+            }
+            for (Node child : children.values()) {
+                TaskInternal childOwner = child.findAnyOwner();
+                if (childOwner != null) {
+                    return childOwner;
+                }
+            }
+            return null;
+        }
+    }
+}
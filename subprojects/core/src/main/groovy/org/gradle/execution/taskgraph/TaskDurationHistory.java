@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Task;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Keeps track of how long tasks took to execute in earlier builds.
+ */
+public interface TaskDurationHistory {
+    TaskDurationHistory NONE = new TaskDurationHistory() {
+        public Map<Task, Long> getDurations(Collection<? extends Task> tasks) {
+            return Collections.emptyMap();
+        }
+
+        public void recordDuration(Task task, long durationMillis) {
+        }
+
+        public void flush() {
+        }
+    };
+
+    /**
+     * Returns the most recently recorded execution duration, in milliseconds, of each of the given tasks. Tasks that have not been executed before are not included.
+     */
+    Map<Task, Long> getDurations(Collection<? extends Task> tasks);
+
+    /**
+     * Records the execution duration, in milliseconds, of the given task. The duration is not necessarily persisted until {@link #flush()} is called.
+     */
+    void recordDuration(Task task, long durationMillis);
+
+    /**
+     * Persists the durations recorded since the last flush, so that they are available to later builds.
+     */
+    void flush();
+}
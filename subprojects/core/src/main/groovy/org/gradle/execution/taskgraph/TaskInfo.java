@@ -17,8 +17,10 @@
 package org.gradle.execution.taskgraph;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import org.gradle.api.internal.TaskInternal;
 
+import java.util.Set;
 import java.util.TreeSet;
 
 public class TaskInfo implements Comparable<TaskInfo> {
@@ -34,8 +36,12 @@ public class TaskInfo implements Comparable<TaskInfo> {
     private final TreeSet<TaskInfo> dependencyPredecessors = new TreeSet<TaskInfo>();
     private final TreeSet<TaskInfo> dependencySuccessors = new TreeSet<TaskInfo>();
     private final TreeSet<TaskInfo> mustSuccessors = new TreeSet<TaskInfo>();
+    private final TreeSet<TaskInfo> mustPredecessors = new TreeSet<TaskInfo>();
     private final TreeSet<TaskInfo> shouldSuccessors = new TreeSet<TaskInfo>();
     private final TreeSet<TaskInfo> finalizers = new TreeSet<TaskInfo>();
+    private int executionIndex;
+    private int pendingDependencyCount;
+    private long criticalPathDuration;
 
     public TaskInfo(TaskInternal task) {
         this.task = task;
@@ -159,6 +165,24 @@ public class TaskInfo implements Comparable<TaskInfo> {
         return mustSuccessors;
     }
 
+    public TreeSet<TaskInfo> getMustPredecessors() {
+        return mustPredecessors;
+    }
+
+    /**
+     * Returns the tasks that must complete before this task can start, that is the union of the dependency and must-run-after successors.
+     */
+    public Set<TaskInfo> getAllSuccessors() {
+        return Sets.union(dependencySuccessors, mustSuccessors);
+    }
+
+    /**
+     * Returns the tasks that wait for this task to complete before they can start.
+     */
+    public Set<TaskInfo> getAllPredecessors() {
+        return Sets.union(dependencyPredecessors, mustPredecessors);
+    }
+
     public TreeSet<TaskInfo> getFinalizers() {
         return finalizers;
     }
@@ -182,6 +206,7 @@ public class TaskInfo implements Comparable<TaskInfo> {
 
     public void addMustSuccessor(TaskInfo toNode) {
         mustSuccessors.add(toNode);
+        toNode.mustPredecessors.add(this);
     }
 
     public void addFinalizer(TaskInfo finalizerNode) {
@@ -196,6 +221,56 @@ public class TaskInfo implements Comparable<TaskInfo> {
         shouldSuccessors.remove(toNode);
     }
 
+    /**
+     * The position of this task in the execution plan, used to hand out ready tasks in plan order.
+     */
+    public int getExecutionIndex() {
+        return executionIndex;
+    }
+
+    public void setExecutionIndex(int executionIndex) {
+        this.executionIndex = executionIndex;
+    }
+
+    /**
+     * The number of dependencies of this task that have not yet completed.
+     */
+    public int getPendingDependencyCount() {
+        return pendingDependencyCount;
+    }
+
+    public void setPendingDependencyCount(int pendingDependencyCount) {
+        this.pendingDependencyCount = pendingDependencyCount;
+    }
+
+    /**
+     * The expected duration, in milliseconds, of this task and the longest chain of tasks that wait for it.
+     */
+    public long getCriticalPathDuration() {
+        return criticalPathDuration;
+    }
+
+    public void setCriticalPathDuration(long criticalPathDuration) {
+        this.criticalPathDuration = criticalPathDuration;
+    }
+
+    /**
+     * Records that one of the dependencies of this task has completed.
+     *
+     * @return true if this task no longer waits for any dependency.
+     */
+    public boolean dependencyCompleted() {
+        assert pendingDependencyCount > 0;
+        return --pendingDependencyCount == 0;
+    }
+
+    /**
+     * Records that one of the dependencies of this task, previously considered complete, is now required to run.
+     */
+    public void dependencyReopened() {
+        pendingDependencyCount++;
+    }
+
     public int compareTo(TaskInfo otherInfo) {
         return task.compareTo(otherInfo.getTask());
     }
@@ -26,9 +26,20 @@ import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
 import org.gradle.internal.hash.HashValue;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps compiled script classes in memory across builds, so that a build in a warm daemon reuses the classes, and their class loaders, from the previous build.
+ *
+ * <p>The compiled scripts are softly referenced rather than limited to a fixed number of entries, so the cache grows with the number of scripts in the build
+ * and shrinks only when the heap is under pressure. Misses fall through to the delegate compiler, which loads the classes from the on-disk cache
+ * or compiles the script.</p>
+ */
 public class CrossBuildInMemoryCachingScriptClassCache {
-    private final Cache<ScriptCacheKey, CachedCompiledScript> cachedCompiledScripts = CacheBuilder.newBuilder().maximumSize(100).recordStats().build();
+    private final Cache<ScriptCacheKey, CachedCompiledScript> cachedCompiledScripts = CacheBuilder.newBuilder().softValues().build();
     private final FileSnapshotter snapshotter;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
 
     public CrossBuildInMemoryCachingScriptClassCache(FileSnapshotter snapshotter) {
         this.snapshotter = snapshotter;
@@ -40,14 +51,35 @@ public class CrossBuildInMemoryCachingScriptClassCache {
         HashValue hash = snapshotter.snapshot(source.getResource()).getHash();
         if (cached != null) {
             if (hash.equals(cached.hash)) {
+                hitCount.incrementAndGet();
                 return Cast.uncheckedCast(cached.compiledScript);
             }
         }
+        missCount.incrementAndGet();
         CompiledScript<T, M> compiledScript = delegate.compile(source, classLoader, classLoaderId, operation, scriptBaseClass, verifier);
         cachedCompiledScripts.put(key, new CachedCompiledScript(hash, compiledScript));
         return compiledScript;
     }
 
+    /**
+     * Returns the number of requests that were served from this cache, since the cache was created. This includes requests for scripts that were
+     * already compiled earlier in the same build, for example by buildSrc or a nested build, as well as scripts compiled by a previous build.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests that were passed to the delegate compiler, since the cache was created.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getSize() {
+        return cachedCompiledScripts.size();
+    }
+
     private static class CachedCompiledScript {
         private final HashValue hash;
         private final CompiledScript<?, ?> compiledScript;
@@ -86,6 +86,7 @@ import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.api.logging.configuration.ShowStacktrace;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
+import org.gradle.process.internal.worker.WorkerProcessReuseStatistics;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ProfileListener;
 
@@ -293,7 +294,10 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory, StartParameter startParameter) {
+        if (Boolean.getBoolean(TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_TOGGLE)) {
+            return new TaskPathProjectEvaluator(cancellationToken, executorFactory, startParameter.getMaxWorkerCount());
+        }
         return new TaskPathProjectEvaluator(cancellationToken);
     }
 
@@ -306,7 +310,8 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
-        return new ProfileEventAdapter(get(BuildRequestMetaData.class), get(TimeProvider.class), get(ListenerManager.class).getBroadcaster(ProfileListener.class));
+        return new ProfileEventAdapter(get(BuildRequestMetaData.class), get(TimeProvider.class), get(ListenerManager.class).getBroadcaster(ProfileListener.class), get(CrossBuildInMemoryCachingScriptClassCache.class),
+            get(WorkerProcessReuseStatistics.class));
     }
 
     protected PluginRegistry createPluginRegistry(ClassLoaderScopeRegistry scopeRegistry, PluginInspector pluginInspector) {
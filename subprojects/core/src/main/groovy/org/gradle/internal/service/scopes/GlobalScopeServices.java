@@ -29,7 +29,7 @@ import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.file.*;
 import org.gradle.api.internal.file.collections.DefaultDirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
-import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.hash.Hashers;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.ClassPathSnapshotter;
 import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
@@ -80,6 +80,7 @@ import org.gradle.model.internal.manage.instance.ManagedProxyFactory;
 import org.gradle.model.internal.manage.schema.ModelSchemaStore;
 import org.gradle.model.internal.manage.schema.extract.*;
 import org.gradle.process.internal.DefaultExecActionFactory;
+import org.gradle.process.internal.worker.WorkerProcessReuseStatistics;
 
 import java.util.List;
 
@@ -248,7 +249,7 @@ public class GlobalScopeServices {
     }
 
     CachingFileSnapshotter createCachingFileSnapshotter(StringInterner stringInterner, MapBackedInMemoryStore inMemoryStore) {
-        return new CachingFileSnapshotter(new DefaultHasher(), inMemoryStore, stringInterner);
+        return new CachingFileSnapshotter(Hashers.createFileHasher(), inMemoryStore, stringInterner);
     }
 
     ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
@@ -303,4 +304,8 @@ public class GlobalScopeServices {
     protected CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(CachingFileSnapshotter snapshotter) {
         return new CrossBuildInMemoryCachingScriptClassCache(snapshotter);
     }
+
+    WorkerProcessReuseStatistics createWorkerProcessReuseStatistics() {
+        return new WorkerProcessReuseStatistics();
+    }
 }
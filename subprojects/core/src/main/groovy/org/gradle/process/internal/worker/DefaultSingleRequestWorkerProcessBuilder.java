@@ -24,6 +24,7 @@ import org.gradle.process.internal.worker.request.Receiver;
 import org.gradle.process.internal.worker.request.RequestProtocol;
 import org.gradle.process.internal.worker.request.ResponseProtocol;
 import org.gradle.process.internal.worker.request.WorkerAction;
+import org.gradle.process.internal.worker.request.WorkerProtocolSerializer;
 
 import java.io.File;
 import java.lang.reflect.InvocationHandler;
@@ -112,6 +113,7 @@ class DefaultSingleRequestWorkerProcessBuilder<PROTOCOL> implements SingleReques
                     RequestProtocol requestProtocol = connection.addOutgoing(RequestProtocol.class);
                     connection.addIncoming(ResponseProtocol.class, receiver);
                     connection.useJavaSerializationForParameters(workerImplementation.getClassLoader());
+                    connection.useParameterSerializers(WorkerProtocolSerializer.create(workerImplementation.getClassLoader()));
                     connection.connect();
                     requestProtocol.runThenStop(method.getName(), method.getParameterTypes(), args);
                     boolean hasResult = receiver.awaitNextResult();
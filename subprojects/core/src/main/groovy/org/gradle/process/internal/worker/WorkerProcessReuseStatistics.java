@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the worker processes that were started by one build and reused by a later build in the same build process, along with the startup time that this saved.
+ */
+public class WorkerProcessReuseStatistics {
+    private final AtomicInteger reuseCount = new AtomicInteger();
+    private final AtomicLong savedStartupTime = new AtomicLong();
+
+    /**
+     * Records that a worker process was reused instead of starting a new one.
+     *
+     * @param startupTime the time in milliseconds that it took to start the worker process.
+     */
+    public void workerProcessReused(long startupTime) {
+        reuseCount.incrementAndGet();
+        savedStartupTime.addAndGet(startupTime);
+    }
+
+    public int getReuseCount() {
+        return reuseCount.get();
+    }
+
+    /**
+     * Returns the total startup time in milliseconds saved by reusing worker processes.
+     */
+    public long getSavedStartupTime() {
+        return savedStartupTime.get();
+    }
+}
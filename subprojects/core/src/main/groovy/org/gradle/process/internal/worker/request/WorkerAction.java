@@ -50,6 +50,7 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
 
         ObjectConnection connection = workerProcessContext.getServerConnection();
         connection.addIncoming(RequestProtocol.class, this);
+        connection.useParameterSerializers(WorkerProtocolSerializer.create(getClass().getClassLoader()));
         responder = connection.addOutgoing(ResponseProtocol.class);
         connection.connect();
 
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializers for the parameters of {@link RequestProtocol} and {@link ResponseProtocol}. The method name and parameter types of a request are written
+ * directly. The worker arguments and results can be of any type, so use Java serialization with the given ClassLoader.
+ */
+public class WorkerProtocolSerializer {
+    public static SerializerRegistry create(ClassLoader classLoader) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(classLoader);
+        registry.register(String.class, BaseSerializerFactory.STRING_SERIALIZER);
+        registry.register(Class[].class, new ClassArraySerializer(classLoader));
+        registry.useJavaSerialization(Object[].class);
+        registry.useJavaSerialization(Object.class);
+        return registry;
+    }
+
+    private static class ClassArraySerializer implements Serializer<Class[]> {
+        private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+        static {
+            for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class, void.class}) {
+                PRIMITIVE_TYPES.put(type.getName(), type);
+            }
+        }
+
+        private final ClassLoader classLoader;
+
+        ClassArraySerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Class[] read(Decoder decoder) throws Exception {
+            Class[] types = new Class[decoder.readSmallInt()];
+            for (int i = 0; i < types.length; i++) {
+                String name = decoder.readString();
+                Class<?> type = PRIMITIVE_TYPES.get(name);
+                types[i] = type != null ? type : Class.forName(name, false, classLoader);
+            }
+            return types;
+        }
+
+        @Override
+        public void write(Encoder encoder, Class[] value) throws Exception {
+            encoder.writeSmallInt(value.length);
+            for (Class<?> type : value) {
+                encoder.writeString(type.getName());
+            }
+        }
+    }
+}
@@ -54,6 +54,11 @@ public class BuildProfile {
     private long buildFinished;
     private StartParameter startParameter;
     private boolean successful;
+    private long compiledScriptCacheHits;
+    private long compiledScriptCacheMisses;
+    private long compiledScriptCacheSize;
+    private int reusedWorkerProcesses;
+    private long savedWorkerProcessStartupTime;
 
     public BuildProfile(StartParameter startParameter) {
         this.startParameter = startParameter;
@@ -250,5 +255,47 @@ public class BuildProfile {
         return startParameter;
     }
 
+    /**
+     * Records how the in-memory compiled script cache was used by this build.
+     * @param hits the number of script compilation requests served from memory, whether the classes were created by a previous build or earlier in this build
+     * @param misses the number of script compilation requests whose classes were loaded from the on-disk cache or compiled
+     * @param size the number of compiled scripts held in memory at the end of the build
+     */
+    public void setCompiledScriptCacheStatistics(long hits, long misses, long size) {
+        this.compiledScriptCacheHits = hits;
+        this.compiledScriptCacheMisses = misses;
+        this.compiledScriptCacheSize = size;
+    }
+
+    public long getCompiledScriptCacheHits() {
+        return compiledScriptCacheHits;
+    }
+
+    public long getCompiledScriptCacheMisses() {
+        return compiledScriptCacheMisses;
+    }
+
+    public long getCompiledScriptCacheSize() {
+        return compiledScriptCacheSize;
+    }
+
+    /**
+     * Records the worker processes, such as compiler daemons, that this build reused from a previous build instead of starting them.
+     * @param reused the number of worker processes reused
+     * @param savedStartupTime the startup time (in mSec) that reusing them saved
+     */
+    public void setWorkerProcessReuseStatistics(int reused, long savedStartupTime) {
+        this.reusedWorkerProcesses = reused;
+        this.savedWorkerProcessStartupTime = savedStartupTime;
+    }
+
+    public int getReusedWorkerProcesses() {
+        return reusedWorkerProcesses;
+    }
+
+    public long getSavedWorkerProcessStartupTime() {
+        return savedWorkerProcessStartupTime;
+    }
+
 
 }
@@ -27,9 +27,11 @@ import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.initialization.BuildCompletionListener;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.internal.TimeProvider;
+import org.gradle.process.internal.worker.WorkerProcessReuseStatistics;
 
 /**
  * Adapts various events to build a {@link BuildProfile} model, and then notifies a {@link ReportGeneratingProfileListener} when the model is ready.
@@ -38,12 +40,21 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
+    private final CrossBuildInMemoryCachingScriptClassCache scriptClassCache;
+    private final WorkerProcessReuseStatistics workerProcessReuseStatistics;
     private BuildProfile buildProfile;
+    private long scriptCacheHitsAtStart;
+    private long scriptCacheMissesAtStart;
+    private int reusedWorkerProcessesAtStart;
+    private long savedWorkerProcessStartupTimeAtStart;
 
-    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener) {
+    public ProfileEventAdapter(BuildRequestMetaData buildMetaData, TimeProvider timeProvider, ProfileListener listener, CrossBuildInMemoryCachingScriptClassCache scriptClassCache,
+                               WorkerProcessReuseStatistics workerProcessReuseStatistics) {
         this.buildMetaData = buildMetaData;
         this.timeProvider = timeProvider;
         this.listener = listener;
+        this.scriptClassCache = scriptClassCache;
+        this.workerProcessReuseStatistics = workerProcessReuseStatistics;
     }
 
     // BuildListener
@@ -52,6 +63,10 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         buildProfile = new BuildProfile(gradle.getStartParameter());
         buildProfile.setBuildStarted(now);
         buildProfile.setProfilingStarted(buildMetaData.getBuildTimeClock().getStartTime());
+        scriptCacheHitsAtStart = scriptClassCache.getHitCount();
+        scriptCacheMissesAtStart = scriptClassCache.getMissCount();
+        reusedWorkerProcessesAtStart = workerProcessReuseStatistics.getReuseCount();
+        savedWorkerProcessStartupTimeAtStart = workerProcessReuseStatistics.getSavedStartupTime();
     }
 
     public void settingsEvaluated(Settings settings) {
@@ -72,6 +87,8 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
 
     public void completed() {
         buildProfile.setBuildFinished(timeProvider.getCurrentTime());
+        buildProfile.setCompiledScriptCacheStatistics(scriptClassCache.getHitCount() - scriptCacheHitsAtStart, scriptClassCache.getMissCount() - scriptCacheMissesAtStart, scriptClassCache.getSize());
+        buildProfile.setWorkerProcessReuseStatistics(workerProcessReuseStatistics.getReuseCount() - reusedWorkerProcessesAtStart, workerProcessReuseStatistics.getSavedStartupTime() - savedWorkerProcessStartupTimeAtStart);
         try {
             listener.buildFinished(buildProfile);
         } finally {
@@ -127,6 +127,26 @@ public class ProfileReportRenderer {
                                         htmlWriter.startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(operation.getElapsedTime())).endElement();
                                     htmlWriter.endElement();
                                 }
+                            htmlWriter.endElement();
+                            htmlWriter.startElement("table");
+                                htmlWriter.startElement("thead");
+                                    htmlWriter.startElement("tr");
+                                        htmlWriter.startElement("th").characters("Compiled script cache").endElement();
+                                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Scripts").endElement();
+                                    htmlWriter.endElement();
+                                htmlWriter.endElement();
+                                htmlWriter.startElement("tr");
+                                    htmlWriter.startElement("td").characters("Served from memory").endElement();
+                                    htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(model.getCompiledScriptCacheHits())).endElement();
+                                htmlWriter.endElement();
+                                htmlWriter.startElement("tr");
+                                    htmlWriter.startElement("td").characters("Loaded or compiled").endElement();
+                                    htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(model.getCompiledScriptCacheMisses())).endElement();
+                                htmlWriter.endElement();
+                                htmlWriter.startElement("tr");
+                                    htmlWriter.startElement("td").characters("Held in memory").endElement();
+                                    htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(model.getCompiledScriptCacheSize())).endElement();
+                                htmlWriter.endElement();
                             htmlWriter.endElement()
                         .endElement();
                         htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab2");
@@ -175,6 +195,20 @@ public class ProfileReportRenderer {
                                         .endElement();
                                     }
                                 }
+                            htmlWriter.endElement();
+                            htmlWriter.startElement("table");
+                                htmlWriter.startElement("thead");
+                                    htmlWriter.startElement("tr");
+                                        htmlWriter.startElement("th").characters("Worker processes").endElement();
+                                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Reused").endElement();
+                                        htmlWriter.startElement("th").attribute("class", "numeric").characters("Startup time saved").endElement();
+                                    htmlWriter.endElement();
+                                htmlWriter.endElement();
+                                htmlWriter.startElement("tr");
+                                    htmlWriter.startElement("td").characters("Started by previous builds").endElement();
+                                    htmlWriter.startElement("td").attribute("class", "numeric").characters(String.valueOf(model.getReusedWorkerProcesses())).endElement();
+                                    htmlWriter.startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(model.getSavedWorkerProcessStartupTime())).endElement();
+                                htmlWriter.endElement();
                             htmlWriter.endElement()
                         .endElement()
                     .endElement();
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.api.Task
+import org.gradle.cache.PersistentIndexedCache
+import spock.lang.Specification
+
+class CacheBackedTaskDurationHistoryTest extends Specification {
+    final TaskArtifactStateCacheAccess cacheAccess = Mock()
+    final PersistentIndexedCache<String, Long> indexedCache = Mock()
+    CacheBackedTaskDurationHistory history
+
+    def setup() {
+        1 * cacheAccess.createCache("taskDurations", String, _) >> indexedCache
+        history = new CacheBackedTaskDurationHistory(cacheAccess)
+    }
+
+    def "does not write durations until flushed"() {
+        when:
+        history.recordDuration(task(":a"), 12)
+        history.recordDuration(task(":b"), 15)
+
+        then:
+        0 * cacheAccess._
+        0 * indexedCache._
+    }
+
+    def "writes all recorded durations with a single cache access when flushed"() {
+        given:
+        history.recordDuration(task(":a"), 12)
+        history.recordDuration(task(":b"), 15)
+
+        when:
+        history.flush()
+
+        then:
+        1 * cacheAccess.useCache("Update task durations", _ as Runnable) >> { String operation, Runnable action -> action.run() }
+        1 * indexedCache.put(":a", 12L)
+        1 * indexedCache.put(":b", 15L)
+        0 * cacheAccess._
+        0 * indexedCache._
+    }
+
+    def "does not write durations again on subsequent flush"() {
+        given:
+        history.recordDuration(task(":a"), 12)
+        history.flush()
+
+        when:
+        history.flush()
+
+        then:
+        0 * cacheAccess._
+        0 * indexedCache._
+    }
+
+    def task(String path) {
+        return Stub(Task) {
+            getPath() >> path
+        }
+    }
+}
@@ -33,11 +33,11 @@ class CacheCapSizerTest extends Specification {
 
         where:
         maxHeapMB | expectedCaps
-        100       | [taskArtifacts: 400, compilationState: 200, fileHashes: 80000, fileSnapshots: 2000, fileSnapshotsToTreeSnapshotsIndex: 2000, treeSnapshots: 4000, treeSnapshotUsage: 4000]
-        200       | [taskArtifacts: 400, compilationState: 200, fileHashes: 80000, fileSnapshots: 2000, fileSnapshotsToTreeSnapshotsIndex: 2000, treeSnapshots: 4000, treeSnapshotUsage: 4000]
-        768       | [taskArtifacts: 1600, compilationState: 800, fileHashes: 325200, fileSnapshots: 8100, fileSnapshotsToTreeSnapshotsIndex: 8100, treeSnapshots: 16200, treeSnapshotUsage: 16200]
-        1024      | [taskArtifacts: 2300, fileHashes: 459900, compilationState: 1100, fileSnapshots: 11500, fileSnapshotsToTreeSnapshotsIndex: 11500, treeSnapshots: 23000, treeSnapshotUsage: 23000]
-        1536      | [taskArtifacts: 3600, fileHashes: 729400, compilationState: 1800, fileSnapshots: 18200, fileSnapshotsToTreeSnapshotsIndex: 18200, treeSnapshots: 36400, treeSnapshotUsage: 36400]
-        2048      | [taskArtifacts: 4900, fileHashes: 998900, compilationState: 2400, fileSnapshots: 24900, fileSnapshotsToTreeSnapshotsIndex: 24900, treeSnapshots: 49900, treeSnapshotUsage: 49900]
+        100       | [taskArtifacts: 400, compilationState: 200, fileHashes: 80000, fileSnapshots: 2000, fileSnapshotsToTreeSnapshotsIndex: 2000, taskDurations: 2000, treeSnapshots: 4000, treeSnapshotUsage: 4000]
+        200       | [taskArtifacts: 400, compilationState: 200, fileHashes: 80000, fileSnapshots: 2000, fileSnapshotsToTreeSnapshotsIndex: 2000, taskDurations: 2000, treeSnapshots: 4000, treeSnapshotUsage: 4000]
+        768       | [taskArtifacts: 1600, compilationState: 800, fileHashes: 325200, fileSnapshots: 8100, fileSnapshotsToTreeSnapshotsIndex: 8100, taskDurations: 8100, treeSnapshots: 16200, treeSnapshotUsage: 16200]
+        1024      | [taskArtifacts: 2300, fileHashes: 459900, compilationState: 1100, fileSnapshots: 11500, fileSnapshotsToTreeSnapshotsIndex: 11500, taskDurations: 11500, treeSnapshots: 23000, treeSnapshotUsage: 23000]
+        1536      | [taskArtifacts: 3600, fileHashes: 729400, compilationState: 1800, fileSnapshots: 18200, fileSnapshotsToTreeSnapshotsIndex: 18200, taskDurations: 18200, treeSnapshots: 36400, treeSnapshotUsage: 36400]
+        2048      | [taskArtifacts: 4900, fileHashes: 998900, compilationState: 2400, fileSnapshots: 24900, fileSnapshotsToTreeSnapshotsIndex: 24900, taskDurations: 24900, treeSnapshots: 49900, treeSnapshotUsage: 49900]
     }
 }
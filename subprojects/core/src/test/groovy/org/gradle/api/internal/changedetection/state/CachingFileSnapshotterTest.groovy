@@ -16,10 +16,16 @@
 
 package org.gradle.api.internal.changedetection.state
 
+import org.gradle.api.file.FileTreeElement
 import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.hash.DefaultHasher
 import org.gradle.api.internal.hash.Hasher
 import org.gradle.cache.PersistentIndexedCache
+import org.gradle.cache.PersistentStore
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import org.gradle.internal.resource.TextResource
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -136,4 +142,39 @@ class CachingFileSnapshotterTest extends Specification {
         1 * resource.text >> "hello"
         0 * _._
     }
+
+    def hashesChangedFilesInParallelWhenSnapshottingManyFiles() {
+        def executorFactory = new DefaultExecutorFactory()
+        def processor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(), executorFactory, 4)
+        def store = Stub(PersistentStore) {
+            createCache("fileHashes", _, _) >> cache
+        }
+        def parallelHasher = new CachingFileSnapshotter(new DefaultHasher(), store, new StringInterner(), processor)
+        def files = (0..<250).collect { index ->
+            def f = tmpDir.createFile("file${index}.txt")
+            f.text = "content ${index}"
+            Stub(FileTreeElement) {
+                getFile() >> f
+                getSize() >> f.length()
+                getLastModified() >> f.lastModified()
+            }
+        }
+        def unchanged = files[10].file
+
+        when:
+        def result = parallelHasher.snapshotAll(files)
+
+        then:
+        result*.hash == files.collect { HashUtil.createHash(it.file, "MD5") }
+
+        and:
+        1 * cache.get(unchanged.absolutePath) >> new CachingFileSnapshotter.FileInfo(HashUtil.createHash(unchanged, "MD5"), unchanged.length(), unchanged.lastModified())
+        249 * cache.get(_) >> null
+        249 * cache.put(_, _)
+        0 * cache.put(unchanged.absolutePath, _)
+
+        cleanup:
+        processor.stop()
+        executorFactory.stop()
+    }
 }
@@ -49,6 +49,13 @@ public class DefaultFileCollectionSnapshotterTest extends Specification {
                 getHash() >> HashUtil.sha1(file)
             }
         }
+        fileSnapshotter.snapshotAll(_) >> { List<FileTreeElement> fileTreeElements ->
+            return fileTreeElements.collect { fileTreeElement ->
+                Stub(FileSnapshot) {
+                    getHash() >> HashUtil.sha1(fileTreeElement.file)
+                }
+            }
+        }
         cacheAccess.useCache(_, _) >> { String name, Runnable action ->
             action.run()
         }
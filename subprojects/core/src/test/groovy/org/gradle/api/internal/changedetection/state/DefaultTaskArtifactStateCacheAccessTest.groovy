@@ -36,9 +36,23 @@ class DefaultTaskArtifactStateCacheAccessTest extends Specification {
 
         then:
         1 * cacheRepository.cache(gradle, "taskArtifacts") >> cacheBuilder
+        1 * cacheBuilder.withProperties([hashAlgorithm: "MD5"]) >> cacheBuilder
         1 * cacheBuilder.withDisplayName(_) >> cacheBuilder
         1 * cacheBuilder.withLockOptions(LockOptionsBuilder.mode(FileLockManager.LockMode.None)) >> cacheBuilder
         1 * cacheBuilder.open() >> backingCache
         0 * _._
     }
+
+    def "records the file hash algorithm in the backing cache properties"() {
+        CacheBuilder cacheBuilder = Mock()
+
+        when:
+        new DefaultTaskArtifactStateCacheAccess(gradle, cacheRepository, new NoOpDecorator(), "MURMUR3-128")
+
+        then:
+        1 * cacheRepository.cache(gradle, "taskArtifacts") >> cacheBuilder
+        1 * cacheBuilder.withProperties([hashAlgorithm: "MURMUR3-128"]) >> cacheBuilder
+        1 * cacheBuilder.open() >> Mock(PersistentCache)
+        _ * cacheBuilder._ >> cacheBuilder
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.internal.hash.HashUtil
+import spock.lang.Specification
+
+class PackedFileInfoStoreTest extends Specification {
+    def store = new PackedFileInfoStore(1000)
+
+    def "returns stored values"() {
+        when:
+        store.put("/some/file", info(1))
+        store.put("/some/other-file", info(2))
+
+        then:
+        matches(store.get("/some/file"), info(1))
+        matches(store.get("/some/other-file"), info(2))
+        store.get("/some/missing") == null
+        store.size() == 2
+    }
+
+    def "replaces value for existing path"() {
+        when:
+        store.put("/some/file", info(1))
+        store.put("/some/file", info(2))
+
+        then:
+        matches(store.get("/some/file"), info(2))
+        store.size() == 1
+    }
+
+    def "can store paths with characters outside of ISO-8859-1"() {
+        when:
+        store.put("/some/中文/file", info(1))
+        store.put("/some/café/file", info(2))
+
+        then:
+        matches(store.get("/some/中文/file"), info(1))
+        matches(store.get("/some/café/file"), info(2))
+        store.get("/some/中斈/file") == null
+    }
+
+    def "can remove values"() {
+        (0..<500).each { store.put("/file$it", info(it)) }
+
+        when:
+        (0..<500).step(2) { store.remove("/file$it") }
+
+        then:
+        store.size() == 250
+        (0..<500).every { it % 2 == 0 ? store.get("/file$it") == null : matches(store.get("/file$it"), info(it)) }
+    }
+
+    def "evicts entries when full"() {
+        when:
+        (0..<3000).each { store.put("/file$it", info(it)) }
+
+        then:
+        store.size() == 1000
+        store.evictionCount == 2000
+        (0..<3000).every { store.get("/file$it") == null || matches(store.get("/file$it"), info(it)) }
+    }
+
+    def "does not store hashes longer than 128 bits"() {
+        def sha1 = new CachingFileSnapshotter.FileInfo(HashUtil.createHash("content", "SHA1"), 1, 2)
+
+        when:
+        store.put("/some/file", info(1))
+        store.put("/some/file", sha1)
+
+        then:
+        store.get("/some/file") == null
+    }
+
+    def "discards all values on clear"() {
+        store.put("/some/file", info(1))
+
+        when:
+        store.clear()
+
+        then:
+        store.get("/some/file") == null
+        store.size() == 0
+    }
+
+    private static CachingFileSnapshotter.FileInfo info(int value) {
+        return new CachingFileSnapshotter.FileInfo(HashUtil.createHash("content $value", "MD5"), value * 10, value * 100)
+    }
+
+    private static boolean matches(CachingFileSnapshotter.FileInfo actual, CachingFileSnapshotter.FileInfo expected) {
+        return actual.hash == expected.hash && actual.length == expected.length && actual.timestamp == expected.timestamp
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.hash
+
+import com.google.common.hash.Hashing
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class Murmur3HasherTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final hasher = new Murmur3Hasher()
+
+    @Unroll
+    def "produces the same hash as Guava for a file of #length bytes"() {
+        def content = new byte[length]
+        new Random(length).nextBytes(content)
+        def file = tmpDir.file("content.bin")
+        file.bytes = content
+
+        expect:
+        hasher.hash(file) == new HashValue(Hashing.murmur3_128().hashBytes(content).asBytes())
+
+        where:
+        length << [0, 1, 7, 8, 15, 16, 17, 31, 64 * 1024 - 1, 64 * 1024, 64 * 1024 + 9, 200 * 1024 + 3]
+    }
+
+    def "produces different hashes for different content"() {
+        def file1 = tmpDir.file("file1.txt")
+        def file2 = tmpDir.file("file2.txt")
+        file1.text = "content"
+        file2.text = "Content"
+
+        expect:
+        hasher.hash(file1) != hasher.hash(file2)
+        hasher.hash(file1) == hasher.hash(file1)
+    }
+}
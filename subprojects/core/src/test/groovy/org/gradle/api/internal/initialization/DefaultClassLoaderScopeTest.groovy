@@ -27,6 +27,10 @@ import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
 class DefaultClassLoaderScopeTest extends Specification {
 
     ClassLoader rootClassLoader
@@ -417,6 +421,38 @@ class DefaultClassLoaderScopeTest extends Specification {
         !scope.defines(exportLoader.loadClass(TestClass2.name))
     }
 
+    def "builds class loaders once when child scopes ask for them concurrently"() {
+        def created = new AtomicInteger()
+        def parentLoader = rootClassLoader
+        def cache = Stub(ClassLoaderCache) {
+            get(_, _, _, _) >> {
+                created.incrementAndGet()
+                // Give the other threads a chance to ask for the loaders while they are being built
+                Thread.sleep(20)
+                new URLClassLoader(new URL[0], parentLoader)
+            }
+        }
+        def parent = new RootClassLoaderScope(rootClassLoader, rootClassLoader, cache).createChild("parent").export(classPath("export")).lock()
+        def children = (1..8).collect { parent.createChild("child" + it).lock() }
+        def start = new CountDownLatch(1)
+        def loaders = new CopyOnWriteArrayList<ClassLoader>()
+
+        when:
+        def threads = children.collect { child ->
+            Thread.start {
+                start.await()
+                loaders << child.exportClassLoader
+            }
+        }
+        start.countDown()
+        threads*.join()
+
+        then:
+        created.get() == 1
+        loaders.size() == 8
+        loaders.every { it.is parent.exportClassLoader }
+    }
+
     void copyTo(Class<?> clazz, TestFile destDir) {
         def fileName = clazz.name.replace('.', '/') + ".class"
         def dest = destDir.file(fileName)
@@ -18,10 +18,30 @@ package org.gradle.api.internal.plugins
 
 import org.gradle.api.plugins.ExtraPropertiesExtensionTest
 
+import java.util.concurrent.CountDownLatch
+
 public class DefaultExtraPropertiesExtensionTest extends ExtraPropertiesExtensionTest<DefaultExtraPropertiesExtension> {
 
     DefaultExtraPropertiesExtension createExtension() {
         new DefaultExtraPropertiesExtension()
     }
 
+    def "properties can be set by several threads at the same time"() {
+        def start = new CountDownLatch(1)
+
+        when:
+        def threads = (1..8).collect { thread ->
+            Thread.start {
+                start.await()
+                1000.times { i ->
+                    extension.set("p${thread}_${i}".toString(), i)
+                }
+            }
+        }
+        start.countDown()
+        threads*.join()
+
+        then:
+        extension.properties.size() == 8000
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.cache.internal.btree
+
+import org.gradle.internal.serialize.DefaultSerializer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class MappedFileBlockStoreTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final cacheFile = tmpDir.file("cache.bin")
+
+    def "persists entries across reopen"() {
+        def cache = mappedCache()
+
+        when:
+        (0..<2000).each { cache.put("key$it".toString(), it) }
+        (0..<2000).step(3) { cache.remove("key$it".toString()) }
+        cache.verify()
+        cache.close()
+        cache = mappedCache()
+
+        then:
+        (0..<2000).every { cache.get("key$it".toString()) == (it % 3 == 0 ? null : it) }
+
+        cleanup:
+        cache.close()
+    }
+
+    def "persists entries that span chunks across reopen"() {
+        def cache = mappedCache(64)
+
+        when:
+        (0..<500).each { cache.put("key$it".toString(), it) }
+        cache.close()
+        cache = mappedCache(64)
+
+        then:
+        (0..<500).every { cache.get("key$it".toString()) == it }
+        cache.verify()
+
+        cleanup:
+        cache.close()
+    }
+
+    def "truncates padding from the file and releases it when closed"() {
+        def cache = mappedCache()
+        cache.put("key", 12)
+
+        when:
+        cache.close()
+
+        then:
+        cacheFile.length() < 1024
+        cacheFile.delete()
+    }
+
+    def "ignores padding left in the file by a previous session"() {
+        def cache = mappedCache(1024)
+        (0..<20).each { cache.put("key$it".toString(), it) }
+        cache.close()
+        def contentLength = cacheFile.length()
+        def raf = new RandomAccessFile(cacheFile, "rw")
+        raf.setLength((contentLength.intdiv(1024) + 1) * 1024)
+        raf.close()
+
+        when:
+        cache = mappedCache(1024)
+        cache.put("extra", 20)
+        cache.close()
+        def lengthAfterUpdate = cacheFile.length()
+        cache = mappedCache(1024)
+
+        then:
+        lengthAfterUpdate % 1024 != 0
+        (0..<20).every { cache.get("key$it".toString()) == it }
+        cache.get("extra") == 20
+        cache.verify()
+
+        cleanup:
+        cache.close()
+    }
+
+    def "can read a file written by the file backed store and vice versa"() {
+        def cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new DefaultSerializer<String>(), new DefaultSerializer<Integer>(), (short) 4, 100)
+        (0..<100).each { cache.put("key$it".toString(), it) }
+        cache.close()
+
+        when:
+        cache = mappedCache()
+        cache.put("extra", 100)
+        cache.close()
+        cache = new BTreePersistentIndexedCache<String, Integer>(cacheFile, new DefaultSerializer<String>(), new DefaultSerializer<Integer>(), (short) 4, 100)
+
+        then:
+        (0..<100).every { cache.get("key$it".toString()) == it }
+        cache.get("extra") == 100
+        cache.verify()
+
+        cleanup:
+        cache.close()
+    }
+
+    private BTreePersistentIndexedCache<String, Integer> mappedCache() {
+        return new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MappedFileBlockStore(cacheFile), new DefaultSerializer<String>(), new DefaultSerializer<Integer>(), (short) 4, 100)
+    }
+
+    private BTreePersistentIndexedCache<String, Integer> mappedCache(int chunkSize) {
+        return new BTreePersistentIndexedCache<String, Integer>(cacheFile, new MappedFileBlockStore(cacheFile, chunkSize), new DefaultSerializer<String>(), new DefaultSerializer<Integer>(), (short) 4, 100)
+    }
+}
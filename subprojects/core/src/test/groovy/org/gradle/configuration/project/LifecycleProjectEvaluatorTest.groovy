@@ -16,12 +16,17 @@
 
 package org.gradle.configuration.project
 
+import org.gradle.api.CircularReferenceException
 import org.gradle.api.ProjectConfigurationException
 import org.gradle.api.ProjectEvaluationListener
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 public class LifecycleProjectEvaluatorTest extends Specification {
     private project = Mock(ProjectInternal)
     private listener = Mock(ProjectEvaluationListener)
@@ -156,4 +161,109 @@ public class LifecycleProjectEvaluatorTest extends Specification {
         0 * state.executed(_)
     }
 
+    void "evaluation of a project that is being evaluated by another thread waits for that evaluation to finish"() {
+        def project2 = project("project2")
+        def state2 = new ProjectStateInternal()
+        def evaluating = new CountDownLatch(1)
+        def finish = new CountDownLatch(1)
+        def evaluations = 0
+        delegate.evaluate(project2, state2) >> {
+            evaluations++
+            evaluating.countDown()
+            finish.await()
+        }
+
+        when:
+        def owner = start { evaluator.evaluate(project2, state2) }
+        evaluating.await()
+        def waiter = start { evaluator.evaluate(project2, state2) }
+
+        then:
+        ConcurrentTestUtil.poll(3, 0.01) {
+            assert waiter.state == Thread.State.WAITING
+        }
+        !state2.executed
+
+        when:
+        finish.countDown()
+
+        then:
+        finished(owner)
+        finished(waiter)
+        state2.executed
+        !state2.hasFailure()
+        evaluations == 1
+    }
+
+    void "fails with a circular reference when two threads evaluate projects that depend on each other"() {
+        def project2 = project("project2")
+        def project3 = project("project3")
+        def state2 = new ProjectStateInternal()
+        def state3 = new ProjectStateInternal()
+        def bothEvaluating = new CountDownLatch(2)
+        Thread thread2
+        delegate.evaluate(project2, state2) >> {
+            bothEvaluating.countDown()
+            bothEvaluating.await()
+            evaluator.evaluate(project3, state3)
+        }
+        delegate.evaluate(project3, state3) >> {
+            bothEvaluating.countDown()
+            bothEvaluating.await()
+            ConcurrentTestUtil.poll(3, 0.01) {
+                assert thread2.state == Thread.State.WAITING
+            }
+            evaluator.evaluate(project2, state2)
+        }
+
+        when:
+        thread2 = start { evaluator.evaluate(project2, state2) }
+        def thread3 = start { evaluator.evaluate(project3, state3) }
+
+        then:
+        finished(thread2)
+        finished(thread3)
+        state2.executed
+        !state2.hasFailure()
+        state3.executed
+        state3.failure instanceof ProjectConfigurationException
+        state3.failure.cause instanceof CircularReferenceException
+        state3.failure.cause.message == "Circular referencing during evaluation for project2."
+    }
+
+    void "evaluation of a project that depends on itself through another project in the same thread does nothing"() {
+        def project2 = project("project2")
+        def project3 = project("project3")
+        def state2 = new ProjectStateInternal()
+        def state3 = new ProjectStateInternal()
+
+        when:
+        evaluator.evaluate(project2, state2)
+
+        then:
+        1 * delegate.evaluate(project2, state2) >> { evaluator.evaluate(project3, state3) }
+        1 * delegate.evaluate(project3, state3) >> { evaluator.evaluate(project2, state2) }
+        state2.executed
+        !state2.hasFailure()
+        state3.executed
+        !state3.hasFailure()
+    }
+
+    private ProjectInternal project(String name) {
+        def project = Mock(ProjectInternal)
+        project.getProjectEvaluationBroadcaster() >> Mock(ProjectEvaluationListener)
+        project.toString() >> name
+        return project
+    }
+
+    private static Thread start(Closure action) {
+        def thread = new Thread(action)
+        thread.start()
+        return thread
+    }
+
+    private static boolean finished(Thread thread) {
+        thread.join(TimeUnit.SECONDS.toMillis(10))
+        return !thread.alive
+    }
 }
@@ -19,6 +19,7 @@ package org.gradle.execution
 import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
@@ -60,4 +61,62 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures child projects in parallel once their parent has been configured"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, executorFactory, 4)
+        def child1 = Mock(ProjectInternal)
+        def child2 = Mock(ProjectInternal)
+        def grandChild = Mock(ProjectInternal)
+        def evaluated = Collections.synchronizedList([])
+
+        given:
+        project.childProjects >> [child1: child1, child2: child2]
+        child1.childProjects >> [grandChild: grandChild]
+        child2.childProjects >> [:]
+        grandChild.childProjects >> [:]
+        project.subprojects >> [child1, grandChild, child2]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        1 * project.evaluate()
+        1 * child1.evaluate() >> { evaluated << child1 }
+        1 * child2.evaluate() >> { evaluated << child2 }
+        1 * grandChild.evaluate() >> { evaluated << grandChild }
+
+        and:
+        evaluated.indexOf(child1) < evaluated.indexOf(grandChild)
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "does not configure children of a project that failed to configure"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelEvaluator = new TaskPathProjectEvaluator(cancellationToken, executorFactory, 4)
+        def child = Mock(ProjectInternal)
+        def grandChild = Mock(ProjectInternal)
+        def failure = new RuntimeException("broken")
+
+        given:
+        project.childProjects >> [child: child]
+        child.childProjects >> [grandChild: grandChild]
+        project.subprojects >> [child, grandChild]
+
+        when:
+        parallelEvaluator.configureHierarchy(project)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+
+        and:
+        1 * child.evaluate() >> { throw failure }
+        0 * grandChild.evaluate()
+
+        cleanup:
+        executorFactory.stop()
+    }
 }
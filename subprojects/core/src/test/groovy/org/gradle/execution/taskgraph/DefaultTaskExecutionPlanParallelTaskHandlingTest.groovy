@@ -239,6 +239,48 @@ class DefaultTaskExecutionPlanParallelTaskHandlingTest extends Specification {
         noMoreTasksCurrentlyAvailableForExecution()
     }
 
+    @ParallelizableTask
+    static class ParallelWithCountedOutputFile extends DefaultTask {
+        int outputResolutions
+        File file
+
+        @OutputFile
+        File getOutputFile() {
+            outputResolutions++
+            file
+        }
+    }
+
+    def "outputs are not resolved when tasks are executed one at a time"() {
+        given:
+        Task a = root.task("a", type: ParallelWithCountedOutputFile) { file = file("outputA") }
+        Task b = root.task("b", type: ParallelWithCountedOutputFile) { file = file("outputB") }
+        addToGraphAndPopulate(a, b)
+
+        when:
+        2.times { executionPlan.taskComplete(executionPlan.getTaskToExecute()) }
+
+        then:
+        a.outputResolutions == 0
+        b.outputResolutions == 0
+        executionPlan.getTaskToExecute() == null
+    }
+
+    def "outputs of a running task are resolved once another task is selected"() {
+        given:
+        Task a = root.task("a", type: ParallelWithCountedOutputFile) { file = file("outputA") }
+        Task b = root.task("b", type: ParallelWithCountedOutputFile) { file = file("outputB") }
+        addToGraphAndPopulate(a, b)
+
+        when:
+        startTasks(2)
+
+        then:
+        startedTasks*.task as Set == [a, b] as Set
+        a.outputResolutions > 0
+        b.outputResolutions > 0
+    }
+
     @ParallelizableTask
     static class ParallelWithOutputDirectory extends DefaultTask {
         @OutputDirectory
@@ -865,6 +865,67 @@ public class DefaultTaskExecutionPlanTest extends Specification {
         t3.task.project != t4.task.project
     }
 
+    def "hands out a task as soon as its dependencies complete"() {
+        given:
+        def projectA = createChildProject(root, "a")
+        def projectB = createChildProject(root, "b")
+        def projectC = createChildProject(root, "c")
+
+        def fooA = projectA.task("foo").doLast {}
+        def fooB = projectB.task("foo").doLast {}
+        def fooC = projectC.task("foo").dependsOn(fooA).doLast {}
+
+        addToGraphAndPopulate([fooB, fooC])
+
+        when:
+        def t1 = executionPlan.getTaskToExecute()
+        def t2 = executionPlan.getTaskToExecute()
+
+        then:
+        t1.task == fooB
+        t2.task == fooA
+
+        when:
+        executionPlan.taskComplete(t2)
+        def t3 = executionPlan.getTaskToExecute()
+
+        then:
+        t3.task == fooC
+
+        when:
+        executionPlan.taskComplete(t1)
+        executionPlan.taskComplete(t3)
+
+        then:
+        executionPlan.getTaskToExecute() == null
+    }
+
+    def "hands out the task with the longest remaining critical path first"() {
+        given:
+        def projectA = createChildProject(root, "a")
+        def projectB = createChildProject(root, "b")
+        def projectC = createChildProject(root, "c")
+
+        def fooA = projectA.task("foo").doLast {}
+        def fooB = projectB.task("foo").doLast {}
+        def fooC = projectC.task("foo").dependsOn(fooA).doLast {}
+
+        def durationHistory = Stub(TaskDurationHistory) {
+            getDurations(_) >> [(fooA): 10L, (fooB): 100L, (fooC): 1000L]
+        }
+
+        addToGraphAndPopulate([fooB, fooC])
+        executionPlan.useDurationHistory(durationHistory)
+
+        when:
+        def t1 = executionPlan.getTaskToExecute()
+        def t2 = executionPlan.getTaskToExecute()
+
+        then:
+        t1.task == fooA
+        t2.task == fooB
+    }
+
     void executes(Task... expectedTasks) {
         assert executionPlan.tasks == expectedTasks as List
         assert expectedTasks == expectedTasks as List
@@ -41,7 +41,7 @@ class DefaultTaskGraphExecuterSpec extends Specification {
     def project = ProjectBuilder.builder().build()
     def listenerManager = new DefaultListenerManager()
     def executer = Mock(TaskExecuter)
-    def taskExecuter = new DefaultTaskGraphExecuter(listenerManager, new DefaultTaskPlanExecutor(), Factories.constant(executer), cancellationToken, Stub(TimeProvider), Stub(BuildOperationExecutor))
+    def taskExecuter = new DefaultTaskGraphExecuter(listenerManager, new DefaultTaskPlanExecutor(), Factories.constant(executer), Factories.constant(TaskDurationHistory.NONE), cancellationToken, Stub(TimeProvider), Stub(BuildOperationExecutor))
 
     def "notifies task listener as tasks are executed"() {
         def listener = Mock(TaskExecutionListener)
@@ -263,6 +263,64 @@ class DefaultTaskGraphExecuterSpec extends Specification {
         noExceptionThrown()
     }
 
+    def "persists recorded task durations once after all tasks have executed"() {
+        def durationHistory = Mock(TaskDurationHistory)
+        def executer = new DefaultTaskGraphExecuter(listenerManager, new DefaultTaskPlanExecutor(), Factories.constant(this.executer), Factories.constant(durationHistory), cancellationToken, Stub(TimeProvider), Stub(BuildOperationExecutor))
+        def a = task("a")
+        def failure = new RuntimeException()
+        def b = brokenTask("b", failure)
+
+        given:
+        executer.addTasks([a, b])
+
+        when:
+        executer.execute()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        1 * this.executer.execute(a, a.state, _)
+        1 * this.executer.execute(b, b.state, _)
+
+        then:
+        1 * durationHistory.flush()
+        0 * durationHistory._
+    }
+
+    def "reports task failure when persisting task durations fails"() {
+        def durationHistory = Mock(TaskDurationHistory)
+        def executer = new DefaultTaskGraphExecuter(listenerManager, new DefaultTaskPlanExecutor(), Factories.constant(this.executer), Factories.constant(durationHistory), cancellationToken, Stub(TimeProvider), Stub(BuildOperationExecutor))
+        def failure = new RuntimeException()
+        def a = brokenTask("a", failure)
+
+        given:
+        executer.addTasks([a])
+
+        when:
+        executer.execute()
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        1 * durationHistory.flush() >> { throw new IllegalStateException("cache is broken") }
+    }
+
+    def "does not fail when persisting task durations fails"() {
+        def durationHistory = Mock(TaskDurationHistory)
+        def executer = new DefaultTaskGraphExecuter(listenerManager, new DefaultTaskPlanExecutor(), Factories.constant(this.executer), Factories.constant(durationHistory), cancellationToken, Stub(TimeProvider), Stub(BuildOperationExecutor))
+        def a = task("a")
+
+        given:
+        executer.addTasks([a])
+
+        when:
+        executer.execute()
+
+        then:
+        noExceptionThrown()
+        1 * durationHistory.flush() >> { throw new IllegalStateException("cache is broken") }
+    }
+
     def task(String name) {
         def mock = Mock(TaskInternal)
         _ * mock.name >> name
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.internal.TaskInternal
+import spock.lang.Specification
+
+class OutputPathTrieTest extends Specification {
+    def trie = new OutputPathTrie()
+    def task1 = Stub(TaskInternal)
+    def task2 = Stub(TaskInternal)
+
+    def "finds no overlap when no paths are claimed"() {
+        expect:
+        trie.isEmpty()
+        trie.findOverlap(path("a", "b")) == null
+    }
+
+    def "finds overlap with the same path"() {
+        given:
+        trie.add(task1, path("a", "b"))
+
+        when:
+        def overlap = trie.findOverlap(path("a", "b"))
+
+        then:
+        overlap.left == task1
+        overlap.right == path("a", "b")
+    }
+
+    def "finds overlap with a claimed ancestor"() {
+        given:
+        trie.add(task1, path("a", "b"))
+
+        when:
+        def overlap = trie.findOverlap(path("a", "b", "c", "d"))
+
+        then:
+        overlap.left == task1
+        overlap.right == path("a", "b")
+    }
+
+    def "finds overlap with a claimed descendant"() {
+        given:
+        trie.add(task1, path("a", "b", "c", "d"))
+
+        when:
+        def overlap = trie.findOverlap(path("a", "b"))
+
+        then:
+        overlap.left == task1
+        overlap.right == path("a", "b")
+    }
+
+    def "does not find overlap with siblings or paths sharing a name prefix"() {
+        given:
+        trie.add(task1, path("a", "b"))
+        trie.add(task2, path("a", "c", "d"))
+
+        expect:
+        trie.findOverlap(path("a", "bc")) == null
+        trie.findOverlap(path("a", "c", "e")) == null
+        trie.findOverlap(path("x")) == null
+    }
+
+    def "finds no overlap once a claim has been removed"() {
+        given:
+        trie.add(task1, path("a", "b"))
+        trie.add(task2, path("a", "b", "c"))
+
+        when:
+        trie.remove(task1, path("a", "b"))
+
+        then:
+        trie.findOverlap(path("a", "b")).left == task2
+        trie.findOverlap(path("a", "b", "d")) == null
+
+        when:
+        trie.remove(task2, path("a", "b", "c"))
+
+        then:
+        trie.isEmpty()
+        trie.findOverlap(path("a")) == null
+    }
+
+    def "keeps a path claimed until every task claiming it has been removed"() {
+        given:
+        trie.add(task1, path("a", "b"))
+        trie.add(task2, path("a", "b"))
+
+        when:
+        trie.remove(task1, path("a", "b"))
+
+        then:
+        trie.findOverlap(path("a", "b")).left == task2
+    }
+
+    private static String path(String... segments) {
+        File.separator + segments.join(File.separator)
+    }
+}
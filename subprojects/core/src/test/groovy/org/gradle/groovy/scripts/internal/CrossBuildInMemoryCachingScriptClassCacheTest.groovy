@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.scripts.internal
+
+import org.gradle.api.Action
+import org.gradle.api.internal.changedetection.state.FileSnapshot
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderId
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.hash.HashValue
+import org.gradle.internal.resource.TextResource
+import spock.lang.Specification
+
+class CrossBuildInMemoryCachingScriptClassCacheTest extends Specification {
+    final FileSnapshotter snapshotter = Mock()
+    final ScriptClassCompiler delegate = Mock()
+    final CrossBuildInMemoryCachingScriptClassCache cache = new CrossBuildInMemoryCachingScriptClassCache(snapshotter)
+    final ClassLoader classLoader = Mock()
+    final ClassLoaderId classLoaderId = Mock()
+    final Action verifier = Mock()
+    final CompileOperation<?> operation = Mock() {
+        getId() >> "id"
+    }
+
+    def "counts a miss when the script is passed to the delegate compiler"() {
+        def source = scriptSource("script", "abc")
+        def compiledScript = Mock(CompiledScript)
+
+        when:
+        def result = cache.getOrCompile(source, classLoader, classLoaderId, operation, Script, verifier, delegate)
+
+        then:
+        result == compiledScript
+        1 * delegate.compile(source, classLoader, classLoaderId, operation, Script, verifier) >> compiledScript
+
+        and:
+        cache.hitCount == 0
+        cache.missCount == 1
+        cache.size == 1
+    }
+
+    def "counts a hit when the script is served from memory"() {
+        def source = scriptSource("script", "abc")
+        def compiledScript = Mock(CompiledScript)
+
+        when:
+        def first = cache.getOrCompile(source, classLoader, classLoaderId, operation, Script, verifier, delegate)
+        def second = cache.getOrCompile(source, classLoader, classLoaderId, operation, Script, verifier, delegate)
+        def third = cache.getOrCompile(source, classLoader, classLoaderId, operation, Script, verifier, delegate)
+
+        then:
+        first == compiledScript
+        second == compiledScript
+        third == compiledScript
+        1 * delegate.compile(source, classLoader, classLoaderId, operation, Script, verifier) >> compiledScript
+        0 * delegate._
+
+        and:
+        cache.hitCount == 2
+        cache.missCount == 1
+        cache.size == 1
+    }
+
+    def "counts a miss when the script content has changed"() {
+        def original = scriptSource("script", "abc")
+        def changed = scriptSource("script", "def")
+        def compiledScript = Mock(CompiledScript)
+        def recompiledScript = Mock(CompiledScript)
+
+        when:
+        cache.getOrCompile(original, classLoader, classLoaderId, operation, Script, verifier, delegate)
+        def result = cache.getOrCompile(changed, classLoader, classLoaderId, operation, Script, verifier, delegate)
+
+        then:
+        result == recompiledScript
+        1 * delegate.compile(original, classLoader, classLoaderId, operation, Script, verifier) >> compiledScript
+        1 * delegate.compile(changed, classLoader, classLoaderId, operation, Script, verifier) >> recompiledScript
+
+        and:
+        cache.hitCount == 0
+        cache.missCount == 2
+        cache.size == 1
+    }
+
+    def "counts a miss for each distinct script"() {
+        def script1 = scriptSource("script1", "abc")
+        def script2 = scriptSource("script2", "abc")
+
+        when:
+        cache.getOrCompile(script1, classLoader, classLoaderId, operation, Script, verifier, delegate)
+        cache.getOrCompile(script2, classLoader, classLoaderId, operation, Script, verifier, delegate)
+        cache.getOrCompile(script1, classLoader, classLoaderId, operation, Script, verifier, delegate)
+
+        then:
+        1 * delegate.compile(script1, classLoader, classLoaderId, operation, Script, verifier) >> Mock(CompiledScript)
+        1 * delegate.compile(script2, classLoader, classLoaderId, operation, Script, verifier) >> Mock(CompiledScript)
+
+        and:
+        cache.hitCount == 1
+        cache.missCount == 2
+        cache.size == 2
+    }
+
+    def scriptSource(String className, String hash) {
+        def resource = Stub(TextResource)
+        def snapshot = Stub(FileSnapshot) {
+            getHash() >> HashValue.parse(hash)
+        }
+        snapshotter.snapshot(resource) >> snapshot
+        return Stub(ScriptSource) {
+            getClassName() >> className
+            getResource() >> resource
+        }
+    }
+}
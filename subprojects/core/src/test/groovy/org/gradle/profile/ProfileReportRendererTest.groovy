@@ -56,6 +56,9 @@ class ProfileReportRendererTest extends Specification {
         model.getProjectProfile("b").getTaskProfile("b:foo").completed(Stub(TaskState)).setStart(time(12, 27, 0)).setFinish(time(12, 29, 30))
         model.getProjectProfile("b").getTaskProfile("b:bar").completed(Stub(TaskState)).setStart(time(12, 27, 0)).setFinish(time(12, 29, 0))
 
+        model.setCompiledScriptCacheStatistics(5, 2, 7)
+        model.setWorkerProcessReuseStatistics(2, 3500)
+
         when:
         new ProfileReportRenderer().writeTo(model, file)
 
@@ -149,6 +152,26 @@ class ProfileReportRendererTest extends Specification {
 <td class="numeric">3.000s</td>
 </tr>
 </table>
+<table>
+<thead>
+<tr>
+<th>Compiled script cache</th>
+<th class="numeric">Scripts</th>
+</tr>
+</thead>
+<tr>
+<td>Served from memory</td>
+<td class="numeric">5</td>
+</tr>
+<tr>
+<td>Loaded or compiled</td>
+<td class="numeric">2</td>
+</tr>
+<tr>
+<td>Held in memory</td>
+<td class="numeric">7</td>
+</tr>
+</table>
 </div>
 <div class="tab" id="tab2">
 <h2>Dependency Resolution</h2>
@@ -214,6 +237,20 @@ class ProfileReportRendererTest extends Specification {
 <td>Did No Work</td>
 </tr>
 </table>
+<table>
+<thead>
+<tr>
+<th>Worker processes</th>
+<th class="numeric">Reused</th>
+<th class="numeric">Startup time saved</th>
+</tr>
+</thead>
+<tr>
+<td>Started by previous builds</td>
+<td class="numeric">2</td>
+<td class="numeric">3.500s</td>
+</tr>
+</table>
 </div>
 </div>"""))
     }
@@ -33,6 +33,8 @@ import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.Configuratio
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.DependencyDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.*;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultArtifactDependencyResolver;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ParallelResolveExecutor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
 import org.gradle.api.internal.artifacts.mvnsettings.*;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
@@ -49,6 +51,7 @@ import org.gradle.api.internal.project.ProjectRegistry;
 import org.gradle.cache.CacheRepository;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetaData;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resource.cached.ByUrlCachedExternalResourceIndex;
@@ -211,11 +214,18 @@ class DependencyManagementBuildScopeServices {
             versionComparator);
     }
 
+    ParallelResolveExecutor createParallelResolveExecutor(ExecutorFactory executorFactory, StartParameter startParameter, CacheLockingManager cacheLockingManager,
+                                                          IvyContextManager ivyContextManager) {
+        return new ParallelResolveExecutor(executorFactory, startParameter.getMaxWorkerCount(), cacheLockingManager, ivyContextManager);
+    }
+
     ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory resolveIvyFactory,
                                                                 DependencyDescriptorFactory dependencyDescriptorFactory,
                                                                 CacheLockingManager cacheLockingManager,
                                                                 IvyContextManager ivyContextManager,
                                                                 VersionComparator versionComparator,
+                                                                ParallelResolveExecutor parallelResolveExecutor,
+                                                                ResolvedGraphCache resolvedGraphCache,
                                                                 ServiceRegistry serviceRegistry) {
         DefaultArtifactDependencyResolver resolver = new DefaultArtifactDependencyResolver(
             serviceRegistry,
@@ -223,7 +233,9 @@ class DependencyManagementBuildScopeServices {
             dependencyDescriptorFactory,
             cacheLockingManager,
             ivyContextManager,
-            versionComparator
+            versionComparator,
+            Boolean.getBoolean(ParallelResolveExecutor.PARALLEL_RESOLVE_TOGGLE) ? parallelResolveExecutor : null,
+            Boolean.getBoolean(ResolvedGraphCache.GRAPH_CACHE_TOGGLE) ? resolvedGraphCache : null
         );
         return new CacheLockingArtifactDependencyResolver(cacheLockingManager, resolver);
     }
@@ -20,8 +20,13 @@ import org.gradle.api.internal.artifacts.component.ComponentIdentifierFactory;
 import org.gradle.api.internal.artifacts.component.DefaultComponentIdentifierFactory;
 import org.gradle.api.internal.artifacts.ivyservice.DefaultIvyContextManager;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParsedPomCache;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.*;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.*;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphCache;
+import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.transport.file.FileConnectorFactory;
 
@@ -58,6 +63,14 @@ class DependencyManagementGlobalScopeServices {
         return new DefaultConfigurationComponentMetaDataBuilder(dependenciesConverter);
     }
 
+    ResolvedGraphCache createResolvedGraphCache() {
+        return new ResolvedGraphCache(new DefaultVersionSelectorScheme(new DefaultVersionComparator()), new TrueTimeProvider());
+    }
+
+    ParsedPomCache createParsedPomCache() {
+        return new ParsedPomCache();
+    }
+
     ResourceConnectorFactory createFileConnectorFactory() {
         return new FileConnectorFactory();
     }
@@ -15,7 +15,9 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.*;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ParallelResolveExecutor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifacts;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResults;
 import org.gradle.api.specs.Spec;
@@ -28,6 +30,8 @@ import org.gradle.util.CollectionUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class DefaultLenientConfiguration implements LenientConfiguration {
     private CacheLockingManager cacheLockingManager;
@@ -35,9 +39,17 @@ public class DefaultLenientConfiguration implements LenientConfiguration {
     private final Set<UnresolvedDependency> unresolvedDependencies;
     private final ResolvedArtifacts artifactResults;
     private final Factory<TransientConfigurationResults> transientConfigurationResultsFactory;
+    private final ParallelResolveExecutor downloadExecutor;
 
     public DefaultLenientConfiguration(Configuration configuration, CacheLockingManager cacheLockingManager, Set<UnresolvedDependency> unresolvedDependencies,
                                        ResolvedArtifacts artifactResults, Factory<TransientConfigurationResults> transientConfigurationResultsLoader) {
+        this(configuration, cacheLockingManager, unresolvedDependencies, artifactResults, transientConfigurationResultsLoader, null);
+    }
+
+    public DefaultLenientConfiguration(Configuration configuration, CacheLockingManager cacheLockingManager, Set<UnresolvedDependency> unresolvedDependencies,
+                                       ResolvedArtifacts artifactResults, Factory<TransientConfigurationResults> transientConfigurationResultsLoader,
+                                       @Nullable ParallelResolveExecutor downloadExecutor) {
+        this.downloadExecutor = downloadExecutor;
         this.configuration = configuration;
         this.cacheLockingManager = cacheLockingManager;
         this.unresolvedDependencies = unresolvedDependencies;
@@ -100,10 +112,11 @@ public class DefaultLenientConfiguration implements LenientConfiguration {
         final Set<ResolvedArtifact> allArtifacts = getAllArtifacts(dependencySpec);
         return cacheLockingManager.useCache("retrieve artifacts from " + configuration, new Factory<Set<ResolvedArtifact>>() {
             public Set<ResolvedArtifact> create() {
+                final Map<ResolvedArtifact, ArtifactResolveException> downloadFailures = downloadFiles(allArtifacts);
                 return CollectionUtils.filter(allArtifacts, new Spec<ResolvedArtifact>() {
                     public boolean isSatisfiedBy(ResolvedArtifact element) {
                         try {
-                            File file = element.getFile();
+                            File file = getFile(element, downloadFailures);
                             return file != null;
                         } catch (ArtifactResolveException e) {
                             return false;
@@ -118,8 +131,9 @@ public class DefaultLenientConfiguration implements LenientConfiguration {
         final Set<File> files = new LinkedHashSet<File>();
         cacheLockingManager.useCache("resolve files from " + configuration, new Runnable() {
             public void run() {
+                Map<ResolvedArtifact, ArtifactResolveException> downloadFailures = downloadFiles(artifacts);
                 for (ResolvedArtifact artifact : artifacts) {
-                    File depFile = artifact.getFile();
+                    File depFile = getFile(artifact, downloadFailures);
                     if (depFile != null) {
                         files.add(depFile);
                     }
@@ -129,6 +143,46 @@ public class DefaultLenientConfiguration implements LenientConfiguration {
         return files;
     }
 
+    /**
+     * Resolves the files of the given artifacts concurrently, when a download executor is available. Each worker takes the next artifact from a shared queue,
+     * so that a large download does not hold up the artifacts behind it. Returns the failure for each artifact that could not be resolved, so that the
+     * caller can report it without attempting the download again.
+     */
+    private Map<ResolvedArtifact, ArtifactResolveException> downloadFiles(Set<ResolvedArtifact> artifacts) {
+        if (downloadExecutor == null || artifacts.size() < 2) {
+            return Collections.emptyMap();
+        }
+        final Map<ResolvedArtifact, ArtifactResolveException> failures = new ConcurrentHashMap<ResolvedArtifact, ArtifactResolveException>();
+        final Queue<ResolvedArtifact> queue = new ConcurrentLinkedQueue<ResolvedArtifact>(artifacts);
+        int workers = Math.min(downloadExecutor.getMaxWorkerCount(), artifacts.size());
+        List<Runnable> actions = new ArrayList<Runnable>(workers);
+        for (int i = 0; i < workers; i++) {
+            actions.add(new Runnable() {
+                public void run() {
+                    ResolvedArtifact artifact = queue.poll();
+                    while (artifact != null) {
+                        try {
+                            artifact.getFile();
+                        } catch (ArtifactResolveException e) {
+                            failures.put(artifact, e);
+                        }
+                        artifact = queue.poll();
+                    }
+                }
+            });
+        }
+        downloadExecutor.runAll("download artifacts for " + configuration, actions);
+        return failures;
+    }
+
+    private static File getFile(ResolvedArtifact artifact, Map<ResolvedArtifact, ArtifactResolveException> downloadFailures) {
+        ArtifactResolveException failure = downloadFailures.get(artifact);
+        if (failure != null) {
+            throw failure;
+        }
+        return artifact.getFile();
+    }
+
     /**
      * Recursive, includes unsuccessfully resolved artifacts
      *
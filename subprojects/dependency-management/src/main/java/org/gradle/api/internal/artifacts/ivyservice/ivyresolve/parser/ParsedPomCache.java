@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomDomParser.PomElement;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+
+/**
+ * Caches parsed POMs by the SHA-1 of their content, so that parent POMs and imported BOMs that are shared by many modules are parsed only once.
+ * The parsed elements are immutable, so a fresh {@link PomReader} can be created for each use. Entries are softly referenced.
+ */
+public class ParsedPomCache {
+    private final Cache<HashValue, PomElement> cache = CacheBuilder.newBuilder().softValues().build();
+
+    public PomElement parse(LocallyAvailableExternalResource resource) {
+        HashValue sha1 = resource.getLocalResource().getSha1();
+        PomElement element = cache.getIfPresent(sha1);
+        if (element == null) {
+            element = PomReader.parsePom(resource);
+            cache.put(sha1, element);
+        }
+        return element;
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+}
@@ -16,39 +16,118 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
 
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public final class PomDomParser {
-    private PomDomParser() {}
+    private static final ElementFilter PROFILE = new ElementFilter(ImmutableSet.of("id", "activation", "properties", "dependencies", "dependencyManagement"));
+    private static final ElementFilter PROFILES = new ElementFilter(ImmutableSet.of("profile"), ImmutableMap.of("profile", PROFILE));
+    private static final ElementFilter DISTRIBUTION_MANAGEMENT = new ElementFilter(ImmutableSet.of("relocation"));
+    private static final ElementFilter PROJECT = new ElementFilter(
+            ImmutableSet.of("parent", "groupId", "artifactId", "version", "packaging", "url", "description", "licenses", "distributionManagement", "properties", "dependencies", "dependencyManagement", "profiles"),
+            ImmutableMap.of("distributionManagement", DISTRIBUTION_MANAGEMENT, "profiles", PROFILES));
 
-    public static String getTextContent(Element element) {
-        StringBuilder result = new StringBuilder();
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
 
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node child = childNodes.item(i);
+    private PomDomParser() {}
 
-            switch (child.getNodeType()) {
-                case Node.CDATA_SECTION_NODE:
-                case Node.TEXT_NODE:
-                    result.append(child.getNodeValue());
-                    break;
-                default:
-                    break;
+    /**
+     * Parses the given POM with a streaming parser. Only the elements that are used to build the module meta-data are retained: coordinates, parent,
+     * relocation, properties, dependencies, dependency management, licenses and profiles. Everything else is checked for well-formedness and discarded.
+     */
+    public static PomElement parsePom(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            LinkedList<PomElementBuilder> stack = new LinkedList<PomElementBuilder>();
+            PomElement root = null;
+            int skipDepth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (skipDepth > 0) {
+                            skipDepth++;
+                            break;
+                        }
+                        String name = qualifiedName(reader);
+                        ElementFilter filter = stack.isEmpty() ? PROJECT : stack.getFirst().filter.child(name);
+                        if (filter == null) {
+                            skipDepth = 1;
+                        } else {
+                            stack.addFirst(new PomElementBuilder(name, filter));
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (skipDepth > 0) {
+                            skipDepth--;
+                            break;
+                        }
+                        PomElement element = stack.removeFirst().build();
+                        if (stack.isEmpty()) {
+                            root = element;
+                        } else {
+                            stack.getFirst().children.add(element);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (skipDepth == 0 && !stack.isEmpty()) {
+                            stack.getFirst().text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    default:
+                        break;
+                }
             }
+            return root;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String qualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if (prefix == null || prefix.length() == 0) {
+            return reader.getLocalName();
         }
+        return prefix + ":" + reader.getLocalName();
+    }
 
-        return result.toString();
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setXMLResolver(new XMLResolver() {
+            public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) throws XMLStreamException {
+                if ((systemID != null) && systemID.endsWith("m2-entities.ent")) {
+                    return org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent");
+                }
+                return null;
+            }
+        });
+        return factory;
     }
 
-    public static String getFirstChildText(Element parentElem, String name) {
-        Element node = getFirstChildElement(parentElem, name);
+    public static String getTextContent(PomElement element) {
+        return element.getText();
+    }
+
+    public static String getFirstChildText(PomElement parentElem, String name) {
+        PomElement node = getFirstChildElement(parentElem, name);
         if (node != null) {
             return getTextContent(node);
         } else {
@@ -56,32 +135,97 @@ public final class PomDomParser {
         }
     }
 
-    public static Element getFirstChildElement(Element parentElem, String name) {
+    public static PomElement getFirstChildElement(PomElement parentElem, String name) {
         if (parentElem == null) {
             return null;
         }
-        NodeList childs = parentElem.getChildNodes();
-        for (int i = 0; i < childs.getLength(); i++) {
-            Node node = childs.item(i);
-            if (node instanceof Element && name.equals(node.getNodeName())) {
-                return (Element) node;
+        for (PomElement child : parentElem.getChildren()) {
+            if (name.equals(child.getName())) {
+                return child;
             }
         }
         return null;
     }
 
-    public static List<Element> getAllChilds(Element parent) {
-        List<Element> r = new LinkedList<Element>();
-        if (parent != null) {
-            NodeList childs = parent.getChildNodes();
-            for (int i = 0; i < childs.getLength(); i++) {
-                Node node = childs.item(i);
-                if (node instanceof Element) {
-                    r.add((Element) node);
-                }
+    public static List<PomElement> getAllChilds(PomElement parent) {
+        if (parent == null) {
+            return Collections.emptyList();
+        }
+        return parent.getChildren();
+    }
+
+    /**
+     * An immutable element of a parsed POM. Holds the text directly contained by the element and its child elements, in document order.
+     */
+    public static final class PomElement {
+        private final String name;
+        private final String text;
+        private final List<PomElement> children;
+
+        PomElement(String name, String text, List<PomElement> children) {
+            this.name = name;
+            this.text = text;
+            this.children = children;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<PomElement> getChildren() {
+            return children;
+        }
+    }
+
+    private static class PomElementBuilder {
+        private final String name;
+        private final ElementFilter filter;
+        private final StringBuilder text = new StringBuilder();
+        private final List<PomElement> children = new ArrayList<PomElement>();
+
+        PomElementBuilder(String name, ElementFilter filter) {
+            this.name = name;
+            this.filter = filter;
+        }
+
+        PomElement build() {
+            List<PomElement> elements = children.isEmpty() ? Collections.<PomElement>emptyList() : Collections.unmodifiableList(children);
+            return new PomElement(name, text.toString(), elements);
+        }
+    }
+
+    /**
+     * Determines which children of an element are retained. A filter without a set of retained names retains the whole subtree.
+     */
+    private static class ElementFilter {
+        private static final ElementFilter ALL = new ElementFilter(null);
+
+        private final Set<String> retained;
+        private final Map<String, ElementFilter> nested;
+
+        ElementFilter(Set<String> retained) {
+            this(retained, Collections.<String, ElementFilter>emptyMap());
+        }
+
+        ElementFilter(Set<String> retained, Map<String, ElementFilter> nested) {
+            this.retained = retained;
+            this.nested = nested;
+        }
+
+        ElementFilter child(String name) {
+            if (retained == null) {
+                return ALL;
+            }
+            if (!retained.contains(name)) {
+                return null;
             }
+            ElementFilter filter = nested.get(name);
+            return filter == null ? ALL : filter;
         }
-        return r;
     }
 
     public static final class AddDTDFilterInputStream extends FilterInputStream {
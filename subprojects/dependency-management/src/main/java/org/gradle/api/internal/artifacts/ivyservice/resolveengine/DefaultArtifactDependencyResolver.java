@@ -16,12 +16,15 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
 
 import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
 import org.apache.ivy.Ivy;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.artifacts.ArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
 import org.gradle.api.internal.artifacts.ResolveContext;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
 import org.gradle.api.internal.artifacts.ivyservice.ContextualArtifactResolver;
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
@@ -39,9 +42,14 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.Resol
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RecordedDependencyGraph;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.ConflictHandler;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.DependencyMetaData;
 import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
 import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
@@ -61,9 +69,25 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
     private final CacheLockingManager cacheLockingManager;
     private final IvyContextManager ivyContextManager;
     private final VersionComparator versionComparator;
+    private final ParallelResolveExecutor parallelResolveExecutor;
+    private final ResolvedGraphCache resolvedGraphCache;
 
     public DefaultArtifactDependencyResolver(ServiceRegistry serviceRegistry, ResolveIvyFactory ivyFactory, DependencyDescriptorFactory dependencyDescriptorFactory,
                                              CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, VersionComparator versionComparator) {
+        this(serviceRegistry, ivyFactory, dependencyDescriptorFactory, cacheLockingManager, ivyContextManager, versionComparator, null);
+    }
+
+    public DefaultArtifactDependencyResolver(ServiceRegistry serviceRegistry, ResolveIvyFactory ivyFactory, DependencyDescriptorFactory dependencyDescriptorFactory,
+                                             CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, VersionComparator versionComparator,
+                                             @Nullable ParallelResolveExecutor parallelResolveExecutor) {
+        this(serviceRegistry, ivyFactory, dependencyDescriptorFactory, cacheLockingManager, ivyContextManager, versionComparator, parallelResolveExecutor, null);
+    }
+
+    public DefaultArtifactDependencyResolver(ServiceRegistry serviceRegistry, ResolveIvyFactory ivyFactory, DependencyDescriptorFactory dependencyDescriptorFactory,
+                                             CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager, VersionComparator versionComparator,
+                                             @Nullable ParallelResolveExecutor parallelResolveExecutor, @Nullable ResolvedGraphCache resolvedGraphCache) {
+        this.resolvedGraphCache = resolvedGraphCache;
+        this.parallelResolveExecutor = parallelResolveExecutor;
         this.serviceRegistry = serviceRegistry;
         this.ivyFactory = ivyFactory;
         this.dependencyDescriptorFactory = dependencyDescriptorFactory;
@@ -78,47 +102,75 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
        ivyContextManager.withIvy(new Action<Ivy>() {
             public void execute(Ivy ivy) {
                 LOGGER.debug("Resolving {}", resolveContext);
-                ComponentResolvers componentSource = createComponentSource(resolveContext, repositories, metadataHandler);
-                DependencyGraphBuilder builder = createDependencyGraphBuilder(componentSource, resolveContext.getResolutionStrategy(), metadataHandler);
+                List<ResolverProviderFactory> resolverFactories = createResolverFactories(resolveContext);
+                ComponentResolvers componentSource = createComponentSource(resolverFactories, resolveContext, repositories, metadataHandler);
 
                 ArtifactResolver artifactResolver = new ErrorHandlingArtifactResolver(new ContextualArtifactResolver(cacheLockingManager, ivyContextManager, componentSource.getArtifactResolver()));
                 DependencyGraphVisitor artifactsGraphVisitor = new ResolvedArtifactsGraphVisitor(artifactsVisitor, artifactResolver);
 
-                // Resolve the dependency graph
-                builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor));
+                if (resolvedGraphCache == null) {
+                    // Resolve the dependency graph
+                    DependencyGraphBuilder builder = createDependencyGraphBuilder(componentSource, resolveContext.getResolutionStrategy(), metadataHandler, new DefaultResolveContextToComponentResolver());
+                    builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor));
+                    return;
+                }
+
+                ComponentResolveMetaData rootComponent = resolveContext.toRootComponentMetaData();
+                DependencyGraphBuilder builder = createDependencyGraphBuilder(componentSource, resolveContext.getResolutionStrategy(), metadataHandler, new FixedResolveContextToComponentResolver(rootComponent));
+                HashCode key = resolvedGraphCache.createKey(resolveContext, rootComponent, repositories, resolverFactories, metadataHandler);
+                if (key == null) {
+                    builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor));
+                    return;
+                }
+
+                // The cache policy is only complete once the component source has been created, as the command-line overrides are applied to it then
+                ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+                ConfigurationMetaData rootConfiguration = rootComponent.getConfiguration(resolveContext.getName());
+                List<DependencyMetaData> rootDependencies = rootConfiguration.getDependencies();
+                RecordedDependencyGraph graph = resolvedGraphCache.get(key, resolveContext.getResolutionStrategy().getCachePolicy(), moduleReplacements);
+                if (graph != null) {
+                    LOGGER.debug("Using cached dependency graph with {} nodes for {}", graph.getNodeCount(), resolveContext);
+                    graph.replay(rootConfiguration, rootDependencies, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor));
+                    return;
+                }
+                builder.resolve(resolveContext, new CompositeDependencyGraphVisitor(graphVisitor, artifactsGraphVisitor, resolvedGraphCache.recordTo(key, rootDependencies, moduleReplacements)));
             }
         });
     }
 
-    private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolvers componentSource, ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler) {
+    private DependencyGraphBuilder createDependencyGraphBuilder(ComponentResolvers componentSource, ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler,
+                                                                ResolveContextToComponentResolver requestResolver) {
 
         DependencyToComponentIdResolver componentIdResolver = new DependencySubstitutionResolver(componentSource.getComponentIdResolver(), resolutionStrategy.getDependencySubstitutionRule());
         ComponentMetaDataResolver componentMetaDataResolver = new ClientModuleResolver(componentSource.getComponentResolver(), dependencyDescriptorFactory);
 
         DependencyToConfigurationResolver dependencyToConfigurationResolver = new DefaultDependencyToConfigurationResolver();
-        ResolveContextToComponentResolver requestResolver = createResolveContextConverter();
         ConflictHandler conflictHandler = createConflictHandler(resolutionStrategy, metadataHandler);
 
-        return new DependencyGraphBuilder(componentIdResolver, componentMetaDataResolver, requestResolver, dependencyToConfigurationResolver, conflictHandler);
+        return new DependencyGraphBuilder(componentIdResolver, componentMetaDataResolver, requestResolver, dependencyToConfigurationResolver, conflictHandler, parallelResolveExecutor);
     }
 
-    private ComponentResolversChain createComponentSource(ResolveContext resolveContext, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
-        List<ResolverProviderFactory> resolverFactories = allServices(ResolverProviderFactory.class);
-        List<ComponentResolvers> resolvers = Lists.newArrayList();
-        for (ResolverProviderFactory factory : resolverFactories) {
+    private List<ResolverProviderFactory> createResolverFactories(ResolveContext resolveContext) {
+        List<ResolverProviderFactory> resolverFactories = Lists.newArrayList();
+        for (ResolverProviderFactory factory : allServices(ResolverProviderFactory.class)) {
             if (factory.canCreate(resolveContext)) {
-                resolvers.add(factory.create(resolveContext));
+                resolverFactories.add(factory);
             }
         }
+        return resolverFactories;
+    }
+
+    private ComponentResolversChain createComponentSource(List<ResolverProviderFactory> resolverFactories, ResolveContext resolveContext, List<? extends ResolutionAwareRepository> repositories,
+                                                          GlobalDependencyResolutionRules metadataHandler) {
+        List<ComponentResolvers> resolvers = Lists.newArrayList();
+        for (ResolverProviderFactory factory : resolverFactories) {
+            resolvers.add(factory.create(resolveContext));
+        }
         ResolutionStrategyInternal resolutionStrategy = resolveContext.getResolutionStrategy();
         resolvers.add(ivyFactory.create(resolutionStrategy, repositories, metadataHandler.getComponentMetadataProcessor()));
         return new ComponentResolversChain(resolvers);
     }
 
-    private ResolveContextToComponentResolver createResolveContextConverter() {
-        return new DefaultResolveContextToComponentResolver();
-    }
-
     private ConflictHandler createConflictHandler(ResolutionStrategyInternal resolutionStrategy, GlobalDependencyResolutionRules metadataHandler) {
         ModuleConflictResolver conflictResolver;
         if (resolutionStrategy.getConflictResolution() instanceof StrictConflictResolution) {
@@ -141,4 +193,17 @@ public class DefaultArtifactDependencyResolver implements ArtifactDependencyReso
         }
     }
 
+    private static class FixedResolveContextToComponentResolver implements ResolveContextToComponentResolver {
+        private final ComponentResolveMetaData rootComponent;
+
+        private FixedResolveContextToComponentResolver(ComponentResolveMetaData rootComponent) {
+            this.rootComponent = rootComponent;
+        }
+
+        @Override
+        public void resolve(ResolveContext resolveContext, BuildableComponentResolveResult result) {
+            result.resolved(rootComponent);
+        }
+    }
+
 }
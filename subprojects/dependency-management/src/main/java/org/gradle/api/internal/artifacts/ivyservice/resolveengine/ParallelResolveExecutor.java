@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine;
+
+import org.apache.ivy.Ivy;
+import org.gradle.api.Action;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.DefaultBuildOperationProcessor;
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.Collection;
+
+/**
+ * Runs dependency resolution actions concurrently on a bounded pool.
+ *
+ * <p>Must be called from a thread that holds the artifact cache lock. The lock is released while the actions run, and each action
+ * acquires it again when it accesses the caches. Remote requests made by different actions therefore overlap, while cache access
+ * remains serialized.</p>
+ */
+public class ParallelResolveExecutor implements Stoppable {
+    public static final String PARALLEL_RESOLVE_TOGGLE = "org.gradle.parallel.resolve";
+    public static final String PARALLEL_DOWNLOAD_TOGGLE = "org.gradle.parallel.download";
+
+    private final DefaultBuildOperationProcessor processor;
+    private final int maxWorkerCount;
+    private final CacheLockingManager cacheLockingManager;
+    private final IvyContextManager ivyContextManager;
+
+    public ParallelResolveExecutor(ExecutorFactory executorFactory, int maxWorkerCount, CacheLockingManager cacheLockingManager, IvyContextManager ivyContextManager) {
+        this.processor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(), executorFactory, maxWorkerCount);
+        this.maxWorkerCount = maxWorkerCount;
+        this.cacheLockingManager = cacheLockingManager;
+        this.ivyContextManager = ivyContextManager;
+    }
+
+    /**
+     * Runs the given actions and waits for them to complete. Rethrows the first failure, if any.
+     */
+    public void runAll(final String displayName, final Collection<? extends Runnable> actions) {
+        cacheLockingManager.longRunningOperation(displayName, new Runnable() {
+            public void run() {
+                try {
+                    processor.run(new Action<BuildOperationQueue<ResolveOperation>>() {
+                        public void execute(BuildOperationQueue<ResolveOperation> queue) {
+                            for (Runnable action : actions) {
+                                queue.add(new ResolveOperation(displayName, action));
+                            }
+                        }
+                    });
+                } catch (MultipleBuildOperationFailures e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+                }
+            }
+        });
+    }
+
+    public int getMaxWorkerCount() {
+        return maxWorkerCount;
+    }
+
+    public void stop() {
+        processor.stop();
+    }
+
+    private class ResolveOperation implements RunnableBuildOperation {
+        private final String displayName;
+        private final Runnable action;
+
+        ResolveOperation(String displayName, Runnable action) {
+            this.displayName = displayName;
+            this.action = action;
+        }
+
+        public String getDescription() {
+            return displayName;
+        }
+
+        public void run() {
+            ivyContextManager.withIvy(new Action<Ivy>() {
+                public void execute(Ivy ivy) {
+                    cacheLockingManager.useCache(displayName, action);
+                }
+            });
+        }
+    }
+}
@@ -17,12 +17,15 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
 
 import com.google.common.base.Joiner;
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ModuleVersionSelector;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.artifacts.result.ComponentSelectionReason;
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
 import org.gradle.api.internal.artifacts.ResolveContext;
@@ -54,10 +57,21 @@ public class DependencyGraphBuilder {
     private final ResolveContextToComponentResolver moduleResolver;
     private final DependencyToComponentIdResolver idResolver;
     private final ComponentMetaDataResolver metaDataResolver;
+    private final ParallelResolveExecutor parallelResolveExecutor;
 
     public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
                                   ResolveContextToComponentResolver resolveContextToComponentResolver, DependencyToConfigurationResolver dependencyToConfigurationResolver,
                                   ConflictHandler conflictHandler) {
+        this(componentIdResolver, componentMetaDataResolver, resolveContextToComponentResolver, dependencyToConfigurationResolver, conflictHandler, null);
+    }
+
+    /**
+     * @param parallelResolveExecutor Used to resolve the outgoing dependencies of each configuration concurrently, or null to resolve them one at a time.
+     */
+    public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
+                                  ResolveContextToComponentResolver resolveContextToComponentResolver, DependencyToConfigurationResolver dependencyToConfigurationResolver,
+                                  ConflictHandler conflictHandler, @Nullable ParallelResolveExecutor parallelResolveExecutor) {
+        this.parallelResolveExecutor = parallelResolveExecutor;
         this.idResolver = componentIdResolver;
         this.metaDataResolver = componentMetaDataResolver;
         this.moduleResolver = resolveContextToComponentResolver;
@@ -92,6 +106,9 @@ public class DependencyGraphBuilder {
                 // Calculate the outgoing edges of this configuration
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
+                if (parallelResolveExecutor != null) {
+                    prefetchMetaData(dependencies);
+                }
 
                 for (DependencyEdge dependency : dependencies) {
                     LOGGER.debug("Visiting dependency {}", dependency);
@@ -154,6 +171,34 @@ public class DependencyGraphBuilder {
         }
     }
 
+    /**
+     * Resolves the selectors and component meta-data for the given edges concurrently. The results are only recorded against each selector,
+     * and are applied to the graph when the edges are visited in order, so that conflict handling sees exactly the same sequence of events as
+     * when resolving one edge at a time.
+     */
+    private void prefetchMetaData(List<DependencyEdge> dependencies) {
+        Set<ModuleVersionSelectorResolveState> selectors = new LinkedHashSet<ModuleVersionSelectorResolveState>();
+        for (DependencyEdge dependency : dependencies) {
+            if (dependency.selector.canPrefetch()) {
+                selectors.add(dependency.selector);
+            }
+        }
+        if (selectors.size() < 2) {
+            return;
+        }
+
+        LOGGER.debug("Resolving {} dependencies concurrently.", selectors.size());
+        List<Runnable> actions = new ArrayList<Runnable>(selectors.size());
+        for (final ModuleVersionSelectorResolveState selector : selectors) {
+            actions.add(new Runnable() {
+                public void run() {
+                    selector.prefetch(metaDataResolver);
+                }
+            });
+        }
+        parallelResolveExecutor.runAll("Resolve dependencies", actions);
+    }
+
     /**
      * Populates the result from the graph traversal state.
      */
@@ -556,8 +601,12 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
-            resolver.resolve(idResolveResult.getId(), DefaultComponentOverrideMetadata.forDependency(firstReference.dependencyMetaData), result);
+            ComponentResolveResult result = firstReference.takePrefetchedMetaData(idResolveResult.getId());
+            if (result == null) {
+                DefaultBuildableComponentResolveResult resolveResult = new DefaultBuildableComponentResolveResult();
+                resolver.resolve(idResolveResult.getId(), DefaultComponentOverrideMetadata.forDependency(firstReference.dependencyMetaData), resolveResult);
+                result = resolveResult;
+            }
             if (result.getFailure() != null) {
                 failure = result.getFailure();
                 return;
@@ -824,6 +873,9 @@ public class DependencyGraphBuilder {
         ModuleResolveState targetModule;
         ModuleVersionResolveState targetModuleRevision;
         BuildableComponentIdResolveResult idResolveResult;
+        // Results calculated ahead of time by a concurrent prefetch, not yet applied to the graph
+        BuildableComponentIdResolveResult prefetchedIdResolveResult;
+        BuildableComponentResolveResult prefetchedMetaDataResult;
 
         private ModuleVersionSelectorResolveState(DependencyMetaData dependencyMetaData, DependencyToComponentIdResolver resolver, ResolveState resolveState) {
             this.dependencyMetaData = dependencyMetaData;
@@ -864,8 +916,13 @@ public class DependencyGraphBuilder {
                 return null;
             }
 
-            idResolveResult = new DefaultBuildableComponentIdResolveResult();
-            resolver.resolve(dependencyMetaData, idResolveResult);
+            if (prefetchedIdResolveResult != null) {
+                idResolveResult = prefetchedIdResolveResult;
+                prefetchedIdResolveResult = null;
+            } else {
+                idResolveResult = new DefaultBuildableComponentIdResolveResult();
+                resolver.resolve(dependencyMetaData, idResolveResult);
+            }
             if (idResolveResult.getFailure() != null) {
                 failure = idResolveResult.getFailure();
                 return null;
@@ -884,6 +941,40 @@ public class DependencyGraphBuilder {
             this.targetModuleRevision = moduleRevision;
             this.targetModule = moduleRevision.module;
         }
+
+        /**
+         * Can this selector be resolved by {@link #prefetch}? Only selectors for external modules that have not been resolved yet are prefetched.
+         */
+        public boolean canPrefetch() {
+            return idResolveResult == null && targetModuleRevision == null && failure == null && prefetchedIdResolveResult == null
+                && dependencyMetaData.getSelector() instanceof ModuleComponentSelector;
+        }
+
+        /**
+         * Resolves this selector and the meta-data of the selected component, without modifying the graph. Called concurrently for multiple selectors.
+         */
+        public void prefetch(ComponentMetaDataResolver metaDataResolver) {
+            BuildableComponentIdResolveResult idResult = new DefaultBuildableComponentIdResolveResult();
+            resolver.resolve(dependencyMetaData, idResult);
+            if (idResult.getFailure() == null && idResult.getMetaData() == null && idResult.getId() instanceof ModuleComponentIdentifier) {
+                BuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+                metaDataResolver.resolve(idResult.getId(), DefaultComponentOverrideMetadata.forDependency(dependencyMetaData), result);
+                prefetchedMetaDataResult = result;
+            }
+            prefetchedIdResolveResult = idResult;
+        }
+
+        /**
+         * Returns the prefetched meta-data for the given component, if any. The prefetched result is used at most once.
+         */
+        public ComponentResolveResult takePrefetchedMetaData(ComponentIdentifier componentId) {
+            BuildableComponentResolveResult result = prefetchedMetaDataResult;
+            prefetchedMetaDataResult = null;
+            if (result == null || idResolveResult == null || !componentId.equals(idResolveResult.getId())) {
+                return null;
+            }
+            return result;
+        }
     }
 
     private static class DirectDependencyForcingResolver implements ModuleConflictResolver {
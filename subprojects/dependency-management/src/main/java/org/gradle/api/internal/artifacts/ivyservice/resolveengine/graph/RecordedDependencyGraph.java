@@ -0,0 +1,420 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.ComponentSelectionReason;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ModuleVersionSelection;
+import org.gradle.internal.component.local.model.DslOriginDependencyMetaData;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.DependencyMetaData;
+import org.gradle.internal.resolve.ModuleVersionResolveException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A detached copy of a successfully resolved dependency graph, which can be replayed to a {@link DependencyGraphVisitor} in a later resolution of the same inputs.
+ *
+ * <p>The graph holds on to the meta-data of the external components it contains, but nothing that belongs to the build that resolved it. The root configuration
+ * and the first level dependencies are taken from the resolution that the graph is replayed to.</p>
+ */
+public class RecordedDependencyGraph {
+    private final long timestamp;
+    private final NodeData[] nodes;
+    private final EdgeData[] edges;
+    private final ModuleComponentIdentifier[] modules;
+    private final boolean[] changing;
+    private final ModuleVersionIdentifier[] dynamicSelections;
+
+    private RecordedDependencyGraph(long timestamp, NodeData[] nodes, EdgeData[] edges, ModuleComponentIdentifier[] modules, boolean[] changing, ModuleVersionIdentifier[] dynamicSelections) {
+        this.timestamp = timestamp;
+        this.nodes = nodes;
+        this.edges = edges;
+        this.modules = modules;
+        this.changing = changing;
+        this.dynamicSelections = dynamicSelections;
+    }
+
+    /**
+     * Records the given graph, as visited in order by {@link DependencyGraphVisitor#visitNode}. Returns null when the graph cannot be replayed later: it contains a failure,
+     * a component that is not an external module, or a dependency that cannot be matched to the dependencies of the root configuration.
+     */
+    @Nullable
+    public static RecordedDependencyGraph record(DependencyGraphNode root, List<DependencyGraphNode> visitedNodes, List<DependencyMetaData> rootDependencies,
+                                                 VersionSelectorScheme versionSelectorScheme, long timestamp) {
+        Map<DependencyGraphNode, Integer> nodeIndexes = new IdentityHashMap<DependencyGraphNode, Integer>();
+        for (DependencyGraphNode node : visitedNodes) {
+            if (node != root && !(node.getComponentId() instanceof ModuleComponentIdentifier)) {
+                return null;
+            }
+            nodeIndexes.put(node, nodeIndexes.size());
+        }
+        if (!nodeIndexes.containsKey(root) || !root.getIncomingEdges().isEmpty()) {
+            return null;
+        }
+
+        Map<DependencyGraphEdge, Integer> edgeIndexes = new IdentityHashMap<DependencyGraphEdge, Integer>();
+        List<EdgeData> edges = new ArrayList<EdgeData>();
+        List<ModuleVersionIdentifier> dynamicSelections = new ArrayList<ModuleVersionIdentifier>();
+        for (DependencyGraphNode node : visitedNodes) {
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                if (edge.getFailure() != null || edgeIndexes.containsKey(edge)) {
+                    return null;
+                }
+                int rootDependency = -1;
+                if (node == root) {
+                    rootDependency = indexOf(rootDependencies, edge.getModuleDependency());
+                    if (rootDependency < 0) {
+                        return null;
+                    }
+                }
+                ComponentSelector requested = edge.getRequested();
+                if (!(requested instanceof ModuleComponentSelector)) {
+                    return null;
+                }
+                if (versionSelectorScheme.parseSelector(((ModuleComponentSelector) requested).getVersion()).isDynamic() && edge.getSelected() != null) {
+                    dynamicSelections.add(edge.getSelected());
+                }
+                edgeIndexes.put(edge, edges.size());
+                edges.add(new EdgeData(nodeIndexes.get(node), requested, edge.getRequestedModuleVersion(), edge.getSelector(), edge.getSelected(), edge.getReason(), rootDependency));
+            }
+        }
+
+        NodeData[] nodes = new NodeData[visitedNodes.size()];
+        List<ModuleComponentIdentifier> modules = new ArrayList<ModuleComponentIdentifier>();
+        List<Boolean> changing = new ArrayList<Boolean>();
+        for (DependencyGraphNode node : visitedNodes) {
+            int index = nodeIndexes.get(node);
+            ConfigurationMetaData metaData = node == root ? null : node.getMetaData();
+            int[] outgoing = new int[node.getOutgoingEdges().size()];
+            int i = 0;
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                outgoing[i++] = edgeIndexes.get(edge);
+            }
+            int[] incoming = new int[node.getIncomingEdges().size()];
+            i = 0;
+            for (DependencyGraphEdge edge : node.getIncomingEdges()) {
+                Integer edgeIndex = edgeIndexes.get(edge);
+                if (edgeIndex == null) {
+                    return null;
+                }
+                incoming[i++] = edgeIndex;
+                edges.get(edgeIndex).artifacts.put(metaData, edge.getArtifacts(metaData));
+            }
+            ModuleVersionSelection selection = node.getSelection();
+            nodes[index] = new NodeData(node.getNodeId(), node.toId(), node.getComponentId(), new RecordedSelection(selection.getId(), selection.getSelectionReason(), selection.getComponentId()), metaData, outgoing, incoming);
+            if (node != root && !modules.contains(node.getComponentId())) {
+                modules.add((ModuleComponentIdentifier) node.getComponentId());
+                changing.add(node.getMetaData().getComponent().isChanging());
+            }
+        }
+
+        boolean[] changingFlags = new boolean[changing.size()];
+        for (int i = 0; i < changingFlags.length; i++) {
+            changingFlags[i] = changing.get(i);
+        }
+        return new RecordedDependencyGraph(timestamp, nodes, edges.toArray(new EdgeData[0]), modules.toArray(new ModuleComponentIdentifier[0]), changingFlags,
+            dynamicSelections.toArray(new ModuleVersionIdentifier[0]));
+    }
+
+    private static int indexOf(List<DependencyMetaData> rootDependencies, @Nullable ModuleDependency source) {
+        if (source == null) {
+            return -1;
+        }
+        for (int i = 0; i < rootDependencies.size(); i++) {
+            DependencyMetaData dependency = rootDependencies.get(i);
+            if (dependency instanceof DslOriginDependencyMetaData && ((DslOriginDependencyMetaData) dependency).getSource() == source) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns true when the given cache policy would still use each of the components and dynamic version selections in this graph, at the age of this graph.
+     */
+    public boolean isUpToDate(CachePolicy cachePolicy, long now) {
+        long age = now - timestamp;
+        for (int i = 0; i < modules.length; i++) {
+            ModuleComponentIdentifier module = modules[i];
+            DefaultResolvedModuleVersion version = new DefaultResolvedModuleVersion(DefaultModuleVersionIdentifier.newId(module));
+            boolean mustRefresh = changing[i] ? cachePolicy.mustRefreshChangingModule(module, version, age) : cachePolicy.mustRefreshModule(module, version, age);
+            if (mustRefresh) {
+                return false;
+            }
+        }
+        for (ModuleVersionIdentifier selected : dynamicSelections) {
+            if (cachePolicy.mustRefreshVersionList(selected.getModule(), Collections.singleton(selected), age)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true when any module in this graph is replaced by another module, in which case conflict resolution may select differently.
+     */
+    public boolean containsReplacedModule(ModuleReplacementsData moduleReplacements) {
+        for (ModuleComponentIdentifier module : modules) {
+            if (moduleReplacements.getReplacementFor(DefaultModuleIdentifier.newId(module.getGroup(), module.getModule())) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits this graph as {@link DependencyGraphBuilder} would, using the given root configuration and its dependencies in place of the recorded ones.
+     */
+    public void replay(ConfigurationMetaData rootConfiguration, List<DependencyMetaData> rootDependencies, DependencyGraphVisitor visitor) {
+        ReplayedNode[] replayedNodes = new ReplayedNode[nodes.length];
+        ReplayedEdge[] replayedEdges = new ReplayedEdge[edges.length];
+        for (int i = 0; i < nodes.length; i++) {
+            NodeData node = nodes[i];
+            replayedNodes[i] = new ReplayedNode(node, node.metaData == null ? rootConfiguration : node.metaData);
+        }
+        for (int i = 0; i < edges.length; i++) {
+            EdgeData edge = edges[i];
+            ModuleDependency moduleDependency = edge.rootDependency < 0 ? null : ((DslOriginDependencyMetaData) rootDependencies.get(edge.rootDependency)).getSource();
+            replayedEdges[i] = new ReplayedEdge(edge, replayedNodes[edge.from], moduleDependency);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            replayedNodes[i].link(replayedEdges);
+        }
+
+        ReplayedNode root = null;
+        for (ReplayedNode node : replayedNodes) {
+            if (node.data.metaData == null) {
+                root = node;
+            }
+        }
+        visitor.start(root);
+        for (ReplayedNode node : replayedNodes) {
+            visitor.visitNode(node);
+        }
+        for (ReplayedNode node : replayedNodes) {
+            visitor.visitEdge(node);
+        }
+        visitor.finish(root);
+    }
+
+    private static class NodeData {
+        final ResolvedConfigurationIdentifier nodeId;
+        final ModuleVersionIdentifier toId;
+        final ComponentIdentifier componentId;
+        final ModuleVersionSelection selection;
+        final ConfigurationMetaData metaData;
+        final int[] outgoing;
+        final int[] incoming;
+
+        NodeData(ResolvedConfigurationIdentifier nodeId, ModuleVersionIdentifier toId, ComponentIdentifier componentId, ModuleVersionSelection selection,
+                 @Nullable ConfigurationMetaData metaData, int[] outgoing, int[] incoming) {
+            this.nodeId = nodeId;
+            this.toId = toId;
+            this.componentId = componentId;
+            this.selection = selection;
+            this.metaData = metaData;
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+        }
+    }
+
+    private static class EdgeData {
+        final int from;
+        final ComponentSelector requested;
+        final ModuleVersionSelector requestedModuleVersion;
+        final ModuleResolutionFilter selector;
+        final ModuleVersionIdentifier selected;
+        final ComponentSelectionReason reason;
+        final int rootDependency;
+        final Map<ConfigurationMetaData, Set<ComponentArtifactMetaData>> artifacts = new IdentityHashMap<ConfigurationMetaData, Set<ComponentArtifactMetaData>>();
+
+        EdgeData(int from, ComponentSelector requested, ModuleVersionSelector requestedModuleVersion, ModuleResolutionFilter selector,
+                 ModuleVersionIdentifier selected, ComponentSelectionReason reason, int rootDependency) {
+            this.from = from;
+            this.requested = requested;
+            this.requestedModuleVersion = requestedModuleVersion;
+            this.selector = selector;
+            this.selected = selected;
+            this.reason = reason;
+            this.rootDependency = rootDependency;
+        }
+    }
+
+    private static class RecordedSelection implements ModuleVersionSelection {
+        private final ModuleVersionIdentifier id;
+        private final ComponentSelectionReason selectionReason;
+        private final ComponentIdentifier componentId;
+
+        RecordedSelection(ModuleVersionIdentifier id, ComponentSelectionReason selectionReason, ComponentIdentifier componentId) {
+            this.id = id;
+            this.selectionReason = selectionReason;
+            this.componentId = componentId;
+        }
+
+        public ModuleVersionIdentifier getId() {
+            return id;
+        }
+
+        public ComponentSelectionReason getSelectionReason() {
+            return selectionReason;
+        }
+
+        public ComponentIdentifier getComponentId() {
+            return componentId;
+        }
+    }
+
+    private static class ReplayedNode implements DependencyGraphNode {
+        private final NodeData data;
+        private final ConfigurationMetaData metaData;
+        private Set<DependencyGraphEdge> outgoingEdges;
+        private Set<DependencyGraphEdge> incomingEdges;
+
+        ReplayedNode(NodeData data, ConfigurationMetaData metaData) {
+            this.data = data;
+            this.metaData = metaData;
+        }
+
+        void link(ReplayedEdge[] edges) {
+            ImmutableSet.Builder<DependencyGraphEdge> outgoing = ImmutableSet.builder();
+            for (int edge : data.outgoing) {
+                outgoing.add(edges[edge]);
+            }
+            outgoingEdges = outgoing.build();
+            ImmutableSet.Builder<DependencyGraphEdge> incoming = ImmutableSet.builder();
+            for (int edge : data.incoming) {
+                incoming.add(edges[edge]);
+            }
+            incomingEdges = incoming.build();
+        }
+
+        public ResolvedConfigurationIdentifier getNodeId() {
+            return data.nodeId;
+        }
+
+        public ModuleVersionIdentifier toId() {
+            return data.toId;
+        }
+
+        public ComponentIdentifier getComponentId() {
+            return data.componentId;
+        }
+
+        public ModuleVersionSelection getSelection() {
+            return data.selection;
+        }
+
+        public Set<DependencyGraphEdge> getIncomingEdges() {
+            return incomingEdges;
+        }
+
+        public Set<DependencyGraphEdge> getOutgoingEdges() {
+            return outgoingEdges;
+        }
+
+        public ConfigurationMetaData getMetaData() {
+            return metaData;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", data.nodeId.getId(), data.nodeId.getConfiguration());
+        }
+    }
+
+    private static class ReplayedEdge implements DependencyGraphEdge {
+        private final EdgeData data;
+        private final ReplayedNode from;
+        private final ModuleDependency moduleDependency;
+
+        ReplayedEdge(EdgeData data, ReplayedNode from, @Nullable ModuleDependency moduleDependency) {
+            this.data = data;
+            this.from = from;
+            this.moduleDependency = moduleDependency;
+        }
+
+        public DependencyGraphNode getFrom() {
+            return from;
+        }
+
+        public ModuleVersionSelector getRequestedModuleVersion() {
+            return data.requestedModuleVersion;
+        }
+
+        public ModuleResolutionFilter getSelector() {
+            return data.selector;
+        }
+
+        public Set<ComponentArtifactMetaData> getArtifacts(ConfigurationMetaData metaData) {
+            Set<ComponentArtifactMetaData> artifacts = data.artifacts.get(metaData);
+            return artifacts == null ? Collections.<ComponentArtifactMetaData>emptySet() : artifacts;
+        }
+
+        public ModuleDependency getModuleDependency() {
+            return moduleDependency;
+        }
+
+        public ComponentSelector getRequested() {
+            return data.requested;
+        }
+
+        public ModuleVersionResolveException getFailure() {
+            return null;
+        }
+
+        public ModuleVersionIdentifier getSelected() {
+            return data.selected;
+        }
+
+        public ComponentSelectionReason getReason() {
+            return data.reason;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s -> %s", from, data.requested);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.ivy.core.module.descriptor.ExcludeRule;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.ResolveContext;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ResolverProviderFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.component.local.model.DslOriginDependencyMetaData;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ConfigurationMetaData;
+import org.gradle.internal.component.model.DependencyMetaData;
+import org.gradle.internal.component.model.IvyArtifactName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A daemon wide cache of resolved dependency graphs, keyed by a hash of the inputs to resolution.
+ *
+ * <p>Only graphs made up entirely of external modules, resolved from remote repositories without any rules that can change the result, are cached. An entry
+ * is used only while the cache policy of the current build would still use each of the modules and dynamic version selections in the graph.</p>
+ */
+public class ResolvedGraphCache {
+    /**
+     * The system property that enables the cache.
+     */
+    public static final String GRAPH_CACHE_TOGGLE = "org.gradle.resolution.graphcache";
+
+    private static final byte FIELD_SEPARATOR = (byte) '\t';
+    private static final byte RECORD_SEPARATOR = (byte) '\n';
+
+    private final Cache<HashCode, RecordedDependencyGraph> graphs = CacheBuilder.newBuilder().softValues().build();
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final TimeProvider timeProvider;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResolvedGraphCache(VersionSelectorScheme versionSelectorScheme, TimeProvider timeProvider) {
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.timeProvider = timeProvider;
+    }
+
+    /**
+     * Calculates the key for the given resolution, or returns null when the result of this resolution cannot be cached.
+     */
+    @Nullable
+    public HashCode createKey(ResolveContext resolveContext, ComponentResolveMetaData rootComponent, List<? extends ResolutionAwareRepository> repositories,
+                              List<ResolverProviderFactory> resolverFactories, GlobalDependencyResolutionRules metadataHandler) {
+        ResolutionStrategyInternal resolutionStrategy = resolveContext.getResolutionStrategy();
+        if (repositories.isEmpty()
+            || resolutionStrategy.getDependencySubstitution().hasRules()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || metadataHandler.getComponentMetadataProcessor().hasRules()) {
+            return null;
+        }
+        ConfigurationMetaData rootConfiguration = rootComponent.getConfiguration(resolveContext.getName());
+        if (rootConfiguration == null) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, resolveContext.getName());
+        putString(hasher, rootComponent.getComponentId().getDisplayName());
+        putString(hasher, rootComponent.getId().toString());
+        for (String name : rootConfiguration.getHierarchy()) {
+            putString(hasher, name);
+        }
+        hasher.putBoolean(rootConfiguration.isTransitive());
+        putExcludeRules(hasher, rootConfiguration.getExcludeRules());
+        hasher.putByte(RECORD_SEPARATOR);
+
+        for (DependencyMetaData dependency : rootConfiguration.getDependencies()) {
+            if (!(dependency instanceof DslOriginDependencyMetaData)) {
+                return null;
+            }
+            Object source = ((DslOriginDependencyMetaData) dependency).getSource();
+            if (!(source instanceof ExternalModuleDependency) || source instanceof ClientModule) {
+                return null;
+            }
+            putString(hasher, dependency.getSelector().getDisplayName());
+            for (String moduleConfiguration : dependency.getModuleConfigurations()) {
+                putString(hasher, moduleConfiguration);
+                for (String dependencyConfiguration : dependency.getDependencyConfigurations(moduleConfiguration, moduleConfiguration)) {
+                    putString(hasher, dependencyConfiguration);
+                }
+            }
+            putExcludeRules(hasher, Arrays.asList(dependency.getExcludeRules(rootConfiguration.getHierarchy())));
+            hasher.putBoolean(dependency.isTransitive());
+            hasher.putBoolean(dependency.isForce());
+            hasher.putBoolean(dependency.isChanging());
+            for (IvyArtifactName artifact : dependency.getArtifacts()) {
+                putString(hasher, artifact.getName());
+                putString(hasher, artifact.getType());
+                putString(hasher, artifact.getExtension());
+                putString(hasher, artifact.getClassifier());
+            }
+            putString(hasher, dependency.getDynamicConstraintVersion());
+            hasher.putByte(RECORD_SEPARATOR);
+        }
+
+        putString(hasher, resolutionStrategy.getConflictResolution().getClass().getName());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            putString(hasher, forcedModule.toString());
+        }
+        hasher.putByte(RECORD_SEPARATOR);
+
+        for (ResolutionAwareRepository repository : repositories) {
+            ConfiguredModuleComponentRepository resolver = repository.createResolver();
+            if (resolver.isLocal()) {
+                return null;
+            }
+            putString(hasher, resolver.getClass().getName());
+            putString(hasher, resolver.getId());
+        }
+        for (ResolverProviderFactory resolverFactory : resolverFactories) {
+            putString(hasher, resolverFactory.getClass().getName());
+        }
+        return hasher.hash();
+    }
+
+    private static void putExcludeRules(Hasher hasher, Iterable<ExcludeRule> excludeRules) {
+        Set<String> rules = new TreeSet<String>();
+        for (ExcludeRule excludeRule : excludeRules) {
+            rules.add(excludeRule.getId() + ":" + excludeRule.getMatcher().getName() + ":" + new TreeSet<String>(Arrays.asList(excludeRule.getConfigurations())));
+        }
+        for (String rule : rules) {
+            putString(hasher, rule);
+        }
+        hasher.putByte(RECORD_SEPARATOR);
+    }
+
+    private static void putString(Hasher hasher, @Nullable String value) {
+        if (value != null) {
+            hasher.putUnencodedChars(value);
+        }
+        hasher.putByte(FIELD_SEPARATOR);
+    }
+
+    /**
+     * Returns the graph for the given key, provided it is still up-to-date for the given cache policy, or null if there is no such graph.
+     */
+    @Nullable
+    public RecordedDependencyGraph get(HashCode key, CachePolicy cachePolicy, ModuleReplacementsData moduleReplacements) {
+        RecordedDependencyGraph graph = graphs.getIfPresent(key);
+        if (graph != null && (!graph.isUpToDate(cachePolicy, timeProvider.getCurrentTime()) || graph.containsReplacedModule(moduleReplacements))) {
+            graphs.invalidate(key);
+            graph = null;
+        }
+        if (graph == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return graph;
+    }
+
+    /**
+     * Returns a visitor that records the graph it visits into this cache under the given key, if the graph can be cached.
+     */
+    public DependencyGraphVisitor recordTo(HashCode key, List<DependencyMetaData> rootDependencies, ModuleReplacementsData moduleReplacements) {
+        return new RecordingVisitor(key, rootDependencies, moduleReplacements);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getSize() {
+        return graphs.size();
+    }
+
+    private class RecordingVisitor implements DependencyGraphVisitor {
+        private final HashCode key;
+        private final List<DependencyMetaData> rootDependencies;
+        private final ModuleReplacementsData moduleReplacements;
+        private final long timestamp;
+        private final List<DependencyGraphNode> nodes = new ArrayList<DependencyGraphNode>();
+
+        RecordingVisitor(HashCode key, List<DependencyMetaData> rootDependencies, ModuleReplacementsData moduleReplacements) {
+            this.key = key;
+            this.rootDependencies = rootDependencies;
+            this.moduleReplacements = moduleReplacements;
+            this.timestamp = timeProvider.getCurrentTime();
+        }
+
+        public void start(DependencyGraphNode root) {
+        }
+
+        public void visitNode(DependencyGraphNode resolvedConfiguration) {
+            nodes.add(resolvedConfiguration);
+        }
+
+        public void visitEdge(DependencyGraphNode resolvedConfiguration) {
+        }
+
+        public void finish(DependencyGraphNode root) {
+            RecordedDependencyGraph graph = RecordedDependencyGraph.record(root, nodes, rootDependencies, versionSelectorScheme, timestamp);
+            if (graph != null && !graph.containsReplacedModule(moduleReplacements)) {
+                graphs.put(key, graph);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.Action
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.ParallelResolveExecutor
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifacts
+import org.gradle.api.specs.Specs
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resolve.ArtifactResolveException
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class DefaultLenientConfigurationTest extends Specification {
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        useCache(_, _ as Factory) >> { String name, Factory action -> action.create() }
+        longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def ivyContextManager = Stub(IvyContextManager) {
+        withIvy(_ as Action) >> { Action action -> action.execute(null) }
+    }
+    def executor = new ParallelResolveExecutor(new DefaultExecutorFactory(), 4, cacheLockingManager, ivyContextManager)
+    def artifactResults = Stub(ResolvedArtifacts)
+
+    def cleanup() {
+        executor.stop()
+    }
+
+    def "downloads the files of all artifacts on the download executor"() {
+        given:
+        def threads = [].asSynchronized()
+        def artifacts = (1..6).collect { i ->
+            Stub(ResolvedArtifact) {
+                getFile() >> {
+                    threads << Thread.currentThread()
+                    new File("artifact-${i}.jar")
+                }
+            }
+        } as LinkedHashSet
+        artifactResults.artifacts >> artifacts
+
+        when:
+        def files = lenientConfiguration(executor).getFiles(Specs.SATISFIES_ALL)
+
+        then:
+        files == (1..6).collect { new File("artifact-${it}.jar") } as LinkedHashSet
+        threads.findAll { it != Thread.currentThread() }.size() == 6
+    }
+
+    def "reports a download failure without attempting the download again"() {
+        given:
+        def attempts = new AtomicInteger()
+        def good = Stub(ResolvedArtifact) {
+            getFile() >> new File("good.jar")
+        }
+        def broken = Stub(ResolvedArtifact) {
+            getFile() >> {
+                attempts.incrementAndGet()
+                throw new ArtifactResolveException("broken")
+            }
+        }
+        artifactResults.artifacts >> ([good, broken] as LinkedHashSet)
+
+        when:
+        def artifacts = lenientConfiguration(executor).getArtifacts(Specs.SATISFIES_ALL)
+
+        then:
+        artifacts == [good] as Set
+        attempts.get() == 1
+
+        when:
+        lenientConfiguration(executor).getFilesStrict(Specs.SATISFIES_ALL)
+
+        then:
+        def e = thrown(ArtifactResolveException)
+        e.message == "broken"
+        attempts.get() == 2
+    }
+
+    def "resolves files on the calling thread when there is no download executor"() {
+        given:
+        def threads = []
+        def artifacts = (1..3).collect { i ->
+            Stub(ResolvedArtifact) {
+                getFile() >> {
+                    threads << Thread.currentThread()
+                    new File("artifact-${i}.jar")
+                }
+            }
+        } as LinkedHashSet
+        artifactResults.artifacts >> artifacts
+
+        when:
+        lenientConfiguration(null).getFiles(Specs.SATISFIES_ALL)
+
+        then:
+        threads == [Thread.currentThread()] * 3
+    }
+
+    private DefaultLenientConfiguration lenientConfiguration(ParallelResolveExecutor downloadExecutor) {
+        return new DefaultLenientConfiguration(Stub(Configuration), cacheLockingManager, [] as Set, artifactResults, Stub(Factory), downloadExecutor)
+    }
+}
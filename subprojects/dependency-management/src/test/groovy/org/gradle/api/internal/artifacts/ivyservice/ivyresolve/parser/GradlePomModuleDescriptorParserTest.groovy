@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
 
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.internal.component.external.model.MavenModuleResolveMetaData
 import org.gradle.internal.resource.local.DefaultLocallyAvailableExternalResource
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
@@ -2297,4 +2298,56 @@ class GradlePomModuleDescriptorParserTest extends AbstractGradlePomModuleDescrip
         depGroupOne.moduleConfigurations as List == ['compile', 'runtime']
         hasDefaultDependencyArtifact(depGroupOne)
     }
+
+    def "reuses parsed parent pom when parsing modules that share it"() {
+        given:
+        def parsedPomCache = new ParsedPomCache()
+        def cachingParser = new GradlePomModuleDescriptorParser(new DefaultVersionSelectorScheme(), parsedPomCache)
+        def parent = tmpDir.file("parent.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>1.2</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        def child = { String artifactId ->
+            tmpDir.file("${artifactId}.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>${artifactId}</artifactId>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+</project>
+"""
+        }
+        def childOne = child("artifact-one")
+        def childTwo = child("artifact-three")
+
+        and:
+        parseContext.getMetaDataArtifact(_, MAVEN_POM) >> { new DefaultLocallyAvailableExternalResource(parent.toURI(), new DefaultLocallyAvailableResource(parent)) }
+
+        when:
+        def descriptorOne = cachingParser.parseMetaData(parseContext, childOne, true).descriptor
+        def descriptorTwo = cachingParser.parseMetaData(parseContext, childTwo, true).descriptor
+
+        then:
+        descriptorOne.moduleRevisionId == moduleId('group-one', 'artifact-one', 'version-one')
+        descriptorTwo.moduleRevisionId == moduleId('group-one', 'artifact-three', 'version-one')
+        descriptorOne.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+        descriptorTwo.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+        parsedPomCache.size == 1
+    }
 }
@@ -14,26 +14,33 @@
  * limitations under the License.
  */
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine
+import com.google.common.hash.HashCode
 import org.apache.ivy.core.module.descriptor.DefaultExcludeRule
 import org.apache.ivy.core.module.id.ArtifactId
 import org.apache.ivy.core.module.id.ModuleId
 import org.apache.ivy.core.module.id.ModuleRevisionId
 import org.apache.ivy.plugins.matcher.ExactPatternMatcher
 import org.apache.ivy.plugins.matcher.PatternMatcher
+import org.gradle.api.Action
 import org.gradle.api.artifacts.*
 import org.gradle.api.artifacts.component.ComponentIdentifier
 import org.gradle.api.artifacts.component.ComponentSelector
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
 import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
 import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
 import org.gradle.api.internal.artifacts.ivyservice.DefaultLenientConfiguration
+import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactsGraphVisitor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyArtifactsVisitor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.CompositeDependencyGraphVisitor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ResolvedGraphCache
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.*
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResultBuilder
@@ -45,12 +52,14 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.Resolut
 import org.gradle.api.internal.artifacts.publish.DefaultPublishArtifact
 import org.gradle.api.internal.tasks.DefaultTaskDependency
 import org.gradle.api.specs.Spec
+import org.gradle.internal.TrueTimeProvider
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
 import org.gradle.internal.component.local.model.DefaultLocalComponentMetaData
 import org.gradle.internal.component.local.model.DefaultProjectComponentIdentifier
 import org.gradle.internal.component.local.model.DslOriginDependencyMetaDataWrapper
 import org.gradle.internal.component.model.*
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.resolve.ModuleVersionNotFoundException
 import org.gradle.internal.resolve.ModuleVersionResolveException
 import org.gradle.internal.resolve.resolver.ArtifactResolver
@@ -90,7 +99,7 @@ class DependencyGraphBuilderTest extends Specification {
         builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, dependencyToConfigurationResolver, new DefaultConflictHandler(conflictResolver, moduleReplacements))
     }
 
-    private DefaultLenientConfiguration resolve() {
+    private DefaultLenientConfiguration resolve(Closure resolveGraph = { visitor -> builder.resolve(configuration, visitor) }) {
         def transientConfigurationResultsBuilder = new TransientConfigurationResultsBuilder(new DummyBinaryStore(), new DummyStore())
         def modelBuilder = new DefaultResolvedConfigurationBuilder(transientConfigurationResultsBuilder)
         def configurationResultVisitor = new ResolvedConfigurationDependencyGraphVisitor(modelBuilder)
@@ -103,7 +112,7 @@ class DependencyGraphBuilderTest extends Specification {
 
         def graphVisitor = new CompositeDependencyGraphVisitor(configurationResultVisitor, resolutionResultVisitor, projectComponentsVisitor, artifactsGraphVisitor)
 
-        builder.resolve(configuration, graphVisitor)
+        resolveGraph(graphVisitor)
 
         def graphResults = modelBuilder.complete()
         def artifactResults = artifactsBuilder.resolve()
@@ -940,6 +949,106 @@ class DependencyGraphBuilderTest extends Specification {
         modules(result) == ids(forced, b)
     }
 
+    def "resolves outgoing dependencies concurrently when parallel resolution is enabled"() {
+        given:
+        def cacheLockingManager = Stub(CacheLockingManager) {
+            longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+            useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        }
+        def ivyContextManager = Stub(IvyContextManager) {
+            withIvy(_ as Action) >> { Action action -> action.execute(null) }
+        }
+        def executor = new ParallelResolveExecutor(new DefaultExecutorFactory(), 4, cacheLockingManager, ivyContextManager)
+        builder = new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, dependencyToConfigurationResolver, new DefaultConflictHandler(conflictResolver, moduleReplacements), executor)
+
+        def a = revision("a")
+        def b = revision("b")
+        def c = revision("c")
+        def d = revision("d")
+        traverses root, a
+        traverses root, b
+        traverses root, c
+        traverses a, d
+        doesNotResolve b, d
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        modules(result) == ids(a, d, b, c)
+
+        cleanup:
+        executor?.stop()
+    }
+
+    def "can replay a recorded graph without resolving any components"() {
+        given:
+        def a = revision("a")
+        def b = revision("b")
+        def c = revision("c")
+        traverses root, a
+        traverses root, b
+        traverses a, c
+        doesNotResolve b, c
+
+        def cache = new ResolvedGraphCache(new DefaultVersionSelectorScheme(new DefaultVersionComparator()), new TrueTimeProvider())
+        def key = HashCode.fromInt(1)
+        def rootConfiguration = root.getConfiguration('root')
+
+        when:
+        def original = resolve { visitor -> builder.resolve(configuration, new CompositeDependencyGraphVisitor(visitor, cache.recordTo(key, rootConfiguration.dependencies, moduleReplacements))) }
+        def graph = cache.get(key, Stub(CachePolicy), moduleReplacements)
+        def replayed = resolve { visitor -> graph.replay(rootConfiguration, rootConfiguration.dependencies, visitor) }
+        replayed.rethrowFailure()
+
+        then:
+        graph.nodeCount == 4
+        modules(replayed) == modules(original)
+        artifacts(replayed) == artifacts(original)
+        cache.hits == 1
+        cache.misses == 0
+    }
+
+    def "does not record a graph that contains a failure"() {
+        given:
+        def a = revision("a")
+        def b = revision("b")
+        traverses root, a
+        traversesMissing a, b
+
+        def cache = new ResolvedGraphCache(new DefaultVersionSelectorScheme(new DefaultVersionComparator()), new TrueTimeProvider())
+        def key = HashCode.fromInt(1)
+
+        when:
+        resolve { visitor -> builder.resolve(configuration, new CompositeDependencyGraphVisitor(visitor, cache.recordTo(key, root.getConfiguration('root').dependencies, moduleReplacements))) }
+
+        then:
+        cache.size == 0
+        cache.get(key, Stub(CachePolicy), moduleReplacements) == null
+        cache.misses == 1
+    }
+
+    def "discards a recorded graph when the cache policy requires a module to be refreshed"() {
+        given:
+        def a = revision("a")
+        traverses root, a
+
+        def cache = new ResolvedGraphCache(new DefaultVersionSelectorScheme(new DefaultVersionComparator()), new TrueTimeProvider())
+        def key = HashCode.fromInt(1)
+        def cachePolicy = Stub(CachePolicy) {
+            mustRefreshModule(_, _, _) >> true
+        }
+
+        when:
+        resolve { visitor -> builder.resolve(configuration, new CompositeDependencyGraphVisitor(visitor, cache.recordTo(key, root.getConfiguration('root').dependencies, moduleReplacements))) }
+
+        then:
+        cache.size == 1
+        cache.get(key, cachePolicy, moduleReplacements) == null
+        cache.size == 0
+    }
+
     def revision(String name, String revision = '1.0') {
         // TODO Shouldn't really be using the local component implementation here
         def id = newId("group", name, revision)
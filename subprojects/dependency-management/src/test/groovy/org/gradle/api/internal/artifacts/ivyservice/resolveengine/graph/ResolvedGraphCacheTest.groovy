@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph
+
+import com.google.common.hash.HashCode
+import org.apache.ivy.core.module.descriptor.DefaultExcludeRule
+import org.apache.ivy.core.module.descriptor.ExcludeRule
+import org.apache.ivy.core.module.id.ArtifactId
+import org.apache.ivy.core.module.id.ModuleId
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher
+import org.apache.ivy.plugins.matcher.PatternMatcher
+import org.gradle.api.artifacts.ClientModule
+import org.gradle.api.artifacts.ConflictResolution
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.ModuleVersionSelector
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessor
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.ResolveContext
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionsInternal
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultResolutionStrategy
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.LatestConflictResolution
+import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.StrictConflictResolution
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.specs.Specs
+import org.gradle.internal.Actions
+import org.gradle.internal.TrueTimeProvider
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.local.model.DslOriginDependencyMetaDataWrapper
+import org.gradle.internal.component.model.ComponentResolveMetaData
+import org.gradle.internal.component.model.ConfigurationMetaData
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.DependencyMetaData
+import org.gradle.internal.component.model.LocalComponentDependencyMetaData
+import org.gradle.internal.rules.RuleAction
+import org.gradle.internal.rules.SpecRuleAction
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
+
+class ResolvedGraphCacheTest extends Specification {
+    def cache = new ResolvedGraphCache(new DefaultVersionSelectorScheme(new DefaultVersionComparator()), new TrueTimeProvider())
+
+    List<DependencyMetaData> dependencies = [dependency()]
+    ConflictResolution conflictResolution = new LatestConflictResolution()
+    Set<ModuleVersionSelector> forcedModules = []
+    List<ResolutionAwareRepository> repositories = [repository("repo1"), repository("repo2")]
+    boolean substitutionRules
+    ResolutionStrategyInternal strategy
+    List<SpecRuleAction> selectionRules = []
+    boolean metadataRules
+
+    def "calculates the same key for the same inputs"() {
+        expect:
+        key() != null
+        key() == key()
+    }
+
+    @Unroll
+    def "key changes when #change"() {
+        given:
+        def original = key()
+
+        when:
+        modify(this)
+
+        then:
+        key() != null
+        key() != original
+
+        where:
+        change                                | modify
+        "the version of a dependency changes" | { it.dependencies = [it.dependency(version: "2.0")] }
+        "a dependency is added"               | { it.dependencies = [it.dependency(), it.dependency(name: "other")] }
+        "a dependency excludes a module"      | { it.dependencies = [it.dependency(exclude: "excluded")] }
+        "a dependency requests an artifact"   | { it.dependencies = [it.dependency(classifier: "sources")] }
+        "a dependency is forced"              | { it.dependencies = [it.dependency(force: true)] }
+        "a module is forced"                  | { it.forcedModules = [newSelector("org", "lib", "1.5")] as Set }
+        "the conflict resolution changes"     | { it.conflictResolution = new StrictConflictResolution() }
+        "the repositories are reordered"      | { it.repositories = it.repositories.reverse() }
+        "a repository is replaced"            | { it.repositories = [it.repository("repo1"), it.repository("repo3")] }
+    }
+
+    @Unroll
+    def "cannot calculate a key when the resolution uses #reason"() {
+        when:
+        modify(this)
+
+        then:
+        key() == null
+
+        where:
+        reason                      | modify
+        "a project dependency"      | { it.dependencies = [it.dependency(), it.dependency(source: ProjectDependency)] }
+        "a client module"           | { it.dependencies = [it.dependency(source: ClientModule)] }
+        "dependency substitution"   | { it.substitutionRules = true }
+        "component selection rules" | { it.selectionRules = [it.selectionRule()] }
+        "component metadata rules"  | { it.metadataRules = true }
+        "a local repository"        | { it.repositories = [it.repository("repo1"), it.repository("local", true)] }
+        "no repositories"           | { it.repositories = [] }
+    }
+
+    def "calculates a key when a resolution strategy has no rules"() {
+        when:
+        strategy = new DefaultResolutionStrategy()
+
+        then:
+        key() != null
+    }
+
+    @Unroll
+    def "cannot calculate a key when the resolution strategy #description"() {
+        when:
+        strategy = configure(new DefaultResolutionStrategy())
+
+        then:
+        key() == null
+
+        where:
+        description                                       | configure
+        "has an eachDependency rule"                      | { it.eachDependency(Actions.doNothing()); it }
+        "has a dependency substitution rule"              | { it.dependencySubstitution.all(Actions.doNothing()); it }
+        "was copied with an eachDependency rule"          | { it.eachDependency(Actions.doNothing()); it.copy() }
+        "was copied with a dependency substitution rule"  | { it.dependencySubstitution.all(Actions.doNothing()); it.copy() }
+    }
+
+    private HashCode key() {
+        // Copy the inputs to locals, so that the stubs below do not resolve them as their own properties
+        def hasSubstitutionRules = substitutionRules
+        def componentSelectionRules = selectionRules
+        def conflicts = conflictResolution
+        def forced = forcedModules
+        def hasMetadataRules = metadataRules
+        def rootDependencies = dependencies
+        def resolutionStrategy = strategy ?: Stub(ResolutionStrategyInternal) {
+            getDependencySubstitution() >> Stub(DependencySubstitutionsInternal) {
+                hasRules() >> hasSubstitutionRules
+            }
+            getComponentSelection() >> Stub(ComponentSelectionRulesInternal) {
+                getRules() >> componentSelectionRules
+            }
+            getConflictResolution() >> conflicts
+            getForcedModules() >> forced
+        }
+        def resolveContext = Stub(ResolveContext) {
+            getName() >> "conf"
+            getResolutionStrategy() >> resolutionStrategy
+        }
+        def rootConfiguration = Stub(ConfigurationMetaData) {
+            getHierarchy() >> (["conf"] as Set)
+            isTransitive() >> true
+            getExcludeRules() >> ([] as Set)
+            getDependencies() >> rootDependencies
+        }
+        def rootComponent = Stub(ComponentResolveMetaData) {
+            getConfiguration("conf") >> rootConfiguration
+            getComponentId() >> DefaultModuleComponentIdentifier.newId("org", "root", "1.0")
+            getId() >> newId("org", "root", "1.0")
+        }
+        def metadataHandler = Stub(GlobalDependencyResolutionRules) {
+            getComponentMetadataProcessor() >> Stub(ComponentMetadataProcessor) {
+                hasRules() >> hasMetadataRules
+            }
+        }
+        return cache.createKey(resolveContext, rootComponent, repositories, [], metadataHandler)
+    }
+
+    DependencyMetaData dependency(Map args = [:]) {
+        def selector = newSelector("org", args.name ?: "lib", args.version ?: "1.0")
+        def excludeRules = []
+        if (args.exclude) {
+            excludeRules << new DefaultExcludeRule(new ArtifactId(new ModuleId("org", args.exclude),
+                PatternMatcher.ANY_EXPRESSION,
+                PatternMatcher.ANY_EXPRESSION,
+                PatternMatcher.ANY_EXPRESSION),
+                ExactPatternMatcher.INSTANCE, null)
+        }
+        def artifacts = args.classifier ? [new DefaultIvyArtifactName(selector.name, "jar", "jar", args.classifier)] as Set : [] as Set
+        def metaData = new LocalComponentDependencyMetaData(DefaultModuleComponentSelector.newSelector(selector), selector, "conf", "default", artifacts,
+            excludeRules as ExcludeRule[], args.force as boolean, false, true)
+        return new DslOriginDependencyMetaDataWrapper(metaData, Stub(args.source ?: ExternalModuleDependency))
+    }
+
+    ResolutionAwareRepository repository(String id, boolean local = false) {
+        def resolver = Stub(ConfiguredModuleComponentRepository) {
+            getId() >> id
+            isLocal() >> local
+        }
+        return Stub(ResolutionAwareRepository) {
+            createResolver() >> resolver
+        }
+    }
+
+    SpecRuleAction selectionRule() {
+        return new SpecRuleAction(Stub(RuleAction), Specs.satisfyAll())
+    }
+}
@@ -42,4 +42,13 @@ public class CachingClassDependenciesAnalyzer implements ClassDependenciesAnalyz
             }
         });
     }
+
+    @Override
+    public ClassAnalysis getClassAnalysis(final String className, final HashValue classHash, final byte[] classContent) {
+        return cache.get(classHash, new Factory<ClassAnalysis>() {
+            public ClassAnalysis create() {
+                return analyzer.getClassAnalysis(className, classHash, classContent);
+            }
+        });
+    }
 }
@@ -16,8 +16,17 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
+import org.gradle.internal.hash.HashValue;
+
 import java.io.File;
 
 public interface ClassDependenciesAnalyzer {
     ClassAnalysis getClassAnalysis(String className, File classFile);
+
+    /**
+     * Analyzes a class that has already been read into memory, for example from a jar.
+     *
+     * @param classHash the hash of the class content, created with the same algorithm as the hash of a class file
+     */
+    ClassAnalysis getClassAnalysis(String className, HashValue classHash, byte[] classContent);
 }
@@ -16,10 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
+import org.gradle.internal.hash.HashValue;
 import org.gradle.util.GFileUtils;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -75,4 +77,12 @@ public class DefaultClassDependenciesAnalyzer implements ClassDependenciesAnalyz
             GFileUtils.closeInputStream(input);
         }
     }
+
+    public ClassAnalysis getClassAnalysis(String className, HashValue classHash, byte[] classContent) {
+        try {
+            return getClassAnalysis(className, new ByteArrayInputStream(classContent));
+        } catch (IOException e) {
+            throw new RuntimeException("Problems loading class analysis for '" + className + "'");
+        }
+    }
 }
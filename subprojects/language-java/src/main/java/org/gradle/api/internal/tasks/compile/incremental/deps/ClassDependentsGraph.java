@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dependents of a set of classes, with the class names interned to ints and the dependents of each class kept as a slice of one shared array.
+ */
+public class ClassDependentsGraph {
+
+    private static final int DEPENDENCY_TO_ALL = 0;
+    private static final int DEPENDENCY_TO_ALL_WITH_DEPENDENTS = 1;
+    private static final int DEPENDENTS = 2;
+    // The class is only known as the dependent of another class
+    private static final int UNKNOWN = 3;
+
+    private final String[] classNames;
+    private final Map<String, Integer> indices;
+    private final byte[] kinds;
+    // The dependents of class i are dependents[offsets[i]] until dependents[offsets[i + 1]], sorted
+    private final int[] offsets;
+    private final int[] dependents;
+    private final BitSet innerClasses;
+
+    private ClassDependentsGraph(String[] classNames, byte[] kinds, int[] offsets, int[] dependents) {
+        this.classNames = classNames;
+        this.kinds = kinds;
+        this.offsets = offsets;
+        this.dependents = dependents;
+        this.indices = new HashMap<String, Integer>(classNames.length * 4 / 3 + 1);
+        this.innerClasses = new BitSet(classNames.length);
+        for (int i = 0; i < classNames.length; i++) {
+            indices.put(classNames[i], i);
+            if (classNames[i].contains("$")) {
+                innerClasses.set(i);
+            }
+        }
+    }
+
+    public static ClassDependentsGraph of(Map<String, DependentsSet> dependentsMap) {
+        List<String> classNames = new ArrayList<String>(dependentsMap.keySet());
+        Map<String, Integer> indices = new HashMap<String, Integer>(classNames.size() * 4 / 3 + 1);
+        for (int i = 0; i < classNames.size(); i++) {
+            indices.put(classNames.get(i), i);
+        }
+        int classCount = classNames.size();
+        int[] keyOffsets = new int[classCount + 1];
+        for (int i = 0; i < classCount; i++) {
+            DependentsSet set = dependentsMap.get(classNames.get(i));
+            keyOffsets[i + 1] = keyOffsets[i] + (set instanceof DependencyToAll ? 0 : set.getDependentClasses().size());
+        }
+        byte[] keyKinds = new byte[classCount];
+        int[] dependents = new int[keyOffsets[classCount]];
+        for (int i = 0; i < classCount; i++) {
+            DependentsSet set = dependentsMap.get(classNames.get(i));
+            if (set instanceof DependencyToAll) {
+                keyKinds[i] = DEPENDENCY_TO_ALL;
+                continue;
+            }
+            keyKinds[i] = (byte) (set.isDependencyToAll() ? DEPENDENCY_TO_ALL_WITH_DEPENDENTS : DEPENDENTS);
+            int pos = keyOffsets[i];
+            for (String dependent : set.getDependentClasses()) {
+                Integer index = indices.get(dependent);
+                if (index == null) {
+                    index = classNames.size();
+                    classNames.add(dependent);
+                    indices.put(dependent, index);
+                }
+                dependents[pos++] = index;
+            }
+            Arrays.sort(dependents, keyOffsets[i], pos);
+        }
+        int nodeCount = classNames.size();
+        byte[] kinds = Arrays.copyOf(keyKinds, nodeCount);
+        Arrays.fill(kinds, classCount, nodeCount, (byte) UNKNOWN);
+        int[] offsets = Arrays.copyOf(keyOffsets, nodeCount + 1);
+        Arrays.fill(offsets, classCount + 1, nodeCount + 1, dependents.length);
+        return new ClassDependentsGraph(classNames.toArray(new String[0]), kinds, offsets, dependents);
+    }
+
+    /**
+     * Returns the direct dependents of the given class, or null when the class is not part of this graph.
+     */
+    public DependentsSet getDependents(String className) {
+        Integer index = indices.get(className);
+        if (index == null || kinds[index] == UNKNOWN) {
+            return null;
+        }
+        if (kinds[index] == DEPENDENCY_TO_ALL) {
+            return new DependencyToAll();
+        }
+        List<String> result = new ArrayList<String>(offsets[index + 1] - offsets[index]);
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            result.add(classNames[dependents[i]]);
+        }
+        return new DefaultDependentsSet(kinds[index] == DEPENDENCY_TO_ALL_WITH_DEPENDENTS, result);
+    }
+
+    public boolean isDependencyToAll(String className) {
+        Integer index = indices.get(className);
+        return index != null && isDependencyToAll(index);
+    }
+
+    private boolean isDependencyToAll(int index) {
+        return kinds[index] == DEPENDENCY_TO_ALL || kinds[index] == DEPENDENCY_TO_ALL_WITH_DEPENDENTS;
+    }
+
+    /**
+     * Returns the transitive dependents of each of the given classes, leaving out inner classes and the class itself.
+     */
+    public DependentsSet getRelevantDependents(Iterable<String> classNames) {
+        BitSet result = new BitSet(this.classNames.length);
+        BitSet reached = new BitSet(this.classNames.length);
+        int[] stack = new int[64];
+        for (String className : classNames) {
+            Integer index = indices.get(className);
+            if (index == null) {
+                continue;
+            }
+            if (isDependencyToAll(index)) {
+                return new DependencyToAll();
+            }
+            reached.clear();
+            stack = collectDependents(index, reached, stack);
+            reached.clear(index);
+            result.or(reached);
+        }
+        return toDependentsSet(result);
+    }
+
+    private int[] collectDependents(int root, BitSet reached, int[] stack) {
+        BitSet visited = new BitSet(classNames.length);
+        int size = 0;
+        int current = root;
+        while (true) {
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int dependent = dependents[i];
+                if (visited.get(dependent)) {
+                    continue;
+                }
+                visited.set(dependent);
+                if (!innerClasses.get(dependent)) {
+                    reached.set(dependent);
+                }
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = dependent;
+            }
+            if (size == 0) {
+                return stack;
+            }
+            current = stack[--size];
+        }
+    }
+
+    private DependentsSet toDependentsSet(BitSet classes) {
+        DefaultDependentsSet result = new DefaultDependentsSet();
+        Set<String> dependentClasses = result.getDependentClasses();
+        for (int i = classes.nextSetBit(0); i >= 0; i = classes.nextSetBit(i + 1)) {
+            dependentClasses.add(classNames[i]);
+        }
+        return result;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassDependentsGraph> {
+
+        @Override
+        public ClassDependentsGraph read(Decoder decoder) throws Exception {
+            int nodeCount = decoder.readSmallInt();
+            String[] classNames = new String[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                classNames[i] = decoder.readString();
+            }
+            byte[] kinds = new byte[nodeCount];
+            int[] offsets = new int[nodeCount + 1];
+            int[] dependents = new int[decoder.readSmallInt()];
+            int pos = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                int kind = decoder.readSmallInt();
+                if (kind < DEPENDENCY_TO_ALL || kind > UNKNOWN) {
+                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + kind);
+                }
+                kinds[i] = (byte) kind;
+                if (kind == DEPENDENCY_TO_ALL_WITH_DEPENDENTS || kind == DEPENDENTS) {
+                    int count = decoder.readSmallInt();
+                    int previous = 0;
+                    for (int j = 0; j < count; j++) {
+                        previous += decoder.readSmallInt();
+                        dependents[pos++] = previous;
+                    }
+                }
+                offsets[i + 1] = pos;
+            }
+            return new ClassDependentsGraph(classNames, kinds, offsets, dependents);
+        }
+
+        @Override
+        public void write(Encoder encoder, ClassDependentsGraph value) throws Exception {
+            encoder.writeSmallInt(value.classNames.length);
+            for (String className : value.classNames) {
+                encoder.writeString(className);
+            }
+            encoder.writeSmallInt(value.dependents.length);
+            for (int i = 0; i < value.classNames.length; i++) {
+                int kind = value.kinds[i];
+                encoder.writeSmallInt(kind);
+                if (kind == DEPENDENCY_TO_ALL_WITH_DEPENDENTS || kind == DEPENDENTS) {
+                    encoder.writeSmallInt(value.offsets[i + 1] - value.offsets[i]);
+                    // dependents are sorted, so write the gaps between them
+                    int previous = 0;
+                    for (int j = value.offsets[i]; j < value.offsets[i + 1]; j++) {
+                        encoder.writeSmallInt(value.dependents[j] - previous);
+                        previous = value.dependents[j];
+                    }
+                }
+            }
+        }
+    }
+}
@@ -18,30 +18,28 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.MapSerializer;
-import org.gradle.internal.serialize.SetSerializer;
 
 import java.util.Map;
-import java.util.Set;
-
-import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
 
 public class ClassSetAnalysisData {
 
-    final Map<String, DependentsSet> dependents;
+    final ClassDependentsGraph graph;
 
     public ClassSetAnalysisData(Map<String, DependentsSet> dependents) {
-        this.dependents = dependents;
+        this(ClassDependentsGraph.of(dependents));
+    }
+
+    public ClassSetAnalysisData(ClassDependentsGraph graph) {
+        this.graph = graph;
     }
 
     public DependentsSet getDependents(String className) {
-        return dependents.get(className);
+        return graph.getDependents(className);
     }
 
     public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassSetAnalysisData> {
 
-        private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
-                STRING_SERIALIZER, new DependentsSetSerializer());
+        private final ClassDependentsGraph.Serializer serializer = new ClassDependentsGraph.Serializer();
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
@@ -52,37 +50,7 @@ public class ClassSetAnalysisData {
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
             //we only support one kind of data
-            serializer.write(encoder, value.dependents);
-        }
-
-        private static class DependentsSetSerializer implements org.gradle.internal.serialize.Serializer<DependentsSet> {
-
-            private SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
-
-            @Override
-            public DependentsSet read(Decoder decoder) throws Exception {
-                int control = decoder.readSmallInt();
-                if (control == 0) {
-                    return new DependencyToAll();
-                }
-                if (control != 1 && control != 2) {
-                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
-                }
-                Set<String> classes = setSerializer.read(decoder);
-                return new DefaultDependentsSet(control == 1, classes);
-            }
-
-            @Override
-            public void write(Encoder encoder, DependentsSet value) throws Exception {
-                if (value instanceof DependencyToAll) {
-                    encoder.writeSmallInt(0);
-                } else if (value instanceof DefaultDependentsSet) {
-                    encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
-                    setSerializer.write(encoder, value.getDependentClasses());
-                } else {
-                    throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
-                }
-            }
+            serializer.write(encoder, value.graph);
         }
     }
 }
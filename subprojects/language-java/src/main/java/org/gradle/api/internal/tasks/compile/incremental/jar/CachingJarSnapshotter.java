@@ -29,9 +29,18 @@ public class CachingJarSnapshotter implements JarSnapshotter {
     private final Hasher hasher;
     private final JarSnapshotCache cache;
     private final FilesSnapshotSet inputFilesSnapshot;
+    private final boolean readJarsDirectly;
 
     public CachingJarSnapshotter(Hasher hasher, ClassDependenciesAnalyzer analyzer, JarSnapshotCache cache, FilesSnapshotSet inputFilesSnapshot) {
+        this(hasher, analyzer, cache, inputFilesSnapshot, false);
+    }
+
+    /**
+     * @param readJarsDirectly Whether to read the classes of a jar straight from the jar file, instead of visiting its contents tree.
+     */
+    public CachingJarSnapshotter(Hasher hasher, ClassDependenciesAnalyzer analyzer, JarSnapshotCache cache, FilesSnapshotSet inputFilesSnapshot, boolean readJarsDirectly) {
         this.inputFilesSnapshot = inputFilesSnapshot;
+        this.readJarsDirectly = readJarsDirectly;
         this.snapshotter = new DefaultJarSnapshotter(hasher, analyzer);
         this.hasher = hasher;
         this.cache = cache;
@@ -42,6 +51,9 @@ public class CachingJarSnapshotter implements JarSnapshotter {
         final HashValue hash = getHash(jarArchive);
         return cache.get(hash, new Factory<JarSnapshot>() {
             public JarSnapshot create() {
+                if (readJarsDirectly) {
+                    return snapshotter.createSnapshotFromZipStream(hash, jarArchive.file);
+                }
                 return snapshotter.createSnapshot(hash, jarArchive);
             }
         });
@@ -33,9 +33,18 @@ import java.util.Map;
 public class DefaultJarSnapshotCache implements JarSnapshotCache {
 
     private final MinimalPersistentCache<HashValue, JarSnapshotData> cache;
+    private final InMemoryJarSnapshotStore inMemoryStore;
 
     public DefaultJarSnapshotCache(CacheRepository cacheRepository) {
+        this(cacheRepository, null);
+    }
+
+    /**
+     * @param inMemoryStore The process-wide store to look up jar snapshots in before using the persistent cache. May be null.
+     */
+    public DefaultJarSnapshotCache(CacheRepository cacheRepository, InMemoryJarSnapshotStore inMemoryStore) {
         cache = new MinimalPersistentCache<HashValue, JarSnapshotData>(cacheRepository, "jar snapshots", new HashValueSerializer(), new JarSnapshotDataSerializer());
+        this.inMemoryStore = inMemoryStore;
     }
 
     @Override
@@ -44,8 +53,11 @@ public class DefaultJarSnapshotCache implements JarSnapshotCache {
             public Map<File, JarSnapshot> create() {
                 final Map<File, JarSnapshot> out = new HashMap<File, JarSnapshot>();
                 for (Map.Entry<File, HashValue> entry : jarHashes.entrySet()) {
-                    JarSnapshot snapshot = new JarSnapshot(cache.getCache().get(entry.getValue()));
-                    out.put(entry.getKey(), snapshot);
+                    JarSnapshotData data = inMemoryStore == null ? null : inMemoryStore.getIfPresent(entry.getValue());
+                    if (data == null) {
+                        data = cache.getCache().get(entry.getValue());
+                    }
+                    out.put(entry.getKey(), new JarSnapshot(data));
                 }
                 return out;
             }
@@ -53,11 +65,19 @@ public class DefaultJarSnapshotCache implements JarSnapshotCache {
     }
 
     @Override
-    public JarSnapshot get(HashValue key, final Factory<JarSnapshot> factory) {
-        return new JarSnapshot(cache.get(key, new Factory<JarSnapshotData>() {
+    public JarSnapshot get(final HashValue key, final Factory<JarSnapshot> factory) {
+        final Factory<JarSnapshotData> dataFactory = new Factory<JarSnapshotData>() {
             public JarSnapshotData create() {
                 return factory.create().getData();
             }
+        };
+        if (inMemoryStore == null) {
+            return new JarSnapshot(cache.get(key, dataFactory));
+        }
+        return new JarSnapshot(inMemoryStore.get(key, new Factory<JarSnapshotData>() {
+            public JarSnapshotData create() {
+                return cache.get(key, dataFactory);
+            }
         }));
     }
 
@@ -15,16 +15,29 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.io.ByteStreams;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 class DefaultJarSnapshotter {
 
@@ -40,6 +53,37 @@ class DefaultJarSnapshotter {
         return createSnapshot(hash, jarArchive.contents, new ClassFilesAnalyzer(analyzer));
     }
 
+    /**
+     * Creates the snapshot by reading the class files straight from the jar, rather than visiting an extracted copy of it. Each class is hashed with
+     * the algorithm of the hasher and analyzed from the bytes read, so the analysis is shared with classes analyzed from disk.
+     */
+    public JarSnapshot createSnapshotFromZipStream(HashValue hash, File jar) {
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator("");
+        Map<String, HashValue> hashes = new HashMap<String, HashValue>();
+        try {
+            ZipInputStream zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(jar)));
+            try {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
+                        continue;
+                    }
+                    byte[] content = ByteStreams.toByteArray(zip);
+                    String className = entry.getName().replaceAll("/", ".").replaceAll("\\.class$", "");
+                    HashValue classHash = HashUtil.createHash(new ByteArrayInputStream(content), hasher.getAlgorithm());
+                    hashes.put(className, classHash);
+                    ClassAnalysis analysis = analyzer.getClassAnalysis(className, classHash, content);
+                    accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
+                }
+            } finally {
+                zip.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create snapshot of jar " + jar, e);
+        }
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, new ClassSetAnalysisData(accumulator.getDependentsMap())));
+    }
+
     JarSnapshot createSnapshot(HashValue hash, FileTree classes, final ClassFilesAnalyzer analyzer) {
         final Map<String, HashValue> hashes = new HashMap<String, HashValue>();
         classes.visit(new FileVisitor() {
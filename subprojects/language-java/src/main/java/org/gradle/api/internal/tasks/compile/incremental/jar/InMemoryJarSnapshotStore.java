@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Process-wide, in-memory store of jar snapshots, keyed by the hash of the jar content. Shared by all compile tasks of all builds run by this process, so that
+ * each jar on the compile classpaths is snapshotted or loaded from the persistent cache once. Snapshots are softly referenced and are dropped when memory is low.
+ */
+public class InMemoryJarSnapshotStore {
+    /**
+     * When set, jar snapshots are shared through this store, read directly from the jar files and created in parallel.
+     */
+    public static final String SHARED_JAR_SNAPSHOTS_TOGGLE = "org.gradle.compile.sharedJarSnapshots";
+
+    private final Cache<HashValue, JarSnapshotData> snapshots = CacheBuilder.newBuilder().softValues().build();
+
+    /**
+     * Returns the snapshot for the given jar hash, using the given factory to create it when not present. Concurrent requests for the same hash wait for a
+     * single creation.
+     */
+    public JarSnapshotData get(HashValue jarHash, final Factory<JarSnapshotData> factory) {
+        try {
+            return snapshots.get(jarHash, new Callable<JarSnapshotData>() {
+                public JarSnapshotData call() {
+                    return factory.create();
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the snapshot for the given jar hash, or null when not present.
+     */
+    public JarSnapshotData getIfPresent(HashValue jarHash) {
+        return snapshots.getIfPresent(jarHash);
+    }
+}
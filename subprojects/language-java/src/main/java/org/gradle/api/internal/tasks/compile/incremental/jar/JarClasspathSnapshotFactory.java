@@ -16,20 +16,37 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final BuildOperationProcessor buildOperationProcessor;
 
     public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+        this(jarSnapshotter, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor to use to snapshot the jars in parallel. May be null, in which case jars are snapshotted on the calling thread.
+     */
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, BuildOperationProcessor buildOperationProcessor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
@@ -38,8 +55,11 @@ public class JarClasspathSnapshotFactory {
         Set<String> allClasses = new HashSet<String>();
         Set<String> duplicateClasses = new HashSet<String>();
 
-        for (JarArchive jar : jarArchives) {
-            JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
+        List<JarArchive> jars = Lists.newArrayList(jarArchives);
+        JarSnapshot[] snapshots = snapshotAll(jars);
+        for (int i = 0; i < snapshots.length; i++) {
+            JarArchive jar = jars.get(i);
+            JarSnapshot snapshot = snapshots[i];
             jarSnapshots.put(jar.file, snapshot);
             jarHashes.put(jar.file, snapshot.getHash());
             for (String c : snapshot.getClasses()) {
@@ -51,4 +71,47 @@ public class JarClasspathSnapshotFactory {
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private JarSnapshot[] snapshotAll(final List<JarArchive> jars) {
+        final JarSnapshot[] snapshots = new JarSnapshot[jars.size()];
+        if (buildOperationProcessor == null || jars.size() <= 1) {
+            for (int i = 0; i < snapshots.length; i++) {
+                snapshots[i] = jarSnapshotter.createSnapshot(jars.get(i));
+            }
+            return snapshots;
+        }
+        try {
+            buildOperationProcessor.run(new Action<BuildOperationQueue<SnapshotJar>>() {
+                public void execute(BuildOperationQueue<SnapshotJar> queue) {
+                    for (int i = 0; i < snapshots.length; i++) {
+                        queue.add(new SnapshotJar(jars.get(i), i, snapshots));
+                    }
+                }
+            });
+        } catch (MultipleBuildOperationFailures e) {
+            // Rethrow the failure as it would have been thrown when snapshotting on the calling thread
+            throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+        }
+        return snapshots;
+    }
+
+    private class SnapshotJar implements RunnableBuildOperation {
+        private final JarArchive jar;
+        private final int index;
+        private final JarSnapshot[] snapshots;
+
+        SnapshotJar(JarArchive jar, int index, JarSnapshot[] snapshots) {
+            this.jar = jar;
+            this.index = index;
+            this.snapshots = snapshots;
+        }
+
+        public String getDescription() {
+            return "snapshotting jar " + jar.file;
+        }
+
+        public void run() {
+            snapshots[index] = jarSnapshotter.createSnapshot(jar);
+        }
+    }
 }
@@ -38,13 +38,28 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
 
         then:
-        read.dependents.keySet() == data.dependents.keySet()
-
         ["A", "B", "C"].each {
-            assert read.dependents[it].dependentClasses == data.dependents[it].dependentClasses
-            assert read.dependents[it].dependencyToAll == data.dependents[it].dependencyToAll
+            assert read.getDependents(it).dependentClasses == data.getDependents(it).dependentClasses
+            assert read.getDependents(it).dependencyToAll == data.getDependents(it).dependencyToAll
         }
 
-        read.dependents["D"] instanceof DependencyToAll
+        read.getDependents("D") instanceof DependencyToAll
+        read.getDependents("E") == null
+    }
+
+    def "serializes dependents that are not known classes"() {
+        def data = new ClassSetAnalysisData(["A": dependents("B", "C", 'A$1'), "C": dependents("A")])
+        def os = new ByteArrayOutputStream()
+        def e = new OutputStreamBackedEncoder(os)
+
+        when:
+        serializer.write(e, data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.getDependents("A").dependentClasses == ["B", "C", 'A$1'] as Set
+        read.getDependents("C").dependentClasses == ["A"] as Set
+        read.getDependents("B") == null
+        new ClassSetAnalysis(read).getRelevantDependents("C").dependentClasses == ["A", "B"] as Set
     }
 }
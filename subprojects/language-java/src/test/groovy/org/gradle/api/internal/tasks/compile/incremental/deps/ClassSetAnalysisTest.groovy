@@ -105,6 +105,15 @@ class ClassSetAnalysisTest extends Specification {
         deps.dependentClasses == ["Bar", "Baz"] as Set
     }
 
+    def "handles long dependency chains"() {
+        def dependents = (0..<50000).collectEntries { [("C" + it): dependents("C" + (it + 1))] }
+        def a = analysis(dependents)
+
+        expect:
+        a.getRelevantDependents("C0").dependentClasses.size() == 50000
+        a.getRelevantDependents("C49999").dependentClasses == ["C50000"] as Set
+    }
+
     def "recurses but filters out inner classes"() {
         def a = analysis([
                 "a":   dependents('a$b', 'c'),
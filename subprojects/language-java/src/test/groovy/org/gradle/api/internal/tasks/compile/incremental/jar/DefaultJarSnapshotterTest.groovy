@@ -20,9 +20,12 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.api.internal.file.collections.FileTreeAdapter
+import org.gradle.api.internal.hash.DefaultHasher
 import org.gradle.api.internal.hash.Hasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
 import org.gradle.internal.hash.HashUtil
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -31,6 +34,9 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
 @UsesNativeServices
 class DefaultJarSnapshotterTest extends Specification {
 
@@ -65,4 +71,70 @@ class DefaultJarSnapshotterTest extends Specification {
         snapshot.hashes.keySet() == ["Foo", "com.Foo2"] as Set
         snapshot.analysis
     }
+
+    def "creates snapshot by reading the classes straight from the jar"() {
+        def dependentBytes = classBytes(DefaultClassDependenciesAnalyzer)
+        def dependencyBytes = classBytes(ClassAnalysis)
+        def jar = jar(
+            "org/gradle/": null,
+            (classPath(DefaultClassDependenciesAnalyzer)): dependentBytes,
+            (classPath(ClassAnalysis)): dependencyBytes,
+            "org/gradle/resource.txt": "text".bytes)
+        def streamingSnapshotter = new DefaultJarSnapshotter(new DefaultHasher(), new DefaultClassDependenciesAnalyzer())
+
+        when:
+        def snapshot = streamingSnapshotter.createSnapshotFromZipStream(HashUtil.createHash("foo", "md5"), jar)
+
+        then:
+        snapshot.hashes.keySet() == [DefaultClassDependenciesAnalyzer.name, ClassAnalysis.name] as Set
+        snapshot.hashes[DefaultClassDependenciesAnalyzer.name] == HashUtil.createHash(new ByteArrayInputStream(dependentBytes), "MD5")
+        snapshot.hashes[ClassAnalysis.name] == HashUtil.createHash(new ByteArrayInputStream(dependencyBytes), "MD5")
+
+        and:
+        snapshot.analysis.getRelevantDependents(ClassAnalysis.name).dependentClasses == [DefaultClassDependenciesAnalyzer.name] as Set
+        snapshot.analysis.getRelevantDependents(DefaultClassDependenciesAnalyzer.name).dependentClasses.empty
+        !snapshot.analysis.isDependencyToAll(DefaultClassDependenciesAnalyzer.name)
+    }
+
+    def "analyzes the classes read from the jar with the given analyzer"() {
+        def fooBytes = classBytes(DefaultClassDependenciesAnalyzer)
+        def barBytes = classBytes(ClassAnalysis)
+        def jar = jar("foo/Foo.class": fooBytes, "foo/Bar.class": barBytes)
+        def analyzer = Mock(ClassDependenciesAnalyzer)
+        def streamingSnapshotter = new DefaultJarSnapshotter(new DefaultHasher(), analyzer)
+
+        when:
+        def snapshot = streamingSnapshotter.createSnapshotFromZipStream(HashUtil.createHash("foo", "md5"), jar)
+
+        then:
+        1 * analyzer.getClassAnalysis("foo.Foo", HashUtil.createHash(new ByteArrayInputStream(fooBytes), "MD5"), fooBytes) >> new ClassAnalysis(["foo.Bar"] as Set, false)
+        1 * analyzer.getClassAnalysis("foo.Bar", HashUtil.createHash(new ByteArrayInputStream(barBytes), "MD5"), barBytes) >> new ClassAnalysis([] as Set, true)
+        0 * analyzer._
+
+        and:
+        snapshot.analysis.getRelevantDependents("foo.Bar").dependencyToAll
+        !snapshot.analysis.isDependencyToAll("foo.Foo")
+        snapshot.analysis.isDependencyToAll("foo.Bar")
+    }
+
+    private File jar(Map<String, byte[]> entries) {
+        def jar = temp.file("lib.jar")
+        def zip = new ZipOutputStream(new FileOutputStream(jar))
+        entries.each { name, content ->
+            zip.putNextEntry(new ZipEntry(name))
+            if (content != null) {
+                zip.write(content)
+            }
+        }
+        zip.close()
+        return jar
+    }
+
+    private static String classPath(Class<?> type) {
+        return type.name.replace('.', '/') + ".class"
+    }
+
+    private static byte[] classBytes(Class<?> type) {
+        return type.getResourceAsStream(type.simpleName + ".class").bytes
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.jar
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashValue
+import spock.lang.Specification
+
+class InMemoryJarSnapshotStoreTest extends Specification {
+    def store = new InMemoryJarSnapshotStore()
+    def hash = new HashValue("123")
+    def data = new JarSnapshotData(hash, [:], new ClassSetAnalysisData([:]))
+
+    def "creates snapshot once per jar hash"() {
+        def factory = Mock(Factory)
+
+        when:
+        def first = store.get(hash, factory)
+        def second = store.get(hash, factory)
+
+        then:
+        1 * factory.create() >> data
+        0 * _
+        first == data
+        second == data
+        store.getIfPresent(hash) == data
+    }
+
+    def "does not keep snapshot when creation fails"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        store.get(hash, { throw failure } as Factory)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        store.getIfPresent(hash) == null
+    }
+}
@@ -17,7 +17,10 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.file.FileTree
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.hash.HashValue
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -63,4 +66,28 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         s.data.jarHashes[new File("f1")] == new HashValue("123")
         s.data.jarHashes[new File("f2")] == new HashValue("234")
     }
+
+    def "creates classpath snapshot in parallel"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def parallelFactory = new JarClasspathSnapshotFactory(snapshotter, new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(), executorFactory, 4))
+        def jars = (0..<10).collect { new JarArchive(new File("f$it"), Stub(FileTree)) }
+
+        when:
+        def s = parallelFactory.createSnapshot(jars)
+
+        then:
+        10 * snapshotter.createSnapshot(_) >> { JarArchive jar ->
+            Stub(JarSnapshot) {
+                getHash() >> new HashValue(jar.file.name.substring(1))
+                getClasses() >> [jar.file.name, "Shared"]
+            }
+        }
+
+        s.data.jarHashes.size() == 10
+        s.data.jarHashes[new File("f7")] == new HashValue("7")
+        s.data.duplicateClasses == ["Shared"] as Set
+
+        cleanup:
+        executorFactory.stop()
+    }
 }
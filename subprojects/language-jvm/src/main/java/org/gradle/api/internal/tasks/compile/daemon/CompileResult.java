@@ -23,10 +23,19 @@ import java.io.Serializable;
 public class CompileResult implements WorkResult, Serializable {
     private final boolean didWork;
     private final Throwable exception;
+    private final long savedWarmUpTime;
 
     public CompileResult(boolean didWork, @Nullable Throwable exception) {
+        this(didWork, exception, 0);
+    }
+
+    /**
+     * @param savedWarmUpTime the time in milliseconds the compiler saved by reusing state left warm by an earlier compilation in the same process.
+     */
+    public CompileResult(boolean didWork, @Nullable Throwable exception, long savedWarmUpTime) {
         this.didWork = didWork;
         this.exception = exception;
+        this.savedWarmUpTime = savedWarmUpTime;
     }
 
     @Override
@@ -39,6 +48,10 @@ public class CompileResult implements WorkResult, Serializable {
         return exception;
     }
 
+    public long getSavedWarmUpTime() {
+        return savedWarmUpTime;
+    }
+
     public boolean isSuccess() {
         return exception == null;
     }
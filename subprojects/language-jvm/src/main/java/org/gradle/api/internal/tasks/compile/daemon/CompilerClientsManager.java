@@ -15,14 +15,17 @@
  */
 package org.gradle.api.internal.tasks.compile.daemon;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public class CompilerClientsManager {
 
@@ -31,11 +34,22 @@ public class CompilerClientsManager {
     private final Object lock = new Object();
     private final List<CompilerDaemonClient> allClients = new ArrayList<CompilerDaemonClient>();
     private final List<CompilerDaemonClient> idleClients = new ArrayList<CompilerDaemonClient>();
+    // Daemons adopted from the pool that have not yet completed a compilation for this build
+    private final Set<CompilerDaemonClient> adoptedClients = new HashSet<CompilerDaemonClient>();
 
     private CompilerDaemonStarter compilerDaemonStarter;
+    private final CompilerDaemonPool daemonPool;
 
     public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter) {
+        this(compilerDaemonStarter, null);
+    }
+
+    /**
+     * @param daemonPool pool to adopt daemons from and hand idle daemons over to when stopped, or null to stop all daemons.
+     */
+    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter, @Nullable CompilerDaemonPool daemonPool) {
         this.compilerDaemonStarter = compilerDaemonStarter;
+        this.daemonPool = daemonPool;
     }
 
     public CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
@@ -57,6 +71,23 @@ public class CompilerClientsManager {
     }
 
     public CompilerDaemonClient reserveNewClient(File workingDir, DaemonForkOptions forkOptions) {
+        if (daemonPool != null) {
+            CompilerDaemonClient client = daemonPool.reserve(workingDir, compilerDaemonStarter.getLogLevel(), forkOptions);
+            if (client != null) {
+                synchronized (lock) {
+                    allClients.add(client);
+                    adoptedClients.add(client);
+                }
+                return client;
+            }
+        }
+        return startNewClient(workingDir, forkOptions);
+    }
+
+    /**
+     * Starts a new daemon, without adopting an idle daemon from the pool.
+     */
+    public CompilerDaemonClient startNewClient(File workingDir, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         CompilerDaemonClient client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
         synchronized (lock) {
@@ -65,18 +96,50 @@ public class CompilerClientsManager {
         return client;
     }
 
+    /**
+     * Discards the given client when it was adopted from the pool and has not completed a compilation for this build yet. The daemon process of such a
+     * client may have exited while it was idle in the pool.
+     *
+     * @return true when the client was discarded, false when the client is not such a client.
+     */
+    public boolean discardAdoptedClient(CompilerDaemonClient client) {
+        synchronized (lock) {
+            if (!adoptedClients.remove(client)) {
+                return false;
+            }
+            allClients.remove(client);
+        }
+        try {
+            client.stop();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not stop compiler daemon adopted from a previous build.", e);
+        }
+        return true;
+    }
+
     public void release(CompilerDaemonClient client) {
         synchronized (lock) {
+            adoptedClients.remove(client);
             idleClients.add(client);
         }
     }
 
     public void stop() {
         synchronized (lock) {
+            if (daemonPool != null) {
+                // Keep the idle daemons alive for later builds, any daemon still in use is stopped
+                for (CompilerDaemonClient client : idleClients) {
+                    daemonPool.release(client);
+                }
+                allClients.removeAll(idleClients);
+                LOGGER.debug("Released {} idle compiler daemon(s) for reuse.", idleClients.size());
+            }
             LOGGER.debug("Stopping {} compiler daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} compiler daemon(s).", allClients.size());
             allClients.clear();
+            idleClients.clear();
+            adoptedClients.clear();
         }
     }
 }
\ No newline at end of file
@@ -15,17 +15,30 @@
  */
 package org.gradle.api.internal.tasks.compile.daemon;
 
+import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.language.base.internal.compile.CompileSpec;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import java.io.File;
+
 class CompilerDaemonClient implements CompilerDaemon, Stoppable {
     private final DaemonForkOptions forkOptions;
     private final CompilerDaemonWorker workerProcess;
+    private final File workingDir;
+    private final LogLevel logLevel;
+    private final long startupTime;
 
     public CompilerDaemonClient(DaemonForkOptions forkOptions, CompilerDaemonWorker workerProcess) {
+        this(forkOptions, workerProcess, null, null, 0);
+    }
+
+    public CompilerDaemonClient(DaemonForkOptions forkOptions, CompilerDaemonWorker workerProcess, File workingDir, LogLevel logLevel, long startupTime) {
         this.forkOptions = forkOptions;
         this.workerProcess = workerProcess;
+        this.workingDir = workingDir;
+        this.logLevel = logLevel;
+        this.startupTime = startupTime;
     }
 
     @Override
@@ -39,6 +52,25 @@ class CompilerDaemonClient implements CompilerDaemon, Stoppable {
         return forkOptions.isCompatibleWith(required);
     }
 
+    public DaemonForkOptions getForkOptions() {
+        return forkOptions;
+    }
+
+    public File getWorkingDir() {
+        return workingDir;
+    }
+
+    public LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    /**
+     * The time in milliseconds it took to start this daemon.
+     */
+    public long getStartupTime() {
+        return startupTime;
+    }
+
     @Override
     public void stop() {
         workerProcess.stop();
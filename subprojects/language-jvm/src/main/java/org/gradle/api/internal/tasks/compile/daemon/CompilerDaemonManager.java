@@ -16,10 +16,16 @@
 package org.gradle.api.internal.tasks.compile.daemon;
 
 import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.language.base.internal.compile.CompileSpec;
+import org.gradle.process.internal.worker.WorkerProcessException;
+import org.gradle.util.Clock;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Controls the lifecycle of the compiler daemon and provides access to it.
@@ -27,7 +33,11 @@ import java.io.File;
 @ThreadSafe
 public class CompilerDaemonManager implements CompilerDaemonFactory, Stoppable {
 
+    private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
+
     private CompilerClientsManager clientsManager;
+    private final AtomicInteger warmCompilations = new AtomicInteger();
+    private final AtomicLong savedWarmUpTime = new AtomicLong();
 
     public CompilerDaemonManager(CompilerClientsManager clientsManager) {
         this.clientsManager = clientsManager;
@@ -42,16 +52,52 @@ public class CompilerDaemonManager implements CompilerDaemonFactory, Stoppable {
                     client = clientsManager.reserveNewClient(workingDir, forkOptions);
                 }
                 try {
-                    return client.execute(compiler, spec);
+                    CompileResult result;
+                    try {
+                        result = client.execute(compiler, spec);
+                    } catch (WorkerProcessException e) {
+                        if (!clientsManager.discardAdoptedClient(client)) {
+                            throw e;
+                        }
+                        // The daemon exited while it was idle in the pool, for example because it was killed when the machine ran out of memory
+                        LOGGER.info("Gradle compiler daemon started by a previous build is no longer running, starting a new one.", e);
+                        client = null;
+                        client = clientsManager.startNewClient(workingDir, forkOptions);
+                        result = client.execute(compiler, spec);
+                    }
+                    if (result.getSavedWarmUpTime() > 0) {
+                        warmCompilations.incrementAndGet();
+                        savedWarmUpTime.addAndGet(result.getSavedWarmUpTime());
+                    }
+                    return result;
                 } finally {
-                    clientsManager.release(client);
+                    if (client != null) {
+                        clientsManager.release(client);
+                    }
                 }
             }
         };
     }
 
+    /**
+     * The number of compilations that reused a compiler left warm by an earlier compilation in the same compiler daemon.
+     */
+    public int getWarmCompilations() {
+        return warmCompilations.get();
+    }
+
+    /**
+     * The total warm-up time in milliseconds saved by reusing warm compilers.
+     */
+    public long getSavedWarmUpTime() {
+        return savedWarmUpTime.get();
+    }
+
     @Override
     public void stop() {
+        if (warmCompilations.get() > 0) {
+            LOGGER.info("{} compilation(s) reused a warm compiler in a compiler daemon, saving {} of warm-up time.", warmCompilations.get(), Clock.prettyTime(savedWarmUpTime.get()));
+        }
         clientsManager.stop();
     }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import com.google.common.base.Objects;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.process.internal.worker.WorkerProcessReuseStatistics;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps idle compiler daemons alive between builds, so that a long-lived build process does not pay the
+ * daemon startup cost for every build. Daemons are handed over by a build session when it finishes
+ * and are adopted by a later session that needs a compatible daemon.
+ *
+ * <p>While the pool holds idle daemons, a background thread stops the daemons that have been idle for longer than the idle timeout,
+ * and stops the least recently used daemon whenever the physical memory available on the machine drops below a minimum.
+ * The least recently used daemons are also stopped when the pool exceeds its size.</p>
+ */
+@ThreadSafe
+public class CompilerDaemonPool implements Stoppable {
+    public static final String REUSE_TOGGLE = "org.gradle.compiler.daemon.reuse";
+
+    static final int DEFAULT_MAX_IDLE_DAEMONS = 4;
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000L;
+    static final long DEFAULT_MIN_AVAILABLE_MEMORY = 1024L * 1024 * 1024;
+    static final long DEFAULT_CHECK_INTERVAL_MILLIS = 10 * 1000L;
+
+    private static final Logger LOGGER = Logging.getLogger(CompilerDaemonPool.class);
+
+    private final Object lock = new Object();
+    // Most recently used daemon last
+    private final LinkedList<IdleDaemon> idleDaemons = new LinkedList<IdleDaemon>();
+    private final ExecutorFactory executorFactory;
+    private final WorkerProcessReuseStatistics statistics;
+    private final TimeProvider timeProvider;
+    private final SystemMemory systemMemory;
+    private final int maxIdleDaemons;
+    private final long idleTimeoutMillis;
+    private final long minAvailableMemory;
+    private final long checkIntervalMillis;
+    private StoppableExecutor reaper;
+    private boolean stopped;
+
+    public CompilerDaemonPool(ExecutorFactory executorFactory, WorkerProcessReuseStatistics statistics) {
+        this(executorFactory, statistics, new TrueTimeProvider(), new SystemMemory(), DEFAULT_MAX_IDLE_DAEMONS, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MIN_AVAILABLE_MEMORY, DEFAULT_CHECK_INTERVAL_MILLIS);
+    }
+
+    CompilerDaemonPool(ExecutorFactory executorFactory, WorkerProcessReuseStatistics statistics, TimeProvider timeProvider, SystemMemory systemMemory,
+                       int maxIdleDaemons, long idleTimeoutMillis, long minAvailableMemory, long checkIntervalMillis) {
+        this.executorFactory = executorFactory;
+        this.statistics = statistics;
+        this.timeProvider = timeProvider;
+        this.systemMemory = systemMemory;
+        this.maxIdleDaemons = maxIdleDaemons;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.minAvailableMemory = minAvailableMemory;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    /**
+     * Removes and returns an idle daemon that can run with the given options, or null when there is none.
+     */
+    public CompilerDaemonClient reserve(File workingDir, LogLevel logLevel, DaemonForkOptions forkOptions) {
+        List<CompilerDaemonClient> expired = new ArrayList<CompilerDaemonClient>();
+        CompilerDaemonClient client = null;
+        synchronized (lock) {
+            removeExpired(expired);
+            Iterator<IdleDaemon> it = idleDaemons.descendingIterator();
+            while (it.hasNext()) {
+                CompilerDaemonClient candidate = it.next().client;
+                if (Objects.equal(workingDir, candidate.getWorkingDir())
+                    && Objects.equal(logLevel, candidate.getLogLevel())
+                    && candidate.isCompatibleWith(forkOptions)) {
+                    it.remove();
+                    client = candidate;
+                    break;
+                }
+            }
+        }
+        stopAll(expired);
+        if (client != null) {
+            statistics.workerProcessReused(client.getStartupTime());
+            LOGGER.info("Reusing Gradle compiler daemon started by a previous build with fork options {}.", client.getForkOptions());
+        }
+        return client;
+    }
+
+    /**
+     * Hands over an idle daemon to this pool. The pool takes over responsibility for stopping the daemon.
+     */
+    public void release(CompilerDaemonClient client) {
+        List<CompilerDaemonClient> evicted = new ArrayList<CompilerDaemonClient>();
+        synchronized (lock) {
+            if (stopped) {
+                evicted.add(client);
+            } else {
+                idleDaemons.addLast(new IdleDaemon(client, timeProvider.getCurrentTime()));
+                while (idleDaemons.size() > maxIdleDaemons) {
+                    evicted.add(idleDaemons.removeFirst().client);
+                }
+                removeEvictable(evicted);
+                startReaper();
+                lock.notifyAll();
+            }
+        }
+        stopAll(evicted);
+    }
+
+    public int getIdleCount() {
+        synchronized (lock) {
+            return idleDaemons.size();
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<CompilerDaemonClient> clients = new ArrayList<CompilerDaemonClient>();
+        StoppableExecutor expiryExecutor;
+        synchronized (lock) {
+            stopped = true;
+            for (IdleDaemon idleDaemon : idleDaemons) {
+                clients.add(idleDaemon.client);
+            }
+            idleDaemons.clear();
+            expiryExecutor = reaper;
+            lock.notifyAll();
+        }
+        stopAll(clients);
+        if (expiryExecutor != null) {
+            expiryExecutor.stop();
+        }
+    }
+
+    private void startReaper() {
+        if (reaper != null) {
+            return;
+        }
+        reaper = executorFactory.create("Compiler daemon pool expiry", 1);
+        reaper.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<CompilerDaemonClient> evicted;
+                while ((evicted = awaitEvictableDaemons()) != null) {
+                    stopAll(evicted);
+                }
+            }
+        });
+    }
+
+    /**
+     * Blocks until some idle daemons can be stopped and removes them from the pool. Returns null when this pool has been stopped.
+     * While there are no idle daemons, this waits until a daemon is released, otherwise it checks at least once per check interval.
+     */
+    private List<CompilerDaemonClient> awaitEvictableDaemons() {
+        List<CompilerDaemonClient> evicted = new ArrayList<CompilerDaemonClient>();
+        synchronized (lock) {
+            while (!stopped) {
+                removeEvictable(evicted);
+                if (!evicted.isEmpty()) {
+                    return evicted;
+                }
+                long waitMillis = 0;
+                if (!idleDaemons.isEmpty()) {
+                    long untilExpiry = idleDaemons.getFirst().idleSince + idleTimeoutMillis - timeProvider.getCurrentTime();
+                    waitMillis = Math.max(1, Math.min(checkIntervalMillis, untilExpiry + 1));
+                }
+                try {
+                    lock.wait(waitMillis);
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            return null;
+        }
+    }
+
+    private void removeEvictable(List<CompilerDaemonClient> evicted) {
+        removeExpired(evicted);
+        if (!idleDaemons.isEmpty() && isLowOnMemory()) {
+            // Stopping a daemon frees its memory only once the process has exited, so stop one daemon per check
+            LOGGER.debug("Stopping least recently used idle compiler daemon, as available physical memory is low.");
+            evicted.add(idleDaemons.removeFirst().client);
+        }
+    }
+
+    private boolean isLowOnMemory() {
+        long availableMemory = systemMemory.getAvailablePhysicalMemory();
+        return availableMemory >= 0 && availableMemory < minAvailableMemory;
+    }
+
+    private void removeExpired(List<CompilerDaemonClient> expired) {
+        long expiry = timeProvider.getCurrentTime() - idleTimeoutMillis;
+        Iterator<IdleDaemon> it = idleDaemons.iterator();
+        while (it.hasNext()) {
+            IdleDaemon idleDaemon = it.next();
+            if (idleDaemon.idleSince < expiry) {
+                it.remove();
+                expired.add(idleDaemon.client);
+            }
+        }
+    }
+
+    private static void stopAll(List<CompilerDaemonClient> clients) {
+        if (!clients.isEmpty()) {
+            LOGGER.debug("Stopping {} idle compiler daemon(s).", clients.size());
+            CompositeStoppable.stoppable(clients).stop();
+        }
+    }
+
+    private static class IdleDaemon {
+        private final CompilerDaemonClient client;
+        private final long idleSince;
+
+        private IdleDaemon(CompilerDaemonClient client, long idleSince) {
+            this.client = client;
+            this.idleSince = idleSince;
+        }
+    }
+}
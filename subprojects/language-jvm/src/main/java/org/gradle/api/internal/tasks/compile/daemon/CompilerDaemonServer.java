@@ -30,6 +30,9 @@ public class CompilerDaemonServer implements CompilerDaemonProtocol {
             LOGGER.info("Executing {} in compiler daemon.", compiler);
             WorkResult result = compiler.execute(spec);
             LOGGER.info("Successfully executed {} in compiler daemon.", compiler);
+            if (result instanceof CompileResult) {
+                return (CompileResult) result;
+            }
             return new CompileResult(result.getDidWork(), null);
         } catch (Throwable t) {
             LOGGER.info("Exception executing {} in compiler daemon: {}.", compiler, t);
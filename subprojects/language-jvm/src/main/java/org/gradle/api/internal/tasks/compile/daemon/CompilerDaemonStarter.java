@@ -16,6 +16,7 @@
 package org.gradle.api.internal.tasks.compile.daemon;
 
 import org.gradle.StartParameter;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.process.internal.JavaExecHandleBuilder;
@@ -51,10 +52,14 @@ public class CompilerDaemonStarter {
         CompilerDaemonWorker worker = builder.build();
         worker.start();
 
-        CompilerDaemonClient client = new CompilerDaemonClient(forkOptions, worker);
+        CompilerDaemonClient client = new CompilerDaemonClient(forkOptions, worker, workingDir, startParameter.getLogLevel(), clock.getTimeInMs());
 
         LOG.info("Started Gradle compiler daemon ({}) with fork options {}.", clock.getTime(), forkOptions);
 
         return client;
     }
+
+    public LogLevel getLogLevel() {
+        return startParameter.getLogLevel();
+    }
 }
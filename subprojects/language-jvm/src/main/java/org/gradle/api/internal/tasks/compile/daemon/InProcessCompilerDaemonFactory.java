@@ -20,6 +20,7 @@ import org.gradle.api.internal.classloading.GroovySystemLoader;
 import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.*;
 import org.gradle.internal.classpath.DefaultClassPath;
@@ -96,7 +97,11 @@ public class InProcessCompilerDaemonFactory implements CompilerDaemonFactory {
         public Object call() throws Exception {
             // We have to initialize this here because we're in an isolated classloader
             NativeServices.initialize(gradleUserHome);
-            return new CompileResult(compiler.execute(spec).getDidWork(), null);
+            WorkResult result = compiler.execute(spec);
+            if (result instanceof CompileResult) {
+                return result;
+            }
+            return new CompileResult(result.getDidWork(), null);
         }
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Reads the amount of physical memory of the machine that is available for new processes.
+ *
+ * <p>On Linux this is read from {@code /proc/meminfo}. The free memory reported there leaves out the page cache, which the kernel gives up when a process
+ * needs the memory, and so is normally low on a busy machine. The available memory is used instead, or, on kernels that do not report it, the free memory
+ * plus the buffers and the page cache. On other systems this falls back to the free physical memory reported by {@code com.sun.management.OperatingSystemMXBean}.</p>
+ */
+class SystemMemory {
+    private static final long KILOBYTE = 1024;
+
+    private final File meminfo;
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    private final Method freePhysicalMemorySize = findFreePhysicalMemorySize(operatingSystem);
+
+    SystemMemory() {
+        this(new File("/proc/meminfo"));
+    }
+
+    SystemMemory(File meminfo) {
+        this.meminfo = meminfo;
+    }
+
+    /**
+     * Returns the available physical memory in bytes, or -1 when it is not known.
+     */
+    long getAvailablePhysicalMemory() {
+        long available = readMeminfo();
+        if (available >= 0) {
+            return available;
+        }
+        return getFreePhysicalMemory();
+    }
+
+    private long readMeminfo() {
+        if (!meminfo.isFile()) {
+            return -1;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readLines(meminfo, Charsets.US_ASCII);
+        } catch (IOException e) {
+            return -1;
+        }
+        long available = -1;
+        long free = -1;
+        long buffers = -1;
+        long cached = -1;
+        for (String line : lines) {
+            if (line.startsWith("MemAvailable:")) {
+                available = parseKilobytes(line);
+            } else if (line.startsWith("MemFree:")) {
+                free = parseKilobytes(line);
+            } else if (line.startsWith("Buffers:")) {
+                buffers = parseKilobytes(line);
+            } else if (line.startsWith("Cached:")) {
+                cached = parseKilobytes(line);
+            }
+        }
+        if (available >= 0) {
+            return available;
+        }
+        if (free >= 0 && buffers >= 0 && cached >= 0) {
+            return free + buffers + cached;
+        }
+        return -1;
+    }
+
+    private static long parseKilobytes(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields.length < 2) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fields[1]) * KILOBYTE;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long getFreePhysicalMemory() {
+        if (freePhysicalMemorySize == null) {
+            return -1;
+        }
+        try {
+            return ((Number) freePhysicalMemorySize.invoke(operatingSystem)).longValue();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static Method findFreePhysicalMemorySize(OperatingSystemMXBean operatingSystem) {
+        try {
+            Class<?> type = Class.forName("com.sun.management.OperatingSystemMXBean");
+            return type.isInstance(operatingSystem) ? type.getMethod("getFreePhysicalMemorySize") : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.daemon
 
+import org.gradle.api.logging.LogLevel
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
@@ -94,4 +95,100 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         then:
         manager.reserveIdleClient(options) == client
     }
+
+    def "idle clients are not reused after stop"() {
+        def client = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(workingDir, options) >> client
+
+        when:
+        manager.release(manager.reserveNewClient(workingDir, options))
+        manager.stop()
+
+        then:
+        1 * client.stop()
+        manager.reserveIdleClient(options) == null
+    }
+
+    def "hands idle clients over to daemon pool on stop"() {
+        def pool = Mock(CompilerDaemonPool)
+        def manager = new CompilerClientsManager(starter, pool)
+        def idle = Mock(CompilerDaemonClient)
+        def busy = Mock(CompilerDaemonClient)
+        starter.startDaemon(workingDir, options) >>> [idle, busy]
+
+        when:
+        manager.reserveNewClient(workingDir, options)
+        manager.reserveNewClient(workingDir, options)
+        manager.release(idle)
+        manager.stop()
+
+        then:
+        1 * pool.release(idle)
+        1 * busy.stop()
+        0 * idle.stop()
+    }
+
+    def "adopts client from daemon pool before starting a new one"() {
+        def pool = Mock(CompilerDaemonPool)
+        def starter = Mock(CompilerDaemonStarter) { getLogLevel() >> LogLevel.LIFECYCLE }
+        def manager = new CompilerClientsManager(starter, pool)
+        def pooled = Mock(CompilerDaemonClient)
+
+        when:
+        def client = manager.reserveNewClient(workingDir, options)
+
+        then:
+        1 * pool.reserve(workingDir, LogLevel.LIFECYCLE, options) >> pooled
+        0 * starter.startDaemon(_, _)
+        client == pooled
+
+        when:
+        manager.stop()
+
+        then:
+        1 * pooled.stop()
+    }
+
+    def "discards client adopted from daemon pool that has not completed a compilation"() {
+        def pool = Mock(CompilerDaemonPool)
+        def starter = Mock(CompilerDaemonStarter) { getLogLevel() >> LogLevel.LIFECYCLE }
+        def manager = new CompilerClientsManager(starter, pool)
+        def pooled = Mock(CompilerDaemonClient)
+        pool.reserve(workingDir, LogLevel.LIFECYCLE, options) >> pooled
+
+        when:
+        def discarded = manager.discardAdoptedClient(manager.reserveNewClient(workingDir, options))
+
+        then:
+        discarded
+        1 * pooled.stop() >> { throw new RuntimeException("already stopped") }
+
+        when:
+        manager.stop()
+
+        then:
+        0 * pooled.stop()
+    }
+
+    def "does not discard client that was started or that has completed a compilation"() {
+        def pool = Mock(CompilerDaemonPool)
+        def starter = Mock(CompilerDaemonStarter) { getLogLevel() >> LogLevel.LIFECYCLE }
+        def manager = new CompilerClientsManager(starter, pool)
+        def pooled = Mock(CompilerDaemonClient)
+        def started = Mock(CompilerDaemonClient)
+        pool.reserve(workingDir, LogLevel.LIFECYCLE, options) >>> [pooled, null]
+        starter.startDaemon(workingDir, options) >> started
+
+        when:
+        def adopted = manager.reserveNewClient(workingDir, options)
+        manager.release(adopted)
+        def client = manager.reserveNewClient(workingDir, options)
+
+        then:
+        !manager.discardAdoptedClient(adopted)
+        !manager.discardAdoptedClient(client)
+        client == started
+        0 * pooled.stop()
+        0 * started.stop()
+    }
 }
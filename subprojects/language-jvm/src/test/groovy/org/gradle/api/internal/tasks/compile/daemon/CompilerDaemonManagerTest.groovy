@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.compile.daemon
 
 import org.gradle.language.base.internal.compile.CompileSpec
 import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.process.internal.worker.WorkerProcessException
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -52,7 +53,7 @@ class CompilerDaemonManagerTest extends Specification {
         1 * clientsManager.reserveNewClient(workingDir, options) >> client
 
         then:
-        1 * client.execute(compiler, compileSpec)
+        1 * client.execute(compiler, compileSpec) >> new CompileResult(true, null)
 
         then:
         1 * clientsManager.release(client)
@@ -67,7 +68,7 @@ class CompilerDaemonManagerTest extends Specification {
         1 * clientsManager.reserveIdleClient(options) >> client
 
         then:
-        1 * client.execute(compiler, compileSpec)
+        1 * client.execute(compiler, compileSpec) >> new CompileResult(true, null)
 
         then:
         1 * clientsManager.release(client)
@@ -90,6 +91,68 @@ class CompilerDaemonManagerTest extends Specification {
         0 * _._
     }
 
+    def "starts a new client when a client adopted from a previous build is no longer running"() {
+        def newClient = Mock(CompilerDaemonClient)
+        def result = new CompileResult(true, null)
+
+        when:
+        def actual = manager.getDaemon(workingDir, options).execute(compiler, compileSpec)
+
+        then:
+        1 * clientsManager.reserveIdleClient(options) >> null
+        1 * clientsManager.reserveNewClient(workingDir, options) >> client
+
+        then:
+        1 * client.execute(compiler, compileSpec) >> { throw new WorkerProcessException("broken", null) }
+
+        then:
+        1 * clientsManager.discardAdoptedClient(client) >> true
+
+        then:
+        1 * clientsManager.startNewClient(workingDir, options) >> newClient
+
+        then:
+        1 * newClient.execute(compiler, compileSpec) >> result
+
+        then:
+        1 * clientsManager.release(newClient)
+        0 * _._
+
+        and:
+        actual == result
+    }
+
+    def "fails when a client that was not adopted from a previous build is no longer running"() {
+        def failure = new WorkerProcessException("broken", null)
+
+        when:
+        manager.getDaemon(workingDir, options).execute(compiler, compileSpec)
+
+        then:
+        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * client.execute(compiler, compileSpec) >> { throw failure }
+        1 * clientsManager.discardAdoptedClient(client) >> false
+
+        then:
+        def e = thrown(WorkerProcessException)
+        e == failure
+        1 * clientsManager.release(client)
+        0 * _._
+    }
+
+    def "counts compilations that reused a warm compiler"() {
+        when:
+        manager.getDaemon(workingDir, options).execute(compiler, compileSpec)
+        manager.getDaemon(workingDir, options).execute(compiler, compileSpec)
+        manager.getDaemon(workingDir, options).execute(compiler, compileSpec)
+
+        then:
+        3 * clientsManager.reserveIdleClient(options) >> client
+        3 * client.execute(compiler, compileSpec) >>> [new CompileResult(true, null), new CompileResult(true, null, 1200), new CompileResult(true, null, 800)]
+        manager.warmCompilations == 2
+        manager.savedWarmUpTime == 2000
+    }
+
     def "stops clients"() {
         when:
         manager.stop()
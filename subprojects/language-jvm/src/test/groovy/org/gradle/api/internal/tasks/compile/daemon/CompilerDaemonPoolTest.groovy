@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.process.internal.worker.WorkerProcessReuseStatistics
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+class CompilerDaemonPoolTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def workingDir = new File("some-dir")
+    def options = new DaemonForkOptions(null, "256m", [])
+    def timeProvider = Stub(TimeProvider)
+    def systemMemory = Stub(SystemMemory)
+    def statistics = new WorkerProcessReuseStatistics()
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_, _) >> Stub(StoppableExecutor)
+    }
+    long currentTime = 0
+    long availableMemory = 4096
+
+    @Subject pool = new CompilerDaemonPool(executorFactory, statistics, timeProvider, systemMemory, 2, 1000, 1024, 10)
+
+    def setup() {
+        timeProvider.getCurrentTime() >> { currentTime }
+        systemMemory.getAvailablePhysicalMemory() >> { availableMemory }
+    }
+
+    def "reserves released client with matching working dir, log level and fork options"() {
+        def client = client(workingDir, LogLevel.LIFECYCLE, options, 500)
+
+        when:
+        pool.release(client)
+
+        then:
+        pool.reserve(new File("other-dir"), LogLevel.LIFECYCLE, options) == null
+        pool.reserve(workingDir, LogLevel.INFO, options) == null
+        pool.reserve(workingDir, LogLevel.LIFECYCLE, new DaemonForkOptions(null, "512m", [])) == null
+
+        and:
+        pool.reserve(workingDir, LogLevel.LIFECYCLE, options) == client
+        pool.reserve(workingDir, LogLevel.LIFECYCLE, options) == null
+        pool.idleCount == 0
+        statistics.reuseCount == 1
+        statistics.savedStartupTime == 500
+    }
+
+    def "stops clients that have been idle longer than the timeout"() {
+        def client = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client)
+        currentTime = 1001
+        def reserved = pool.reserve(workingDir, LogLevel.LIFECYCLE, options)
+
+        then:
+        reserved == null
+        1 * client.stop()
+        pool.idleCount == 0
+    }
+
+    def "stops least recently used client when too many clients are idle"() {
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client3 = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client1)
+        pool.release(client2)
+        pool.release(client3)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        0 * client3.stop()
+        pool.idleCount == 2
+    }
+
+    def "stops least recently used client when available physical memory is low"() {
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+        pool.release(client1)
+
+        when:
+        availableMemory = 512
+        pool.release(client2)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        pool.idleCount == 1
+    }
+
+    def "keeps idle clients when available physical memory is not known"() {
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        availableMemory = -1
+        pool.release(client1)
+        pool.release(client2)
+
+        then:
+        0 * client1.stop()
+        0 * client2.stop()
+        pool.idleCount == 2
+    }
+
+    def "keeps idle clients when most of the memory in use is page cache"() {
+        def meminfo = tmpDir.file("meminfo")
+        meminfo.text = meminfoContent(memFree: 310 * 1024, memAvailable: 5 * 1024 * 1024, cached: 4 * 1024 * 1024)
+        def pool = new CompilerDaemonPool(executorFactory, statistics, timeProvider, new SystemMemory(meminfo), 2, 1000, CompilerDaemonPool.DEFAULT_MIN_AVAILABLE_MEMORY, 10)
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client1)
+        pool.release(client2)
+
+        then:
+        0 * client1.stop()
+        0 * client2.stop()
+        pool.idleCount == 2
+    }
+
+    def "stops least recently used client when little memory is available even though page cache could be reclaimed"() {
+        def meminfo = tmpDir.file("meminfo")
+        meminfo.text = meminfoContent(memFree: 310 * 1024, memAvailable: 700 * 1024, cached: 4 * 1024 * 1024)
+        def pool = new CompilerDaemonPool(executorFactory, statistics, timeProvider, new SystemMemory(meminfo), 2, 1000, CompilerDaemonPool.DEFAULT_MIN_AVAILABLE_MEMORY, 10)
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client1)
+        pool.release(client2)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        pool.idleCount == 1
+    }
+
+    def "stops expired clients in the background when the pool is not used"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def pool = new CompilerDaemonPool(executorFactory, statistics, timeProvider, systemMemory, 2, 1000, 1024, 10)
+        def client = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client)
+        currentTime = 1001
+        poll {
+            assert pool.idleCount == 0
+        }
+
+        then:
+        1 * client.stop()
+
+        cleanup:
+        pool.stop()
+        executorFactory.stop()
+    }
+
+    def "stops client in the background when available physical memory becomes low"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def pool = new CompilerDaemonPool(executorFactory, statistics, timeProvider, systemMemory, 2, 1000, 1024, 10)
+        def client = client(workingDir, LogLevel.LIFECYCLE, options)
+
+        when:
+        pool.release(client)
+        availableMemory = 512
+        poll {
+            assert pool.idleCount == 0
+        }
+
+        then:
+        1 * client.stop()
+
+        cleanup:
+        pool.stop()
+        executorFactory.stop()
+    }
+
+    def "stops client released after the pool has stopped"() {
+        def client = client(workingDir, LogLevel.LIFECYCLE, options)
+        pool.stop()
+
+        when:
+        pool.release(client)
+
+        then:
+        1 * client.stop()
+        pool.idleCount == 0
+    }
+
+    def "stops all idle clients on stop"() {
+        def client1 = client(workingDir, LogLevel.LIFECYCLE, options)
+        def client2 = client(workingDir, LogLevel.LIFECYCLE, options)
+        pool.release(client1)
+        pool.release(client2)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * client1.stop()
+        1 * client2.stop()
+        pool.idleCount == 0
+    }
+
+    private static String meminfoContent(Map<String, Long> kilobytes) {
+        return """MemTotal:       16318480 kB
+MemFree:        ${kilobytes.memFree} kB
+MemAvailable:   ${kilobytes.memAvailable} kB
+Buffers:          412320 kB
+Cached:         ${kilobytes.cached} kB
+SwapCached:            0 kB
+Active:          9514032 kB
+"""
+    }
+
+    private CompilerDaemonClient client(File workingDir, LogLevel logLevel, DaemonForkOptions forkOptions, long startupTime = 0) {
+        return Mock(CompilerDaemonClient) {
+            getWorkingDir() >> workingDir
+            getLogLevel() >> logLevel
+            getForkOptions() >> forkOptions
+            getStartupTime() >> startupTime
+            isCompatibleWith(_) >> { DaemonForkOptions required -> forkOptions.isCompatibleWith(required) }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.daemon
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SystemMemoryTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def meminfo = tmpDir.file("meminfo")
+
+    def "uses the available memory reported by the kernel"() {
+        meminfo.text = """MemTotal:       16318480 kB
+MemFree:          317440 kB
+MemAvailable:    5242880 kB
+Buffers:          412320 kB
+Cached:          4194304 kB
+"""
+
+        expect:
+        new SystemMemory(meminfo).availablePhysicalMemory == 5242880L * 1024
+    }
+
+    def "counts buffers and page cache as available when the kernel does not report the available memory"() {
+        meminfo.text = """MemTotal:       16318480 kB
+MemFree:          317440 kB
+Buffers:          412320 kB
+Cached:          4194304 kB
+"""
+
+        expect:
+        new SystemMemory(meminfo).availablePhysicalMemory == (317440L + 412320L + 4194304L) * 1024
+    }
+}
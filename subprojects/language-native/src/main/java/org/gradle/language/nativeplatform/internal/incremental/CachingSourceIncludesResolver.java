@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reuses the includes resolved for a file by an earlier compile task with the same include path, while the directories searched by that resolution
+ * are unchanged. The last modified time of each directory is read at most once by each instance, so an instance should be used for one compilation only.
+ */
+public class CachingSourceIncludesResolver implements SourceIncludesResolver {
+    // Directories modified this recently might be modified again without their timestamp changing, so resolutions that searched them are not cached
+    private static final long TIMESTAMP_RESOLUTION = 1000;
+
+    private final SourceIncludesResolver delegate;
+    private final List<File> includePaths;
+    private final ResolvedIncludesCache cache;
+    private final Map<File, Long> directoryTimestamps = new HashMap<File, Long>();
+
+    public CachingSourceIncludesResolver(SourceIncludesResolver delegate, List<File> includePaths, ResolvedIncludesCache cache) {
+        this.delegate = delegate;
+        this.includePaths = includePaths;
+        this.cache = cache;
+    }
+
+    @Override
+    public ResolvedSourceIncludes resolveIncludes(File sourceFile, IncludeDirectives includes) {
+        ResolvedIncludesCache.Entry cached = cache.get(sourceFile, includes, includePaths);
+        if (cached != null && isUpToDate(cached)) {
+            return cached;
+        }
+
+        long startTime = System.currentTimeMillis();
+        ResolvedSourceIncludes resolved = delegate.resolveIncludes(sourceFile, includes);
+
+        Set<File> directories = new LinkedHashSet<File>();
+        for (File location : resolved.getCheckedLocations()) {
+            directories.add(location.getParentFile());
+        }
+        File[] directoryArray = directories.toArray(new File[0]);
+        long[] timestamps = new long[directoryArray.length];
+        for (int i = 0; i < directoryArray.length; i++) {
+            timestamps[i] = getTimestamp(directoryArray[i]);
+            if (timestamps[i] > startTime - TIMESTAMP_RESOLUTION) {
+                return resolved;
+            }
+        }
+        cache.put(sourceFile, includes, includePaths, new ResolvedIncludesCache.Entry(resolved.getResolvedIncludes(), resolved.getCheckedLocations(), directoryArray, timestamps));
+        return resolved;
+    }
+
+    private boolean isUpToDate(ResolvedIncludesCache.Entry entry) {
+        File[] directories = entry.getDirectories();
+        long[] timestamps = entry.getTimestamps();
+        for (int i = 0; i < directories.length; i++) {
+            if (getTimestamp(directories[i]) != timestamps[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getTimestamp(File directory) {
+        Long timestamp = directoryTimestamps.get(directory);
+        if (timestamp == null) {
+            timestamp = directory.lastModified();
+            directoryTimestamps.put(directory, timestamp);
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Nullable;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Process-wide, in-memory cache of the include directives of source and header files resolved against an include path. Shared by all native compile
+ * tasks of all builds run by this process, so that the includes of a header are searched for once and then reused by every task and variant that
+ * compiles against the same include path. Entries are softly referenced and are dropped when memory is low.
+ *
+ * <p>Each entry records the last modified time of the directories that were searched, and is used only while these are unchanged.</p>
+ */
+public class ResolvedIncludesCache {
+    private final Cache<Key, Entry> entries = CacheBuilder.newBuilder().softValues().build();
+
+    @Nullable
+    public Entry get(File sourceFile, IncludeDirectives includes, List<File> includePaths) {
+        return entries.getIfPresent(new Key(sourceFile, includes, includePaths));
+    }
+
+    public void put(File sourceFile, IncludeDirectives includes, List<File> includePaths, Entry entry) {
+        entries.put(new Key(sourceFile, includes, includePaths), entry);
+    }
+
+    public static class Entry implements SourceIncludesResolver.ResolvedSourceIncludes {
+        private final Set<ResolvedInclude> resolvedIncludes;
+        private final Set<File> checkedLocations;
+        private final File[] directories;
+        private final long[] timestamps;
+
+        public Entry(Set<ResolvedInclude> resolvedIncludes, Set<File> checkedLocations, File[] directories, long[] timestamps) {
+            this.resolvedIncludes = ImmutableSet.copyOf(resolvedIncludes);
+            this.checkedLocations = ImmutableSet.copyOf(checkedLocations);
+            this.directories = directories;
+            this.timestamps = timestamps;
+        }
+
+        @Override
+        public Set<ResolvedInclude> getResolvedIncludes() {
+            return resolvedIncludes;
+        }
+
+        @Override
+        public Set<File> getCheckedLocations() {
+            return checkedLocations;
+        }
+
+        /**
+         * The directories containing the checked locations.
+         */
+        public File[] getDirectories() {
+            return directories;
+        }
+
+        /**
+         * The last modified time of each of the directories, at the time the includes were resolved.
+         */
+        public long[] getTimestamps() {
+            return timestamps;
+        }
+    }
+
+    private static class Key {
+        private final File sourceFile;
+        private final IncludeDirectives includes;
+        private final List<File> includePaths;
+        private final int hashCode;
+
+        Key(File sourceFile, IncludeDirectives includes, List<File> includePaths) {
+            this.sourceFile = sourceFile;
+            this.includes = includes;
+            this.includePaths = includePaths;
+            this.hashCode = Objects.hashCode(sourceFile, includes, includePaths);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hashCode == other.hashCode && sourceFile.equals(other.sourceFile) && includePaths.equals(other.includePaths) && includes.equals(other.includes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.internal.Factory;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+
+/**
+ * Parses each distinct file content once, reusing the include directives parsed for a file with the same hash by any earlier compile task.
+ */
+public class CachingCSourceParser implements CSourceParser {
+    private final CSourceParser delegate;
+    private final Hasher hasher;
+    private final ParsedIncludesCache cache;
+
+    public CachingCSourceParser(CSourceParser delegate, Hasher hasher, ParsedIncludesCache cache) {
+        this.delegate = delegate;
+        this.hasher = hasher;
+        this.cache = cache;
+    }
+
+    @Override
+    public IncludeDirectives parseSource(final File sourceFile) {
+        return cache.get(hasher.hash(sourceFile), new Factory<IncludeDirectives>() {
+            @Override
+            public IncludeDirectives create() {
+                return delegate.parseSource(sourceFile);
+            }
+        });
+    }
+}
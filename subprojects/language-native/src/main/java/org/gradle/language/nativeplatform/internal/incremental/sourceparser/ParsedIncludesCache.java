@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Process-wide, in-memory cache of the include directives parsed from source and header files, keyed by the hash of the file content. Shared by all
+ * native compile tasks of all builds run by this process, so that a header included by many tasks and variants is parsed once. Entries are softly
+ * referenced and are dropped when memory is low.
+ */
+public class ParsedIncludesCache {
+    private final Cache<HashValue, IncludeDirectives> includes = CacheBuilder.newBuilder().softValues().build();
+
+    /**
+     * Returns the include directives for the given file hash, using the given factory to parse them when not present.
+     */
+    public IncludeDirectives get(HashValue fileHash, final Factory<IncludeDirectives> factory) {
+        try {
+            return includes.get(fileHash, new Callable<IncludeDirectives>() {
+                public IncludeDirectives call() {
+                    return factory.create();
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+}
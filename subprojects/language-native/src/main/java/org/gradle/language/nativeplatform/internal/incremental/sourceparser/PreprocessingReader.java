@@ -24,7 +24,8 @@ import java.io.Reader;
  * Replaces c-style comments with a single space, and removes line-continuation characters.
  * This code is largely adopted from org.apache.tools.ant.filters.StripJavaComments.
  *
- * This avoids the synchronisation overhead of PushbackReader and is _not_ threadsafe.
+ * This avoids the synchronisation overhead of PushbackReader and is _not_ threadsafe. The underlying reader is read in blocks, so that
+ * reading a character does not go through the (synchronised) single character read of the underlying reader.
  */
 public class PreprocessingReader extends BaseFilterReader {
     /**
@@ -43,6 +44,10 @@ public class PreprocessingReader extends BaseFilterReader {
      */
     private boolean quoted;
 
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferEnd;
+
     public PreprocessingReader(Reader in) {
         super(in);
         readAheadChars[0] = -1;
@@ -132,7 +137,15 @@ public class PreprocessingReader extends BaseFilterReader {
             return ch;
         }
 
-        return in.read();
+        if (bufferPos == bufferEnd) {
+            int count = in.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return -1;
+            }
+            bufferPos = 0;
+            bufferEnd = count;
+        }
+        return buffer[bufferPos++];
     }
 
     private void pushBack(int ch) {
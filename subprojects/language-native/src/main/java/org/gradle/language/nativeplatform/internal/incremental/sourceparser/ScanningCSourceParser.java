@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.language.nativeplatform.internal.Include;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Finds the include and import directives of a source file with a hand-written scanner. Only lines whose first non-whitespace character is
+ * '#' are looked at, and these are matched the same way as {@link RegexBackedCSourceParser} does.
+ */
+public class ScanningCSourceParser implements CSourceParser {
+    private static final int LINE_START = 0;
+    private static final int SKIP_LINE = 1;
+    private static final int DIRECTIVE = 2;
+
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        DefaultIncludeDirectives sourceIncludes = new DefaultIncludeDirectives();
+        sourceIncludes.addAll(parseFile(sourceFile));
+        return sourceIncludes;
+    }
+
+    private List<Include> parseFile(File file) {
+        List<Include> includes = Lists.newArrayList();
+        try {
+            PreprocessingReader reader = new PreprocessingReader(new FileReader(file));
+            try {
+                StringBuilder directive = new StringBuilder();
+                int state = LINE_START;
+                int ch;
+                while ((ch = reader.read()) != -1) {
+                    boolean endOfLine = ch == '\n' || ch == '\r';
+                    if (state == LINE_START) {
+                        if (ch == '#') {
+                            directive.setLength(0);
+                            state = DIRECTIVE;
+                        } else if (ch > ' ') {
+                            state = SKIP_LINE;
+                        }
+                    } else if (endOfLine) {
+                        if (state == DIRECTIVE) {
+                            parseDirective(directive, includes);
+                        }
+                        state = LINE_START;
+                    } else if (state == DIRECTIVE) {
+                        directive.append((char) ch);
+                    }
+                }
+                if (state == DIRECTIVE) {
+                    parseDirective(directive, includes);
+                }
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return includes;
+    }
+
+    /**
+     * Parses the text following a '#' at the start of a line, which must be an include or import keyword followed by a single
+     * {@code <value>}, {@code "value"} or macro name and nothing else.
+     */
+    private static void parseDirective(CharSequence line, List<Include> includes) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int pos = skipWhitespace(line, 0, end);
+        boolean isImport;
+        if (matchesIgnoreCase(line, pos, end, "include")) {
+            isImport = false;
+            pos += 7;
+        } else if (matchesIgnoreCase(line, pos, end, "import")) {
+            isImport = line.subSequence(pos, pos + 6).toString().equals("import");
+            pos += 6;
+        } else {
+            return;
+        }
+        pos = skipWhitespace(line, pos, end);
+        if (pos == end) {
+            return;
+        }
+        char first = line.charAt(pos);
+        if (first == '<' || first == '"') {
+            char last = first == '<' ? '>' : '"';
+            int close = pos + 1;
+            while (close < end && line.charAt(close) != last) {
+                close++;
+            }
+            if (close != end - 1 || close == pos + 1) {
+                return;
+            }
+        } else {
+            for (int i = pos; i < end; i++) {
+                if (!isWordCharacter(line.charAt(i))) {
+                    return;
+                }
+            }
+        }
+        includes.add(DefaultInclude.parse(line.subSequence(pos, end).toString(), isImport));
+    }
+
+    private static int skipWhitespace(CharSequence line, int pos, int end) {
+        while (pos < end) {
+            char ch = line.charAt(pos);
+            if (ch != ' ' && ch != '\t' && ch != '\u000B' && ch != '\f') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean matchesIgnoreCase(CharSequence line, int pos, int end, String keyword) {
+        if (end - pos < keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char ch = line.charAt(pos + i);
+            if (ch >= 'A' && ch <= 'Z') {
+                ch = (char) (ch + ('a' - 'A'));
+            }
+            if (ch != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordCharacter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+    }
+}
@@ -20,10 +20,14 @@ import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultCompilationStateCacheFactory;
 import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompilerBuilder;
+import org.gradle.language.nativeplatform.internal.incremental.ResolvedIncludesCache;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.ParsedIncludesCache;
 
 public class NativeLanguageServices implements PluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(ParsedIncludesCache.class);
+        registration.add(ResolvedIncludesCache.class);
     }
 
     @Override
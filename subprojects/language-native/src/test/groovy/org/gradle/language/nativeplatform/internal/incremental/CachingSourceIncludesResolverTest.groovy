@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultInclude
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultIncludeDirectives
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CachingSourceIncludesResolverTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def cache = new ResolvedIncludesCache()
+    def delegate = Mock(SourceIncludesResolver)
+    def sourceDir = temporaryFolder.createDir("src")
+    def includeDir = temporaryFolder.createDir("include")
+    def sourceFile = sourceDir.createFile("source.c")
+    def header = includeDir.createFile("test.h")
+    def includePaths = [includeDir]
+    def includes = new DefaultIncludeDirectives()
+    def result = Stub(SourceIncludesResolver.ResolvedSourceIncludes) {
+        getResolvedIncludes() >> ([new ResolvedInclude("test.h", header)] as Set)
+        getCheckedLocations() >> ([sourceDir.file("test.h"), header] as Set)
+    }
+
+    def setup() {
+        includes.addAll([DefaultInclude.parse('"test.h"', false)])
+        sourceDir.setLastModified(10000)
+        includeDir.setLastModified(10000)
+    }
+
+    def "reuses includes resolved by another compilation with the same include path"() {
+        when:
+        def first = resolver().resolveIncludes(sourceFile, includes)
+        def second = resolver().resolveIncludes(sourceFile, includes)
+
+        then:
+        1 * delegate.resolveIncludes(sourceFile, includes) >> result
+        0 * delegate._
+
+        and:
+        first.resolvedIncludes == second.resolvedIncludes
+        first.checkedLocations == second.checkedLocations
+    }
+
+    def "resolves includes again when a searched directory has changed"() {
+        when:
+        resolver().resolveIncludes(sourceFile, includes)
+        sourceDir.setLastModified(20000)
+        resolver().resolveIncludes(sourceFile, includes)
+        resolver().resolveIncludes(sourceFile, includes)
+
+        then:
+        2 * delegate.resolveIncludes(sourceFile, includes) >> result
+    }
+
+    def "does not reuse includes resolved against a different include path"() {
+        when:
+        resolver().resolveIncludes(sourceFile, includes)
+        resolver([includeDir, temporaryFolder.file("other")]).resolveIncludes(sourceFile, includes)
+
+        then:
+        2 * delegate.resolveIncludes(sourceFile, includes) >> result
+    }
+
+    def "does not reuse includes resolved for different directives"() {
+        def otherIncludes = new DefaultIncludeDirectives()
+        otherIncludes.addAll([DefaultInclude.parse('<test.h>', false)])
+
+        when:
+        resolver().resolveIncludes(sourceFile, includes)
+        resolver().resolveIncludes(sourceFile, otherIncludes)
+
+        then:
+        1 * delegate.resolveIncludes(sourceFile, includes) >> result
+        1 * delegate.resolveIncludes(sourceFile, otherIncludes) >> result
+    }
+
+    def "does not cache includes resolved from a recently modified directory"() {
+        given:
+        includeDir.setLastModified(System.currentTimeMillis())
+
+        when:
+        resolver().resolveIncludes(sourceFile, includes)
+        resolver().resolveIncludes(sourceFile, includes)
+
+        then:
+        2 * delegate.resolveIncludes(sourceFile, includes) >> result
+    }
+
+    private CachingSourceIncludesResolver resolver(List<File> includePaths = this.includePaths) {
+        new CachingSourceIncludesResolver(delegate, includePaths, cache)
+    }
+}
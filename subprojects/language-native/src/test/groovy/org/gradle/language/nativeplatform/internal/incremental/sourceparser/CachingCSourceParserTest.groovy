@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.api.internal.hash.Hasher
+import org.gradle.internal.hash.HashValue
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import spock.lang.Specification
+
+class CachingCSourceParserTest extends Specification {
+    def delegate = Mock(CSourceParser)
+    def hasher = Mock(Hasher)
+    def cache = new ParsedIncludesCache()
+
+    def "parses each distinct file content once"() {
+        def file1 = new File("one.h")
+        def file2 = new File("two.h")
+        def file3 = new File("three.h")
+        def directives1 = Stub(IncludeDirectives)
+        def directives3 = Stub(IncludeDirectives)
+        def parser = new CachingCSourceParser(delegate, hasher, cache)
+        def otherParser = new CachingCSourceParser(delegate, hasher, cache)
+
+        given:
+        hasher.hash(file1) >> new HashValue("01")
+        hasher.hash(file2) >> new HashValue("01")
+        hasher.hash(file3) >> new HashValue("03")
+
+        when:
+        def result1 = parser.parseSource(file1)
+        def result2 = otherParser.parseSource(file2)
+        def result3 = parser.parseSource(file3)
+
+        then:
+        result1.is(directives1)
+        result2.is(directives1)
+        result3.is(directives3)
+        1 * delegate.parseSource(file1) >> directives1
+        1 * delegate.parseSource(file3) >> directives3
+        0 * delegate._
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+class ScanningCSourceParserTest extends RegexBackedCSourceParserTest {
+    def setup() {
+        parser = new ScanningCSourceParser()
+    }
+
+    def "finds directives on lines separated by carriage returns"() {
+        when:
+        sourceFile << "#include \"one.h\"\r#import <two.h>\r\n  #include MACRO\r"
+
+        then:
+        found == ['one.h', 'two.h', 'MACRO']
+    }
+
+    def "finds directive on last line without line terminator"() {
+        when:
+        sourceFile << "int x;\n#include <last.h>   "
+
+        then:
+        found == ['last.h']
+    }
+
+    def "ignores directives with trailing content or empty values"() {
+        when:
+        sourceFile << """
+#include <a.h> b
+#include "a.h" b
+#include <a>b>
+#include <>
+#include ""
+#include
+#include MACRO(x)
+"""
+
+        then:
+        found == []
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.scala;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.Factory;
+import org.gradle.util.Clock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the compilers created in the current process, so that a later compilation with the same Scala and Zinc classpath reuses the compiler
+ * along with its class loaders and caches instead of warming up a new one. In a compiler daemon that is kept alive between builds, this
+ * carries the warm compiler over to later builds.
+ *
+ * <p>The time saved by a reused compiler is estimated as the time it took to create it.</p>
+ */
+@ThreadSafe
+class ZincCompilerCache<C> {
+    // Same as the default size of the compiler cache of Zinc itself
+    static final int DEFAULT_MAX_COMPILERS = 5;
+
+    private final Map<Object, CachedCompiler<C>> compilers;
+    private int hitCount;
+    private long savedTime;
+
+    ZincCompilerCache() {
+        this(DEFAULT_MAX_COMPILERS);
+    }
+
+    ZincCompilerCache(final int maxCompilers) {
+        this.compilers = new LinkedHashMap<Object, CachedCompiler<C>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, CachedCompiler<C>> eldest) {
+                return size() > maxCompilers;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiler for the given key, creating it when there is none.
+     */
+    synchronized CachedCompiler<C> get(Object key, Factory<? extends C> factory) {
+        CachedCompiler<C> cached = compilers.get(key);
+        if (cached != null) {
+            hitCount++;
+            savedTime += cached.creationTime;
+            return new CachedCompiler<C>(cached.compiler, cached.creationTime, true);
+        }
+        Clock clock = new Clock();
+        C compiler = factory.create();
+        cached = new CachedCompiler<C>(compiler, clock.getTimeInMs(), false);
+        compilers.put(key, cached);
+        return cached;
+    }
+
+    synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The total time in milliseconds saved by reusing compilers.
+     */
+    synchronized long getSavedTime() {
+        return savedTime;
+    }
+
+    static class CachedCompiler<C> {
+        private final C compiler;
+        private final long creationTime;
+        private final boolean reused;
+
+        private CachedCompiler(C compiler, long creationTime, boolean reused) {
+            this.compiler = compiler;
+            this.creationTime = creationTime;
+            this.reused = reused;
+        }
+
+        C getCompiler() {
+            return compiler;
+        }
+
+        /**
+         * The time in milliseconds saved by reusing this compiler, or 0 when it was just created.
+         */
+        long getSavedTime() {
+            return reused ? creationTime : 0;
+        }
+    }
+}
@@ -19,8 +19,8 @@ package org.gradle.api.internal.tasks.scala;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.typesafe.zinc.*;
-import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.internal.tasks.compile.CompilationFailedException;
+import org.gradle.api.internal.tasks.compile.daemon.CompileResult;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.internal.*;
@@ -35,6 +35,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.jvm.Jvm;
+import org.gradle.util.Clock;
 import org.gradle.util.GFileUtils;
 import scala.Option;
 import xsbti.F0;
@@ -69,12 +70,15 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
     // need to defer loading of Zinc/sbt/Scala classes until we are
     // running in the compiler daemon and have them on the class path
     private static class Compiler {
+        private static final ZincCompilerCache<com.typesafe.zinc.Compiler> COMPILERS = new ZincCompilerCache<com.typesafe.zinc.Compiler>();
+
         static WorkResult execute(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, File gradleUserHome, final ScalaJavaJointCompileSpec spec) {
             LOGGER.info("Compiling with Zinc Scala compiler.");
 
             final xsbti.Logger logger = new SbtLoggerAdapter();
 
-            com.typesafe.zinc.Compiler compiler = createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+            ZincCompilerCache.CachedCompiler<com.typesafe.zinc.Compiler> cachedCompiler = getCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+            com.typesafe.zinc.Compiler compiler = cachedCompiler.getCompiler();
 
             List<String> scalacOptions = new ZincScalaCompilerArgumentsGenerator().generate(spec);
             List<String> javacOptions = new JavaCompilerArgumentsBuilder(spec).includeClasspath(false).build();
@@ -94,7 +98,22 @@ public class ZincScalaCompiler implements Compiler<ScalaJavaJointCompileSpec>, S
                 throw new CompilationFailedException(e);
             }
 
-            return new SimpleWorkResult(true);
+            return new CompileResult(true, null, cachedCompiler.getSavedTime());
+        }
+
+        private static ZincCompilerCache.CachedCompiler<com.typesafe.zinc.Compiler> getCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, final File gradleUserHome) {
+            List<List<File>> key = ImmutableList.<List<File>>of(ImmutableList.copyOf(scalaClasspath), ImmutableList.copyOf(zincClasspath));
+            ZincCompilerCache.CachedCompiler<com.typesafe.zinc.Compiler> cachedCompiler = COMPILERS.get(key, new Factory<com.typesafe.zinc.Compiler>() {
+                @Override
+                public com.typesafe.zinc.Compiler create() {
+                    return createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, gradleUserHome);
+                }
+            });
+            if (cachedCompiler.getSavedTime() > 0) {
+                LOGGER.info("Reusing Zinc compiler created by an earlier compilation in this process, saving {} of warm-up time ({} compiler reuse(s) in this process so far).",
+                    Clock.prettyTime(cachedCompiler.getSavedTime()), COMPILERS.getHitCount());
+            }
+            return cachedCompiler;
         }
 
         private static IncOptions getIncOptions() {
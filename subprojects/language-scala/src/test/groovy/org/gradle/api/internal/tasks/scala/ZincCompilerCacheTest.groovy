@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.scala
+
+import org.gradle.internal.Factory
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ZincCompilerCacheTest extends Specification {
+    def factory = Mock(Factory)
+
+    @Subject cache = new ZincCompilerCache<String>(2)
+
+    def "creates compiler once per key"() {
+        when:
+        def first = cache.get("2.11", factory)
+        def second = cache.get("2.11", factory)
+
+        then:
+        1 * factory.create() >> "compiler"
+        first.compiler == "compiler"
+        first.savedTime == 0
+        second.compiler == "compiler"
+        cache.hitCount == 1
+    }
+
+    def "reports creation time as saved when compiler is reused"() {
+        def slowFactory = { Thread.sleep(20); "compiler" } as Factory
+
+        when:
+        cache.get("2.11", slowFactory)
+        def reused = cache.get("2.11", slowFactory)
+
+        then:
+        reused.savedTime >= 20
+        cache.savedTime == reused.savedTime
+    }
+
+    def "keeps separate compilers per key"() {
+        when:
+        cache.get("2.10", factory)
+        cache.get("2.11", factory)
+        def reused = cache.get("2.10", factory)
+
+        then:
+        1 * factory.create() >> "compiler 2.10"
+        1 * factory.create() >> "compiler 2.11"
+        reused.compiler == "compiler 2.10"
+    }
+
+    def "discards least recently used compiler when full"() {
+        when:
+        cache.get("2.10", factory)
+        cache.get("2.11", factory)
+        cache.get("2.10", factory)
+        cache.get("2.12", factory)
+        cache.get("2.10", factory)
+        cache.get("2.11", factory)
+
+        then:
+        4 * factory.create() >> "compiler"
+        cache.hitCount == 2
+    }
+
+    def "does not keep compiler that could not be created"() {
+        when:
+        cache.get("2.11", factory)
+
+        then:
+        1 * factory.create() >> { throw new RuntimeException("broken") }
+        thrown(RuntimeException)
+
+        when:
+        def compiler = cache.get("2.11", factory)
+
+        then:
+        1 * factory.create() >> "compiler"
+        compiler.compiler == "compiler"
+        cache.hitCount == 0
+    }
+}
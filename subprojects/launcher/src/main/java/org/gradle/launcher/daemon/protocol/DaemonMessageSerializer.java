@@ -17,12 +17,27 @@
 package org.gradle.launcher.daemon.protocol;
 
 import org.gradle.api.logging.LogLevel;
+import org.gradle.configuration.GradleLauncherMetaData;
+import org.gradle.initialization.BuildClientMetaData;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.logging.events.*;
 import org.gradle.internal.serialize.*;
-
+import org.gradle.launcher.daemon.configuration.DaemonUsage;
+import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
+import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.launcher.exec.BuildActionSerializer;
+import org.gradle.launcher.exec.DefaultBuildActionParameters;
+import org.gradle.tooling.internal.provider.BuildActionResult;
+import org.gradle.tooling.internal.provider.SerializedPayload;
+import org.gradle.tooling.internal.provider.SerializedPayloadSerializer;
+import org.gradle.tooling.internal.provider.events.BuildProgressEventSerializer;
+
+import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 public class DaemonMessageSerializer {
     public static Serializer<Message> create() {
@@ -31,7 +46,17 @@ public class DaemonMessageSerializer {
         Serializer<Throwable> throwableSerializer = factory.getSerializerFor(Throwable.class);
         DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
 
+        Serializer<Object> identifierSerializer = new IdentifierSerializer();
+        registry.register(Build.class, new BuildSerializer(identifierSerializer));
+        registry.register(BuildAndStop.class, new BuildAndStopSerializer(identifierSerializer));
+        registry.register(Cancel.class, new CancelSerializer(identifierSerializer));
+        registry.register(Stop.class, new StopSerializer(identifierSerializer));
+        registry.register(StopWhenIdle.class, new StopWhenIdleSerializer(identifierSerializer));
+        registry.register(Finished.class, new FinishedSerializer());
+        registry.register(BuildStarted.class, new BuildStartedSerializer());
+        registry.register(DaemonUnavailable.class, new DaemonUnavailableSerializer());
         registry.register(BuildEvent.class, new BuildEventSerializer());
+        registry.register(Success.class, new SuccessSerializer());
         registry.register(Failure.class, new FailureSerializer(throwableSerializer));
 
         // Input events
@@ -71,8 +96,268 @@ public class DaemonMessageSerializer {
         }
     }
 
+    private abstract static class AbstractBuildSerializer<T extends Build> implements Serializer<T> {
+        private final Serializer<Object> identifierSerializer;
+        private final Serializer<BuildAction> actionSerializer = BuildActionSerializer.create();
+        private final Serializer<BuildClientMetaData> clientMetaDataSerializer;
+        private final Serializer<BuildActionParameters> parametersSerializer;
+
+        AbstractBuildSerializer(Serializer<Object> identifierSerializer) {
+            this.identifierSerializer = identifierSerializer;
+            DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+            registry.register(GradleLauncherMetaData.class, new GradleLauncherMetaDataSerializer());
+            registry.useJavaSerialization(BuildClientMetaData.class);
+            clientMetaDataSerializer = registry.build(BuildClientMetaData.class);
+            registry = new DefaultSerializerRegistry();
+            registry.register(DefaultBuildActionParameters.class, new BuildActionParametersSerializer());
+            registry.useJavaSerialization(BuildActionParameters.class);
+            parametersSerializer = registry.build(BuildActionParameters.class);
+        }
+
+        @Override
+        public void write(Encoder encoder, T build) throws Exception {
+            identifierSerializer.write(encoder, build.getIdentifier());
+            clientMetaDataSerializer.write(encoder, build.getBuildRequestMetaData().getClient());
+            encoder.writeLong(build.getBuildRequestMetaData().getBuildTimeClock().getStartTime());
+            parametersSerializer.write(encoder, build.getParameters());
+            actionSerializer.write(encoder, build.getAction());
+        }
+
+        @Override
+        public T read(Decoder decoder) throws Exception {
+            Object identifier = identifierSerializer.read(decoder);
+            BuildClientMetaData clientMetaData = clientMetaDataSerializer.read(decoder);
+            long startTime = decoder.readLong();
+            BuildActionParameters parameters = parametersSerializer.read(decoder);
+            BuildAction action = actionSerializer.read(decoder);
+            return create(identifier, action, clientMetaData, startTime, parameters);
+        }
+
+        protected abstract T create(Object identifier, BuildAction action, BuildClientMetaData clientMetaData, long startTime, BuildActionParameters parameters);
+    }
+
+    private static class BuildSerializer extends AbstractBuildSerializer<Build> {
+        BuildSerializer(Serializer<Object> identifierSerializer) {
+            super(identifierSerializer);
+        }
+
+        @Override
+        protected Build create(Object identifier, BuildAction action, BuildClientMetaData clientMetaData, long startTime, BuildActionParameters parameters) {
+            return new Build(identifier, action, clientMetaData, startTime, parameters);
+        }
+    }
+
+    private static class BuildAndStopSerializer extends AbstractBuildSerializer<BuildAndStop> {
+        BuildAndStopSerializer(Serializer<Object> identifierSerializer) {
+            super(identifierSerializer);
+        }
+
+        @Override
+        protected BuildAndStop create(Object identifier, BuildAction action, BuildClientMetaData clientMetaData, long startTime, BuildActionParameters parameters) {
+            return new BuildAndStop(identifier, action, clientMetaData, startTime, parameters);
+        }
+    }
+
+    private static class GradleLauncherMetaDataSerializer implements Serializer<GradleLauncherMetaData> {
+        @Override
+        public void write(Encoder encoder, GradleLauncherMetaData metaData) throws Exception {
+            encoder.writeString(metaData.getAppName());
+        }
+
+        @Override
+        public GradleLauncherMetaData read(Decoder decoder) throws Exception {
+            return new GradleLauncherMetaData(decoder.readString());
+        }
+    }
+
+    private static class BuildActionParametersSerializer implements Serializer<DefaultBuildActionParameters> {
+        private final Serializer<LogLevel> logLevelSerializer;
+        private final Serializer<DaemonUsage> daemonUsageSerializer;
+        private final Serializer<List<File>> classPathSerializer = new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER);
+
+        BuildActionParametersSerializer() {
+            BaseSerializerFactory factory = new BaseSerializerFactory();
+            logLevelSerializer = factory.getSerializerFor(LogLevel.class);
+            daemonUsageSerializer = factory.getSerializerFor(DaemonUsage.class);
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultBuildActionParameters parameters) throws Exception {
+            BaseSerializerFactory.NO_NULL_STRING_MAP_SERIALIZER.write(encoder, parameters.getSystemProperties());
+            BaseSerializerFactory.NO_NULL_STRING_MAP_SERIALIZER.write(encoder, parameters.getEnvVariables());
+            BaseSerializerFactory.FILE_SERIALIZER.write(encoder, parameters.getCurrentDir());
+            logLevelSerializer.write(encoder, parameters.getLogLevel());
+            daemonUsageSerializer.write(encoder, parameters.getDaemonUsage());
+            encoder.writeBoolean(parameters.isContinuous());
+            encoder.writeBoolean(parameters.isInteractive());
+            classPathSerializer.write(encoder, parameters.getInjectedPluginClasspath().getAsFiles());
+        }
+
+        @Override
+        public DefaultBuildActionParameters read(Decoder decoder) throws Exception {
+            Map<String, String> systemProperties = BaseSerializerFactory.NO_NULL_STRING_MAP_SERIALIZER.read(decoder);
+            Map<String, String> envVariables = BaseSerializerFactory.NO_NULL_STRING_MAP_SERIALIZER.read(decoder);
+            File currentDir = BaseSerializerFactory.FILE_SERIALIZER.read(decoder);
+            LogLevel logLevel = logLevelSerializer.read(decoder);
+            DaemonUsage daemonUsage = daemonUsageSerializer.read(decoder);
+            boolean continuous = decoder.readBoolean();
+            boolean interactive = decoder.readBoolean();
+            List<File> injectedPluginClasspath = classPathSerializer.read(decoder);
+            return new DefaultBuildActionParameters(systemProperties, envVariables, currentDir, logLevel, daemonUsage, continuous, interactive, DefaultClassPath.of(injectedPluginClasspath));
+        }
+    }
+
+    private static class CancelSerializer implements Serializer<Cancel> {
+        private final Serializer<Object> identifierSerializer;
+
+        CancelSerializer(Serializer<Object> identifierSerializer) {
+            this.identifierSerializer = identifierSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, Cancel command) throws Exception {
+            identifierSerializer.write(encoder, command.getIdentifier());
+        }
+
+        @Override
+        public Cancel read(Decoder decoder) throws Exception {
+            return new Cancel(identifierSerializer.read(decoder));
+        }
+    }
+
+    private static class StopSerializer implements Serializer<Stop> {
+        private final Serializer<Object> identifierSerializer;
+
+        StopSerializer(Serializer<Object> identifierSerializer) {
+            this.identifierSerializer = identifierSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, Stop command) throws Exception {
+            identifierSerializer.write(encoder, command.getIdentifier());
+        }
+
+        @Override
+        public Stop read(Decoder decoder) throws Exception {
+            return new Stop(identifierSerializer.read(decoder));
+        }
+    }
+
+    private static class StopWhenIdleSerializer implements Serializer<StopWhenIdle> {
+        private final Serializer<Object> identifierSerializer;
+
+        StopWhenIdleSerializer(Serializer<Object> identifierSerializer) {
+            this.identifierSerializer = identifierSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, StopWhenIdle command) throws Exception {
+            identifierSerializer.write(encoder, command.getIdentifier());
+        }
+
+        @Override
+        public StopWhenIdle read(Decoder decoder) throws Exception {
+            return new StopWhenIdle(identifierSerializer.read(decoder));
+        }
+    }
+
+    private static class FinishedSerializer implements Serializer<Finished> {
+        @Override
+        public void write(Encoder encoder, Finished value) {
+        }
+
+        @Override
+        public Finished read(Decoder decoder) {
+            return new Finished();
+        }
+    }
+
+    private static class BuildStartedSerializer implements Serializer<BuildStarted> {
+        @Override
+        public void write(Encoder encoder, BuildStarted buildStarted) throws Exception {
+            DaemonDiagnostics diagnostics = buildStarted.getDiagnostics();
+            BaseSerializerFactory.FILE_SERIALIZER.write(encoder, diagnostics.getDaemonLog());
+            Long pid = diagnostics.getPid();
+            encoder.writeBoolean(pid != null);
+            if (pid != null) {
+                encoder.writeLong(pid);
+            }
+        }
+
+        @Override
+        public BuildStarted read(Decoder decoder) throws Exception {
+            File daemonLog = BaseSerializerFactory.FILE_SERIALIZER.read(decoder);
+            Long pid = decoder.readBoolean() ? decoder.readLong() : null;
+            return new BuildStarted(new DaemonDiagnostics(daemonLog, pid));
+        }
+    }
+
+    private static class DaemonUnavailableSerializer implements Serializer<DaemonUnavailable> {
+        @Override
+        public void write(Encoder encoder, DaemonUnavailable message) throws Exception {
+            encoder.writeNullableString(message.getReason());
+        }
+
+        @Override
+        public DaemonUnavailable read(Decoder decoder) throws Exception {
+            return new DaemonUnavailable(decoder.readNullableString());
+        }
+    }
+
+    private static class SuccessSerializer implements Serializer<Success> {
+        private static final byte NULL_VALUE = 0;
+        private static final byte BUILD_ACTION_RESULT = 1;
+        private static final byte JAVA_VALUE = 2;
+        private final Serializer<SerializedPayload> payloadSerializer = new SerializedPayloadSerializer();
+        private final Serializer<Object> javaSerializer = new DefaultSerializer<Object>();
+
+        @Override
+        public void write(Encoder encoder, Success success) throws Exception {
+            Object value = success.getValue();
+            if (value == null) {
+                encoder.writeByte(NULL_VALUE);
+            } else if (value.getClass() == BuildActionResult.class) {
+                BuildActionResult result = (BuildActionResult) value;
+                encoder.writeByte(BUILD_ACTION_RESULT);
+                writeNullablePayload(encoder, result.result);
+                writeNullablePayload(encoder, result.failure);
+            } else {
+                encoder.writeByte(JAVA_VALUE);
+                javaSerializer.write(encoder, value);
+            }
+        }
+
+        @Override
+        public Success read(Decoder decoder) throws Exception {
+            byte tag = decoder.readByte();
+            switch (tag) {
+                case NULL_VALUE:
+                    return new Success(null);
+                case BUILD_ACTION_RESULT:
+                    SerializedPayload result = readNullablePayload(decoder);
+                    SerializedPayload failure = readNullablePayload(decoder);
+                    return new Success(new BuildActionResult(result, failure));
+                case JAVA_VALUE:
+                    return new Success(javaSerializer.read(decoder));
+                default:
+                    throw new IllegalArgumentException(String.format("Unexpected result tag %d found.", tag));
+            }
+        }
+
+        private void writeNullablePayload(Encoder encoder, SerializedPayload payload) throws Exception {
+            encoder.writeBoolean(payload != null);
+            if (payload != null) {
+                payloadSerializer.write(encoder, payload);
+            }
+        }
+
+        private SerializedPayload readNullablePayload(Decoder decoder) throws Exception {
+            return decoder.readBoolean() ? payloadSerializer.read(decoder) : null;
+        }
+    }
+
     private static class BuildEventSerializer implements Serializer<BuildEvent> {
-        private final Serializer<Object> payloadSerializer = new DefaultSerializer<Object>();
+        private final Serializer<Object> payloadSerializer = BuildProgressEventSerializer.create();
 
         @Override
         public void write(Encoder encoder, BuildEvent buildEvent) throws Exception {
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.protocol;
+
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.util.UUID;
+
+/**
+ * Serializes the opaque identifiers attached to commands and build events. These are almost always strings, longs,
+ * UUIDs or composites of these, which are written directly. Anything else, including null, is also handled.
+ */
+public class IdentifierSerializer implements Serializer<Object> {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte UUID_ID = 3;
+    private static final byte COMPOSITE = 4;
+    private static final byte JAVA = 5;
+
+    private final Serializer<Object> javaSerializer = new DefaultSerializer<Object>();
+
+    @Override
+    public void write(Encoder encoder, Object value) throws Exception {
+        if (value == null) {
+            encoder.writeByte(NULL);
+        } else if (value instanceof String) {
+            encoder.writeByte(STRING);
+            encoder.writeString((String) value);
+        } else if (value instanceof Long) {
+            encoder.writeByte(LONG);
+            encoder.writeLong((Long) value);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            encoder.writeByte(UUID_ID);
+            encoder.writeLong(uuid.getMostSignificantBits());
+            encoder.writeLong(uuid.getLeastSignificantBits());
+        } else if (value.getClass() == CompositeIdGenerator.CompositeId.class) {
+            CompositeIdGenerator.CompositeId id = (CompositeIdGenerator.CompositeId) value;
+            encoder.writeByte(COMPOSITE);
+            write(encoder, id.getScope());
+            write(encoder, id.getId());
+        } else {
+            encoder.writeByte(JAVA);
+            javaSerializer.write(encoder, value);
+        }
+    }
+
+    @Override
+    public Object read(Decoder decoder) throws Exception {
+        byte tag = decoder.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return decoder.readString();
+            case LONG:
+                return decoder.readLong();
+            case UUID_ID:
+                return new UUID(decoder.readLong(), decoder.readLong());
+            case COMPOSITE:
+                Object scope = read(decoder);
+                Object id = read(decoder);
+                return new CompositeIdGenerator.CompositeId(scope, id);
+            case JAVA:
+                return javaSerializer.read(decoder);
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected identifier tag %d found.", tag));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.exec;
+
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.configuration.ConsoleOutput;
+import org.gradle.api.logging.configuration.ShowStacktrace;
+import org.gradle.internal.DefaultTaskExecutionRequest;
+import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.launcher.cli.ExecuteBuildAction;
+import org.gradle.tooling.internal.provider.BuildClientSubscriptions;
+import org.gradle.tooling.internal.provider.BuildModelAction;
+import org.gradle.tooling.internal.provider.ClientProvidedBuildAction;
+import org.gradle.tooling.internal.provider.SerializedPayload;
+import org.gradle.tooling.internal.provider.SerializedPayloadSerializer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes the build actions sent from a client to the daemon. The actions created by the command-line and the
+ * tooling API are written field by field, anything else uses Java serialization.
+ */
+public class BuildActionSerializer {
+    public static Serializer<BuildAction> create() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        StartParameterSerializer startParameterSerializer = new StartParameterSerializer();
+        BuildClientSubscriptionsSerializer subscriptionsSerializer = new BuildClientSubscriptionsSerializer();
+        registry.register(ExecuteBuildAction.class, new ExecuteBuildActionSerializer(startParameterSerializer));
+        registry.register(BuildModelAction.class, new BuildModelActionSerializer(startParameterSerializer, subscriptionsSerializer));
+        registry.register(ClientProvidedBuildAction.class, new ClientProvidedBuildActionSerializer(startParameterSerializer, subscriptionsSerializer, new SerializedPayloadSerializer()));
+        registry.useJavaSerialization(BuildAction.class);
+        return registry.build(BuildAction.class);
+    }
+
+    private static class ExecuteBuildActionSerializer implements Serializer<ExecuteBuildAction> {
+        private final Serializer<StartParameter> startParameterSerializer;
+
+        ExecuteBuildActionSerializer(Serializer<StartParameter> startParameterSerializer) {
+            this.startParameterSerializer = startParameterSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, ExecuteBuildAction action) throws Exception {
+            startParameterSerializer.write(encoder, action.getStartParameter());
+        }
+
+        @Override
+        public ExecuteBuildAction read(Decoder decoder) throws Exception {
+            return new ExecuteBuildAction(startParameterSerializer.read(decoder));
+        }
+    }
+
+    private static class BuildModelActionSerializer implements Serializer<BuildModelAction> {
+        private final Serializer<StartParameter> startParameterSerializer;
+        private final Serializer<BuildClientSubscriptions> subscriptionsSerializer;
+
+        BuildModelActionSerializer(Serializer<StartParameter> startParameterSerializer, Serializer<BuildClientSubscriptions> subscriptionsSerializer) {
+            this.startParameterSerializer = startParameterSerializer;
+            this.subscriptionsSerializer = subscriptionsSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, BuildModelAction action) throws Exception {
+            startParameterSerializer.write(encoder, action.getStartParameter());
+            encoder.writeString(action.getModelName());
+            encoder.writeBoolean(action.isRunTasks());
+            subscriptionsSerializer.write(encoder, action.getClientSubscriptions());
+        }
+
+        @Override
+        public BuildModelAction read(Decoder decoder) throws Exception {
+            StartParameter startParameter = startParameterSerializer.read(decoder);
+            String modelName = decoder.readString();
+            boolean runTasks = decoder.readBoolean();
+            BuildClientSubscriptions subscriptions = subscriptionsSerializer.read(decoder);
+            return new BuildModelAction(startParameter, modelName, runTasks, subscriptions);
+        }
+    }
+
+    private static class ClientProvidedBuildActionSerializer implements Serializer<ClientProvidedBuildAction> {
+        private final Serializer<StartParameter> startParameterSerializer;
+        private final Serializer<BuildClientSubscriptions> subscriptionsSerializer;
+        private final Serializer<SerializedPayload> payloadSerializer;
+
+        ClientProvidedBuildActionSerializer(Serializer<StartParameter> startParameterSerializer, Serializer<BuildClientSubscriptions> subscriptionsSerializer, Serializer<SerializedPayload> payloadSerializer) {
+            this.startParameterSerializer = startParameterSerializer;
+            this.subscriptionsSerializer = subscriptionsSerializer;
+            this.payloadSerializer = payloadSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, ClientProvidedBuildAction action) throws Exception {
+            startParameterSerializer.write(encoder, action.getStartParameter());
+            payloadSerializer.write(encoder, action.getAction());
+            subscriptionsSerializer.write(encoder, action.getClientSubscriptions());
+        }
+
+        @Override
+        public ClientProvidedBuildAction read(Decoder decoder) throws Exception {
+            StartParameter startParameter = startParameterSerializer.read(decoder);
+            SerializedPayload payload = payloadSerializer.read(decoder);
+            BuildClientSubscriptions subscriptions = subscriptionsSerializer.read(decoder);
+            return new ClientProvidedBuildAction(startParameter, payload, subscriptions);
+        }
+    }
+
+    private static class BuildClientSubscriptionsSerializer implements Serializer<BuildClientSubscriptions> {
+        @Override
+        public void write(Encoder encoder, BuildClientSubscriptions value) throws Exception {
+            encoder.writeBoolean(value.isSendTestProgressEvents());
+            encoder.writeBoolean(value.isSendTaskProgressEvents());
+            encoder.writeBoolean(value.isSendBuildProgressEvents());
+        }
+
+        @Override
+        public BuildClientSubscriptions read(Decoder decoder) throws Exception {
+            return new BuildClientSubscriptions(decoder.readBoolean(), decoder.readBoolean(), decoder.readBoolean());
+        }
+    }
+
+    /**
+     * Writes each property of a {@link StartParameter}. Subtypes, and task requests other than {@link DefaultTaskExecutionRequest},
+     * use Java serialization. The Gradle home directory is not written, the daemon uses its own installation.
+     */
+    private static class StartParameterSerializer implements Serializer<StartParameter> {
+        private final Serializer<Object> javaSerializer = new DefaultSerializer<Object>();
+        private final Serializer<LogLevel> logLevelSerializer;
+        private final Serializer<ShowStacktrace> showStacktraceSerializer;
+        private final Serializer<ConsoleOutput> consoleOutputSerializer;
+        private final Serializer<List<TaskExecutionRequest>> taskRequestsSerializer;
+        private final Serializer<List<String>> stringListSerializer = new ListSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER);
+        private final Serializer<List<File>> fileListSerializer = new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER);
+
+        StartParameterSerializer() {
+            BaseSerializerFactory factory = new BaseSerializerFactory();
+            logLevelSerializer = factory.getSerializerFor(LogLevel.class);
+            showStacktraceSerializer = factory.getSerializerFor(ShowStacktrace.class);
+            consoleOutputSerializer = factory.getSerializerFor(ConsoleOutput.class);
+            DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+            registry.register(DefaultTaskExecutionRequest.class, new DefaultTaskExecutionRequestSerializer(stringListSerializer));
+            registry.useJavaSerialization(TaskExecutionRequest.class);
+            taskRequestsSerializer = new ListSerializer<TaskExecutionRequest>(registry.build(TaskExecutionRequest.class));
+        }
+
+        @Override
+        public void write(Encoder encoder, StartParameter startParameter) throws Exception {
+            if (startParameter.getClass() != StartParameter.class) {
+                encoder.writeBoolean(false);
+                javaSerializer.write(encoder, startParameter);
+                return;
+            }
+            encoder.writeBoolean(true);
+            logLevelSerializer.write(encoder, startParameter.getLogLevel());
+            showStacktraceSerializer.write(encoder, startParameter.getShowStacktrace());
+            consoleOutputSerializer.write(encoder, startParameter.getConsoleOutput());
+            taskRequestsSerializer.write(encoder, startParameter.getTaskRequests());
+            stringListSerializer.write(encoder, new ArrayList<String>(startParameter.getExcludedTaskNames()));
+            encoder.writeBoolean(startParameter.isBuildProjectDependencies());
+            writeNullableFile(encoder, startParameter.getBuildFile());
+            writeNullableFile(encoder, startParameter.getProjectDir());
+            encoder.writeBoolean(startParameter.isUseEmptySettings());
+            writeNullableFile(encoder, startParameter.getSettingsFile());
+            writeNullableFile(encoder, startParameter.getCurrentDir());
+            encoder.writeBoolean(startParameter.isSearchUpwards());
+            writeNullableFile(encoder, startParameter.getGradleUserHomeDir());
+            writeStringMap(encoder, startParameter.getProjectProperties());
+            writeStringMap(encoder, startParameter.getSystemPropertiesArgs());
+            fileListSerializer.write(encoder, startParameter.getInitScripts());
+            encoder.writeBoolean(startParameter.isDryRun());
+            encoder.writeBoolean(startParameter.isRerunTasks());
+            encoder.writeBoolean(startParameter.isProfile());
+            encoder.writeBoolean(startParameter.isContinueOnFailure());
+            encoder.writeBoolean(startParameter.isOffline());
+            writeNullableFile(encoder, startParameter.getProjectCacheDir());
+            encoder.writeBoolean(startParameter.isRefreshDependencies());
+            encoder.writeBoolean(startParameter.isRecompileScripts());
+            encoder.writeBoolean(startParameter.isParallelProjectExecutionEnabled());
+            encoder.writeBoolean(startParameter.isConfigureOnDemand());
+            encoder.writeSmallInt(startParameter.getMaxWorkerCount());
+            encoder.writeBoolean(startParameter.isContinuous());
+        }
+
+        @Override
+        public StartParameter read(Decoder decoder) throws Exception {
+            if (!decoder.readBoolean()) {
+                return (StartParameter) javaSerializer.read(decoder);
+            }
+            StartParameter startParameter = new StartParameter();
+            startParameter.setLogLevel(logLevelSerializer.read(decoder));
+            startParameter.setShowStacktrace(showStacktraceSerializer.read(decoder));
+            startParameter.setConsoleOutput(consoleOutputSerializer.read(decoder));
+            startParameter.setTaskRequests(taskRequestsSerializer.read(decoder));
+            startParameter.setExcludedTaskNames(stringListSerializer.read(decoder));
+            startParameter.setBuildProjectDependencies(decoder.readBoolean());
+
+            // The setters for the layout properties update each other, so apply them in an order that leaves each with the value that was written
+            File buildFile = readNullableFile(decoder);
+            if (buildFile != null) {
+                startParameter.setBuildFile(buildFile);
+            }
+            startParameter.setProjectDir(readNullableFile(decoder));
+            if (decoder.readBoolean()) {
+                startParameter.useEmptySettings();
+            }
+            startParameter.setSettingsFile(readNullableFile(decoder));
+            startParameter.setCurrentDir(readNullableFile(decoder));
+            startParameter.setSearchUpwards(decoder.readBoolean());
+
+            startParameter.setGradleUserHomeDir(readNullableFile(decoder));
+            startParameter.setProjectProperties(readStringMap(decoder));
+            startParameter.setSystemPropertiesArgs(readStringMap(decoder));
+            startParameter.setInitScripts(fileListSerializer.read(decoder));
+            startParameter.setDryRun(decoder.readBoolean());
+            startParameter.setRerunTasks(decoder.readBoolean());
+            startParameter.setProfile(decoder.readBoolean());
+            startParameter.setContinueOnFailure(decoder.readBoolean());
+            startParameter.setOffline(decoder.readBoolean());
+            startParameter.setProjectCacheDir(readNullableFile(decoder));
+            startParameter.setRefreshDependencies(decoder.readBoolean());
+            startParameter.setRecompileScripts(decoder.readBoolean());
+            startParameter.setParallelProjectExecutionEnabled(decoder.readBoolean());
+            startParameter.setConfigureOnDemand(decoder.readBoolean());
+            startParameter.setMaxWorkerCount(decoder.readSmallInt());
+            startParameter.setContinuous(decoder.readBoolean());
+            return startParameter;
+        }
+
+        private void writeNullableFile(Encoder encoder, File file) throws Exception {
+            encoder.writeNullableString(file == null ? null : file.getPath());
+        }
+
+        private File readNullableFile(Decoder decoder) throws Exception {
+            String path = decoder.readNullableString();
+            return path == null ? null : new File(path);
+        }
+
+        private void writeStringMap(Encoder encoder, Map<String, String> map) throws Exception {
+            encoder.writeSmallInt(map.size());
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeNullableString(entry.getValue());
+            }
+        }
+
+        private Map<String, String> readStringMap(Decoder decoder) throws Exception {
+            int size = decoder.readSmallInt();
+            Map<String, String> map = new HashMap<String, String>(size);
+            for (int i = 0; i < size; i++) {
+                map.put(decoder.readString(), decoder.readNullableString());
+            }
+            return map;
+        }
+    }
+
+    private static class DefaultTaskExecutionRequestSerializer implements Serializer<DefaultTaskExecutionRequest> {
+        private final Serializer<List<String>> argsSerializer;
+
+        DefaultTaskExecutionRequestSerializer(Serializer<List<String>> argsSerializer) {
+            this.argsSerializer = argsSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTaskExecutionRequest request) throws Exception {
+            argsSerializer.write(encoder, request.getArgs());
+            encoder.writeNullableString(request.getProjectPath());
+        }
+
+        @Override
+        public DefaultTaskExecutionRequest read(Decoder decoder) throws Exception {
+            List<String> args = argsSerializer.read(decoder);
+            String projectPath = decoder.readNullableString();
+            return new DefaultTaskExecutionRequest(args, projectPath);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider.events;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.launcher.daemon.protocol.IdentifierSerializer;
+import org.gradle.tooling.internal.protocol.InternalFailure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes the progress events forwarded from the daemon to a tooling API client. Any other payload uses Java serialization.
+ */
+public class BuildProgressEventSerializer {
+    public static Serializer<Object> create() {
+        Serializer<Object> idSerializer = new IdentifierSerializer();
+        OperationDescriptorSerializer operationDescriptorSerializer = new OperationDescriptorSerializer(idSerializer);
+        TaskDescriptorSerializer taskDescriptorSerializer = new TaskDescriptorSerializer(idSerializer);
+        TestDescriptorSerializer testDescriptorSerializer = new TestDescriptorSerializer(idSerializer);
+        FailuresSerializer failuresSerializer = new FailuresSerializer();
+
+        DefaultSerializerRegistry resultRegistry = new DefaultSerializerRegistry();
+        resultRegistry.register(DefaultSuccessResult.class, new SuccessResultSerializer());
+        resultRegistry.register(DefaultFailureResult.class, new FailureResultSerializer(failuresSerializer));
+        resultRegistry.register(DefaultTaskSuccessResult.class, new TaskSuccessResultSerializer());
+        resultRegistry.register(DefaultTaskSkippedResult.class, new TaskSkippedResultSerializer());
+        resultRegistry.register(DefaultTaskFailureResult.class, new TaskFailureResultSerializer(failuresSerializer));
+        resultRegistry.register(DefaultTestSuccessResult.class, new TestSuccessResultSerializer());
+        resultRegistry.register(DefaultTestSkippedResult.class, new TestSkippedResultSerializer());
+        resultRegistry.register(DefaultTestFailureResult.class, new TestFailureResultSerializer(failuresSerializer));
+        resultRegistry.useJavaSerialization(AbstractResult.class);
+        Serializer<AbstractResult> resultSerializer = resultRegistry.build(AbstractResult.class);
+
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(DefaultOperationStartedProgressEvent.class, new OperationStartedSerializer(operationDescriptorSerializer));
+        registry.register(DefaultOperationFinishedProgressEvent.class, new OperationFinishedSerializer(operationDescriptorSerializer, resultSerializer));
+        registry.register(DefaultTaskStartedProgressEvent.class, new TaskStartedSerializer(taskDescriptorSerializer));
+        registry.register(DefaultTaskFinishedProgressEvent.class, new TaskFinishedSerializer(taskDescriptorSerializer, resultSerializer));
+        registry.register(DefaultTestStartedProgressEvent.class, new TestStartedSerializer(testDescriptorSerializer));
+        registry.register(DefaultTestFinishedProgressEvent.class, new TestFinishedSerializer(testDescriptorSerializer, resultSerializer));
+        registry.useJavaSerialization(Object.class);
+        return registry.build(Object.class);
+    }
+
+    private static class OperationDescriptorSerializer implements Serializer<DefaultOperationDescriptor> {
+        private final Serializer<Object> idSerializer;
+
+        OperationDescriptorSerializer(Serializer<Object> idSerializer) {
+            this.idSerializer = idSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultOperationDescriptor descriptor) throws Exception {
+            idSerializer.write(encoder, descriptor.getId());
+            encoder.writeNullableString(descriptor.getName());
+            encoder.writeNullableString(descriptor.getDisplayName());
+            idSerializer.write(encoder, descriptor.getParentId());
+        }
+
+        @Override
+        public DefaultOperationDescriptor read(Decoder decoder) throws Exception {
+            Object id = idSerializer.read(decoder);
+            String name = decoder.readNullableString();
+            String displayName = decoder.readNullableString();
+            Object parentId = idSerializer.read(decoder);
+            return new DefaultOperationDescriptor(id, name, displayName, parentId);
+        }
+    }
+
+    private static class TaskDescriptorSerializer implements Serializer<DefaultTaskDescriptor> {
+        private final Serializer<Object> idSerializer;
+
+        TaskDescriptorSerializer(Serializer<Object> idSerializer) {
+            this.idSerializer = idSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTaskDescriptor descriptor) throws Exception {
+            idSerializer.write(encoder, descriptor.getId());
+            encoder.writeNullableString(descriptor.getTaskPath());
+            encoder.writeNullableString(descriptor.getDisplayName());
+            idSerializer.write(encoder, descriptor.getParentId());
+        }
+
+        @Override
+        public DefaultTaskDescriptor read(Decoder decoder) throws Exception {
+            Object id = idSerializer.read(decoder);
+            String taskPath = decoder.readNullableString();
+            String displayName = decoder.readNullableString();
+            Object parentId = idSerializer.read(decoder);
+            return new DefaultTaskDescriptor(id, taskPath, displayName, parentId);
+        }
+    }
+
+    private static class TestDescriptorSerializer implements Serializer<DefaultTestDescriptor> {
+        private final Serializer<Object> idSerializer;
+
+        TestDescriptorSerializer(Serializer<Object> idSerializer) {
+            this.idSerializer = idSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTestDescriptor descriptor) throws Exception {
+            idSerializer.write(encoder, descriptor.getId());
+            encoder.writeNullableString(descriptor.getName());
+            encoder.writeNullableString(descriptor.getDisplayName());
+            encoder.writeNullableString(descriptor.getTestKind());
+            encoder.writeNullableString(descriptor.getSuiteName());
+            encoder.writeNullableString(descriptor.getClassName());
+            encoder.writeNullableString(descriptor.getMethodName());
+            idSerializer.write(encoder, descriptor.getParentId());
+            encoder.writeNullableString(descriptor.getTaskPath());
+        }
+
+        @Override
+        public DefaultTestDescriptor read(Decoder decoder) throws Exception {
+            Object id = idSerializer.read(decoder);
+            String name = decoder.readNullableString();
+            String displayName = decoder.readNullableString();
+            String testKind = decoder.readNullableString();
+            String suiteName = decoder.readNullableString();
+            String className = decoder.readNullableString();
+            String methodName = decoder.readNullableString();
+            Object parentId = idSerializer.read(decoder);
+            String taskPath = decoder.readNullableString();
+            return new DefaultTestDescriptor(id, name, displayName, testKind, suiteName, className, methodName, parentId, taskPath);
+        }
+    }
+
+    private static class FailuresSerializer implements Serializer<List<DefaultFailure>> {
+        @Override
+        public void write(Encoder encoder, List<DefaultFailure> failures) throws Exception {
+            encoder.writeSmallInt(failures.size());
+            for (DefaultFailure failure : failures) {
+                writeFailure(encoder, failure);
+            }
+        }
+
+        private void writeFailure(Encoder encoder, DefaultFailure failure) throws Exception {
+            encoder.writeNullableString(failure.getMessage());
+            encoder.writeNullableString(failure.getDescription());
+            List<? extends InternalFailure> causes = failure.getCauses();
+            encoder.writeBoolean(!causes.isEmpty());
+            if (!causes.isEmpty()) {
+                writeFailure(encoder, (DefaultFailure) causes.get(0));
+            }
+        }
+
+        @Override
+        public List<DefaultFailure> read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<DefaultFailure> failures = new ArrayList<DefaultFailure>(count);
+            for (int i = 0; i < count; i++) {
+                failures.add(readFailure(decoder));
+            }
+            return failures;
+        }
+
+        private DefaultFailure readFailure(Decoder decoder) throws Exception {
+            String message = decoder.readNullableString();
+            String description = decoder.readNullableString();
+            DefaultFailure cause = decoder.readBoolean() ? readFailure(decoder) : null;
+            return new DefaultFailure(message, description, cause);
+        }
+    }
+
+    private static class SuccessResultSerializer implements Serializer<DefaultSuccessResult> {
+        @Override
+        public void write(Encoder encoder, DefaultSuccessResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+        }
+
+        @Override
+        public DefaultSuccessResult read(Decoder decoder) throws Exception {
+            return new DefaultSuccessResult(decoder.readLong(), decoder.readLong());
+        }
+    }
+
+    private static class FailureResultSerializer implements Serializer<DefaultFailureResult> {
+        private final Serializer<List<DefaultFailure>> failuresSerializer;
+
+        FailureResultSerializer(Serializer<List<DefaultFailure>> failuresSerializer) {
+            this.failuresSerializer = failuresSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultFailureResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+            failuresSerializer.write(encoder, result.getFailures());
+        }
+
+        @Override
+        public DefaultFailureResult read(Decoder decoder) throws Exception {
+            long startTime = decoder.readLong();
+            long endTime = decoder.readLong();
+            return new DefaultFailureResult(startTime, endTime, failuresSerializer.read(decoder));
+        }
+    }
+
+    private static class TaskSuccessResultSerializer implements Serializer<DefaultTaskSuccessResult> {
+        @Override
+        public void write(Encoder encoder, DefaultTaskSuccessResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+            encoder.writeBoolean(result.isUpToDate());
+        }
+
+        @Override
+        public DefaultTaskSuccessResult read(Decoder decoder) throws Exception {
+            long startTime = decoder.readLong();
+            long endTime = decoder.readLong();
+            return new DefaultTaskSuccessResult(startTime, endTime, decoder.readBoolean());
+        }
+    }
+
+    private static class TaskSkippedResultSerializer implements Serializer<DefaultTaskSkippedResult> {
+        @Override
+        public void write(Encoder encoder, DefaultTaskSkippedResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+            encoder.writeNullableString(result.getSkipMessage());
+        }
+
+        @Override
+        public DefaultTaskSkippedResult read(Decoder decoder) throws Exception {
+            long startTime = decoder.readLong();
+            long endTime = decoder.readLong();
+            return new DefaultTaskSkippedResult(startTime, endTime, decoder.readNullableString());
+        }
+    }
+
+    private static class TaskFailureResultSerializer implements Serializer<DefaultTaskFailureResult> {
+        private final Serializer<List<DefaultFailure>> failuresSerializer;
+
+        TaskFailureResultSerializer(Serializer<List<DefaultFailure>> failuresSerializer) {
+            this.failuresSerializer = failuresSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTaskFailureResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+            failuresSerializer.write(encoder, result.getFailures());
+        }
+
+        @Override
+        public DefaultTaskFailureResult read(Decoder decoder) throws Exception {
+            long startTime = decoder.readLong();
+            long endTime = decoder.readLong();
+            return new DefaultTaskFailureResult(startTime, endTime, failuresSerializer.read(decoder));
+        }
+    }
+
+    private static class TestSuccessResultSerializer implements Serializer<DefaultTestSuccessResult> {
+        @Override
+        public void write(Encoder encoder, DefaultTestSuccessResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+        }
+
+        @Override
+        public DefaultTestSuccessResult read(Decoder decoder) throws Exception {
+            return new DefaultTestSuccessResult(decoder.readLong(), decoder.readLong());
+        }
+    }
+
+    private static class TestSkippedResultSerializer implements Serializer<DefaultTestSkippedResult> {
+        @Override
+        public void write(Encoder encoder, DefaultTestSkippedResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+        }
+
+        @Override
+        public DefaultTestSkippedResult read(Decoder decoder) throws Exception {
+            return new DefaultTestSkippedResult(decoder.readLong(), decoder.readLong());
+        }
+    }
+
+    private static class TestFailureResultSerializer implements Serializer<DefaultTestFailureResult> {
+        private final Serializer<List<DefaultFailure>> failuresSerializer;
+
+        TestFailureResultSerializer(Serializer<List<DefaultFailure>> failuresSerializer) {
+            this.failuresSerializer = failuresSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTestFailureResult result) throws Exception {
+            encoder.writeLong(result.getStartTime());
+            encoder.writeLong(result.getEndTime());
+            failuresSerializer.write(encoder, result.getFailures());
+        }
+
+        @Override
+        public DefaultTestFailureResult read(Decoder decoder) throws Exception {
+            long startTime = decoder.readLong();
+            long endTime = decoder.readLong();
+            return new DefaultTestFailureResult(startTime, endTime, failuresSerializer.read(decoder));
+        }
+    }
+
+    private static class OperationStartedSerializer implements Serializer<DefaultOperationStartedProgressEvent> {
+        private final Serializer<DefaultOperationDescriptor> descriptorSerializer;
+
+        OperationStartedSerializer(Serializer<DefaultOperationDescriptor> descriptorSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultOperationStartedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+        }
+
+        @Override
+        public DefaultOperationStartedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            return new DefaultOperationStartedProgressEvent(eventTime, descriptorSerializer.read(decoder));
+        }
+    }
+
+    private static class OperationFinishedSerializer implements Serializer<DefaultOperationFinishedProgressEvent> {
+        private final Serializer<DefaultOperationDescriptor> descriptorSerializer;
+        private final Serializer<AbstractResult> resultSerializer;
+
+        OperationFinishedSerializer(Serializer<DefaultOperationDescriptor> descriptorSerializer, Serializer<AbstractResult> resultSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.resultSerializer = resultSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultOperationFinishedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+            resultSerializer.write(encoder, event.getResult());
+        }
+
+        @Override
+        public DefaultOperationFinishedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            DefaultOperationDescriptor descriptor = descriptorSerializer.read(decoder);
+            AbstractOperationResult result = (AbstractOperationResult) resultSerializer.read(decoder);
+            return new DefaultOperationFinishedProgressEvent(eventTime, descriptor, result);
+        }
+    }
+
+    private static class TaskStartedSerializer implements Serializer<DefaultTaskStartedProgressEvent> {
+        private final Serializer<DefaultTaskDescriptor> descriptorSerializer;
+
+        TaskStartedSerializer(Serializer<DefaultTaskDescriptor> descriptorSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTaskStartedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+        }
+
+        @Override
+        public DefaultTaskStartedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            return new DefaultTaskStartedProgressEvent(eventTime, descriptorSerializer.read(decoder));
+        }
+    }
+
+    private static class TaskFinishedSerializer implements Serializer<DefaultTaskFinishedProgressEvent> {
+        private final Serializer<DefaultTaskDescriptor> descriptorSerializer;
+        private final Serializer<AbstractResult> resultSerializer;
+
+        TaskFinishedSerializer(Serializer<DefaultTaskDescriptor> descriptorSerializer, Serializer<AbstractResult> resultSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.resultSerializer = resultSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTaskFinishedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+            resultSerializer.write(encoder, event.getResult());
+        }
+
+        @Override
+        public DefaultTaskFinishedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            DefaultTaskDescriptor descriptor = descriptorSerializer.read(decoder);
+            AbstractTaskResult result = (AbstractTaskResult) resultSerializer.read(decoder);
+            return new DefaultTaskFinishedProgressEvent(eventTime, descriptor, result);
+        }
+    }
+
+    private static class TestStartedSerializer implements Serializer<DefaultTestStartedProgressEvent> {
+        private final Serializer<DefaultTestDescriptor> descriptorSerializer;
+
+        TestStartedSerializer(Serializer<DefaultTestDescriptor> descriptorSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTestStartedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+        }
+
+        @Override
+        public DefaultTestStartedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            return new DefaultTestStartedProgressEvent(eventTime, descriptorSerializer.read(decoder));
+        }
+    }
+
+    private static class TestFinishedSerializer implements Serializer<DefaultTestFinishedProgressEvent> {
+        private final Serializer<DefaultTestDescriptor> descriptorSerializer;
+        private final Serializer<AbstractResult> resultSerializer;
+
+        TestFinishedSerializer(Serializer<DefaultTestDescriptor> descriptorSerializer, Serializer<AbstractResult> resultSerializer) {
+            this.descriptorSerializer = descriptorSerializer;
+            this.resultSerializer = resultSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, DefaultTestFinishedProgressEvent event) throws Exception {
+            encoder.writeLong(event.getEventTime());
+            descriptorSerializer.write(encoder, event.getDescriptor());
+            resultSerializer.write(encoder, event.getResult());
+        }
+
+        @Override
+        public DefaultTestFinishedProgressEvent read(Decoder decoder) throws Exception {
+            long eventTime = decoder.readLong();
+            DefaultTestDescriptor descriptor = descriptorSerializer.read(decoder);
+            AbstractTestResult result = (AbstractTestResult) resultSerializer.read(decoder);
+            return new DefaultTestFinishedProgressEvent(eventTime, descriptor, result);
+        }
+    }
+}
@@ -16,7 +16,13 @@
 
 package org.gradle.launcher.daemon.protocol
 
+import org.gradle.StartParameter
 import org.gradle.api.logging.LogLevel
+import org.gradle.api.logging.configuration.ConsoleOutput
+import org.gradle.configuration.GradleLauncherMetaData
+import org.gradle.internal.DefaultTaskExecutionRequest
+import org.gradle.internal.classpath.DefaultClassPath
+import org.gradle.internal.id.CompositeIdGenerator
 import org.gradle.internal.logging.events.OperationIdentifier
 import org.gradle.internal.logging.events.LogEvent
 import org.gradle.internal.logging.events.LogLevelChangeEvent
@@ -29,6 +35,21 @@ import org.gradle.internal.serialize.Serializer
 import org.gradle.internal.serialize.SerializerSpec
 import org.gradle.internal.logging.text.StyledTextOutput
 import org.gradle.internal.serialize.PlaceholderException
+import org.gradle.launcher.cli.ExecuteBuildAction
+import org.gradle.launcher.daemon.configuration.DaemonUsage
+import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics
+import org.gradle.launcher.exec.DefaultBuildActionParameters
+import org.gradle.tooling.internal.provider.BuildActionResult
+import org.gradle.tooling.internal.provider.BuildClientSubscriptions
+import org.gradle.tooling.internal.provider.BuildModelAction
+import org.gradle.tooling.internal.provider.SerializedPayload
+import org.gradle.tooling.internal.provider.events.DefaultFailure
+import org.gradle.tooling.internal.provider.events.DefaultTaskDescriptor
+import org.gradle.tooling.internal.provider.events.DefaultTaskFinishedProgressEvent
+import org.gradle.tooling.internal.provider.events.DefaultTestDescriptor
+import org.gradle.tooling.internal.provider.events.DefaultTestFailureResult
+import org.gradle.tooling.internal.provider.events.DefaultTestFinishedProgressEvent
+import org.gradle.tooling.internal.provider.events.DefaultTaskSuccessResult
 
 class DaemonMessageSerializerTest extends SerializerSpec {
     def serializer = DaemonMessageSerializer.create()
@@ -41,6 +62,119 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result.payload == ["a", "b", "c"]
     }
 
+    def "can serialize Build messages"() {
+        expect:
+        def startParameter = new StartParameter()
+        startParameter.taskRequests = [new DefaultTaskExecutionRequest(["clean", "build"], ":sub")]
+        startParameter.excludedTaskNames = ["test"]
+        startParameter.projectDir = new File("project").absoluteFile
+        startParameter.projectProperties = [prop: "value"]
+        startParameter.systemPropertiesArgs = [sys: "value"]
+        startParameter.initScripts = [new File("init.gradle").absoluteFile]
+        startParameter.logLevel = LogLevel.INFO
+        startParameter.consoleOutput = ConsoleOutput.Plain
+        startParameter.offline = true
+        startParameter.parallelProjectExecutionEnabled = true
+        startParameter.maxWorkerCount = 3
+        def parameters = new DefaultBuildActionParameters([a: "b"], [PATH: "bin"], new File("dir"), LogLevel.INFO, DaemonUsage.EXPLICITLY_ENABLED, true, false, new DefaultClassPath(new File("plugin.jar")))
+        def id = new CompositeIdGenerator.CompositeId(UUID.randomUUID(), 12L)
+        def build = new Build(id, new ExecuteBuildAction(startParameter), new GradleLauncherMetaData("app"), 1234L, parameters)
+
+        def result = usesEfficientSerialization(build, serializer)
+        result instanceof Build
+        result.identifier == id
+        result.buildRequestMetaData.buildTimeClock.startTime == 1234L
+        result.buildRequestMetaData.client.appName == "app"
+        result.action instanceof ExecuteBuildAction
+        result.action.startParameter == startParameter
+        result.parameters.systemProperties == [a: "b"]
+        result.parameters.envVariables == [PATH: "bin"]
+        result.parameters.currentDir == new File("dir")
+        result.parameters.logLevel == LogLevel.INFO
+        result.parameters.daemonUsage == DaemonUsage.EXPLICITLY_ENABLED
+        result.parameters.continuous
+        !result.parameters.interactive
+        result.parameters.injectedPluginClasspath.asFiles == [new File("plugin.jar")]
+    }
+
+    def "can serialize Build messages for tooling API actions"() {
+        expect:
+        def parameters = new DefaultBuildActionParameters([:], [:], new File("dir"), LogLevel.LIFECYCLE, DaemonUsage.IMPLICITLY_DISABLED, false, false, DefaultClassPath.EMPTY)
+        def action = new BuildModelAction(new StartParameter(), "model", true, new BuildClientSubscriptions(true, false, true))
+        def build = new BuildAndStop("id", action, new GradleLauncherMetaData(), 1234L, parameters)
+
+        def result = usesEfficientSerialization(build, serializer)
+        result instanceof BuildAndStop
+        result.action instanceof BuildModelAction
+        result.action.modelName == "model"
+        result.action.runTasks
+        result.action.clientSubscriptions.sendTestProgressEvents
+        !result.action.clientSubscriptions.sendTaskProgressEvents
+        result.action.clientSubscriptions.sendBuildProgressEvents
+        result.parameters.injectedPluginClasspath.empty
+    }
+
+    def "can serialize BuildStarted messages"() {
+        expect:
+        def message = new BuildStarted(new DaemonDiagnostics(new File("daemon.log"), 123L))
+        def result = usesEfficientSerialization(message, serializer)
+        result instanceof BuildStarted
+        result.diagnostics.daemonLog == new File("daemon.log")
+        result.diagnostics.pid == 123L
+
+        def message2 = new BuildStarted(new DaemonDiagnostics(new File("daemon.log"), null))
+        def result2 = usesEfficientSerialization(message2, serializer)
+        result2.diagnostics.pid == null
+    }
+
+    def "can serialize Success messages"() {
+        expect:
+        def result = usesEfficientSerialization(new Success(null), serializer)
+        result instanceof Success
+        result.value == null
+
+        def message2 = new Success(new BuildActionResult(new SerializedPayload("header", [1, 2, 3] as byte[]), null))
+        def result2 = usesEfficientSerialization(message2, serializer)
+        result2.value instanceof BuildActionResult
+        result2.value.result.header == "header"
+        result2.value.result.serializedModel == [1, 2, 3] as byte[]
+        result2.value.failure == null
+
+        def result3 = serialize(new Success("value"), serializer)
+        result3.value == "value"
+    }
+
+    def "can serialize tooling API progress events"() {
+        expect:
+        def taskDescriptor = new DefaultTaskDescriptor("task-id", ":compile", "Task :compile", "build-id")
+        def event = new BuildEvent(new DefaultTaskFinishedProgressEvent(1234, taskDescriptor, new DefaultTaskSuccessResult(12, 34, true)))
+        def result = usesEfficientSerialization(event, serializer)
+        result.payload instanceof DefaultTaskFinishedProgressEvent
+        result.payload.eventTime == 1234
+        result.payload.descriptor.id == "task-id"
+        result.payload.descriptor.taskPath == ":compile"
+        result.payload.descriptor.displayName == "Task :compile"
+        result.payload.descriptor.parentId == "build-id"
+        result.payload.result.startTime == 12
+        result.payload.result.endTime == 34
+        result.payload.result.upToDate
+
+        def testId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def testDescriptor = new DefaultTestDescriptor(testId, "test", "Test test", "ATOMIC", null, "SomeTest", "test", null, ":test")
+        def failure = new DefaultFailure("broken", "stack", new DefaultFailure("cause", "stack 2", null))
+        def event2 = new BuildEvent(new DefaultTestFinishedProgressEvent(1234, testDescriptor, new DefaultTestFailureResult(12, 34, [failure])))
+        def result2 = usesEfficientSerialization(event2, serializer)
+        result2.payload instanceof DefaultTestFinishedProgressEvent
+        result2.payload.descriptor.id == testId
+        result2.payload.descriptor.className == "SomeTest"
+        result2.payload.descriptor.suiteName == null
+        result2.payload.descriptor.parentId == null
+        result2.payload.descriptor.taskPath == ":test"
+        result2.payload.result.failures.size() == 1
+        result2.payload.result.failures[0].message == "broken"
+        result2.payload.result.failures[0].causes[0].description == "stack 2"
+    }
+
     def "can serialize LogEvent messages"() {
         expect:
         def event = new LogEvent(1234, "category", LogLevel.LIFECYCLE, "message", new RuntimeException())
@@ -174,7 +308,7 @@ class DaemonMessageSerializerTest extends SerializerSpec {
     def "can serialize other messages"() {
         expect:
         def message = new Cancel("id")
-        def messageResult = serialize(message, serializer)
+        def messageResult = usesEfficientSerialization(message, serializer)
         messageResult instanceof Cancel
         messageResult.identifier == "id"
     }
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.events.FlushToOutputsEvent;
+import org.gradle.internal.logging.events.LogLevelChangeEvent;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.OutputEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers {@link OutputEvent}s to a listener from a single dispatch thread, so that the threads generating output do not wait for the listener.
+ *
+ * <p>Producers add events to a lock-free queue and only block when {@code capacity} events are already waiting to be delivered. A {@link FlushToOutputsEvent}
+ * or {@link LogLevelChangeEvent} blocks its producer until it, and every event queued before it, has been delivered. Events generated by the listener itself
+ * are delivered directly. On stop, or when the JVM shuts down, all queued events are delivered before the dispatch thread finishes.</p>
+ */
+public class AsyncOutputEventDispatcher implements OutputEventListener, Stoppable {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final OutputEventListener listener;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+    private final Semaphore capacity;
+    private final int maxEvents;
+    private final AtomicBoolean dispatcherWaiting = new AtomicBoolean();
+    private final Thread dispatcher;
+    private final Thread shutdownHook;
+    private volatile boolean stopped;
+    // Only touched by the dispatch thread, or while holding the queue lock once the dispatch thread has finished
+    private final List<Object> batch = new ArrayList<Object>();
+    private Throwable failure;
+
+    private final AtomicLong blockedProducers = new AtomicLong();
+    private volatile long deliveredEvents;
+    private volatile long batches;
+    private volatile int maxQueuedEvents;
+
+    public AsyncOutputEventDispatcher(OutputEventListener listener) {
+        this(listener, DEFAULT_CAPACITY);
+    }
+
+    public AsyncOutputEventDispatcher(OutputEventListener listener, int capacity) {
+        this.listener = listener;
+        this.maxEvents = capacity;
+        this.capacity = new Semaphore(capacity);
+        dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatchEvents();
+            }
+        }, "Output event dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                stop();
+            }
+        }, "Output event dispatcher shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public void onOutput(OutputEvent event) {
+        if (Thread.currentThread() == dispatcher) {
+            // Generated while handling another event, so all events queued before this one are being delivered
+            listener.onOutput(event);
+            return;
+        }
+        if (event instanceof FlushToOutputsEvent || event instanceof LogLevelChangeEvent) {
+            await(new Barrier(event));
+            return;
+        }
+        if (stopped) {
+            deliverRemaining(event);
+            return;
+        }
+        if (!capacity.tryAcquire()) {
+            blockedProducers.incrementAndGet();
+            capacity.acquireUninterruptibly();
+        }
+        enqueue(event);
+    }
+
+    /**
+     * Blocks until all events queued by the calling thread so far have been delivered. Rethrows any failure from the listener since the previous flush.
+     */
+    public void awaitQueuedEvents() {
+        if (Thread.currentThread() == dispatcher) {
+            return;
+        }
+        await(new Barrier(null));
+    }
+
+    private void await(Barrier barrier) {
+        if (stopped) {
+            deliverRemaining(barrier.event);
+            return;
+        }
+        enqueue(barrier);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                barrier.done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (barrier.failure != null) {
+            throw UncheckedException.throwAsUncheckedException(barrier.failure);
+        }
+    }
+
+    private void enqueue(Object item) {
+        queue.offer(item);
+        if (dispatcherWaiting.get() && dispatcherWaiting.compareAndSet(true, false)) {
+            LockSupport.unpark(dispatcher);
+        }
+        if (stopped) {
+            // Raced with stop(), so the dispatch thread may already have finished
+            deliverRemaining(null);
+        }
+    }
+
+    private void deliverRemaining(OutputEvent event) {
+        joinDispatcher();
+        synchronized (queue) {
+            drainQueue(Integer.MAX_VALUE);
+            if (event != null) {
+                deliver(event);
+            }
+            if (failure != null) {
+                Throwable t = failure;
+                failure = null;
+                throw UncheckedException.throwAsUncheckedException(t);
+            }
+        }
+    }
+
+    private void dispatchEvents() {
+        while (true) {
+            boolean stopping = stopped;
+            if (drainQueue(MAX_BATCH_SIZE) > 0) {
+                continue;
+            }
+            if (stopping) {
+                // Everything queued before the stop request has been delivered; later producers deliver their own events
+                return;
+            }
+            dispatcherWaiting.set(true);
+            if (queue.isEmpty() && !stopped) {
+                LockSupport.park(this);
+            }
+            dispatcherWaiting.set(false);
+        }
+    }
+
+    private int drainQueue(int maxBatchSize) {
+        Object item;
+        while (batch.size() < maxBatchSize && (item = queue.poll()) != null) {
+            batch.add(item);
+        }
+        int size = batch.size();
+        if (size == 0) {
+            return 0;
+        }
+        int queued = maxEvents - capacity.availablePermits();
+        if (queued > maxQueuedEvents) {
+            maxQueuedEvents = queued;
+        }
+        int events = 0;
+        for (Object next : batch) {
+            if (next instanceof Barrier) {
+                Barrier barrier = (Barrier) next;
+                if (barrier.event != null) {
+                    deliver(barrier.event);
+                }
+                barrier.failure = failure;
+                failure = null;
+                barrier.done.countDown();
+            } else {
+                deliver((OutputEvent) next);
+                events++;
+            }
+        }
+        batch.clear();
+        capacity.release(events);
+        deliveredEvents += events;
+        batches++;
+        return size;
+    }
+
+    private void deliver(OutputEvent event) {
+        try {
+            listener.onOutput(event);
+        } catch (Throwable t) {
+            // Keep delivering the remaining events, and report the first failure to whoever next waits for the queue
+            if (failure == null) {
+                failure = t;
+            }
+        }
+    }
+
+    private void joinDispatcher() {
+        if (Thread.currentThread() == dispatcher) {
+            return;
+        }
+        boolean interrupted = false;
+        while (dispatcher.isAlive()) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of events that have been delivered by the dispatch thread.
+     */
+    public long getDeliveredEvents() {
+        return deliveredEvents;
+    }
+
+    /**
+     * Returns the number of batches the dispatch thread has taken from the queue.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Returns the largest number of events seen waiting in the queue.
+     */
+    public int getMaxQueuedEvents() {
+        return maxQueuedEvents;
+    }
+
+    /**
+     * Returns the number of times a producer had to wait because the queue was full.
+     */
+    public long getBlockedProducers() {
+        return blockedProducers.get();
+    }
+
+    public void stop() {
+        if (stopped) {
+            joinDispatcher();
+            return;
+        }
+        stopped = true;
+        LockSupport.unpark(dispatcher);
+        joinDispatcher();
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    private static class Barrier {
+        final OutputEvent event;
+        final CountDownLatch done = new CountDownLatch(1);
+        Throwable failure;
+
+        Barrier(OutputEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.logging.LoggingOutputInternal;
 import org.gradle.internal.logging.console.*;
 import org.gradle.internal.logging.events.FlushToOutputsEvent;
@@ -41,29 +42,50 @@ import java.io.OutputStreamWriter;
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>When {@value #ASYNC_TOGGLE} is set, or an async renderer is requested, events are rendered on a single dispatch thread instead of the thread that
+ * generated them. See {@link AsyncOutputEventDispatcher}. Changes to the destinations wait for the events already generated to be rendered first.</p>
  */
 @ThreadSafe
-public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal, Stoppable {
+    public static final String ASYNC_TOGGLE = "org.gradle.logging.async";
     private final ListenerBroadcast<OutputEventListener> stdOutAndErrorFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final Object lock = new Object();
     private final DefaultColorMap colourMap = new DefaultColorMap();
-    private LogLevel logLevel = LogLevel.LIFECYCLE;
+    private volatile LogLevel logLevel = LogLevel.LIFECYCLE;
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
     private OutputStream originalStdOut;
     private OutputStream originalStdErr;
     private StreamBackedStandardOutputListener stdOutListener;
     private StreamBackedStandardOutputListener stdErrListener;
     private ConsoleOutput consoleOutput;
+    private final AsyncOutputEventDispatcher dispatcher;
 
     public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction) {
+        this(consoleConfigureAction, Boolean.getBoolean(ASYNC_TOGGLE));
+    }
+
+    public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction, boolean async) {
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
         stdOutAndErrorFormatters.add(stdOutChain);
         OutputEventListener stdErrChain = onError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stderrListeners.getSource())), false));
         stdOutAndErrorFormatters.add(stdErrChain);
         this.consoleConfigureAction = consoleConfigureAction;
+        this.dispatcher = async ? new AsyncOutputEventDispatcher(new OutputEventListener() {
+            public void onOutput(OutputEvent event) {
+                render(event);
+            }
+        }) : null;
+    }
+
+    /**
+     * Returns the dispatcher used to render events asynchronously, or null when events are rendered on the thread that generated them.
+     */
+    public AsyncOutputEventDispatcher getDispatcher() {
+        return dispatcher;
     }
 
     public ColorMap getColourMap() {
@@ -83,6 +105,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
+        awaitQueuedEvents();
         synchronized (lock) {
             this.consoleOutput = consoleOutput;
             consoleConfigureAction.execute(this);
@@ -90,6 +113,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachAnsiConsole(OutputStream outputStream) {
+        awaitQueuedEvents();
         synchronized (lock) {
             OutputStreamWriter writer = new OutputStreamWriter(outputStream);
             Console console = new AnsiConsole(writer, writer, colourMap, true);
@@ -98,6 +122,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachSystemOutAndErr() {
+        awaitQueuedEvents();
         addStandardOutputListener();
         addStandardErrorListener();
     }
@@ -125,6 +150,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void removeStandardOutputAndError() {
+        awaitQueuedEvents();
         removeStandardOutputListener();
         removeStandardErrorListener();
     }
@@ -148,18 +174,21 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             formatters.add(listener);
         }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             formatters.remove(listener);
         }
     }
 
     public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData) {
+        awaitQueuedEvents();
         final OutputEventListener consoleChain = new ConsoleBackedProgressRenderer(
                 new ProgressLogEventGenerator(
                         new StyledTextOutputBackedRenderer(console.getMainArea()), true),
@@ -203,12 +232,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addStandardErrorListener(StandardOutputListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             stderrListeners.add(listener);
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             stdoutListeners.add(listener);
         }
@@ -224,12 +255,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             stdoutListeners.remove(listener);
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
+        awaitQueuedEvents();
         synchronized (lock) {
             stderrListeners.remove(listener);
         }
@@ -244,6 +277,31 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void onOutput(OutputEvent event) {
+        if (dispatcher == null) {
+            render(event);
+            return;
+        }
+        // Changes to the log level are applied before the producer continues, so this check sees the level the producer last configured
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        dispatcher.onOutput(event);
+    }
+
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    private void awaitQueuedEvents() {
+        // Nested changes have already waited, and the dispatch thread needs the lock to make progress
+        if (dispatcher != null && !Thread.holdsLock(lock)) {
+            dispatcher.awaitQueuedEvents();
+        }
+    }
+
+    private void render(OutputEvent event) {
         synchronized (lock) {
             if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
                 return;
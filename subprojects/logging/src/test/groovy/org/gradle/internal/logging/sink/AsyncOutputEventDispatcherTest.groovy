@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.logging.sink
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.FlushToOutputsEvent
+import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.LogLevelChangeEvent
+import org.gradle.internal.logging.events.OutputEvent
+import org.gradle.internal.logging.events.OutputEventListener
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncOutputEventDispatcherTest extends ConcurrentSpec {
+    def received = new CopyOnWriteArrayList<OutputEvent>()
+    def threads = new CopyOnWriteArrayList<Thread>()
+    def listener = { OutputEvent event ->
+        threads << Thread.currentThread()
+        received << event
+    } as OutputEventListener
+    AsyncOutputEventDispatcher dispatcher
+
+    def cleanup() {
+        dispatcher?.stop()
+    }
+
+    def "delivers events in order on the dispatch thread and flush waits for them"() {
+        given:
+        dispatcher = new AsyncOutputEventDispatcher(listener)
+        def events = (1..500).collect { event("message $it") }
+        def flush = new FlushToOutputsEvent()
+
+        when:
+        events.each { dispatcher.onOutput(it) }
+        dispatcher.onOutput(flush)
+
+        then:
+        received == events + [flush]
+        threads.every { it != Thread.currentThread() }
+        dispatcher.deliveredEvents == 500
+        dispatcher.batches >= 2
+    }
+
+    def "log level changes are delivered before the producer continues"() {
+        given:
+        dispatcher = new AsyncOutputEventDispatcher(listener)
+        def change = new LogLevelChangeEvent(LogLevel.DEBUG)
+
+        when:
+        dispatcher.onOutput(event("before"))
+        dispatcher.onOutput(change)
+
+        then:
+        received.size() == 2
+        received[1] == change
+    }
+
+    def "blocks producer when queue is full"() {
+        given:
+        def release = new CountDownLatch(1)
+        def blocked = { OutputEvent event ->
+            release.await()
+            received << event
+        } as OutputEventListener
+        dispatcher = new AsyncOutputEventDispatcher(blocked, 2)
+        def done = new CountDownLatch(1)
+
+        when:
+        async {
+            start {
+                5.times { dispatcher.onOutput(event("message $it")) }
+                done.countDown()
+            }
+            assert !done.await(200, TimeUnit.MILLISECONDS)
+            release.countDown()
+        }
+        dispatcher.awaitQueuedEvents()
+
+        then:
+        received.size() == 5
+        dispatcher.blockedProducers >= 1
+        dispatcher.maxQueuedEvents <= 2
+    }
+
+    def "rethrows listener failure from next flush and keeps delivering events"() {
+        given:
+        def broken = event("broken")
+        def ok = event("ok")
+        def failure = new RuntimeException("broken")
+        def failing = { OutputEvent event ->
+            if (event.is(broken)) {
+                throw failure
+            }
+            received << event
+        } as OutputEventListener
+        dispatcher = new AsyncOutputEventDispatcher(failing)
+
+        when:
+        dispatcher.onOutput(broken)
+        dispatcher.onOutput(ok)
+        dispatcher.onOutput(new FlushToOutputsEvent())
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        received.first() == ok
+
+        when:
+        dispatcher.awaitQueuedEvents()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "delivers events generated by the listener directly"() {
+        given:
+        def nested = event("nested")
+        def outer = event("outer")
+        def forwarding = { OutputEvent e ->
+            if (e.is(outer)) {
+                dispatcher.onOutput(nested)
+            }
+            received << e
+        } as OutputEventListener
+        dispatcher = new AsyncOutputEventDispatcher(forwarding)
+
+        when:
+        dispatcher.onOutput(outer)
+        dispatcher.awaitQueuedEvents()
+
+        then:
+        received == [nested, outer]
+    }
+
+    def "stop delivers queued events and later events are delivered by the producer"() {
+        given:
+        dispatcher = new AsyncOutputEventDispatcher(listener)
+        def events = (1..100).collect { event("message $it") }
+        def late = event("late")
+
+        when:
+        events.each { dispatcher.onOutput(it) }
+        dispatcher.stop()
+
+        then:
+        received == events
+
+        when:
+        dispatcher.onOutput(late)
+
+        then:
+        received.last() == late
+        threads.last() == Thread.currentThread()
+    }
+
+    private static LogEvent event(String message) {
+        return new LogEvent(0, "category", LogLevel.INFO, message, null)
+    }
+}
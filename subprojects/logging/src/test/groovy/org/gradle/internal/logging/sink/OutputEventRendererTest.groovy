@@ -307,6 +307,44 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def rendersLogEventsOnDispatchThreadWhenAsync() {
+        def listener = new TestListener()
+        def asyncRenderer = new OutputEventRenderer(consoleConfigureAction, true)
+
+        when:
+        asyncRenderer.configure(LogLevel.INFO)
+        asyncRenderer.addStandardOutputListener(listener)
+        asyncRenderer.onOutput(event('info', LogLevel.INFO))
+        asyncRenderer.onOutput(event('debug', LogLevel.DEBUG))
+        asyncRenderer.flush()
+
+        then:
+        listener.value.readLines() == ['info']
+        asyncRenderer.dispatcher.deliveredEvents == 1
+
+        cleanup:
+        asyncRenderer.stop()
+    }
+
+    def rendersLogEventsGeneratedBeforeListenerIsRemovedWhenAsync() {
+        def listener = new TestListener()
+        def asyncRenderer = new OutputEventRenderer(consoleConfigureAction, true)
+
+        when:
+        asyncRenderer.configure(LogLevel.DEBUG)
+        asyncRenderer.addStandardOutputListener(listener)
+        asyncRenderer.onOutput(event(tenAm, 'message', LogLevel.DEBUG))
+        asyncRenderer.removeStandardOutputListener(listener)
+        asyncRenderer.onOutput(event(tenAm, 'ignored', LogLevel.DEBUG))
+        asyncRenderer.flush()
+
+        then:
+        listener.value.readLines() == ['10:00:00.000 [DEBUG] [category] message']
+
+        cleanup:
+        asyncRenderer.stop()
+    }
 }
 
 class TestListener implements StandardOutputListener {
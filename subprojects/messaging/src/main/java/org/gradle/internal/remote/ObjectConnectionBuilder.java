@@ -46,12 +46,13 @@ public interface ObjectConnectionBuilder {
     <T> void addIncoming(Class<T> type, T instance);
 
     /**
-     * Use Java serialization for method parameters for method invocations sent between peers.
+     * Use Java serialization for method parameters for method invocations sent between peers. When parameter serializers are also specified, Java serialization
+     * is used only for those parameters whose type is not known to the serializers.
      */
     void useJavaSerializationForParameters(ClassLoader incomingMessageClassLoader);
 
     /**
-     * Use the specified serializers for all incoming and outgoing method parameters.
+     * Use the specified serializers for all incoming and outgoing method parameters. Parameters whose type is not known to the serializers fall back to Java serialization.
      */
     void useParameterSerializers(SerializerRegistry serializers);
 }
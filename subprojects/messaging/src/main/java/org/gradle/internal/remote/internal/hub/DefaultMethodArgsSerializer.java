@@ -17,16 +17,25 @@
 package org.gradle.internal.remote.internal.hub;
 
 import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+/**
+ * Serializes each method argument using the serializer registered for its parameter type. Parameters whose type is not known to the registry are
+ * serialized using Java serialization, and when none of the parameter types are known the whole argument array is sent as a single Java serialized object.
+ */
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
     private static final Object[] ZERO_ARGS = new Object[0];
     private final SerializerRegistry serializers;
+    private final MethodArgsSerializer javaSerialization;
+    private final Serializer<Object> javaSerializer;
 
-    public DefaultMethodArgsSerializer(SerializerRegistry serializers) {
+    public DefaultMethodArgsSerializer(SerializerRegistry serializers, ClassLoader classLoader) {
         this.serializers = serializers;
+        this.javaSerialization = new JavaSerializationBackedMethodArgsSerializer(classLoader);
+        this.javaSerializer = new DefaultSerializer<Object>(classLoader);
     }
 
     @Override
@@ -35,9 +44,18 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
             return new EmptyArraySerializer();
         }
         final Serializer<Object>[] serializers = new Serializer[types.length];
+        boolean hasRegisteredType = false;
         for (int i = 0; i < types.length; i++) {
             Class<?> type = types[i];
-            serializers[i] = (Serializer<Object>) this.serializers.build(type);
+            if (this.serializers.canSerialize(type)) {
+                serializers[i] = (Serializer<Object>) this.serializers.build(type);
+                hasRegisteredType = true;
+            } else {
+                serializers[i] = javaSerializer;
+            }
+        }
+        if (!hasRegisteredType) {
+            return javaSerialization.forTypes(types);
         }
         return new ArraySerializer(serializers);
     }
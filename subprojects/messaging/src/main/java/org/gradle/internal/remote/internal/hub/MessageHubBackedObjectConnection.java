@@ -83,7 +83,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
 
         MethodArgsSerializer argsSerializer;
         if (paramSerializers != null) {
-            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers);
+            argsSerializer = new DefaultMethodArgsSerializer(paramSerializers, methodParamClassLoader);
         } else {
             argsSerializer = new JavaSerializationBackedMethodArgsSerializer(methodParamClassLoader);
         }
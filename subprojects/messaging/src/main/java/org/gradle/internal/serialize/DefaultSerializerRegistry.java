@@ -25,6 +25,18 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
         }
     });
     private final Set<Class<?>> javaSerialization = new HashSet<Class<?>>();
+    private final ClassLoader javaSerializationClassLoader;
+
+    public DefaultSerializerRegistry() {
+        this(null);
+    }
+
+    /**
+     * @param javaSerializationClassLoader The ClassLoader to use to load classes when reading objects that use Java serialization.
+     */
+    public DefaultSerializerRegistry(ClassLoader javaSerializationClassLoader) {
+        this.javaSerializationClassLoader = javaSerializationClassLoader;
+    }
 
     @Override
     public <T> void register(Class<T> implementationType, Serializer<T> serializer) {
@@ -56,7 +68,22 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
         if (matches.size() == 1 && matchingJavaSerialization.isEmpty()) {
             return (Serializer<T>) matches.values().iterator().next();
         }
-        return new TaggedTypeSerializer<T>(matches, matchingJavaSerialization);
+        return new TaggedTypeSerializer<T>(matches, matchingJavaSerialization, javaSerializationClassLoader);
+    }
+
+    @Override
+    public boolean canSerialize(Class<?> baseType) {
+        for (Class<?> candidate : serializerMap.keySet()) {
+            if (baseType.isAssignableFrom(candidate)) {
+                return true;
+            }
+        }
+        for (Class<?> candidate : javaSerialization) {
+            if (baseType.isAssignableFrom(candidate)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static class TypeInfo {
@@ -72,23 +99,24 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
     }
 
     private static class TaggedTypeSerializer<T> implements Serializer<T> {
-        private static final int JAVA_TYPE = 1; // Reserve 0 for null (to be added later)
-        private static final TypeInfo JAVA_SERIALIZATION = new TypeInfo(JAVA_TYPE, true, new DefaultSerializer<Object>());
+        private static final int NULL_TYPE = 0;
+        private static final int JAVA_TYPE = 1;
         private final Map<Class<?>, TypeInfo> serializersByType = new HashMap<Class<?>, TypeInfo>();
         private final Map<Class<?>, TypeInfo> typeHierarchies = new HashMap<Class<?>, TypeInfo>();
         private final TypeInfo[] serializersByTag;
 
-        public TaggedTypeSerializer(Map<Class<?>, Serializer<?>> serializerMap, Set<Class<?>> javaSerialization) {
+        public TaggedTypeSerializer(Map<Class<?>, Serializer<?>> serializerMap, Set<Class<?>> javaSerialization, ClassLoader javaSerializationClassLoader) {
+            TypeInfo javaSerializationInfo = new TypeInfo(JAVA_TYPE, true, new DefaultSerializer<Object>(javaSerializationClassLoader));
             serializersByTag = new TypeInfo[2 + serializerMap.size()];
-            serializersByTag[JAVA_TYPE] = JAVA_SERIALIZATION;
+            serializersByTag[JAVA_TYPE] = javaSerializationInfo;
             int nextTag = 2;
             for (Map.Entry<Class<?>, Serializer<?>> entry : serializerMap.entrySet()) {
                 add(nextTag, entry.getKey(), entry.getValue());
                 nextTag++;
             }
             for (Class<?> type : javaSerialization) {
-                serializersByType.put(type, JAVA_SERIALIZATION);
-                typeHierarchies.put(type, JAVA_SERIALIZATION);
+                serializersByType.put(type, javaSerializationInfo);
+                typeHierarchies.put(type, javaSerializationInfo);
             }
         }
 
@@ -103,6 +131,9 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
 
         public T read(Decoder decoder) throws Exception {
             int tag = decoder.readSmallInt();
+            if (tag == NULL_TYPE) {
+                return null;
+            }
             TypeInfo typeInfo = tag >= serializersByTag.length ? null : serializersByTag[tag];
             if (typeInfo == null) {
                 throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
@@ -111,6 +142,10 @@ public class DefaultSerializerRegistry implements SerializerRegistry {
         }
 
         public void write(Encoder encoder, T value) throws Exception {
+            if (value == null) {
+                encoder.writeSmallInt(NULL_TYPE);
+                return;
+            }
             TypeInfo typeInfo = map(value.getClass());
             encoder.writeSmallInt(typeInfo.tag);
             typeInfo.serializer.write(encoder, value);
@@ -32,4 +32,9 @@ public interface SerializerRegistry {
      * Creates a serializer that uses the current registrations to serialize objects of type T.
      */
     <T> Serializer<T> build(Class<T> baseType);
+
+    /**
+     * Returns true if {@link #build(Class)} can create a serializer for objects of type T using the current registrations.
+     */
+    boolean canSerialize(Class<?> baseType);
 }
@@ -22,7 +22,7 @@ import org.gradle.internal.serialize.SerializerSpec
 
 class DefaultMethodArgsSerializerTest extends SerializerSpec {
     def registry = new DefaultSerializerRegistry()
-    def serializer = new DefaultMethodArgsSerializer(registry)
+    def serializer = new DefaultMethodArgsSerializer(registry, getClass().classLoader)
 
     def "serializes an empty args array"() {
         expect:
@@ -40,4 +40,26 @@ class DefaultMethodArgsSerializerTest extends SerializerSpec {
         def arraySerializer = serializer.forTypes([String, Long, String] as Class[])
         serialize(["a", 12L, "b"] as Object[], arraySerializer) == ["a", 12L, "b"] as Object[]
     }
+
+    def "uses Java serialization for args whose type has no registered serializer"() {
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+
+        expect:
+        def arraySerializer = serializer.forTypes([String, List, String] as Class[])
+        serialize(["a", [1, 2], "b"] as Object[], arraySerializer) == ["a", [1, 2], "b"] as Object[]
+        serialize(["a", null, "b"] as Object[], arraySerializer) == ["a", null, "b"] as Object[]
+    }
+
+    def "uses Java serialization for the args array when no arg type has a registered serializer"() {
+        given:
+        registry.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def javaSerializer = new JavaSerializationBackedMethodArgsSerializer(getClass().classLoader)
+        def args = [[1, 2], 12L] as Object[]
+
+        expect:
+        def arraySerializer = serializer.forTypes([List, Long] as Class[])
+        serialize(args, arraySerializer) == args
+        toBytes(args, arraySerializer) == toBytes(args, javaSerializer.forTypes([List, Long] as Class[]))
+    }
 }
@@ -165,4 +165,31 @@ class DefaultSerializerRegistryTest extends SerializerSpec {
         serialize(123, serializer) == 123
         serialize(123.4, serializer) == 123.4
     }
+
+    def "can serialize null value when type information is written"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.register(Integer, intSerializer)
+        def serializer = registry.build(Number)
+
+        expect:
+        serialize(null, serializer) == null
+        toBytes(null, serializer).length == 1
+    }
+
+    def "can query whether a serializer can be built for a type"() {
+        given:
+        def registry = new DefaultSerializerRegistry()
+        registry.register(Long, longSerializer)
+        registry.useJavaSerialization(Collection)
+
+        expect:
+        registry.canSerialize(Long)
+        registry.canSerialize(Number)
+        registry.canSerialize(Object)
+        registry.canSerialize(Collection)
+        !registry.canSerialize(Integer)
+        !registry.canSerialize(String)
+    }
 }
@@ -121,10 +121,13 @@ class RealWorldNativePluginPerformanceTest extends AbstractCrossVersionPerforman
         // source file change causes a single project, single source set, single file to be recompiled.
         // header file change causes a single project, two source sets, some files to be recompiled.
         // recompile all sources causes all projects, all source sets, all files to be recompiled.
-        buildSize | changeType              | maxExecutionTimeRegression | changedFile                       | changeClosure
-        "medium"  | 'source file change'    | millis(300)                | 'modules/project5/src/src100_c.c' | this.&changeCSource
-        "medium"  | 'header file change'    | millis(300)                | 'modules/project1/src/src50_h.h'  | this.&changeHeader
-        "medium"  | 'recompile all sources' | millis(1500)               | 'common.gradle'                   | this.&changeArgs
+        buildSize           | changeType              | maxExecutionTimeRegression | changedFile                       | changeClosure
+        "medium"            | 'source file change'    | millis(300)                | 'modules/project5/src/src100_c.c' | this.&changeCSource
+        "medium"            | 'header file change'    | millis(300)                | 'modules/project1/src/src50_h.h'  | this.&changeHeader
+        "medium"            | 'recompile all sources' | millis(1500)               | 'common.gradle'                   | this.&changeArgs
+        // a header heavy build, where each compile task that runs has to discover the includes of all of its source files.
+        "mediumHeaderHeavy" | 'source file change'    | millis(300)                | 'modules/project5/src/src100_c.c' | this.&changeCSource
+        "mediumHeaderHeavy" | 'header file change'    | millis(300)                | 'modules/project1/src/src50_h.h'  | this.&changeHeader
     }
 
     void changeCSource(File file, String originalContent) {
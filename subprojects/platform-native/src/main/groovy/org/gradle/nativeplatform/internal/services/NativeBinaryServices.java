@@ -49,6 +49,7 @@ public class NativeBinaryServices implements PluginServiceRegistry {
 
     @Override
     public void registerGradleServices(ServiceRegistration registration) {
+        registration.addProvider(new NativeToolChainServices());
     }
 
     @Override
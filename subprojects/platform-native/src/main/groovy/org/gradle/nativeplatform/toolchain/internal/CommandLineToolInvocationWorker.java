@@ -24,4 +24,11 @@ public interface CommandLineToolInvocationWorker extends BuildOperationWorker<Co
      */
     @Override
     String getDisplayName();
+
+    /**
+     * Returns the number of job slots an invocation of this tool occupies while it runs.
+     *
+     * @see JobSlotBuildOperationProcessor
+     */
+    int getJobSlots();
 }
@@ -31,11 +31,17 @@ public class DefaultCommandLineToolInvocationWorker implements CommandLineToolIn
     private final String name;
     private final File executable;
     private final ExecActionFactory execActionFactory;
+    private final int jobSlots;
 
     public DefaultCommandLineToolInvocationWorker(String name, File executable, ExecActionFactory execActionFactory) {
+        this(name, executable, execActionFactory, 1);
+    }
+
+    public DefaultCommandLineToolInvocationWorker(String name, File executable, ExecActionFactory execActionFactory, int jobSlots) {
         this.name = name;
         this.executable = executable;
         this.execActionFactory = execActionFactory;
+        this.jobSlots = jobSlots;
     }
 
     @Override
@@ -43,6 +49,11 @@ public class DefaultCommandLineToolInvocationWorker implements CommandLineToolIn
         return String.format("command line tool '%s'", name);
     }
 
+    @Override
+    public int getJobSlots() {
+        return jobSlots;
+    }
+
     @Override
     public String toString() {
         return getDisplayName();
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.SystemProperties;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.exceptions.DefaultMultiCauseException;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationQueueFailure;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.util.CollectionUtils;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Runs native command line tool invocations using a fixed number of job slots shared by all tasks of the build, similar to a make job server.
+ *
+ * <p>Each invocation occupies the number of slots reported by its {@link CommandLineToolInvocationWorker}, so that links, which usually need more memory
+ * and I/O than compiles, take a larger share. Whenever a slot becomes free, the next invocation is taken from the queue of the task with the fewest slots
+ * in use, so that a task with a long backlog of compiles cannot hold back the tasks that started after it.</p>
+ */
+public class JobSlotBuildOperationProcessor implements BuildOperationProcessor, Stoppable {
+    /**
+     * The number of job slots occupied by a link.
+     */
+    public static final int LINK_JOB_SLOTS = 2;
+
+    private static final Logger LOGGER = Logging.getLogger(JobSlotBuildOperationProcessor.class);
+    private static final String LINE_SEPARATOR = SystemProperties.getInstance().getLineSeparator();
+
+    private final StoppableExecutor executor;
+    private final int jobSlots;
+    private final Object lock = new Object();
+    private final List<SlotQueue<?>> queues = Lists.newArrayList();
+    private int freeSlots;
+    private int queuedOperations;
+    private int runningOperations;
+    private int maxQueuedOperations;
+    private int completedOperations;
+    private long totalQueuedTime;
+    private long dispatchCount;
+
+    public JobSlotBuildOperationProcessor(ExecutorFactory executorFactory, int jobSlots) {
+        this.jobSlots = jobSlots;
+        this.freeSlots = jobSlots;
+        this.executor = executorFactory.create("native tool invocations", jobSlots);
+    }
+
+    @Override
+    public <T extends BuildOperation> void run(BuildOperationWorker<T> worker, Action<BuildOperationQueue<T>> generator) {
+        SlotQueue<T> queue = new SlotQueue<T>(worker, slotsFor(worker));
+        synchronized (lock) {
+            queues.add(queue);
+        }
+
+        List<GradleException> failures = Lists.newArrayList();
+        try {
+            try {
+                generator.execute(queue);
+            } catch (Exception e) {
+                failures.add(new BuildOperationQueueFailure("There was a failure while populating the build operation queue: " + e.getMessage(), e));
+                queue.cancel();
+            }
+
+            try {
+                queue.waitForCompletion();
+            } catch (MultipleBuildOperationFailures e) {
+                failures.add(e);
+            }
+        } finally {
+            synchronized (lock) {
+                queues.remove(queue);
+            }
+        }
+
+        if (failures.size() == 1) {
+            throw failures.get(0);
+        } else if (failures.size() > 1) {
+            throw new DefaultMultiCauseException(formatMultipleFailureMessage(failures), failures);
+        }
+    }
+
+    @Override
+    public <T extends RunnableBuildOperation> void run(Action<BuildOperationQueue<T>> generator) {
+        BuildOperationWorker<T> runnableWorker = new BuildOperationWorker<T>() {
+            @Override
+            public String getDisplayName() {
+                return "runnable worker";
+            }
+
+            @Override
+            public void execute(T t) {
+                t.run();
+            }
+        };
+        run(runnableWorker, generator);
+    }
+
+    /**
+     * Returns the number of invocations currently waiting for a job slot.
+     */
+    public int getQueuedOperations() {
+        synchronized (lock) {
+            return queuedOperations;
+        }
+    }
+
+    /**
+     * Returns the number of invocations currently running.
+     */
+    public int getRunningOperations() {
+        synchronized (lock) {
+            return runningOperations;
+        }
+    }
+
+    /**
+     * Returns the largest number of invocations that have been waiting for a job slot at the same time.
+     */
+    public int getMaxQueuedOperations() {
+        synchronized (lock) {
+            return maxQueuedOperations;
+        }
+    }
+
+    /**
+     * Returns the number of invocations that have completed.
+     */
+    public int getCompletedOperations() {
+        synchronized (lock) {
+            return completedOperations;
+        }
+    }
+
+    /**
+     * Returns the total time, in milliseconds, that the completed invocations spent waiting for a job slot.
+     */
+    public long getTotalQueuedTime() {
+        synchronized (lock) {
+            return totalQueuedTime;
+        }
+    }
+
+    public void stop() {
+        try {
+            executor.stop();
+        } finally {
+            if (getCompletedOperations() > 0) {
+                LOGGER.info("Ran {} native tool invocations using {} job slots. At most {} invocations were waiting for a job slot, for {}ms in total.", completedOperations, jobSlots, maxQueuedOperations, totalQueuedTime);
+            }
+        }
+    }
+
+    private int slotsFor(BuildOperationWorker<?> worker) {
+        int slots = worker instanceof CommandLineToolInvocationWorker ? ((CommandLineToolInvocationWorker) worker).getJobSlots() : 1;
+        // A single invocation can always use all of the slots, so that it is not blocked forever
+        return Math.min(Math.max(slots, 1), jobSlots);
+    }
+
+    /**
+     * Starts queued operations, while there are free job slots. Must be called while holding the lock.
+     */
+    private void dispatch() {
+        while (freeSlots > 0) {
+            SlotQueue<?> next = null;
+            for (SlotQueue<?> queue : queues) {
+                // Queues with the same number of slots in use take turns
+                if (queue.hasPending() && (next == null || queue.usedSlots < next.usedSlots || (queue.usedSlots == next.usedSlots && queue.lastDispatched < next.lastDispatched))) {
+                    next = queue;
+                }
+            }
+            if (next == null || next.slots > freeSlots) {
+                // Nothing to do, or wait for more slots to become free rather than let smaller invocations overtake this one
+                return;
+            }
+            next.lastDispatched = ++dispatchCount;
+            next.startNext();
+        }
+    }
+
+    private static String formatMultipleFailureMessage(List<GradleException> failures) {
+        return StringUtils.join(CollectionUtils.collect(failures, new Transformer<String, GradleException>() {
+            @Override
+            public String transform(GradleException e) {
+                return e.getMessage();
+            }
+        }), LINE_SEPARATOR + "AND" + LINE_SEPARATOR);
+    }
+
+    private class SlotQueue<T extends BuildOperation> implements BuildOperationQueue<T> {
+        private final BuildOperationWorker<T> worker;
+        private final int slots;
+        private final LinkedList<QueuedOperation> pending = new LinkedList<QueuedOperation>();
+        private final List<Throwable> failures = Lists.newArrayList();
+        private int usedSlots;
+        private long lastDispatched;
+        private int running;
+        private boolean waitingForCompletion;
+        private String logLocation;
+
+        SlotQueue(BuildOperationWorker<T> worker, int slots) {
+            this.worker = worker;
+            this.slots = slots;
+        }
+
+        @Override
+        public void add(T operation) {
+            synchronized (lock) {
+                if (waitingForCompletion) {
+                    throw new IllegalStateException("BuildOperationQueue cannot be reused once it has started completion.");
+                }
+                pending.add(new QueuedOperation(operation, System.currentTimeMillis()));
+                queuedOperations++;
+                maxQueuedOperations = Math.max(maxQueuedOperations, queuedOperations);
+                dispatch();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (lock) {
+                queuedOperations -= pending.size();
+                pending.clear();
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void waitForCompletion() throws MultipleBuildOperationFailures {
+            synchronized (lock) {
+                waitingForCompletion = true;
+                while (!pending.isEmpty() || running > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                if (!failures.isEmpty()) {
+                    throw new MultipleBuildOperationFailures(failures.size() == 1 ? "A build operation failed." : "Multiple build operations failed.", failures, logLocation);
+                }
+            }
+        }
+
+        @Override
+        public void setLogLocation(String logLocation) {
+            this.logLocation = logLocation;
+        }
+
+        boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        /**
+         * Starts the next pending operation of this queue. Must be called while holding the lock.
+         */
+        void startNext() {
+            final QueuedOperation operation = pending.removeFirst();
+            queuedOperations--;
+            runningOperations++;
+            running++;
+            usedSlots += slots;
+            freeSlots -= slots;
+            totalQueuedTime += System.currentTimeMillis() - operation.queuedAt;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Throwable failure = null;
+                    try {
+                        worker.execute(operation.operation);
+                    } catch (Throwable t) {
+                        failure = t;
+                    }
+                    synchronized (lock) {
+                        if (failure != null) {
+                            failures.add(failure);
+                        }
+                        runningOperations--;
+                        completedOperations++;
+                        running--;
+                        usedSlots -= slots;
+                        freeSlots += slots;
+                        dispatch();
+                        lock.notifyAll();
+                    }
+                }
+            });
+        }
+
+        private class QueuedOperation {
+            final T operation;
+            final long queuedAt;
+
+            QueuedOperation(T operation, long queuedAt) {
+                this.operation = operation;
+                this.queuedAt = queuedAt;
+            }
+        }
+    }
+}
@@ -120,7 +120,8 @@ class GccPlatformToolProvider extends AbstractPlatformToolProvider {
     private CommandLineToolInvocationWorker commandLineTool(GccCommandLineToolConfigurationInternal tool) {
         ToolType key = tool.getToolType();
         String exeName = tool.getExecutable();
-        return new DefaultCommandLineToolInvocationWorker(key.getToolName(), toolSearchPath.locate(key, exeName).getTool(), execActionFactory);
+        int jobSlots = key == ToolType.LINKER ? JobSlotBuildOperationProcessor.LINK_JOB_SLOTS : 1;
+        return new DefaultCommandLineToolInvocationWorker(key.getToolName(), toolSearchPath.locate(key, exeName).getTool(), execActionFactory, jobSlots);
     }
 
     private CommandLineToolContext context(GccCommandLineToolConfigurationInternal toolConfiguration) {
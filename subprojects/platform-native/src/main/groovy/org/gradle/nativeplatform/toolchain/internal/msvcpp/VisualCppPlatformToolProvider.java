@@ -115,7 +115,7 @@ class VisualCppPlatformToolProvider extends AbstractPlatformToolProvider {
 
     @Override
     protected Compiler<LinkerSpec> createLinker() {
-        CommandLineToolInvocationWorker commandLineTool = tool("Linker", visualCpp.getLinker(targetPlatform));
+        CommandLineToolInvocationWorker commandLineTool = tool("Linker", visualCpp.getLinker(targetPlatform), JobSlotBuildOperationProcessor.LINK_JOB_SLOTS);
         return new LinkExeLinker(buildOperationProcessor, commandLineTool, context(commandLineToolConfigurations.get(ToolType.LINKER)), addLibraryPath());
     }
 
@@ -126,7 +126,11 @@ class VisualCppPlatformToolProvider extends AbstractPlatformToolProvider {
     }
 
     private CommandLineToolInvocationWorker tool(String toolName, File exe) {
-        return new DefaultCommandLineToolInvocationWorker(toolName, exe, execActionFactory);
+        return tool(toolName, exe, 1);
+    }
+
+    private CommandLineToolInvocationWorker tool(String toolName, File exe, int jobSlots) {
+        return new DefaultCommandLineToolInvocationWorker(toolName, exe, execActionFactory, jobSlots);
     }
 
     private CommandLineToolContext context(CommandLineToolConfigurationInternal commandLineToolConfiguration) {
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal
+
+import org.gradle.internal.operations.MultipleBuildOperationFailures
+import org.gradle.internal.operations.logging.BuildOperationLogger
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Unroll
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class JobSlotBuildOperationProcessorTest extends ConcurrentSpec {
+    def started = new CopyOnWriteArrayList<String>()
+
+    @Unroll
+    def "all #operations operations run to completion when using #slots job slots"() {
+        given:
+        def processor = new JobSlotBuildOperationProcessor(executorFactory, slots)
+
+        when:
+        processor.run(worker(1), { queue ->
+            operations.times { queue.add(new TestOperation("op$it")) }
+        })
+
+        then:
+        started.size() == operations
+        processor.completedOperations == operations
+        processor.queuedOperations == 0
+        processor.runningOperations == 0
+
+        where:
+        operations | slots
+        0          | 1
+        1          | 1
+        20         | 1
+        1          | 4
+        20         | 4
+    }
+
+    def "takes operations from the queues of different tasks in turn"() {
+        given:
+        def processor = new JobSlotBuildOperationProcessor(executorFactory, 1)
+
+        when:
+        async {
+            start {
+                processor.run(worker(1), { queue ->
+                    queue.add(new TestOperation("a1", { instant.a1Started; thread.blockUntil.bQueued }))
+                    queue.add(new TestOperation("a2"))
+                    queue.add(new TestOperation("a3"))
+                })
+            }
+            start {
+                thread.blockUntil.a1Started
+                processor.run(worker(1), { queue ->
+                    queue.add(new TestOperation("b1"))
+                    queue.add(new TestOperation("b2"))
+                    instant.bQueued
+                })
+            }
+        }
+
+        then:
+        started == ["a1", "b1", "a2", "b2", "a3"]
+        processor.maxQueuedOperations == 4
+    }
+
+    def "operation that needs more job slots waits for them rather than being overtaken"() {
+        given:
+        def processor = new JobSlotBuildOperationProcessor(executorFactory, 2)
+
+        when:
+        async {
+            start {
+                processor.run(worker(1), { queue ->
+                    queue.add(new TestOperation("compile1", { instant.compile1Started; thread.blockUntil.linkQueued }))
+                })
+            }
+            start {
+                thread.blockUntil.compile1Started
+                processor.run(worker(JobSlotBuildOperationProcessor.LINK_JOB_SLOTS), { queue ->
+                    queue.add(new TestOperation("link"))
+                    instant.linkQueued
+                })
+            }
+            start {
+                thread.blockUntil.linkQueued
+                processor.run(worker(1), { queue ->
+                    queue.add(new TestOperation("compile2"))
+                })
+            }
+        }
+
+        then:
+        started == ["compile1", "link", "compile2"]
+    }
+
+    def "operation that needs more job slots than are available runs on its own"() {
+        given:
+        def processor = new JobSlotBuildOperationProcessor(executorFactory, 1)
+
+        when:
+        processor.run(worker(JobSlotBuildOperationProcessor.LINK_JOB_SLOTS), { queue ->
+            queue.add(new TestOperation("link"))
+        })
+
+        then:
+        started == ["link"]
+    }
+
+    def "reports failures of the operations of a queue"() {
+        given:
+        def processor = new JobSlotBuildOperationProcessor(executorFactory, 2)
+        def failure = new RuntimeException("broken")
+
+        when:
+        processor.run(worker(1), { queue ->
+            queue.setLogLocation("log.txt")
+            queue.add(new TestOperation("ok"))
+            queue.add(new TestOperation("broken", { throw failure }))
+        })
+
+        then:
+        def e = thrown(MultipleBuildOperationFailures)
+        e.causes == [failure]
+        e.message.contains("log.txt")
+        started.sort() == ["broken", "ok"]
+    }
+
+    private CommandLineToolInvocationWorker worker(int jobSlots) {
+        return new TestWorker(jobSlots)
+    }
+
+    class TestOperation implements CommandLineToolInvocation {
+        final String name
+        final Closure action
+
+        TestOperation(String name, Closure action = {}) {
+            this.name = name
+            this.action = action
+        }
+
+        @Override
+        String getDescription() {
+            return name
+        }
+
+        List<File> path
+        Map<String, String> environment
+        File workDirectory
+        Iterable<String> args
+        BuildOperationLogger logger
+    }
+
+    class TestWorker implements CommandLineToolInvocationWorker {
+        final int jobSlots
+
+        TestWorker(int jobSlots) {
+            this.jobSlots = jobSlots
+        }
+
+        @Override
+        String getDisplayName() {
+            return "test worker"
+        }
+
+        @Override
+        void execute(CommandLineToolInvocation invocation) {
+            TestOperation operation = (TestOperation) invocation
+            started << operation.name
+            operation.action.call()
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassAn
 import org.gradle.api.internal.tasks.compile.incremental.cache.DefaultGeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.jar.DefaultJarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.InMemoryJarSnapshotStore;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
@@ -34,6 +35,7 @@ import org.gradle.internal.service.scopes.PluginServiceRegistry;
 public class CompileServices implements PluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JvmBinaryRenderer.class);
+        registration.add(InMemoryJarSnapshotStore.class);
     }
 
     public void registerBuildSessionServices(ServiceRegistration registration) {
@@ -67,7 +69,10 @@ public class CompileServices implements PluginServiceRegistry {
             return new DefaultClassAnalysisCache(cacheRepository);
         }
 
-        JarSnapshotCache createJarSnapshotCache(CacheRepository cacheRepository) {
+        JarSnapshotCache createJarSnapshotCache(CacheRepository cacheRepository, InMemoryJarSnapshotStore inMemoryJarSnapshotStore) {
+            if (Boolean.getBoolean(InMemoryJarSnapshotStore.SHARED_JAR_SNAPSHOTS_TOGGLE)) {
+                return new DefaultJarSnapshotCache(cacheRepository, inMemoryJarSnapshotStore);
+            }
             return new DefaultJarSnapshotCache(cacheRepository);
         }
     }
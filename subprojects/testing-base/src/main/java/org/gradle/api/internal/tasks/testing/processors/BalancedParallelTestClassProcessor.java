@@ -0,0 +1,412 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.Factory;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.actor.Actor;
+import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.DispatchException;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.gradle.util.Clock.prettyTime;
+
+/**
+ * Manages a set of parallel TestClassProcessors. Unlike {@link MaxNParallelTestClassProcessor}, test classes are not
+ * assigned up front. Processors are started as test classes arrive, and each test class is handed to whichever processor
+ * has finished its previous class. Classes that are waiting for a processor are handed out longest first, using the class
+ * durations recorded by a previous execution.
+ *
+ * <p>A processor is considered to have finished a class when the test framework reports completion of the test class
+ * descriptor for that class, so this should only be used with frameworks that report one such descriptor per class.
+ * A processor that fails to accept a class is no longer handed any classes. Should no events at all be received for the
+ * stall timeout while classes are still waiting, for example because a processor has died without reporting any failure,
+ * the remaining classes are assigned up front to make sure execution can never stall.</p>
+ */
+public class BalancedParallelTestClassProcessor implements TestClassProcessor {
+    /**
+     * The system property that enables balanced distribution of test classes for JUnit tests.
+     */
+    public static final String BALANCED_FORKS_TOGGLE = "org.gradle.testing.balancedForks";
+    /**
+     * The system property that sets the stall timeout, in milliseconds.
+     */
+    public static final String STALL_TIMEOUT_PROPERTY = "org.gradle.testing.balancedForks.stallTimeout";
+    static final long DEFAULT_STALL_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+    private static final Logger LOGGER = Logging.getLogger(BalancedParallelTestClassProcessor.class);
+
+    private final int maxProcessors;
+    private final Factory<TestClassProcessor> factory;
+    private final ActorFactory actorFactory;
+    private final Map<String, Long> previousDurations;
+    private final long defaultDuration;
+    private final TimeProvider timeProvider;
+    private final long stallTimeout;
+    private final PriorityQueue<PendingClass> pending = new PriorityQueue<PendingClass>();
+    private final List<Worker> workers = new ArrayList<Worker>();
+    private final LinkedList<Worker> idleWorkers = new LinkedList<Worker>();
+    private final List<Actor> actors = new ArrayList<Actor>();
+    private final Lock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private TestResultProcessor resultProcessor;
+    private Actor resultProcessorActor;
+    private long lastEventTime;
+    private int receivedClasses;
+    private int failedWorkers;
+
+    public BalancedParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations, TimeProvider timeProvider) {
+        this(maxProcessors, factory, actorFactory, previousDurations, timeProvider, Long.getLong(STALL_TIMEOUT_PROPERTY, DEFAULT_STALL_TIMEOUT));
+    }
+
+    BalancedParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations, TimeProvider timeProvider, long stallTimeout) {
+        this.maxProcessors = maxProcessors;
+        this.factory = factory;
+        this.actorFactory = actorFactory;
+        this.previousDurations = previousDurations;
+        this.defaultDuration = averageDuration(previousDurations);
+        this.timeProvider = timeProvider;
+        this.stallTimeout = stallTimeout;
+    }
+
+    /**
+     * Classes without a recorded duration are assumed to take the average time of those with one.
+     */
+    private static long averageDuration(Map<String, Long> durations) {
+        if (durations.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        return total / durations.size();
+    }
+
+    long getStallTimeout() {
+        return stallTimeout;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        resultProcessorActor = actorFactory.createActor(resultProcessor);
+        this.resultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            Long duration = previousDurations.get(testClass.getTestClassName());
+            pending.add(new PendingClass(testClass, duration == null ? defaultDuration : duration, receivedClasses++));
+            dispatchPending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            awaitDispatched();
+            List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
+            for (Worker worker : workers) {
+                processors.add(worker.processor);
+            }
+            CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
+        } catch (DispatchException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } finally {
+            logUtilisation();
+        }
+    }
+
+    /**
+     * Hands the pending classes, longest first, to the idle processors, starting new processors while there are fewer
+     * than the maximum.
+     */
+    private void dispatchPending() {
+        while (!pending.isEmpty()) {
+            Worker worker = idleWorkers.poll();
+            if (worker == null && workers.size() < maxProcessors) {
+                worker = startWorker();
+            }
+            if (worker == null) {
+                return;
+            }
+            worker.dispatch(pending.poll().testClass);
+            stateChanged.signalAll();
+        }
+    }
+
+    /**
+     * Waits until all pending classes have been handed to a processor, or until there are no processors left that can
+     * accept them.
+     */
+    private void awaitDispatched() {
+        lock.lock();
+        try {
+            lastEventTime = timeProvider.getCurrentTime();
+            while (!pending.isEmpty()) {
+                if (failedWorkers == maxProcessors) {
+                    // Nothing can run the remaining classes, the failures are reported when the processors are stopped
+                    pending.clear();
+                    return;
+                }
+                long remaining = lastEventTime + stallTimeout - timeProvider.getCurrentTime();
+                if (remaining <= 0) {
+                    assignPendingUpFront();
+                    return;
+                }
+                try {
+                    stateChanged.await(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void assignPendingUpFront() {
+        List<Worker> available = new ArrayList<Worker>();
+        for (Worker worker : workers) {
+            if (!worker.failed) {
+                available.add(worker);
+            }
+        }
+        LOGGER.warn("No test events received for {}. Assigning the remaining {} test classes to the test workers up front.", prettyTime(stallTimeout), pending.size());
+        int next = 0;
+        while (!pending.isEmpty()) {
+            available.get(next++ % available.size()).dispatch(pending.poll().testClass);
+        }
+    }
+
+    private Worker startWorker() {
+        Worker worker = new Worker(workers.size() + 1);
+        Actor actor = actorFactory.createActor(new WorkerProcessor(worker, factory.create()));
+        actors.add(actor);
+        worker.processor = actor.getProxy(TestClassProcessor.class);
+        workers.add(worker);
+        worker.processor.startProcessing(worker);
+        return worker;
+    }
+
+    private void logUtilisation() {
+        if (!LOGGER.isInfoEnabled()) {
+            return;
+        }
+        long now = timeProvider.getCurrentTime();
+        lock.lock();
+        try {
+            for (Worker worker : workers) {
+                long idle = worker.idleTime;
+                if (worker.currentClass == null) {
+                    idle += now - worker.idleSince;
+                }
+                LOGGER.info("Test worker {} finished, test classes: {}, busy: {}, idle: {}", worker.number, worker.classCount, prettyTime(now - worker.startTime - idle), prettyTime(idle));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A single processor, along with the bookkeeping for the class it is currently executing. Receives the results
+     * of that processor, forwarding them on and noticing when the current class has completed.
+     */
+    private class Worker implements TestResultProcessor {
+        private final int number;
+        private TestClassProcessor processor;
+        private final long startTime;
+        private String currentClass;
+        private Object currentClassId;
+        private long idleSince;
+        private long idleTime;
+        private int classCount;
+        private boolean failed;
+
+        Worker(int number) {
+            this.number = number;
+            this.startTime = timeProvider.getCurrentTime();
+            this.idleSince = startTime;
+        }
+
+        void dispatch(TestClassRunInfo testClass) {
+            long now = timeProvider.getCurrentTime();
+            if (currentClass == null) {
+                idleTime += now - idleSince;
+            }
+            currentClass = testClass.getTestClassName();
+            currentClassId = null;
+            classCount++;
+            processor.processTestClass(testClass);
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            resultProcessor.started(test, event);
+            lock.lock();
+            try {
+                lastEventTime = timeProvider.getCurrentTime();
+                if (currentClassId == null && test.isComposite() && currentClass != null && currentClass.equals(test.getClassName())) {
+                    currentClassId = test.getId();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            resultProcessor.completed(testId, event);
+            lock.lock();
+            try {
+                lastEventTime = timeProvider.getCurrentTime();
+                if (currentClassId != null && currentClassId.equals(testId)) {
+                    currentClass = null;
+                    currentClassId = null;
+                    idleSince = lastEventTime;
+                    idleWorkers.add(this);
+                    dispatchPending();
+                }
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            resultProcessor.output(testId, event);
+            eventReceived();
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            resultProcessor.failure(testId, result);
+            eventReceived();
+        }
+
+        private void eventReceived() {
+            lock.lock();
+            try {
+                lastEventTime = timeProvider.getCurrentTime();
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void failed() {
+            lock.lock();
+            try {
+                if (!failed) {
+                    failed = true;
+                    failedWorkers++;
+                    idleWorkers.remove(this);
+                    stateChanged.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs on the actor of a processor, and notices when the processor fails to accept a class, so that no more classes
+     * are handed to it. The failure itself is rethrown when the actor is stopped.
+     */
+    private static class WorkerProcessor implements TestClassProcessor {
+        private final Worker worker;
+        private final TestClassProcessor processor;
+
+        WorkerProcessor(Worker worker, TestClassProcessor processor) {
+            this.worker = worker;
+            this.processor = processor;
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            try {
+                processor.startProcessing(resultProcessor);
+            } catch (RuntimeException e) {
+                worker.failed();
+                throw e;
+            }
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            try {
+                processor.processTestClass(testClass);
+            } catch (RuntimeException e) {
+                worker.failed();
+                throw e;
+            }
+        }
+
+        @Override
+        public void stop() {
+            processor.stop();
+        }
+    }
+
+    private static class PendingClass implements Comparable<PendingClass> {
+        private final TestClassRunInfo testClass;
+        private final long estimatedDuration;
+        private final int sequence;
+
+        PendingClass(TestClassRunInfo testClass, long estimatedDuration, int sequence) {
+            this.testClass = testClass;
+            this.estimatedDuration = estimatedDuration;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Longest first. Classes with the same duration are ordered by the order in which they were found.
+         */
+        @Override
+        public int compareTo(PendingClass other) {
+            if (estimatedDuration != other.estimatedDuration) {
+                return estimatedDuration > other.estimatedDuration ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : sequence > other.sequence ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the test events of a worker into batches, so that many small tests don't each cost a remote method call. A batch is sent once it holds a
+ * certain number of events or amount of output, once it has been waiting for a short while, when a test fails and when the worker stops. Consecutive
+ * output of a test to the same destination is sent as a single output event.
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    /**
+     * When set, test workers send their test events to the build process in batches.
+     */
+    public static final String BATCH_EVENTS_TOGGLE = "org.gradle.testing.batchEvents";
+    private static final int MAX_EVENTS = 1000;
+    private static final int MAX_OUTPUT_CHARS = 64 * 1024;
+    private static final int FLUSH_DELAY_MS = 100;
+
+    private final RemoteTestResultProcessor processor;
+    private final ScheduledExecutorService executor;
+    private final int maxEvents;
+    private final int maxOutputChars;
+    private final int flushDelayMs;
+    // Protected by lock
+    private final Object lock = new Object();
+    private TestEventBatch batch = new TestEventBatch();
+    private int outputChars;
+    private Object pendingOutputTestId;
+    private TestOutputEvent.Destination pendingOutputDestination;
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private boolean flushScheduled;
+
+    public BatchingTestResultProcessor(RemoteTestResultProcessor processor) {
+        this(processor, Executors.newSingleThreadScheduledExecutor(), MAX_EVENTS, MAX_OUTPUT_CHARS, FLUSH_DELAY_MS);
+    }
+
+    BatchingTestResultProcessor(RemoteTestResultProcessor processor, ScheduledExecutorService executor, int maxEvents, int maxOutputChars, int flushDelayMs) {
+        this.processor = processor;
+        this.executor = executor;
+        this.maxEvents = maxEvents;
+        this.maxOutputChars = maxOutputChars;
+        this.flushDelayMs = flushDelayMs;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        synchronized (lock) {
+            addPendingOutput();
+            batch.started(test, event);
+            added();
+        }
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        synchronized (lock) {
+            addPendingOutput();
+            batch.completed(testId, event);
+            if (event.getResultType() == TestResult.ResultType.FAILURE) {
+                flushNow();
+            } else {
+                added();
+            }
+        }
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        synchronized (lock) {
+            if (pendingOutputTestId != null && (!pendingOutputTestId.equals(testId) || pendingOutputDestination != event.getDestination())) {
+                addPendingOutput();
+            }
+            if (pendingOutputTestId == null) {
+                pendingOutputTestId = testId;
+                pendingOutputDestination = event.getDestination();
+            }
+            pendingOutput.append(event.getMessage());
+            outputChars += event.getMessage().length();
+            if (outputChars >= maxOutputChars) {
+                flushNow();
+            } else {
+                scheduleFlush();
+            }
+        }
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        synchronized (lock) {
+            addPendingOutput();
+            batch.failure(testId, result);
+            flushNow();
+        }
+    }
+
+    /**
+     * Sends any events that have not been sent yet.
+     */
+    public void flush() {
+        synchronized (lock) {
+            flushNow();
+        }
+    }
+
+    @Override
+    public void stop() {
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void addPendingOutput() {
+        if (pendingOutputTestId == null) {
+            return;
+        }
+        batch.output(pendingOutputTestId, new DefaultTestOutputEvent(pendingOutputDestination, pendingOutput.toString()));
+        pendingOutputTestId = null;
+        pendingOutputDestination = null;
+        pendingOutput.setLength(0);
+    }
+
+    private void added() {
+        if (batch.size() >= maxEvents) {
+            flushNow();
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            // A flush will happen soon, which will include this event
+            return;
+        }
+        flushScheduled = true;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, flushDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushNow() {
+        addPendingOutput();
+        flushScheduled = false;
+        if (batch.isEmpty()) {
+            return;
+        }
+        TestEventBatch events = batch;
+        batch = new TestEventBatch();
+        outputChars = 0;
+        processor.process(events);
+    }
+}
@@ -68,7 +68,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
+        boolean batchEvents = Boolean.getBoolean(BatchingTestResultProcessor.BATCH_EVENTS_TOGGLE);
+        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory, batchEvents));
         builder.setBaseName("Gradle Test Executor");
         builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
         builder.applicationClasspath(classPath);
@@ -80,7 +81,11 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        if (batchEvents) {
+            connection.addIncoming(RemoteTestResultProcessor.class, new DispatchingRemoteTestResultProcessor(resultProcessor));
+        } else {
+            connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        }
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -114,4 +119,17 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             workerProcess.waitForStop();
         }
     }
+
+    private static class DispatchingRemoteTestResultProcessor implements RemoteTestResultProcessor {
+        private final TestResultProcessor resultProcessor;
+
+        DispatchingRemoteTestResultProcessor(TestResultProcessor resultProcessor) {
+            this.resultProcessor = resultProcessor;
+        }
+
+        @Override
+        public void process(TestEventBatch batch) {
+            batch.dispatchTo(resultProcessor);
+        }
+    }
 }
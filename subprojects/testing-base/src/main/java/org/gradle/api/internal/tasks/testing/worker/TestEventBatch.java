@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of test events sent from a test worker to the build process in a single message.
+ */
+public class TestEventBatch {
+    enum Type {
+        STARTED, COMPLETED, OUTPUT, FAILURE
+    }
+
+    private final List<Event> events;
+
+    public TestEventBatch() {
+        this(new ArrayList<Event>());
+    }
+
+    TestEventBatch(List<Event> events) {
+        this.events = events;
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        events.add(new Event(Type.STARTED, test, event));
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        events.add(new Event(Type.COMPLETED, testId, event));
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        events.add(new Event(Type.OUTPUT, testId, event));
+    }
+
+    public void failure(Object testId, Throwable failure) {
+        events.add(new Event(Type.FAILURE, testId, failure));
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * Delivers the events of this batch to the given processor, in the order they were added.
+     */
+    public void dispatchTo(TestResultProcessor processor) {
+        for (Event event : events) {
+            switch (event.type) {
+                case STARTED:
+                    processor.started((TestDescriptorInternal) event.target, (TestStartEvent) event.payload);
+                    break;
+                case COMPLETED:
+                    processor.completed(event.target, (TestCompleteEvent) event.payload);
+                    break;
+                case OUTPUT:
+                    processor.output(event.target, (TestOutputEvent) event.payload);
+                    break;
+                case FAILURE:
+                    processor.failure(event.target, (Throwable) event.payload);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected event type " + event.type);
+            }
+        }
+    }
+
+    static class Event {
+        final Type type;
+        // The test descriptor for STARTED events, the test id otherwise
+        final Object target;
+        final Object payload;
+
+        Event(Type type, Object target, Object payload) {
+            this.type = type;
+            this.target = target;
+            this.payload = payload;
+        }
+    }
+}
@@ -22,6 +22,9 @@ import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TestEventSerializer {
     public static SerializerRegistry create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
@@ -37,6 +40,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer(registry));
         return registry;
     }
 
@@ -77,6 +81,80 @@ public class TestEventSerializer {
         }
     }
 
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        private static final TestEventBatch.Type[] TYPES = TestEventBatch.Type.values();
+        private final Serializer<TestDescriptorInternal> descriptorSerializer;
+        private final Serializer<Object> idSerializer;
+        private final Serializer<TestStartEvent> startEventSerializer;
+        private final Serializer<TestCompleteEvent> completeEventSerializer;
+        private final Serializer<TestOutputEvent> outputEventSerializer;
+        private final Serializer<Throwable> failureSerializer;
+
+        TestEventBatchSerializer(SerializerRegistry registry) {
+            descriptorSerializer = registry.build(TestDescriptorInternal.class);
+            idSerializer = registry.build(Object.class);
+            startEventSerializer = registry.build(TestStartEvent.class);
+            completeEventSerializer = registry.build(TestCompleteEvent.class);
+            outputEventSerializer = registry.build(TestOutputEvent.class);
+            failureSerializer = registry.build(Throwable.class);
+        }
+
+        @Override
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<TestEventBatch.Event> events = new ArrayList<TestEventBatch.Event>(count);
+            for (int i = 0; i < count; i++) {
+                TestEventBatch.Type type = TYPES[decoder.readSmallInt()];
+                switch (type) {
+                    case STARTED:
+                        events.add(new TestEventBatch.Event(type, descriptorSerializer.read(decoder), startEventSerializer.read(decoder)));
+                        break;
+                    case COMPLETED:
+                        events.add(new TestEventBatch.Event(type, idSerializer.read(decoder), completeEventSerializer.read(decoder)));
+                        break;
+                    case OUTPUT:
+                        events.add(new TestEventBatch.Event(type, idSerializer.read(decoder), outputEventSerializer.read(decoder)));
+                        break;
+                    case FAILURE:
+                        events.add(new TestEventBatch.Event(type, idSerializer.read(decoder), failureSerializer.read(decoder)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected event type " + type);
+                }
+            }
+            return new TestEventBatch(events);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            List<TestEventBatch.Event> events = value.getEvents();
+            encoder.writeSmallInt(events.size());
+            for (TestEventBatch.Event event : events) {
+                encoder.writeSmallInt(event.type.ordinal());
+                switch (event.type) {
+                    case STARTED:
+                        descriptorSerializer.write(encoder, (TestDescriptorInternal) event.target);
+                        startEventSerializer.write(encoder, (TestStartEvent) event.payload);
+                        break;
+                    case COMPLETED:
+                        idSerializer.write(encoder, event.target);
+                        completeEventSerializer.write(encoder, (TestCompleteEvent) event.payload);
+                        break;
+                    case OUTPUT:
+                        idSerializer.write(encoder, event.target);
+                        outputEventSerializer.write(encoder, (TestOutputEvent) event.payload);
+                        break;
+                    case FAILURE:
+                        idSerializer.write(encoder, event.target);
+                        failureSerializer.write(encoder, (Throwable) event.payload);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unexpected event type " + event.type);
+                }
+            }
+        }
+    }
+
     private static class DefaultTestClassRunInfoSerializer implements Serializer<DefaultTestClassRunInfo> {
         @Override
         public DefaultTestClassRunInfo read(Decoder decoder) throws Exception {
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.internal.Factory
+import org.gradle.internal.TrueTimeProvider
+import org.gradle.internal.actor.Actor
+import org.gradle.internal.actor.ActorFactory
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+
+class BalancedParallelTestClassProcessorTest extends Specification {
+    @Rule SetSystemProperties systemProperties
+    private final Factory<TestClassProcessor> factory = Mock()
+    private final TestResultProcessor resultProcessor = Mock()
+    private final ActorFactory actorFactory = Stub() {
+        createActor(_) >> { Object target -> actorFor(target) }
+    }
+    private final Map<String, Long> durations = [A: 10L, B: 30L, C: 20L]
+
+    def doesNothingWhenNoTestsProcessed() {
+        def processor = processor(2)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        processor.stop()
+
+        then:
+        0 * factory.create()
+    }
+
+    def "starts processors as classes arrive"() {
+        def processor = processor(2)
+        def worker1 = new FakeProcessor(completeClasses: false)
+        def worker2 = new FakeProcessor(completeClasses: false)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        processor.processTestClass(testClass("A"))
+
+        then:
+        1 * factory.create() >> worker1
+        worker1.classes == ["A"]
+
+        when:
+        processor.processTestClass(testClass("B"))
+
+        then:
+        1 * factory.create() >> worker2
+        worker2.classes == ["B"]
+
+        when:
+        processor.processTestClass(testClass("C"))
+
+        then:
+        0 * factory.create()
+        worker1.classes == ["A"]
+        worker2.classes == ["B"]
+    }
+
+    def "hands out waiting classes longest first as processors complete their class"() {
+        def processor = processor(1)
+        def worker = new FakeProcessor(completeClasses: false)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "C", "D", "B"].each { processor.processTestClass(testClass(it)) }
+
+        then:
+        1 * factory.create() >> worker
+        worker.classes == ["A"]
+
+        when:
+        3.times { worker.completeCurrentClass() }
+        processor.stop()
+
+        then:
+        worker.classes == ["A", "B", "C", "D"]
+        worker.stopped
+    }
+
+    def "reuses a processor once it has completed its class"() {
+        def processor = processor(2)
+        def worker = new FakeProcessor(completeClasses: true)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "B", "C", "D"].each { processor.processTestClass(testClass(it)) }
+        processor.stop()
+
+        then:
+        1 * factory.create() >> worker
+        worker.classes == ["A", "B", "C", "D"]
+        worker.stopped
+    }
+
+    def "does not treat completion of a test method as completion of its class"() {
+        def processor = processor(1)
+        def worker = new FakeProcessor(completeClasses: false)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "B"].each { processor.processTestClass(testClass(it)) }
+
+        then:
+        1 * factory.create() >> worker
+        worker.classes == ["A"]
+        1 * resultProcessor.completed(_, _)
+    }
+
+    def "assigns waiting classes up front when no events are received for the stall timeout"() {
+        def processor = processor(2)
+        def worker1 = new FakeProcessor(completeClasses: false)
+        def worker2 = new FakeProcessor(completeClasses: false)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "B", "C", "D", "E"].each { processor.processTestClass(testClass(it)) }
+        processor.stop()
+
+        then:
+        2 * factory.create() >>> [worker1, worker2]
+        worker1.classes == ["A", "C", "E"]
+        worker2.classes == ["B", "D"]
+        worker1.stopped
+        worker2.stopped
+    }
+
+    def "stops handing classes to a processor that fails to accept one"() {
+        def processor = processor(2, 3600000)
+        def failure = new RuntimeException("broken")
+        def worker1 = new FakeProcessor(completeClasses: true, failure: failure)
+        def worker2 = new FakeProcessor(completeClasses: true)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "B", "C", "D"].each { processor.processTestClass(testClass(it)) }
+
+        then:
+        2 * factory.create() >>> [worker1, worker2]
+        worker1.classes == ["A"]
+        worker2.classes == ["B", "C", "D"]
+
+        when:
+        processor.stop()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        worker2.stopped
+    }
+
+    def "does not wait for the stall timeout when all processors have failed"() {
+        def processor = processor(1, 3600000)
+        def failure = new RuntimeException("broken")
+        def worker = new FakeProcessor(completeClasses: true, failure: failure)
+        processor.startProcessing(resultProcessor)
+
+        when:
+        ["A", "B", "C"].each { processor.processTestClass(testClass(it)) }
+        processor.stop()
+
+        then:
+        1 * factory.create() >> worker
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        worker.classes == ["A"]
+    }
+
+    def "stall timeout can be configured using a system property"() {
+        when:
+        def processor = new BalancedParallelTestClassProcessor(2, factory, actorFactory, durations, new TrueTimeProvider())
+
+        then:
+        processor.stallTimeout == BalancedParallelTestClassProcessor.DEFAULT_STALL_TIMEOUT
+
+        when:
+        System.setProperty(BalancedParallelTestClassProcessor.STALL_TIMEOUT_PROPERTY, "1234")
+        processor = new BalancedParallelTestClassProcessor(2, factory, actorFactory, durations, new TrueTimeProvider())
+
+        then:
+        processor.stallTimeout == 1234
+    }
+
+    private BalancedParallelTestClassProcessor processor(int maxProcessors, long stallTimeout = 100) {
+        return new BalancedParallelTestClassProcessor(maxProcessors, factory, actorFactory, durations, new TrueTimeProvider(), stallTimeout)
+    }
+
+    private static TestClassRunInfo testClass(String name) {
+        return new DefaultTestClassRunInfo(name)
+    }
+
+    /**
+     * Dispatches synchronously, and like a real actor, collects the failures and rethrows them when stopped.
+     */
+    private Actor actorFor(Object target) {
+        List<Throwable> failures = []
+        Actor actor = Stub()
+        actor.getProxy(_) >> { Class type ->
+            Proxy.newProxyInstance(type.classLoader, [type] as Class[], { proxy, Method method, Object[] args ->
+                try {
+                    method.invoke(target, args)
+                } catch (InvocationTargetException e) {
+                    failures << e.cause
+                }
+                return null
+            } as InvocationHandler)
+        }
+        actor.stop() >> {
+            if (!failures.empty) {
+                throw failures[0]
+            }
+        }
+        return actor
+    }
+
+    /**
+     * Executes each class synchronously, reporting a test class and a test method. The class is only reported as
+     * completed when requested.
+     */
+    static class FakeProcessor implements TestClassProcessor {
+        boolean completeClasses
+        RuntimeException failure
+        boolean stopped
+        List<String> classes = []
+        TestResultProcessor results
+        String currentClass
+
+        @Override
+        void startProcessing(TestResultProcessor resultProcessor) {
+            results = resultProcessor
+        }
+
+        @Override
+        void processTestClass(TestClassRunInfo testClass) {
+            def name = testClass.testClassName
+            classes << name
+            if (failure) {
+                throw failure
+            }
+            currentClass = name
+            results.started(new DefaultTestClassDescriptor(name, name), new TestStartEvent(0))
+            results.started(new DefaultTestMethodDescriptor("${name}.test", name, "test"), new TestStartEvent(0, name))
+            results.completed("${name}.test", new TestCompleteEvent(0))
+            if (completeClasses) {
+                completeCurrentClass()
+            }
+        }
+
+        void completeCurrentClass() {
+            def name = currentClass
+            currentClass = null
+            results.completed(name, new TestCompleteEvent(0))
+        }
+
+        @Override
+        void stop() {
+            stopped = true
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.util.MockExecutor
+import spock.lang.Specification
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class BatchingTestResultProcessorTest extends Specification {
+    def remote = Mock(RemoteTestResultProcessor)
+    def target = Mock(TestResultProcessor)
+    def executor = new MockExecutor()
+    def processor = new BatchingTestResultProcessor(remote, executor, 3, 10, 100)
+    def test = new DefaultTestDescriptor("id", "some-class", "some-test")
+
+    def "sends events when scheduled flush runs"() {
+        when:
+        processor.started(test, new TestStartEvent(123L))
+        processor.completed("id", new TestCompleteEvent(456L, TestResult.ResultType.SUCCESS))
+
+        then:
+        0 * remote._
+
+        when:
+        executor.runNow()
+
+        then:
+        1 * remote.process({ it.size() == 2 }) >> { TestEventBatch batch -> batch.dispatchTo(target) }
+        1 * target.started(test, { it.startTime == 123L })
+        1 * target.completed("id", { it.endTime == 456L })
+        0 * _
+    }
+
+    def "sends events when batch is full"() {
+        when:
+        processor.started(test, new TestStartEvent(1L))
+        processor.started(test, new TestStartEvent(2L))
+        processor.started(test, new TestStartEvent(3L))
+
+        then:
+        1 * remote.process({ it.size() == 3 })
+        0 * remote._
+    }
+
+    def "sends events when output exceeds limit"() {
+        when:
+        processor.output("id", output(StdOut, "0123456789ab"))
+
+        then:
+        1 * remote.process({ it.size() == 1 })
+        0 * remote._
+    }
+
+    def "merges consecutive output of a test to the same destination"() {
+        when:
+        processor.output("id", output(StdOut, "a"))
+        processor.output("id", output(StdOut, "b"))
+        processor.output("id", output(StdErr, "c"))
+        processor.output("other", output(StdErr, "d"))
+        processor.output("other", output(StdErr, "e"))
+        processor.flush()
+
+        then:
+        1 * remote.process(_) >> { TestEventBatch batch -> batch.dispatchTo(target) }
+
+        then:
+        1 * target.output("id", output(StdOut, "ab"))
+
+        then:
+        1 * target.output("id", output(StdErr, "c"))
+
+        then:
+        1 * target.output("other", output(StdErr, "de"))
+        0 * _
+    }
+
+    def "sends events immediately when a test fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        processor.started(test, new TestStartEvent(1L))
+        processor.failure("id", failure)
+
+        then:
+        1 * remote.process({ it.size() == 2 })
+
+        when:
+        processor.output("id", output(StdOut, "a"))
+        processor.completed("id", new TestCompleteEvent(2L, TestResult.ResultType.FAILURE))
+
+        then:
+        1 * remote.process({ it.size() == 2 })
+        0 * remote._
+    }
+
+    def "sends remaining events on stop"() {
+        when:
+        processor.output("id", output(StdOut, "a"))
+        processor.stop()
+
+        then:
+        1 * remote.process({ it.size() == 1 })
+        0 * remote._
+    }
+
+    def "does not send empty batch"() {
+        when:
+        processor.flush()
+        executor.runNow()
+        processor.stop()
+
+        then:
+        0 * remote._
+    }
+
+    private static TestOutputEvent output(TestOutputEvent.Destination destination, String message) {
+        return new DefaultTestOutputEvent(destination, message)
+    }
+}
@@ -175,6 +175,37 @@ class TestEventSerializerTest extends SerializerSpec {
         result.cause.message == "cause"
     }
 
+    def "serializes TestEventBatch"() {
+        def id = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def batch = new TestEventBatch()
+        batch.started(new DefaultTestDescriptor(id, "some-class", "some-test"), new TestStartEvent(123L))
+        batch.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+        batch.failure(id, new RuntimeException("broken"))
+        batch.completed(id, new TestCompleteEvent(456L, TestResult.ResultType.FAILURE))
+        def processor = Mock(TestResultProcessor)
+
+        when:
+        def result = serialize(batch)
+        result.dispatchTo(processor)
+
+        then:
+        result instanceof TestEventBatch
+        result.size() == 4
+
+        then:
+        1 * processor.started({ it.id == id && it.name == "some-test" }, { it.startTime == 123L })
+
+        then:
+        1 * processor.output(id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "hi"))
+
+        then:
+        1 * processor.failure(id, { it.message == "broken" })
+
+        then:
+        1 * processor.completed(id, { it.endTime == 456L && it.resultType == TestResult.ResultType.FAILURE })
+        0 * processor._
+    }
+
     def Object serialize(Object source, Class type = source.getClass()) {
         return super.serialize(source, serializer.build(type))
     }